@@ -2,6 +2,7 @@ package com.mymicroservice.userservice.advice;
 
 import com.mymicroservice.userservice.annotation.GlobalExceptionHandler;
 import com.mymicroservice.userservice.exception.CardInfoNotFoundException;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.util.ErrorItem;
 import io.jsonwebtoken.JwtException;
@@ -157,4 +158,21 @@ public class GlobalAdvice {
         ErrorItem error = ErrorItem.generateMessage(e, HttpStatus.NOT_FOUND);
         return ResponseEntity.status(error.getStatusCode()).body(error);
     }
+
+    /**
+     * Handles malformed or foreign continuation tokens of cursor pagination.
+     *
+     * @param e InvalidCursorException
+     * @return ResponseEntity with an ErrorItem object containing:
+     *         - Error message
+     *         - URL
+     *         - Status code
+     *         - Timestamp
+     *         - HTTP 400 status (BAD_REQUEST)
+     */
+    @ExceptionHandler({InvalidCursorException.class})
+    public ResponseEntity<ErrorItem> handleInvalidCursorException(InvalidCursorException e) {
+        ErrorItem error = ErrorItem.generateMessage(e, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(error.getStatusCode()).body(error);
+    }
 }
\ No newline at end of file
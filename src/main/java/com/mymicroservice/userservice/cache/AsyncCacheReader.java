@@ -0,0 +1,81 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking cache reads for composite operations: each read is a {@link CompletableFuture}, so
+ * the reads of, say, a user and their cards go to L1/Redis at the same time and are combined when both
+ * have completed, instead of holding the request thread for one Redis round trip after the other.
+ *
+ * <p>A hit costs no thread at all: L1 answers at once and a Redis read completes on the thread of the
+ * Redis client ({@link Cache#retrieve(Object)}, Lettuce's asynchronous API). Only a miss runs the loader,
+ * typically the {@code @Cacheable} service method, which reads the database and fills the cache as usual;
+ * it runs on a small pool of {@code cache.async.loader-threads}, since JDBC blocks. A failed or unsupported
+ * asynchronous read falls back to the loader as well.
+ *
+ * <p>Callers must not block in the stages they add to the returned futures, which may run on the Redis
+ * client's threads.
+ */
+@Slf4j
+@Component
+public class AsyncCacheReader implements DisposableBean {
+
+    private final CacheManager cacheManager;
+    private final ExecutorService loaderExecutor;
+
+    public AsyncCacheReader(CacheManager cacheManager, CacheProperties cacheProperties) {
+        this.cacheManager = cacheManager;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-async-loader-");
+        threadFactory.setDaemon(true);
+        this.loaderExecutor = Executors.newFixedThreadPool(cacheProperties.getAsync().getLoaderThreads(), threadFactory);
+    }
+
+    /**
+     * @param loader loads and caches the value on a miss; its exceptions complete the future exceptionally
+     * @return the cached or loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(String cacheName, Object key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return load(loader);
+        }
+        CompletableFuture<?> cached;
+        try {
+            cached = cache.retrieve(key);
+        } catch (UnsupportedOperationException e) {
+            return load(loader);
+        }
+        if (cached == null) {
+            return load(loader);
+        }
+        return cached.handle((value, error) -> {
+            if (error != null) {
+                log.debug("Asynchronous read of cache '{}' failed, loading key '{}': {}", cacheName, key, error.getMessage());
+                return load(loader);
+            }
+            Object cachedValue = value instanceof Cache.ValueWrapper wrapper ? wrapper.get() : value;
+            return cachedValue != null ? CompletableFuture.completedFuture((T) cachedValue) : load(loader);
+        }).thenCompose(future -> future);
+    }
+
+    @Override
+    public void destroy() {
+        loaderExecutor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> load(Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(loader, loaderExecutor);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache-aside lookup of many keys at once.
+ *
+ * <p>The keys are looked up in the cache in one batch ({@link MultiKeyCache#getAll}); only the
+ * missing ones are passed to the loader, and what it returns is written back in one batch
+ * ({@link MultiKeyCache#putAllIfAbsent}). Caches without batch support are served key by key.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchCacheLoader {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * @param loader loads the values of the missing keys; keys that don't exist are simply absent from its result
+     * @param keyOf extracts the cache key from a loaded value
+     * @return the values of the existing keys, in the iteration order of {@code keys}
+     */
+    public <K, V> List<V> getAll(String cacheName, Collection<K> keys,
+                                 Function<Set<K>, List<V>> loader, Function<V, K> keyOf) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<Object, Object> cached = cache instanceof MultiKeyCache multiKeyCache
+                ? multiKeyCache.getAll(keys)
+                : getOneByOne(cache, keys);
+
+        Set<K> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(cached.keySet());
+        log.debug("Batch lookup in '{}': {} keys, {} cached", cacheName, keys.size(), keys.size() - missing.size());
+
+        Map<Object, Object> values = new HashMap<>(cached);
+        if (!missing.isEmpty()) {
+            Map<Object, Object> loaded = new HashMap<>();
+            for (V value : loader.apply(missing)) {
+                loaded.put(keyOf.apply(value), value);
+            }
+            if (cache instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.putAllIfAbsent(loaded);
+            } else {
+                loaded.forEach(cache::putIfAbsent);
+            }
+            values.putAll(loaded);
+        }
+
+        List<V> result = new ArrayList<>(values.size());
+        for (K key : keys) {
+            @SuppressWarnings("unchecked")
+            V value = (V) values.get(key);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static Map<Object, Object> getOneByOne(Cache cache, Collection<?> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                values.put(key, wrapper.get());
+            }
+        }
+        return values;
+    }
+}
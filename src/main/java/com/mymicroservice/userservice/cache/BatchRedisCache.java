@@ -0,0 +1,128 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link RedisCache} with the {@link MultiKeyCache} batch operations: a lookup of many keys
+ * is a single {@code MGET}, filling or writing many keys is one pipeline of {@code SET [NX] PX},
+ * and evicting many keys is a single {@code DEL}.
+ *
+ * <p>Keys, values and TTLs are produced exactly like for the single-key operations,
+ * so entries written by either path are interchangeable.
+ */
+public class BatchRedisCache extends RedisCache implements MultiKeyCache {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    protected BatchRedisCache(String name,
+                              RedisCacheWriter cacheWriter,
+                              RedisCacheConfiguration cacheConfiguration,
+                              RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> orderedKeys = new ArrayList<>(keys);
+        byte[][] redisKeys = orderedKeys.stream()
+                .map(key -> serializeCacheKey(createCacheKey(key)))
+                .toArray(byte[][]::new);
+
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(redisKeys);
+        }
+
+        Map<Object, Object> result = new HashMap<>();
+        for (int i = 0; values != null && i < values.size(); i++) {
+            byte[] bytes = values.get(i);
+            if (bytes != null) {
+                Object value = fromStoreValue(deserializeCacheValue(bytes));
+                if (value != null) {
+                    result.put(orderedKeys.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Object> putAllIfAbsent(Map<?, ?> entries) {
+        List<Object> keys = new ArrayList<>(entries.size());
+        List<Object> results = pipelineSet(entries, RedisStringCommands.SetOption.ifAbsent(), keys);
+
+        Set<Object> stored = new HashSet<>();
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                stored.add(keys.get(i));
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        pipelineSet(entries, RedisStringCommands.SetOption.upsert(), new ArrayList<>(entries.size()));
+    }
+
+    /**
+     * Sends a {@code SET} of every non-null entry in one pipeline.
+     *
+     * @param keys receives the keys in the order of the returned results
+     * @return the result of each {@code SET}
+     */
+    private List<Object> pipelineSet(Map<?, ?> entries, RedisStringCommands.SetOption option, List<Object> keys) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        RedisCacheWriter.TtlFunction ttlFunction = getCacheConfiguration().getTtlFunction();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            entries.forEach((key, value) -> {
+                if (value == null) {
+                    return; // null values are not cached
+                }
+                Duration ttl = ttlFunction.getTimeToLive(key, value);
+                connection.stringCommands().set(
+                        serializeCacheKey(createCacheKey(key)),
+                        serializeCacheValue(toStoreValue(value)),
+                        ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                        option);
+                keys.add(key);
+            });
+            return connection.closePipeline();
+        }
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        byte[][] redisKeys = keys.stream()
+                .map(key -> serializeCacheKey(createCacheKey(key)))
+                .toArray(byte[][]::new);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(redisKeys);
+        }
+    }
+}
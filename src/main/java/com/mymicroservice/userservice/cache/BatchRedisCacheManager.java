@@ -0,0 +1,121 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link RedisCacheManager} whose caches are {@link BatchRedisCache}s.
+ *
+ * <p>Each cache is configured from its {@link CachePolicy}: the TTL and the value format are looked up
+ * in the {@link CachePolicyRegistry} on every write, so runtime changes apply to the next write;
+ * whether {@code null} values are cached and the {@link HashBucketRedisCache hash bucket layout} are fixed
+ * when the cache is created.
+ *
+ * <p>The caches named by {@link RedisShards} are {@link ShardedRedisCache}s, spread over its nodes.
+ *
+ * <p>Every cache is handed out through {@code cacheDecorator}, e.g. to wrap it in a {@link CircuitBreakingCache}.
+ *
+ * <p>{@link Cache#clear()} finds the keys of a cache with {@code SCAN} in batches of {@value #CLEAR_BATCH_SIZE},
+ * each deleted with one {@code DEL}, rather than with one {@code KEYS} that blocks Redis for the whole keyspace.
+ */
+public class BatchRedisCacheManager extends RedisCacheManager {
+
+    static final int CLEAR_BATCH_SIZE = 1000;
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CachePolicyRegistry policyRegistry;
+    private final Function<String, RedisSerializer<Object>> valueSerializers;
+    private final UnaryOperator<Cache> cacheDecorator;
+    @Nullable
+    private final RedisShards shards;
+
+    /**
+     * @param valueSerializers creates the value serializer of the cache with the given name
+     * @param cacheDecorator wraps each cache before it is handed out
+     * @param shards nodes of the sharded caches, {@code null} if no cache is sharded
+     */
+    public BatchRedisCacheManager(RedisConnectionFactory connectionFactory,
+                                  RedisCacheConfiguration defaultCacheConfiguration,
+                                  CachePolicyRegistry policyRegistry,
+                                  Function<String, RedisSerializer<Object>> valueSerializers,
+                                  UnaryOperator<Cache> cacheDecorator,
+                                  @Nullable RedisShards shards) {
+        super(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, clearBatchStrategy()), defaultCacheConfiguration);
+        this.connectionFactory = connectionFactory;
+        this.policyRegistry = policyRegistry;
+        this.valueSerializers = valueSerializers;
+        this.cacheDecorator = cacheDecorator;
+        this.shards = shards;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        return cacheDecorator.apply(super.decorateCache(cache));
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        RedisCacheConfiguration configuration = cacheConfiguration
+                .entryTtl((key, value) -> policyRegistry.get(name).expiry().getTimeToLive(key, value))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializers.apply(name)));
+        if (!policyRegistry.get(name).cacheNulls()) {
+            configuration = configuration.disableCachingNullValues();
+        }
+        CachePolicy policy = policyRegistry.get(name);
+        if (shards != null && shards.isSharded(name)) {
+            return createShardedCache(name, configuration, policy);
+        }
+        return createBatchCache(name, layoutWriter(name, getCacheWriter(), connectionFactory, policy),
+                configuration, connectionFactory);
+    }
+
+    private ShardedRedisCache createShardedCache(String name, RedisCacheConfiguration configuration, CachePolicy policy) {
+        Map<String, RedisCacheWriter> writers = new LinkedHashMap<>();
+        Map<String, BatchRedisCache> caches = new LinkedHashMap<>();
+        shards.getConnectionFactories().forEach((node, nodeConnectionFactory) -> {
+            RedisCacheWriter writer = layoutWriter(name,
+                    RedisCacheWriter.nonLockingRedisCacheWriter(nodeConnectionFactory, clearBatchStrategy()),
+                    nodeConnectionFactory, policy);
+            writers.put(node, writer);
+            caches.put(node, createBatchCache(name, writer, configuration, nodeConnectionFactory));
+        });
+        return new ShardedRedisCache(name, new ShardedCacheWriter(writers, shards.getVirtualNodes()), configuration,
+                new ConsistentHashRing<>(caches, shards.getVirtualNodes()), shards.getExecutor());
+    }
+
+    private static BatchStrategy clearBatchStrategy() {
+        return BatchStrategies.scan(CLEAR_BATCH_SIZE);
+    }
+
+    private static RedisCacheWriter layoutWriter(String name,
+                                                 RedisCacheWriter cacheWriter,
+                                                 RedisConnectionFactory connectionFactory,
+                                                 CachePolicy policy) {
+        return policy.isHashBucketed()
+                ? new HashBucketCacheWriter(cacheWriter, connectionFactory, name, policy.hashBucketSize())
+                : cacheWriter;
+    }
+
+    private static BatchRedisCache createBatchCache(String name,
+                                                    RedisCacheWriter cacheWriter,
+                                                    RedisCacheConfiguration configuration,
+                                                    RedisConnectionFactory connectionFactory) {
+        return cacheWriter instanceof HashBucketCacheWriter bucketWriter
+                ? new HashBucketRedisCache(name, bucketWriter, configuration, connectionFactory)
+                : new BatchRedisCache(name, cacheWriter, configuration, connectionFactory);
+    }
+}
@@ -0,0 +1,362 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.model.Role;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary format for cache values.
+ *
+ * <p>Layout: {@code MAGIC, header, payload}. The header holds the format version and a flag
+ * telling whether the payload is an LZ4 block (preceded by its uncompressed length). The payload
+ * starts with a type tag followed by the fields of that type; nullable fields are announced by
+ * a presence bitmask, numbers are zig-zag varints and strings are length-prefixed UTF-8.
+ * Types without a schema of their own are embedded as the JSON of the {@code fallback} serializer.
+ *
+ * <p>Values that don't start with {@link #MAGIC} are handed to the {@code fallback} serializer,
+ * so entries written as JSON before the switch stay readable until they expire.
+ *
+ * <p>Like the JSON format, the password of a {@link UserDto} is not stored.
+ */
+public class BinaryCacheValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * First byte of every binary value; no JSON document starts with it.
+     */
+    static final byte MAGIC = (byte) 0xB7;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int COMPRESSED = 0x80;
+    /** LZ4 expands a block at most about 255 times, so a larger declared length means a corrupted value. */
+    private static final int MAX_COMPRESSION_RATIO = 255;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_USER = 4;
+    private static final byte TAG_CARD_INFO = 5;
+    private static final byte TAG_LIST = 6;
+    private static final byte TAG_JSON = 0x7F;
+
+    private static final Role[] ROLES = Role.values();
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    /**
+     * @param fallback serializer for values without a binary schema and for values written before the switch
+     * @param compressionThreshold payload size in bytes from which LZ4 is tried; a negative value disables compression
+     */
+    public BinaryCacheValueSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.safeDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Output payload = new Output(64);
+        writeValue(payload, value);
+
+        if (compressionThreshold >= 0 && payload.size >= compressionThreshold) {
+            byte[] compressed = compress(payload);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        Output out = new Output(payload.size + 2);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeBytes(payload.buffer, 0, payload.size);
+        return out.toByteArray();
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        int header = bytes.length < 2 ? -1 : bytes[1] & 0xFF;
+        if ((header & ~COMPRESSED) != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported binary cache format: " + header);
+        }
+        Input in = new Input(bytes, 2);
+        if ((header & COMPRESSED) != 0) {
+            long declared = in.readVarLong();
+            long maximum = Math.min((long) (bytes.length - in.position) * MAX_COMPRESSION_RATIO, Integer.MAX_VALUE - 8);
+            if (declared < 0 || declared > maximum) {
+                throw new SerializationException("Corrupted compressed cache value");
+            }
+            int length = (int) declared;
+            byte[] payload = new byte[length];
+            try {
+                if (decompressor.decompress(bytes, in.position, bytes.length - in.position, payload, 0, length) != length) {
+                    throw new SerializationException("Corrupted compressed cache value");
+                }
+            } catch (LZ4Exception e) {
+                throw new SerializationException("Corrupted compressed cache value", e);
+            }
+            in = new Input(payload, 0);
+        }
+        return readValue(in);
+    }
+
+    @Nullable
+    private byte[] compress(Output payload) {
+        byte[] block = new byte[compressor.maxCompressedLength(payload.size)];
+        int blockLength = compressor.compress(payload.buffer, 0, payload.size, block, 0, block.length);
+        Output out = new Output(blockLength + 7);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION | COMPRESSED);
+        out.writeVarLong(payload.size);
+        out.writeBytes(block, 0, blockLength);
+        return out.size < payload.size + 2 ? out.toByteArray() : null;
+    }
+
+    private void writeValue(Output out, @Nullable Object value) {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof UserDto user) {
+            out.writeByte(TAG_USER);
+            writeUser(out, user);
+        } else if (value instanceof CardInfoDto cardInfo) {
+            out.writeByte(TAG_CARD_INFO);
+            writeCardInfo(out, cardInfo);
+        } else if (value instanceof String string) {
+            out.writeByte(TAG_STRING);
+            out.writeString(string);
+        } else if (value instanceof Long number) {
+            out.writeByte(TAG_LONG);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Integer number) {
+            out.writeByte(TAG_INTEGER);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            byte[] json = fallback.serialize(value);
+            out.writeByte(TAG_JSON);
+            out.writeVarLong(json.length);
+            out.writeBytes(json, 0, json.length);
+        }
+    }
+
+    @Nullable
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_USER -> readUser(in);
+            case TAG_CARD_INFO -> readCardInfo(in);
+            case TAG_STRING -> in.readString();
+            case TAG_LONG -> Long.valueOf(unZigZag(in.readVarLong()));
+            case TAG_INTEGER -> Integer.valueOf((int) unZigZag(in.readVarLong()));
+            case TAG_LIST -> {
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            case TAG_JSON -> fallback.deserialize(in.readBytes((int) in.readVarLong()));
+            default -> throw new SerializationException("Unknown cache value type tag: " + tag);
+        };
+    }
+
+    private static void writeUser(Output out, UserDto user) {
+        int mask = presence(user.getUserId(), user.getName(), user.getSurname(),
+                user.getBirthDate(), user.getEmail(), user.getRole());
+        out.writeByte(mask);
+        if (user.getUserId() != null) out.writeVarLong(zigZag(user.getUserId()));
+        if (user.getName() != null) out.writeString(user.getName());
+        if (user.getSurname() != null) out.writeString(user.getSurname());
+        if (user.getBirthDate() != null) out.writeVarLong(zigZag(user.getBirthDate().toEpochDay()));
+        if (user.getEmail() != null) out.writeString(user.getEmail());
+        if (user.getRole() != null) out.writeVarLong(user.getRole().ordinal());
+    }
+
+    private static UserDto readUser(Input in) {
+        int mask = in.readByte();
+        UserDto user = new UserDto();
+        if ((mask & 1) != 0) user.setUserId(unZigZag(in.readVarLong()));
+        if ((mask & 1 << 1) != 0) user.setName(in.readString());
+        if ((mask & 1 << 2) != 0) user.setSurname(in.readString());
+        if ((mask & 1 << 3) != 0) user.setBirthDate(LocalDate.ofEpochDay(unZigZag(in.readVarLong())));
+        if ((mask & 1 << 4) != 0) user.setEmail(in.readString());
+        if ((mask & 1 << 5) != 0) user.setRole(readRole(in));
+        return user;
+    }
+
+    private static Role readRole(Input in) {
+        long ordinal = in.readVarLong();
+        if (ordinal >= ROLES.length) {
+            throw new SerializationException("Unknown role ordinal in cache value: " + ordinal);
+        }
+        return ROLES[(int) ordinal];
+    }
+
+    private static void writeCardInfo(Output out, CardInfoDto cardInfo) {
+        int mask = presence(cardInfo.getCardId(), cardInfo.getNumber(), cardInfo.getHolder(),
+                cardInfo.getExpirationDate(), cardInfo.getUserId());
+        out.writeByte(mask);
+        if (cardInfo.getCardId() != null) out.writeVarLong(zigZag(cardInfo.getCardId()));
+        if (cardInfo.getNumber() != null) out.writeString(cardInfo.getNumber());
+        if (cardInfo.getHolder() != null) out.writeString(cardInfo.getHolder());
+        if (cardInfo.getExpirationDate() != null) out.writeVarLong(zigZag(cardInfo.getExpirationDate().toEpochDay()));
+        if (cardInfo.getUserId() != null) out.writeVarLong(zigZag(cardInfo.getUserId()));
+    }
+
+    private static CardInfoDto readCardInfo(Input in) {
+        int mask = in.readByte();
+        CardInfoDto cardInfo = new CardInfoDto();
+        if ((mask & 1) != 0) cardInfo.setCardId(unZigZag(in.readVarLong()));
+        if ((mask & 1 << 1) != 0) cardInfo.setNumber(in.readString());
+        if ((mask & 1 << 2) != 0) cardInfo.setHolder(in.readString());
+        if ((mask & 1 << 3) != 0) cardInfo.setExpirationDate(LocalDate.ofEpochDay(unZigZag(in.readVarLong())));
+        if ((mask & 1 << 4) != 0) cardInfo.setUserId(unZigZag(in.readVarLong()));
+        return cardInfo;
+    }
+
+    private static int presence(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            checkAvailable(1);
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in cache value");
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            checkAvailable(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] readBytes(int length) {
+            checkAvailable(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("Truncated cache value");
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mymicroservice.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.Collection;
+
+/**
+ * Rough estimate of the heap footprint of an L1 entry in bytes.
+ *
+ * <p>It does not try to be exact: strings are counted as 2 bytes per char plus the
+ * object header, collections as the sum of their elements, and any other value
+ * (the cached DTOs) through the length of its {@code toString()}, which for Lombok
+ * {@code @Data} classes lists every field.
+ */
+public class CacheEntryWeigher implements Weigher<String, Object> {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int STRING_OVERHEAD = 40;
+
+    @Override
+    public int weigh(String key, Object value) {
+        long weight = estimate(key) + estimate(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence chars) {
+            return STRING_OVERHEAD + 2L * chars.length();
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = OBJECT_OVERHEAD;
+            for (Object element : collection) {
+                weight += estimate(element);
+            }
+            return weight;
+        }
+        return OBJECT_OVERHEAD + 2L * String.valueOf(value).length();
+    }
+}
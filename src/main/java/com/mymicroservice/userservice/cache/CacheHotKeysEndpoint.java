@@ -0,0 +1,61 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cachehotkeys[/{name}]}: the most read keys of every two-level cache, as estimated
+ * by its {@link HotKeyTracker}. Counts are per instance and decay over time, so they show the
+ * current traffic rather than totals.
+ *
+ * <p>Keys of the caches listed in {@code cache.hot-keys.masked-cache-names} (emails, card numbers)
+ * are reported with all but the last four characters masked.
+ */
+@Component
+@Endpoint(id = "cachehotkeys")
+@RequiredArgsConstructor
+public class CacheHotKeysEndpoint {
+
+    private static final int VISIBLE_CHARACTERS = 4;
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheProperties properties;
+
+    @ReadOperation
+    public Map<String, List<HotKeyTracker.HotKey>> hotKeys() {
+        Map<String, List<HotKeyTracker.HotKey>> hotKeys = new TreeMap<>();
+        cacheManager.getTwoLevelCaches().forEach(cache -> hotKeys.put(cache.getName(), hotKeysOf(cache)));
+        return hotKeys;
+    }
+
+    @ReadOperation
+    @Nullable
+    public List<HotKeyTracker.HotKey> hotKeys(@Selector String name) {
+        TwoLevelCache cache = cacheManager.getTwoLevelCache(name);
+        return cache != null ? hotKeysOf(cache) : null;
+    }
+
+    private List<HotKeyTracker.HotKey> hotKeysOf(TwoLevelCache cache) {
+        List<HotKeyTracker.HotKey> hotKeys = cache.getStatistics().hotKeys();
+        if (!properties.getHotKeys().getMaskedCacheNames().contains(cache.getName())) {
+            return hotKeys;
+        }
+        return hotKeys.stream()
+                .map(hotKey -> new HotKeyTracker.HotKey(mask(hotKey.key()), hotKey.estimatedCount()))
+                .toList();
+    }
+
+    private static String mask(String key) {
+        int visible = Math.min(VISIBLE_CHARACTERS, key.length() / 2);
+        return "*".repeat(key.length() - visible) + key.substring(key.length() - visible);
+    }
+}
@@ -0,0 +1,16 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Notifies other service instances that a local (L1) cache entry became stale.
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+    /**
+     * @param cacheName name of the cache the entry belongs to
+     * @param key local key of the entry, or {@code null} when the whole cache was cleared
+     */
+    void publish(String cacheName, @Nullable String key);
+}
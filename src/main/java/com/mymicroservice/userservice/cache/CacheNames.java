@@ -0,0 +1,14 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class CacheNames {
+
+    public static final String USER_CACHE = "userCache";
+    public static final String CARD_INFO_CACHE = "cardInfoCache";
+    public static final String USER_CARDS_CACHE = "userCardsCache";
+    public static final String USER_EMAIL_INDEX = "userEmailIndex";
+    public static final String CARD_NUMBER_INDEX = "cardNumberIndex";
+    public static final String QUERY_CACHE = "queryCache";
+}
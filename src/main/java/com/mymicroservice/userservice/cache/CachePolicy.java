@@ -0,0 +1,77 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.Builder;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Effective settings of one cache, resolved by {@link CachePolicyRegistry}.
+ *
+ * @param ttl base lifetime of a Redis entry
+ * @param jitter relative spread of the Redis TTL, see {@link ExpiryPolicy}
+ * @param earlyRefreshBeta XFetch {@code beta} of the early refresh, {@code 0} disables it
+ * @param localEnabled whether the cache gets the in-process L1 tier
+ * @param maximumEntries L1 bound in entries; {@code 0} bounds L1 by {@code maximumWeight} instead
+ * @param maximumWeight L1 bound in estimated bytes, used when {@code maximumEntries} is {@code 0};
+ *                      an off-heap L1 is always bounded by it, see {@link OffHeapLocalCache}
+ * @param cacheNulls whether {@code null} results are stored in Redis; fixed when the cache is created
+ * @param serialization format of the values written to Redis
+ * @param hashBucketSize ids per Redis hash of the {@link HashBucketCacheWriter} layout, {@code 0} keeps one
+ *                       Redis string per entry; fixed when the cache is created
+ * @param localStore where L1 keeps its entries
+ */
+@Builder(toBuilder = true)
+public record CachePolicy(Duration ttl,
+                          double jitter,
+                          double earlyRefreshBeta,
+                          boolean localEnabled,
+                          long maximumEntries,
+                          DataSize maximumWeight,
+                          boolean cacheNulls,
+                          CacheProperties.Format serialization,
+                          int hashBucketSize,
+                          CacheProperties.LocalStore localStore) {
+
+    public CachePolicy {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        if (earlyRefreshBeta < 0) {
+            throw new IllegalArgumentException("Early refresh beta must not be negative: " + earlyRefreshBeta);
+        }
+        if (maximumEntries < 0) {
+            throw new IllegalArgumentException("Maximum entries must not be negative: " + maximumEntries);
+        }
+        if (maximumWeight == null || maximumWeight.isNegative()) {
+            throw new IllegalArgumentException("Maximum weight must not be negative: " + maximumWeight);
+        }
+        if (hashBucketSize < 0) {
+            throw new IllegalArgumentException("Hash bucket size must not be negative: " + hashBucketSize);
+        }
+        if (serialization == null) {
+            throw new IllegalArgumentException("Serialization format must be set");
+        }
+        if (localStore == null) {
+            throw new IllegalArgumentException("L1 store must be set");
+        }
+        new ExpiryPolicy(ttl, jitter, earlyRefreshBeta); // validates the jitter
+    }
+
+    public ExpiryPolicy expiry() {
+        return new ExpiryPolicy(ttl, jitter, earlyRefreshBeta);
+    }
+
+    public boolean isBoundByEntries() {
+        return maximumEntries > 0;
+    }
+
+    public boolean isOffHeap() {
+        return localStore == CacheProperties.LocalStore.OFF_HEAP;
+    }
+
+    public boolean isHashBucketed() {
+        return hashBucketSize > 0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code /actuator/cachepolicies}: shows the {@link CachePolicy} and the hit ratios of every cache
+ * and changes policies at runtime.
+ *
+ * <ul>
+ *     <li>{@code GET /actuator/cachepolicies[/{name}]} — current policies</li>
+ *     <li>{@code POST /actuator/cachepolicies/{name}} with a JSON body of the settings to change, e.g.
+ *     {@code {"ttl": "30m", "maximumEntries": 20000}} or {@code {"localStore": "off-heap"}}</li>
+ *     <li>{@code DELETE /actuator/cachepolicies/{name}} — back to the configured policy</li>
+ * </ul>
+ * Changes apply to the instance that receives them and are lost on restart.
+ * {@code cacheNulls} and {@code hashBucketSize} are fixed when the cache is created and can't be changed here.
+ */
+@Component
+@Endpoint(id = "cachepolicies")
+@RequiredArgsConstructor
+public class CachePolicyEndpoint {
+
+    private final CachePolicyRegistry policyRegistry;
+    private final TwoLevelCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, CachePolicyDescriptor> policies() {
+        Map<String, CachePolicyDescriptor> descriptors = new LinkedHashMap<>();
+        policyRegistry.getAll().forEach((name, policy) -> descriptors.put(name, describe(name, policy)));
+        return descriptors;
+    }
+
+    @ReadOperation
+    public CachePolicyDescriptor policy(@Selector String name) {
+        return describe(name, policyRegistry.get(name));
+    }
+
+    @WriteOperation
+    public CachePolicyDescriptor update(@Selector String name,
+                                        @Nullable String ttl,
+                                        @Nullable Double jitter,
+                                        @Nullable Double earlyRefreshBeta,
+                                        @Nullable Boolean localEnabled,
+                                        @Nullable Long maximumEntries,
+                                        @Nullable String maximumWeight,
+                                        @Nullable String serialization,
+                                        @Nullable String localStore) {
+        try {
+            CachePolicy updated = policyRegistry.update(name, current -> {
+                CachePolicy.CachePolicyBuilder builder = current.toBuilder();
+                if (ttl != null) {
+                    builder.ttl(DurationStyle.detectAndParse(ttl));
+                }
+                if (jitter != null) {
+                    builder.jitter(jitter);
+                }
+                if (earlyRefreshBeta != null) {
+                    builder.earlyRefreshBeta(earlyRefreshBeta);
+                }
+                if (localEnabled != null) {
+                    builder.localEnabled(localEnabled);
+                }
+                if (maximumEntries != null) {
+                    builder.maximumEntries(maximumEntries);
+                }
+                if (maximumWeight != null) {
+                    builder.maximumWeight(DataSize.parse(maximumWeight));
+                }
+                if (serialization != null) {
+                    builder.serialization(CacheProperties.Format.valueOf(serialization.toUpperCase(Locale.ROOT)));
+                }
+                if (localStore != null) {
+                    builder.localStore(CacheProperties.LocalStore.valueOf(
+                            localStore.replace('-', '_').toUpperCase(Locale.ROOT)));
+                }
+                return builder.build();
+            });
+            return describe(name, updated);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Invalid cache policy: " + e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public CachePolicyDescriptor reset(@Selector String name) {
+        return describe(name, policyRegistry.reset(name));
+    }
+
+    private CachePolicyDescriptor describe(String name, CachePolicy policy) {
+        TwoLevelCache cache = cacheManager.getTwoLevelCache(name);
+        CacheTierStatistics statistics = cache != null ? cache.getStatistics() : null;
+        return new CachePolicyDescriptor(
+                policy.ttl().toString(),
+                policy.jitter(),
+                policy.earlyRefreshBeta(),
+                policy.localEnabled(),
+                policy.maximumEntries(),
+                policy.maximumWeight().toString(),
+                policy.cacheNulls(),
+                policy.serialization().name().toLowerCase(Locale.ROOT),
+                policy.hashBucketSize(),
+                policy.localStore().name().replace('_', '-').toLowerCase(Locale.ROOT),
+                statistics != null ? statistics.localHitRatio() : null,
+                statistics != null ? statistics.remoteHitRatio() : null);
+    }
+
+    /**
+     * A policy as shown by the endpoint; hit ratios are {@code null} for caches without L1 or not used yet.
+     */
+    public record CachePolicyDescriptor(String ttl,
+                                        double jitter,
+                                        double earlyRefreshBeta,
+                                        boolean localEnabled,
+                                        long maximumEntries,
+                                        String maximumWeight,
+                                        boolean cacheNulls,
+                                        String serialization,
+                                        int hashBucketSize,
+                                        String localStore,
+                                        @Nullable Double localHitRatio,
+                                        @Nullable Double remoteHitRatio) {
+    }
+}
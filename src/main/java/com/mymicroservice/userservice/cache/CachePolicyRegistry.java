@@ -0,0 +1,113 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the {@link CachePolicy} of every cache.
+ *
+ * <p>A policy is resolved from {@code cache.policies.<name>.*}, falling back to the defaults of
+ * {@code cache.expiry.*}, {@code cache.local.*} and {@code cache.serialization.*}. It can then be
+ * changed at runtime ({@link CachePolicyEndpoint}); the change applies to this instance only and
+ * lasts until {@link #reset} or a restart.
+ *
+ * <p>The Redis TTL and value format are read from the registry on every write, so changes take effect
+ * immediately. L1 settings are applied by the {@link TwoLevelCacheManager}, which listens for changes.
+ */
+@Slf4j
+@Component
+public class CachePolicyRegistry {
+
+    private final CacheProperties properties;
+    private final ConcurrentMap<String, CachePolicy> policies = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, CachePolicy>> listeners = new CopyOnWriteArrayList<>();
+
+    public CachePolicyRegistry(CacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public CachePolicy get(String cacheName) {
+        return policies.computeIfAbsent(cacheName, this::configured);
+    }
+
+    /**
+     * @return the policy of a cache as configured, without the changes made at runtime on this instance
+     */
+    public CachePolicy getConfigured(String cacheName) {
+        return configured(cacheName);
+    }
+
+    /**
+     * @return the policies of the configured caches and of every cache used so far, by name
+     */
+    public Map<String, CachePolicy> getAll() {
+        properties.getLocal().getCacheNames().forEach(this::get);
+        properties.getPolicies().keySet().forEach(this::get);
+        return new TreeMap<>(policies);
+    }
+
+    /**
+     * Replaces the policy of a cache with the result of {@code change} and notifies the listeners.
+     *
+     * @throws IllegalArgumentException if the changed policy is invalid or changes {@code cacheNulls}
+     *                                  or {@code hashBucketSize}
+     */
+    public CachePolicy update(String cacheName, UnaryOperator<CachePolicy> change) {
+        CachePolicy current = get(cacheName);
+        CachePolicy updated = change.apply(current);
+        if (updated.cacheNulls() != current.cacheNulls()) {
+            throw new IllegalArgumentException("cacheNulls can't be changed at runtime");
+        }
+        if (updated.hashBucketSize() != current.hashBucketSize()) {
+            throw new IllegalArgumentException("hashBucketSize can't be changed at runtime");
+        }
+        policies.put(cacheName, updated);
+        log.info("Cache policy of '{}' changed: {}", cacheName, updated);
+        listeners.forEach(listener -> listener.accept(cacheName, updated));
+        return updated;
+    }
+
+    /**
+     * Restores the configured policy of a cache.
+     */
+    public CachePolicy reset(String cacheName) {
+        return update(cacheName, current -> configured(cacheName));
+    }
+
+    public void addListener(BiConsumer<String, CachePolicy> listener) {
+        listeners.add(listener);
+    }
+
+    private CachePolicy configured(String cacheName) {
+        CacheProperties.Expiry expiry = properties.getExpiry();
+        CacheProperties.Local local = properties.getLocal();
+        CacheProperties.Policy policy = properties.getPolicies().getOrDefault(cacheName, new CacheProperties.Policy());
+        return CachePolicy.builder()
+                .ttl(valueOr(policy.getTtl(), expiry.getTtl()))
+                .jitter(valueOr(policy.getJitter(), expiry.getJitter()))
+                .earlyRefreshBeta(valueOr(policy.getEarlyRefreshBeta(), expiry.getEarlyRefreshBeta()))
+                .localEnabled(valueOr(policy.getLocalEnabled(),
+                        local.isEnabled() && local.getCacheNames().contains(cacheName)))
+                .maximumEntries(valueOr(policy.getMaximumEntries(), local.getMaximumEntries()))
+                .maximumWeight(valueOr(policy.getMaximumWeight(), local.getMaximumWeight()))
+                .cacheNulls(valueOr(policy.getCacheNulls(), false))
+                .serialization(valueOr(policy.getSerialization(), properties.getSerialization().getFormat()))
+                .hashBucketSize(valueOr(policy.getHashBucketSize(), 0))
+                .localStore(valueOr(policy.getLocalStore(), local.getStore()))
+                .build();
+    }
+
+    private static <T> T valueOr(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File of the hottest keys of the caches keyed by numeric ids, used by the {@link CacheWarmUp}.
+ *
+ * <p>Only the keys are stored, never the values: they are loaded from the cache or the database
+ * at startup, so a snapshot can't bring back stale or deleted data. Layout, big-endian:
+ * <pre>
+ * int   magic "UCS1"
+ * int   number of caches
+ * per cache:
+ *   short  length of the name, then the name in UTF-8
+ *   int    number of keys, then the keys as longs, hottest first
+ * </pre>
+ * The file is written next to its final path and moved over it, so a reader never sees a partial file;
+ * it is read through a memory mapping instead of being copied onto the heap.
+ */
+@UtilityClass
+public class CacheSnapshot {
+
+    private static final int MAGIC = 0x55435331;
+
+    public static void write(Path path, Map<String, List<Long>> keys) throws IOException {
+        int size = 2 * Integer.BYTES;
+        Map<byte[], List<Long>> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Long>> entry : keys.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            encoded.put(name, entry.getValue());
+            size += Short.BYTES + name.length + Integer.BYTES + entry.getValue().size() * Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(encoded.size());
+        encoded.forEach((name, ids) -> {
+            buffer.putShort((short) name.length).put(name).putInt(ids.size());
+            ids.forEach(buffer::putLong);
+        });
+        buffer.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the keys of each cache, hottest first
+     * @throws IOException if the file can't be read or is not a valid snapshot
+     */
+    public static Map<String, long[]> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            int caches = buffer.getInt();
+            Map<String, long[]> keys = new LinkedHashMap<>();
+            for (int i = 0; i < caches; i++) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length > buffer.remaining()) {
+                    throw new IOException("Truncated cache snapshot: " + path);
+                }
+                byte[] name = new byte[length];
+                buffer.get(name);
+                int count = buffer.getInt();
+                if (count < 0 || count > buffer.remaining() / Long.BYTES) {
+                    throw new IOException("Truncated cache snapshot: " + path);
+                }
+                long[] ids = new long[count];
+                buffer.asLongBuffer().get(ids);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                keys.put(new String(name, StandardCharsets.UTF_8), ids);
+            }
+            return keys;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated cache snapshot: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.mymicroservice.userservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit/miss counters of both tiers of a {@link TwoLevelCache}, together with its writes, evictions,
+ * load times and, optionally, its hottest keys ({@link HotKeyTracker}).
+ *
+ * <p>Exported to Micrometer as:
+ * <ul>
+ *     <li>{@code cache.tier.requests{cache, tier=l1|l2, result=hit|miss}}</li>
+ *     <li>{@code cache.tier.hit.ratio{cache, tier=l1|l2}}</li>
+ *     <li>{@code cache.gets{cache, result=hit|miss}} — either tier hit / both tiers missed</li>
+ *     <li>{@code cache.puts{cache}}, {@code cache.evictions{cache}}</li>
+ *     <li>{@code cache.load.duration{cache, result=success|failure}} — timer with a percentile histogram</li>
+ * </ul>
+ * L2 is only consulted on an L1 miss, so the L2 ratio is the share of L1 misses served by Redis.
+ */
+public class CacheTierStatistics {
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    @Nullable
+    private final HotKeyTracker hotKeys;
+    @Nullable
+    private volatile Timer successfulLoads;
+    @Nullable
+    private volatile Timer failedLoads;
+
+    public CacheTierStatistics() {
+        this(null);
+    }
+
+    public CacheTierStatistics(@Nullable HotKeyTracker hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    /**
+     * Counts a read of the key for the hot key report.
+     */
+    public void access(String localKey) {
+        if (hotKeys != null) {
+            hotKeys.record(localKey);
+        }
+    }
+
+    public void localHit() {
+        localHits.increment();
+    }
+
+    public void localMiss() {
+        localMisses.increment();
+    }
+
+    public void remoteHit() {
+        remoteHits.increment();
+    }
+
+    public void remoteMiss() {
+        remoteMisses.increment();
+    }
+
+    public void put() {
+        puts.increment();
+    }
+
+    public void puts(int count) {
+        puts.add(count);
+    }
+
+    public void evict() {
+        evictions.increment();
+    }
+
+    public void evictions(int count) {
+        evictions.add(count);
+    }
+
+    public void recordLoad(long nanos, boolean success) {
+        Timer timer = success ? successfulLoads : failedLoads;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public double localHitRatio() {
+        return ratio(localHits.sum(), localMisses.sum());
+    }
+
+    public double remoteHitRatio() {
+        return ratio(remoteHits.sum(), remoteMisses.sum());
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the hottest keys, hottest first; empty if hot keys are not tracked
+     */
+    public List<HotKeyTracker.HotKey> hotKeys() {
+        return hotKeys != null ? hotKeys.topKeys() : List.of();
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        registerCounter(registry, cacheName, "l1", "hit", localHits);
+        registerCounter(registry, cacheName, "l1", "miss", localMisses);
+        registerCounter(registry, cacheName, "l2", "hit", remoteHits);
+        registerCounter(registry, cacheName, "l2", "miss", remoteMisses);
+
+        Gauge.builder("cache.tier.hit.ratio", this, CacheTierStatistics::localHitRatio)
+                .tag("cache", cacheName).tag("tier", "l1")
+                .register(registry);
+        Gauge.builder("cache.tier.hit.ratio", this, CacheTierStatistics::remoteHitRatio)
+                .tag("cache", cacheName).tag("tier", "l2")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", this, statistics -> statistics.localHits.sum() + statistics.remoteHits.sum())
+                .tag("cache", cacheName).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", remoteMisses, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum)
+                .tag("cache", cacheName)
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", cacheName)
+                .register(registry);
+
+        successfulLoads = loadTimer(registry, cacheName, "success");
+        failedLoads = loadTimer(registry, cacheName, "failure");
+    }
+
+    private static Timer loadTimer(MeterRegistry registry, String cacheName, String result) {
+        return Timer.builder("cache.load.duration")
+                .tag("cache", cacheName).tag("result", result)
+                .description("Time spent loading values missing from both tiers")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static void registerCounter(MeterRegistry registry, String cacheName,
+                                        String tier, String result, LongAdder adder) {
+        FunctionCounter.builder("cache.tier.requests", adder, LongAdder::sum)
+                .tag("cache", cacheName).tag("tier", tier).tag("result", result)
+                .register(registry);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
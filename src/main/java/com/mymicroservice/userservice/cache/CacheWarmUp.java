@@ -0,0 +1,216 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads the hottest entries into the caches before the instance reports readiness, so that a new
+ * instance (or every instance after a Redis flush) doesn't send its whole read load to the database.
+ *
+ * <p>Runs as an {@link ApplicationRunner}: Spring Boot moves the readiness state to
+ * {@code ACCEPTING_TRAFFIC} only after the runners have finished. The keys to load come from the
+ * {@link CacheSnapshot} written by running instances, or from {@link CacheWarmer#topIds} for the caches
+ * the snapshot has no keys for. They are loaded in batches through {@link CacheWarmer#loader} until all
+ * are loaded or {@code cache.warm-up.time-budget} runs out; a failing batch stops the warm-up of its cache
+ * but never the startup.
+ *
+ * <p>While the instance runs, the hottest keys of the L1 tier of each cache (Caffeine orders them by
+ * its W-TinyLFU frequency estimate, the off-heap store by its clock marks) are written to the snapshot every {@code cache.warm-up.snapshot-interval}
+ * and once more at shutdown.
+ *
+ * <p>Exported to Micrometer as {@code cache.warmup.entries{cache, source=snapshot|query}},
+ * {@code cache.warmup.progress} (share of the planned keys loaded, {@code 0..1}) and {@code cache.warmup.duration}.
+ */
+@Slf4j
+public class CacheWarmUp implements ApplicationRunner, DisposableBean {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final List<CacheWarmer> warmers;
+    private final CacheProperties.WarmUp settings;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong planned = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final ScheduledExecutorService snapshotter;
+
+    public CacheWarmUp(TwoLevelCacheManager cacheManager,
+                       List<CacheWarmer> warmers,
+                       CacheProperties.WarmUp settings,
+                       MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.warmers = warmers;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-snapshot-");
+        threadFactory.setDaemon(true);
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        Gauge.builder("cache.warmup.progress", this, CacheWarmUp::progress)
+                .description("Share of the keys planned for the startup warm-up that were loaded")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+        started.set(true);
+        long interval = settings.getSnapshotInterval().toMillis();
+        if (interval > 0) {
+            snapshotter.scheduleWithFixedDelay(this::writeSnapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Loads the keys of the snapshot, or of the top-N queries, within the time budget.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + settings.getTimeBudget().toNanos();
+        Map<String, long[]> snapshot = readSnapshot();
+
+        Map<CacheWarmer, List<Long>> plan = new LinkedHashMap<>();
+        Map<CacheWarmer, String> sources = new LinkedHashMap<>();
+        for (CacheWarmer warmer : warmers) {
+            long[] snapshotIds = snapshot.get(warmer.cacheName());
+            if (snapshotIds != null && snapshotIds.length > 0) {
+                plan.put(warmer, Arrays.stream(snapshotIds).limit(settings.getMaximumEntries()).boxed().toList());
+                sources.put(warmer, "snapshot");
+            } else {
+                plan.put(warmer, topIds(warmer));
+                sources.put(warmer, "query");
+            }
+        }
+        planned.set(plan.values().stream().mapToLong(List::size).sum());
+
+        boolean completed = true;
+        for (Map.Entry<CacheWarmer, List<Long>> entry : plan.entrySet()) {
+            if (!load(entry.getKey(), entry.getValue(), sources.get(entry.getKey()), deadline)) {
+                completed = false;
+                break;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        Timer.builder("cache.warmup.duration").register(meterRegistry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (completed) {
+            log.info("Cache warm-up loaded {} keys in {} ms", loaded.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        } else {
+            log.warn("Cache warm-up ran out of its {} budget after {} of {} keys",
+                    settings.getTimeBudget(), loaded.get(), planned.get());
+        }
+    }
+
+    /**
+     * Writes the hottest L1 keys of every warmed cache to the snapshot. Nothing is written while
+     * all of them are empty, so that an idle instance doesn't erase the snapshot of busy ones.
+     */
+    public void writeSnapshot() throws IOException {
+        Map<String, List<Long>> keys = new LinkedHashMap<>();
+        for (CacheWarmer warmer : warmers) {
+            TwoLevelCache cache = cacheManager.getTwoLevelCache(warmer.cacheName());
+            if (cache != null) {
+                keys.put(warmer.cacheName(), hottestIds(cache));
+            }
+        }
+        if (keys.values().stream().allMatch(List::isEmpty)) {
+            return;
+        }
+        CacheSnapshot.write(settings.getSnapshotPath(), keys);
+        log.debug("Cache snapshot written to {}", settings.getSnapshotPath());
+    }
+
+    @Override
+    public void destroy() {
+        snapshotter.shutdownNow();
+        if (started.get()) {
+            writeSnapshotQuietly();
+        }
+    }
+
+    private boolean load(CacheWarmer warmer, List<Long> ids, String source, long deadline) {
+        int batchSize = Math.max(1, settings.getBatchSize());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            try {
+                warmer.loader().accept(new LinkedHashSet<>(batch));
+            } catch (RuntimeException e) {
+                log.warn("Warm-up of cache '{}' stopped after {} keys: {}", warmer.cacheName(), from, e.getMessage());
+                return true;
+            }
+            loaded.addAndGet(batch.size());
+            meterRegistry.counter("cache.warmup.entries", "cache", warmer.cacheName(), "source", source)
+                    .increment(batch.size());
+        }
+        return true;
+    }
+
+    private List<Long> topIds(CacheWarmer warmer) {
+        try {
+            return warmer.topIds().apply(settings.getMaximumEntries());
+        } catch (RuntimeException e) {
+            log.warn("Failed to query the keys to warm up cache '{}': {}", warmer.cacheName(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Map<String, long[]> readSnapshot() {
+        if (!Files.exists(settings.getSnapshotPath())) {
+            log.info("No cache snapshot at {}, warming up from the database", settings.getSnapshotPath());
+            return Map.of();
+        }
+        try {
+            return CacheSnapshot.read(settings.getSnapshotPath());
+        } catch (IOException e) {
+            log.warn("Ignoring the cache snapshot {}: {}", settings.getSnapshotPath(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private List<Long> hottestIds(TwoLevelCache cache) {
+        List<Long> ids = new ArrayList<>();
+        cache.getNativeCache().hottestKeys(settings.getMaximumEntries()).forEach(key -> {
+            try {
+                ids.add(Long.parseLong(key));
+            } catch (NumberFormatException e) {
+                // not an id, e.g. written by hand; nothing to warm up
+            }
+        });
+        return ids.size() > settings.getMaximumEntries() ? ids.subList(0, settings.getMaximumEntries()) : ids;
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write the cache snapshot to {}: {}", settings.getSnapshotPath(), e.getMessage());
+        }
+    }
+
+    private double progress() {
+        long plannedKeys = planned.get();
+        return plannedKeys == 0 ? (started.get() ? 1.0 : 0.0) : Math.min(1.0, (double) loaded.get() / plannedKeys);
+    }
+}
@@ -0,0 +1,16 @@
+package com.mymicroservice.userservice.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * How the {@link CacheWarmUp} fills one cache keyed by numeric ids.
+ *
+ * @param cacheName cache whose hottest keys are snapshotted and loaded at startup
+ * @param topIds returns at most the given number of ids to load when the snapshot has none for the cache
+ * @param loader loads the given ids through the cache
+ */
+public record CacheWarmer(String cacheName, IntFunction<List<Long>> topIds, Consumer<Set<Long>> loader) {
+}
@@ -0,0 +1,106 @@
+package com.mymicroservice.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * On-heap {@link LocalCache}: a Caffeine cache (W-TinyLFU admission) of the live values, bounded by
+ * number of entries or by their estimated size in bytes ({@link CacheEntryWeigher}).
+ */
+public class CaffeineLocalCache implements LocalCache {
+
+    private final Cache<String, Object> cache;
+    private long maximum;
+    private double scale = 1;
+
+    public CaffeineLocalCache(Cache<String, Object> cache) {
+        this.cache = cache;
+        this.maximum = cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(Long.MAX_VALUE);
+    }
+
+    public CaffeineLocalCache(CachePolicy policy, Duration expireAfterWrite) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite);
+        this.maximum = bound(policy);
+        if (policy.isBoundByEntries()) {
+            builder.maximumSize(maximum);
+        } else {
+            builder.maximumWeight(maximum).weigher(new CacheEntryWeigher());
+        }
+        this.cache = builder.build();
+    }
+
+    public Cache<String, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    @Nullable
+    public Object getIfPresent(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public List<String> hottestKeys(int limit) {
+        return cache.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElseGet(() -> cache.asMap().keySet().stream().limit(limit).toList());
+    }
+
+    /**
+     * A new bound of the same kind is applied in place; switching between the entry and the weight bound,
+     * or to another store, needs a new cache.
+     */
+    @Override
+    public synchronized boolean resize(CachePolicy policy) {
+        if (policy.isOffHeap()) {
+            return false;
+        }
+        Policy.Eviction<String, Object> eviction = cache.policy().eviction().orElseThrow();
+        if (eviction.isWeighted() == policy.isBoundByEntries()) {
+            return false;
+        }
+        maximum = bound(policy);
+        eviction.setMaximum(scaledMaximum());
+        return true;
+    }
+
+    @Override
+    public synchronized void scaleCapacity(double scale) {
+        this.scale = scale;
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(scaledMaximum()));
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private long scaledMaximum() {
+        return scale >= 1 ? maximum : Math.max(1, (long) (maximum * scale));
+    }
+
+    private static long bound(CachePolicy policy) {
+        return policy.isBoundByEntries() ? policy.maximumEntries() : policy.maximumWeight().toBytes();
+    }
+}
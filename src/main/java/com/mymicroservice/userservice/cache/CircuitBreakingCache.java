@@ -0,0 +1,364 @@
+package com.mymicroservice.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Decorator of a Redis cache that keeps serving while Redis is slow or down.
+ *
+ * <p>Every call to Redis reports its outcome to the shared {@link RedisCircuitBreaker}; calls are bounded
+ * by the per-command latency budget ({@link RedisLatencyBudget}), so a slow Redis shows up as failures.
+ * A call that fails, or any call while the breaker is open, is served by a small local fallback cache
+ * instead: reads look it up (a miss sends the caller to the database), writes go to it.
+ *
+ * <p>Writes made while Redis was unreachable leave Redis with values that may be stale. Their keys are
+ * remembered and evicted from Redis before the breaker closes; if there are more of them than the fallback
+ * can hold, the whole cache is cleared instead ({@code SCAN} and {@code DEL} in batches, without the latency
+ * budget). The fallback is emptied at the same time. If that recovery keeps failing, the breaker still closes
+ * after a few attempts and the recovery is retried in the background (see {@link RedisCircuitBreaker}).
+ *
+ * <p>Exported to Micrometer as {@code cache.redis.fallbacks{cache, operation=read|write}}.
+ */
+@Slf4j
+public class CircuitBreakingCache implements Cache, MultiKeyCache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker breaker;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> fallback;
+    private final long maximumPendingEvictions;
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingClear = new AtomicBoolean();
+    private final Counter readFallbacks;
+    private final Counter writeFallbacks;
+
+    public CircuitBreakingCache(Cache delegate,
+                                RedisCircuitBreaker breaker,
+                                CacheProperties.Resilience settings,
+                                MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.maximumPendingEvictions = settings.getFallbackMaximumEntries();
+        this.fallback = Caffeine.newBuilder()
+                .maximumSize(settings.getFallbackMaximumEntries())
+                .expireAfterWrite(settings.getFallbackTtl())
+                .build();
+        this.readFallbacks = meterRegistry.counter("cache.redis.fallbacks", "cache", delegate.getName(), "operation", "read");
+        this.writeFallbacks = meterRegistry.counter("cache.redis.fallbacks", "cache", delegate.getName(), "operation", "write");
+        breaker.addRecoveryListener(this::recover);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        return read(() -> delegate.get(key), () -> fallbackGet(key));
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Asynchronous {@link #get(Object)}: the outcome of the Redis read is reported to the breaker when it
+     * completes, and a failed read completes with the fallback's value instead of failing.
+     *
+     * @throws UnsupportedOperationException if the delegate has no asynchronous reads
+     */
+    @Override
+    public CompletableFuture<ValueWrapper> retrieve(Object key) {
+        if (breaker.isClosed()) {
+            return delegate.retrieve(key).handle((value, error) -> {
+                if (error == null) {
+                    breaker.recordSuccess();
+                    return value instanceof ValueWrapper || value == null
+                            ? (ValueWrapper) value
+                            : new SimpleValueWrapper(value);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                breaker.recordFailure(cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause));
+                log.debug("Redis read failed for cache '{}', using the fallback: {}", getName(), cause.getMessage());
+                readFallbacks.increment();
+                return fallbackGet(key);
+            });
+        }
+        readFallbacks.increment();
+        return CompletableFuture.completedFuture(fallbackGet(key));
+    }
+
+    /**
+     * Looks the key up, runs {@code valueLoader} on a miss and stores its result with {@link #putIfAbsent}, each
+     * step against Redis while it answers and against the fallback otherwise. The steps are separate, so a failed
+     * write after a successful load doesn't run the loader again.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        // a value just loaded is current, so a fill that fails leaves nothing to evict once Redis is back
+        ValueWrapper existing = write(List.of(), () -> delegate.putIfAbsent(key, value), () -> {
+            ValueWrapper present = fallbackGet(key);
+            if (present == null && value != null) {
+                fallback.put(key, value);
+            }
+            return present;
+        });
+        return existing != null ? (T) existing.get() : value;
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        write(List.of(key), () -> {
+            delegate.put(key, value);
+            return null;
+        }, () -> {
+            fallbackPut(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        return write(List.of(key), () -> delegate.putIfAbsent(key, value), () -> {
+            ValueWrapper existing = fallbackGet(key);
+            if (existing == null) {
+                fallbackPut(key, value);
+            }
+            return existing;
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        write(List.of(key), () -> {
+            delegate.evict(key);
+            return null;
+        }, () -> {
+            fallback.invalidate(key);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return write(List.of(key), () -> delegate.evictIfPresent(key),
+                () -> fallback.asMap().remove(key) != null);
+    }
+
+    @Override
+    public void clear() {
+        write(List.of(), () -> {
+            delegate.clear();
+            return null;
+        }, () -> {
+            pendingClear.set(true);
+            fallback.invalidateAll();
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        return read(() -> delegate instanceof MultiKeyCache multiKeyCache
+                ? multiKeyCache.getAll(keys)
+                : perKey(keys), () -> fallback.getAllPresent(keys));
+    }
+
+    @Override
+    public Set<Object> putAllIfAbsent(Map<?, ?> entries) {
+        return write(entries.keySet(), () -> {
+            if (delegate instanceof MultiKeyCache multiKeyCache) {
+                return multiKeyCache.putAllIfAbsent(entries);
+            }
+            Set<Object> stored = new HashSet<>();
+            entries.forEach((key, value) -> {
+                if (value != null && delegate.putIfAbsent(key, value) == null) {
+                    stored.add(key);
+                }
+            });
+            return stored;
+        }, () -> {
+            Set<Object> stored = new HashSet<>();
+            entries.forEach((key, value) -> {
+                if (value != null && fallback.asMap().putIfAbsent(key, value) == null) {
+                    stored.add(key);
+                }
+            });
+            return stored;
+        });
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        write(entries.keySet(), () -> {
+            if (delegate instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.putAll(entries);
+            } else {
+                entries.forEach(delegate::put);
+            }
+            return null;
+        }, () -> {
+            entries.forEach(this::fallbackPut);
+            return null;
+        });
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        write(keys, () -> {
+            if (delegate instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.evictAll(keys);
+            } else {
+                keys.forEach(delegate::evict);
+            }
+            return null;
+        }, () -> {
+            fallback.invalidateAll(keys);
+            return null;
+        });
+    }
+
+    private <T> T read(Supplier<T> remote, Supplier<T> local) {
+        if (breaker.isClosed()) {
+            try {
+                T result = remote.get();
+                breaker.recordSuccess();
+                return result;
+            } catch (DataAccessException e) {
+                breaker.recordFailure(e);
+                log.debug("Redis read failed for cache '{}', using the fallback: {}", getName(), e.getMessage());
+            }
+        }
+        readFallbacks.increment();
+        return local.get();
+    }
+
+    /**
+     * Runs {@code remote} against Redis or, if that fails or the breaker is open, {@code local} against
+     * the fallback; in the latter case the keys are evicted from Redis once it is back.
+     */
+    private <T> T write(Collection<?> keys, Supplier<T> remote, Supplier<T> local) {
+        if (breaker.isClosed()) {
+            try {
+                T result = remote.get();
+                breaker.recordSuccess();
+                return result;
+            } catch (DataAccessException e) {
+                breaker.recordFailure(e);
+                log.debug("Redis write failed for cache '{}', evicting {} keys once it is back: {}",
+                        getName(), keys.size(), e.getMessage());
+            }
+        }
+        writeFallbacks.increment();
+        remember(keys);
+        return local.get();
+    }
+
+    private void remember(Collection<?> keys) {
+        if (pendingClear.get()) {
+            return;
+        }
+        pendingEvictions.addAll(keys);
+        if (pendingEvictions.size() > maximumPendingEvictions) {
+            pendingClear.set(true);
+            pendingEvictions.clear();
+        }
+    }
+
+    /**
+     * Makes Redis forget what was written while it was unreachable. Runs on the probe thread before the breaker
+     * closes, or after it if the breaker gave up waiting for it; throws if Redis fails, to be run again.
+     */
+    private void recover() {
+        RedisLatencyBudget.runWithoutBudget(this::evictPending);
+    }
+
+    private void evictPending() {
+        if (pendingClear.get()) {
+            delegate.clear();
+            pendingClear.set(false);
+            log.info("Cache '{}' cleared after Redis came back", getName());
+        } else if (!pendingEvictions.isEmpty()) {
+            List<Object> keys = List.copyOf(pendingEvictions);
+            if (delegate instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.evictAll(keys);
+            } else {
+                keys.forEach(delegate::evict);
+            }
+            keys.forEach(pendingEvictions::remove);
+            log.info("{} keys of cache '{}' written during the Redis outage evicted", keys.size(), getName());
+        }
+        fallback.invalidateAll();
+    }
+
+    @Nullable
+    private ValueWrapper fallbackGet(Object key) {
+        Object value = fallback.getIfPresent(key);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    private void fallbackPut(Object key, @Nullable Object value) {
+        if (value == null) {
+            fallback.invalidate(key);
+        } else {
+            fallback.put(key, value);
+        }
+    }
+
+    private Map<Object, Object> perKey(Collection<?> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = delegate.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                values.put(key, wrapper.get());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mymicroservice.userservice.cache;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Consistent hash ring with virtual nodes: every node is placed at {@code virtualNodes} points of the
+ * 64-bit xxHash space, and a key belongs to the first point at or after its own hash. Adding or removing
+ * a node therefore moves only the keys of the ring segments it gains or loses, about {@code 1/n} of them,
+ * and the points even out the share of each node.
+ *
+ * <p>The points depend only on the node ids, so every instance configured with the same nodes
+ * routes every key to the same node. Immutable and thread-safe.
+ *
+ * @param <T> the node, e.g. a connection factory
+ */
+public class ConsistentHashRing<T> {
+
+    private static final XXHash64 HASH = XXHashFactory.fastestJavaInstance().hash64();
+
+    private static final long SEED = 0x5EED_CAC4EL;
+
+    private final long[] points;
+    private final List<T> owners;
+    private final List<T> nodes;
+
+    /**
+     * @param nodes nodes by their stable id, e.g. {@code host:port}
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+        }
+        long[][] placed = new long[nodes.size() * virtualNodes][];
+        List<T> indexed = new ArrayList<>(nodes.values());
+        int next = 0;
+        int nodeIndex = 0;
+        for (String id : nodes.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                placed[next++] = new long[]{hash((id + "#" + i).getBytes(StandardCharsets.UTF_8)), nodeIndex};
+            }
+            nodeIndex++;
+        }
+        Arrays.sort(placed, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[placed.length];
+        this.owners = new ArrayList<>(placed.length);
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners.add(indexed.get((int) placed[i][1]));
+        }
+        this.nodes = List.copyOf(indexed);
+    }
+
+    public T nodeFor(byte[] key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1; // insertion point: the first point after the hash
+        }
+        return owners.get(index == points.length ? 0 : index);
+    }
+
+    /**
+     * Groups keys by their node, keeping the order of {@code keys} within each group.
+     */
+    public <K> Map<T, List<K>> partition(Collection<K> keys, Function<K, byte[]> keyBytes) {
+        Map<T, List<K>> partitions = new LinkedHashMap<>();
+        for (K key : keys) {
+            partitions.computeIfAbsent(nodeFor(keyBytes.apply(key)), node -> new ArrayList<>()).add(key);
+        }
+        return partitions;
+    }
+
+    public List<T> nodes() {
+        return nodes;
+    }
+
+    private static long hash(byte[] bytes) {
+        return HASH.hash(bytes, 0, bytes.length, SEED);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * {@link LocalCache} of a {@link TwoLevelCache} whose policy turns L1 off: it keeps nothing, so every
+ * read goes to L2, while the writes still go through the two-level cache and are broadcast to the
+ * instances that keep L1 on.
+ */
+public final class DisabledLocalCache implements LocalCache {
+
+    public static final DisabledLocalCache INSTANCE = new DisabledLocalCache();
+
+    private DisabledLocalCache() {
+    }
+
+    @Override
+    @Nullable
+    public Object getIfPresent(String key) {
+        return null;
+    }
+
+    @Override
+    public void put(String key, Object value) {
+    }
+
+    @Override
+    public void invalidate(String key) {
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+
+    @Override
+    public List<String> hottestKeys(int limit) {
+        return List.of();
+    }
+
+    /**
+     * @return {@code false}, so that turning L1 on replaces this store with a real one
+     */
+    @Override
+    public boolean resize(CachePolicy policy) {
+        return false;
+    }
+
+    @Override
+    public void scaleCapacity(double scale) {
+    }
+
+    @Override
+    public long estimatedSize() {
+        return 0;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mymicroservice.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Probabilistic early recomputation (XFetch) of the entries of a {@link TwoLevelCache}.
+ *
+ * <p>For every value this instance loads, the load duration ({@code delta}) and the Redis expiry
+ * (known from the {@link ExpiryPolicy}) are remembered. A read of the entry triggers a background
+ * refresh when {@code now - delta * beta * ln(rand()) >= expiry}: the closer the expiry and the
+ * slower the load, the likelier the refresh, so a hot key is reloaded shortly before it expires
+ * and readers keep getting the current value instead of waiting for the reload.
+ *
+ * <p>Entries promoted from Redis that were loaded on another instance have no load record here;
+ * they are refreshed early by the instance that loaded them.
+ *
+ * <p>Exported to Micrometer as {@code cache.early.refreshes{cache, result=success|failure}}.
+ */
+@Slf4j
+public class EarlyRefresh {
+
+    private static final long MAXIMUM_TRACKED_KEYS = 100_000;
+
+    private final Supplier<ExpiryPolicy> policy;
+    private final Executor executor;
+    private final Cache<String, LoadRecord> loads;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param policy the current expiry policy of the cache; read on every load and read, so it may change at runtime
+     */
+    public EarlyRefresh(Supplier<ExpiryPolicy> policy, Executor executor) {
+        this.policy = policy;
+        this.executor = executor;
+        this.loads = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_TRACKED_KEYS)
+                .expireAfter(new UntilRedisExpiry())
+                .build();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    /**
+     * Remembers that the key was just loaded and written to Redis.
+     */
+    public void recordLoad(Object key, String localKey, long loadNanos) {
+        ExpiryPolicy current = policy.get();
+        if (current.isEarlyRefreshEnabled()) {
+            loads.put(localKey, new LoadRecord(System.nanoTime() + current.timeToLive(key).toNanos(), loadNanos));
+        }
+    }
+
+    /**
+     * Forgets the load of a key that was written or evicted by other means.
+     */
+    public void forget(String localKey) {
+        loads.invalidate(localKey);
+    }
+
+    public boolean isTracked(String localKey) {
+        return loads.getIfPresent(localKey) != null;
+    }
+
+    public void forgetAll() {
+        loads.invalidateAll();
+    }
+
+    /**
+     * Runs {@code refresh} in the background if XFetch says the entry is due and no refresh
+     * of it is running yet.
+     *
+     * @param refresh reloads the value, stores it and calls {@link #recordLoad}
+     */
+    public void onRead(String localKey, Runnable refresh) {
+        ExpiryPolicy current = policy.get();
+        if (!current.isEarlyRefreshEnabled()) {
+            return;
+        }
+        LoadRecord load = loads.getIfPresent(localKey);
+        if (load == null || !isDue(load, current.earlyRefreshBeta()) || !inFlight.add(localKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("Early refresh of key '{}' failed: {}", localKey, e.getMessage());
+                } finally {
+                    inFlight.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(localKey); // the refresh is an optimization; the entry will simply expire
+        }
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.early.refreshes", refreshes, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "success")
+                .register(registry);
+        FunctionCounter.builder("cache.early.refreshes", failures, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "failure")
+                .register(registry);
+    }
+
+    private static boolean isDue(LoadRecord load, double beta) {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double gapNanos = -load.loadNanos() * beta * Math.log(random);
+        return System.nanoTime() + gapNanos >= load.expiresAtNanos();
+    }
+
+    private record LoadRecord(long expiresAtNanos, long loadNanos) {
+    }
+
+    /**
+     * Keeps a load record only as long as the Redis entry it describes.
+     */
+    private static final class UntilRedisExpiry implements Expiry<String, LoadRecord> {
+
+        @Override
+        public long expireAfterCreate(String key, LoadRecord load, long currentTime) {
+            return Math.max(0, load.expiresAtNanos() - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LoadRecord load, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, load, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, LoadRecord load, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Expiration settings of one cache.
+ *
+ * <p>The Redis TTL of an entry is spread around {@code ttl} by up to {@code ±jitter} (a fraction
+ * of {@code ttl}), so entries written in the same burst don't expire in the same second.
+ * The spread is derived from the key, which lets {@link EarlyRefresh} know the expiry of an
+ * entry it loaded without asking Redis.
+ *
+ * @param ttl base lifetime of a Redis entry
+ * @param jitter relative spread of the lifetime, {@code 0.1} = ±10%
+ * @param earlyRefreshBeta XFetch {@code beta}: higher values refresh earlier, {@code 0} disables early refresh
+ */
+public record ExpiryPolicy(Duration ttl, double jitter, double earlyRefreshBeta) implements RedisCacheWriter.TtlFunction {
+
+    public ExpiryPolicy {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("TTL jitter must be in [0, 1): " + jitter);
+        }
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, @Nullable Object value) {
+        return timeToLive(key);
+    }
+
+    /**
+     * @return the TTL of the key; the same key always gets the same TTL
+     */
+    public Duration timeToLive(Object key) {
+        if (jitter == 0) {
+            return ttl;
+        }
+        double spread = jitter * (2 * unitHash(String.valueOf(key)) - 1);
+        return Duration.ofMillis(Math.round(ttl.toMillis() * (1 + spread)));
+    }
+
+    public boolean isEarlyRefreshEnabled() {
+        return earlyRefreshBeta > 0;
+    }
+
+    /**
+     * Maps the key to [0, 1) with a 64-bit finalizer, so that neighbouring ids get unrelated TTLs.
+     */
+    private static double unitHash(String key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * Value serializer of one cache that writes the format currently selected by its {@link CachePolicy}.
+ *
+ * <p>Reading goes through the {@link BinaryCacheValueSerializer}, which hands non-binary values
+ * to the JSON serializer, so entries written before a format change stay readable.
+ */
+public class FormatSwitchingValueSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final BinaryCacheValueSerializer binarySerializer;
+    private final Supplier<CacheProperties.Format> format;
+
+    public FormatSwitchingValueSerializer(RedisSerializer<Object> jsonSerializer,
+                                          BinaryCacheValueSerializer binarySerializer,
+                                          Supplier<CacheProperties.Format> format) {
+        this.jsonSerializer = jsonSerializer;
+        this.binarySerializer = binarySerializer;
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        return format.get() == CacheProperties.Format.BINARY
+                ? binarySerializer.serialize(value)
+                : jsonSerializer.serialize(value);
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        return binarySerializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,403 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+/**
+ * {@link RedisCacheWriter} of the hash bucket layout: the entries of {@code bucketSize} consecutive numeric ids
+ * share one Redis hash, {@code userCache::ids:4200-4299}, with the id as the field. Redis stores a small hash
+ * as one compact listpack, which saves the per-key overhead (key object, dictionary and expiry entries) of
+ * a string key per entry; the saving is largest while the bucket stays listpack-encoded, i.e. while
+ * {@code bucketSize <= hash-max-listpack-entries} and the values fit {@code hash-max-listpack-value}.
+ *
+ * <p>Each field gets its own TTL ({@code HPEXPIRE}, Redis 7.4+), set in the same script as the value, so
+ * entries expire independently as with string keys and an emptied bucket is deleted by Redis. Keys that
+ * are not numeric ids are passed to the delegate writer unchanged.
+ *
+ * <p>The asynchronous {@link #retrieve} and {@link #store} of bucket entries go through the reactive Lettuce
+ * connection, as the delegate's do, so they complete on the Redis client's threads and hold no other thread
+ * while Redis answers. They are only supported if the connection factory is reactive.
+ *
+ * <p>The L1 invalidation of client tracking sees the bucket key only; {@link #localKeysOf(String)} expands
+ * it to the local keys of the whole bucket.
+ */
+public class HashBucketCacheWriter implements RedisCacheWriter {
+
+    private static final String BUCKET_PREFIX = "ids:";
+
+    private static final String KEY_SEPARATOR = "::";
+
+    /**
+     * Longest bucket {@link #localKeysOf(String)} expands, against keys not written by this class.
+     */
+    private static final long MAXIMUM_EXPANDED_BUCKET = 10_000;
+
+    private static final byte[] PUT_SCRIPT = """
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            if tonumber(ARGV[3]) > 0 then
+                redis.call('HPEXPIRE', KEYS[1], ARGV[3], 'FIELDS', 1, ARGV[1])
+            end
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Returns the existing value, or {@code nil} if the field was absent and has been set.
+     */
+    private static final byte[] PUT_IF_ABSENT_SCRIPT = """
+            if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 1 then
+                if tonumber(ARGV[3]) > 0 then
+                    redis.call('HPEXPIRE', KEYS[1], ARGV[3], 'FIELDS', 1, ARGV[1])
+                end
+                return false
+            end
+            return redis.call('HGET', KEYS[1], ARGV[1])
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisCacheWriter delegate;
+    private final RedisConnectionFactory connectionFactory;
+    @Nullable
+    private final ReactiveRedisConnectionFactory reactiveConnectionFactory;
+    private final String keyPrefix;
+    private final int bucketSize;
+
+    public HashBucketCacheWriter(RedisCacheWriter delegate,
+                                 RedisConnectionFactory connectionFactory,
+                                 String cacheName,
+                                 int bucketSize) {
+        if (bucketSize <= 0) {
+            throw new IllegalArgumentException("Bucket size must be positive: " + bucketSize);
+        }
+        this.delegate = delegate;
+        this.connectionFactory = connectionFactory;
+        this.reactiveConnectionFactory = connectionFactory instanceof ReactiveRedisConnectionFactory reactive ? reactive : null;
+        this.keyPrefix = cacheName + KEY_SEPARATOR;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * @param localKey the part of a Redis key after {@code cacheName::}
+     * @return the local keys of all ids of the bucket, or {@code null} if {@code localKey} is not a bucket
+     */
+    @Nullable
+    public static List<String> localKeysOf(String localKey) {
+        if (!localKey.startsWith(BUCKET_PREFIX)) {
+            return null;
+        }
+        String[] range = localKey.substring(BUCKET_PREFIX.length()).split("-", 2);
+        try {
+            long first = Long.parseLong(range[0]);
+            long last = Long.parseLong(range[1]);
+            if (last < first || last - first >= MAXIMUM_EXPANDED_BUCKET) {
+                return null;
+            }
+            return LongStream.rangeClosed(first, last).mapToObj(Long::toString).toList();
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(String name, byte[] key) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            return delegate.get(name, key);
+        }
+        return execute(connection -> connection.hashCommands().hGet(bucket.key(), bucket.field()));
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(String name, byte[] key, @Nullable Duration ttl) {
+        return locate(key) == null ? delegate.get(name, key, ttl) : get(name, key);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve() && reactiveConnectionFactory != null;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, @Nullable Duration ttl) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            return delegate.retrieve(name, key, ttl);
+        }
+        return executeAsync(connection -> connection.hashCommands()
+                .hGet(ByteBuffer.wrap(bucket.key()), ByteBuffer.wrap(bucket.field()))
+                .map(ByteUtils::getBytes));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            delegate.put(name, key, value, ttl);
+            return;
+        }
+        execute(connection -> eval(connection, PUT_SCRIPT, ReturnType.INTEGER, bucket, value, ttl));
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            return delegate.store(name, key, value, ttl);
+        }
+        return executeAsync(connection -> connection.scriptingCommands()
+                .eval(ByteBuffer.wrap(PUT_SCRIPT), ReturnType.INTEGER, 1, ByteBuffer.wrap(bucket.key()),
+                        ByteBuffer.wrap(bucket.field()), ByteBuffer.wrap(value), ByteBuffer.wrap(ttlMillis(ttl)))
+                .then());
+    }
+
+    @Override
+    @Nullable
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            return delegate.putIfAbsent(name, key, value, ttl);
+        }
+        return execute(connection -> eval(connection, PUT_IF_ABSENT_SCRIPT, ReturnType.VALUE, bucket, value, ttl));
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        Bucket bucket = locate(key);
+        if (bucket == null) {
+            delegate.remove(name, key);
+            return;
+        }
+        execute(connection -> connection.hashCommands().hDel(bucket.key(), bucket.field()));
+    }
+
+    /**
+     * The buckets share the key prefix of the cache, so the pattern of {@code clear()} matches them too.
+     */
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new HashBucketCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                connectionFactory, keyPrefix.substring(0, keyPrefix.length() - KEY_SEPARATOR.length()), bucketSize);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    /**
+     * Reads many keys in one pipeline: one {@code HMGET} per bucket, one {@code MGET} for the other keys.
+     *
+     * @return the values in the order of {@code keys}, {@code null} for the missing ones
+     */
+    List<byte[]> getAll(List<byte[]> keys) {
+        Map<BucketKey, List<Integer>> positionsByBucket = new LinkedHashMap<>();
+        List<Integer> plainPositions = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Bucket bucket = locate(keys.get(i));
+            if (bucket == null) {
+                plainPositions.add(i);
+            } else {
+                positionsByBucket.computeIfAbsent(new BucketKey(bucket.key()), k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<Object> replies = execute(connection -> {
+            connection.openPipeline();
+            positionsByBucket.forEach((bucketKey, positions) -> connection.hashCommands().hMGet(bucketKey.key(),
+                    positions.stream().map(i -> locate(keys.get(i)).field()).toArray(byte[][]::new)));
+            if (!plainPositions.isEmpty()) {
+                connection.stringCommands().mGet(plainPositions.stream().map(keys::get).toArray(byte[][]::new));
+            }
+            return connection.closePipeline();
+        });
+
+        byte[][] values = new byte[keys.size()][];
+        int reply = 0;
+        for (List<Integer> positions : positionsByBucket.values()) {
+            fill(values, positions, replies.get(reply++));
+        }
+        if (!plainPositions.isEmpty()) {
+            fill(values, plainPositions, replies.get(reply));
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Writes many entries in one pipeline, one script or {@code SET} per entry.
+     *
+     * @param ttls the TTL of each entry, in the order of {@code keys}
+     * @return for each entry whether it was written (always {@code true} unless {@code ifAbsent})
+     */
+    public List<Boolean> putAll(List<byte[]> keys, List<byte[]> values, List<Duration> ttls, boolean ifAbsent) {
+        List<Object> replies = execute(connection -> {
+            connection.openPipeline();
+            for (int i = 0; i < keys.size(); i++) {
+                Bucket bucket = locate(keys.get(i));
+                Duration ttl = ttls.get(i);
+                if (bucket != null) {
+                    eval(connection, ifAbsent ? PUT_IF_ABSENT_SCRIPT : PUT_SCRIPT,
+                            ifAbsent ? ReturnType.VALUE : ReturnType.INTEGER, bucket, values.get(i), ttl);
+                } else {
+                    connection.stringCommands().set(keys.get(i), values.get(i),
+                            isPersistent(ttl) ? Expiration.persistent() : Expiration.from(ttl),
+                            ifAbsent ? SetOption.ifAbsent()
+                                    : SetOption.upsert());
+                }
+            }
+            return connection.closePipeline();
+        });
+        List<Boolean> written = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object reply = i < replies.size() ? replies.get(i) : null;
+            if (locate(keys.get(i)) != null) {
+                written.add(!ifAbsent || reply == null);
+            } else {
+                written.add(Boolean.TRUE.equals(reply));
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Deletes many keys in one pipeline: one {@code HDEL} per bucket, one {@code DEL} for the other keys.
+     */
+    void removeAll(List<byte[]> keys) {
+        Map<BucketKey, List<byte[]>> fieldsByBucket = new LinkedHashMap<>();
+        List<byte[]> plainKeys = new ArrayList<>();
+        for (byte[] key : keys) {
+            Bucket bucket = locate(key);
+            if (bucket == null) {
+                plainKeys.add(key);
+            } else {
+                fieldsByBucket.computeIfAbsent(new BucketKey(bucket.key()), k -> new ArrayList<>()).add(bucket.field());
+            }
+        }
+        execute(connection -> {
+            connection.openPipeline();
+            fieldsByBucket.forEach((bucketKey, fields) ->
+                    connection.hashCommands().hDel(bucketKey.key(), fields.toArray(byte[][]::new)));
+            if (!plainKeys.isEmpty()) {
+                connection.keyCommands().del(plainKeys.toArray(byte[][]::new));
+            }
+            return connection.closePipeline();
+        });
+    }
+
+    /**
+     * @return the bucket of a key of this cache whose id is a canonical decimal {@code long}, else {@code null}
+     */
+    @Nullable
+    Bucket locate(byte[] key) {
+        String redisKey = new String(key, StandardCharsets.UTF_8);
+        if (!redisKey.startsWith(keyPrefix)) {
+            return null;
+        }
+        String idText = redisKey.substring(keyPrefix.length());
+        long id;
+        try {
+            id = Long.parseLong(idText);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (!Long.toString(id).equals(idText)) {
+            return null; // "007" and "+7" are different cache keys than "7"
+        }
+        long first = Math.floorDiv(id, bucketSize) * bucketSize;
+        String bucketKey = keyPrefix + BUCKET_PREFIX + first + "-" + (first + bucketSize - 1);
+        return new Bucket(bucketKey.getBytes(StandardCharsets.UTF_8), idText.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> T eval(RedisConnection connection, byte[] script, ReturnType returnType,
+                              Bucket bucket, byte[] value, @Nullable Duration ttl) {
+        return connection.scriptingCommands().eval(script, returnType, 1, bucket.key(), bucket.field(), value, ttlMillis(ttl));
+    }
+
+    /**
+     * @return the TTL argument of the put scripts, {@code 0} for no expiry
+     */
+    private static byte[] ttlMillis(@Nullable Duration ttl) {
+        return Long.toString(isPersistent(ttl) ? 0 : ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isPersistent(@Nullable Duration ttl) {
+        return ttl == null || ttl.isZero() || ttl.isNegative();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void fill(byte[][] values, List<Integer> positions, Object reply) {
+        List<byte[]> replyValues = (List<byte[]>) reply;
+        for (int i = 0; replyValues != null && i < positions.size() && i < replyValues.size(); i++) {
+            values[positions.get(i)] = replyValues.get(i);
+        }
+    }
+
+    private <T> T execute(Function<RedisConnection, T> callback) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return callback.apply(connection);
+        }
+    }
+
+    /**
+     * Runs a command on a reactive connection, released once the command completes.
+     *
+     * @return completes with the reply, or with {@code null} if there is none
+     */
+    private <T> CompletableFuture<T> executeAsync(Function<ReactiveRedisConnection, Mono<T>> callback) {
+        if (reactiveConnectionFactory == null) {
+            throw new UnsupportedOperationException("Asynchronous access to hash buckets needs a reactive connection factory");
+        }
+        return Mono.usingWhen(Mono.fromSupplier(reactiveConnectionFactory::getReactiveConnection),
+                callback, ReactiveRedisConnection::closeLater).toFuture();
+    }
+
+    record Bucket(byte[] key, byte[] field) {
+    }
+
+    /**
+     * Bucket key with value equality, for grouping.
+     */
+    private record BucketKey(byte[] key) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BucketKey bucketKey && Arrays.equals(key, bucketKey.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(key);
+        }
+    }
+}
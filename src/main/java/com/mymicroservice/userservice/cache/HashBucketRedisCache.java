@@ -0,0 +1,106 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link BatchRedisCache} of the hash bucket layout: the batch operations go through the
+ * {@link HashBucketCacheWriter}, one {@code HMGET} or {@code HDEL} per bucket and one script per written entry,
+ * all in a single pipeline.
+ */
+public class HashBucketRedisCache extends BatchRedisCache {
+
+    private final HashBucketCacheWriter bucketWriter;
+
+    protected HashBucketRedisCache(String name,
+                                   HashBucketCacheWriter cacheWriter,
+                                   RedisCacheConfiguration cacheConfiguration,
+                                   RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration, connectionFactory);
+        this.bucketWriter = cacheWriter;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> orderedKeys = new ArrayList<>(keys);
+        List<byte[]> values = bucketWriter.getAll(orderedKeys.stream().map(this::redisKey).toList());
+
+        Map<Object, Object> result = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            byte[] bytes = values.get(i);
+            if (bytes != null) {
+                Object value = fromStoreValue(deserializeCacheValue(bytes));
+                if (value != null) {
+                    result.put(orderedKeys.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Object> putAllIfAbsent(Map<?, ?> entries) {
+        List<Object> keys = new ArrayList<>(entries.size());
+        List<Boolean> written = write(entries, true, keys);
+
+        Set<Object> stored = new HashSet<>();
+        for (int i = 0; i < keys.size() && i < written.size(); i++) {
+            if (written.get(i)) {
+                stored.add(keys.get(i));
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        write(entries, false, new ArrayList<>(entries.size()));
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        if (!keys.isEmpty()) {
+            bucketWriter.removeAll(keys.stream().map(this::redisKey).toList());
+        }
+    }
+
+    /**
+     * @param keys receives the keys in the order of the returned results
+     */
+    private List<Boolean> write(Map<?, ?> entries, boolean ifAbsent, List<Object> keys) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        RedisCacheWriter.TtlFunction ttlFunction = getCacheConfiguration().getTtlFunction();
+        List<byte[]> redisKeys = new ArrayList<>(entries.size());
+        List<byte[]> values = new ArrayList<>(entries.size());
+        List<Duration> ttls = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            if (value == null) {
+                return; // null values are not cached
+            }
+            keys.add(key);
+            redisKeys.add(redisKey(key));
+            values.add(serializeCacheValue(toStoreValue(value)));
+            ttls.add(ttlFunction.getTimeToLive(key, value));
+        });
+        return bucketWriter.putAll(redisKeys, values, ttls, ifAbsent);
+    }
+
+    private byte[] redisKey(Object key) {
+        return serializeCacheKey(createCacheKey(key));
+    }
+}
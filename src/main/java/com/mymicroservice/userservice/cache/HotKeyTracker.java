@@ -0,0 +1,123 @@
+package com.mymicroservice.userservice.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate top-K of the most frequently read keys of a cache.
+ *
+ * <p>Frequencies are estimated with a count-min sketch of {@code depth} rows by {@code width} counters,
+ * so memory does not grow with the number of distinct keys. Only keys whose estimate beats the
+ * current K-th candidate are kept by name, in a candidate set of {@code 2 * topK} entries.
+ *
+ * <p>Once the sketch has seen {@code 10 * width} additions, every counter is halved, so the report
+ * follows the recent traffic instead of the all-time totals. With a {@code sampleRate} below 1
+ * only that share of reads is counted, and the estimates are scaled back when reported.
+ */
+public class HotKeyTracker {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL};
+
+    private final int depth;
+    private final int widthBits;
+    private final int topK;
+    private final double sampleRate;
+    private final long agingThreshold;
+    private final AtomicLongArray counters;
+    private final AtomicLong additions = new AtomicLong();
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private volatile long admissionThreshold;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows, at most 8
+     */
+    public HotKeyTracker(int topK, int width, int depth, double sampleRate) {
+        if (topK <= 0 || width <= 0 || depth <= 0 || depth > SEEDS.length || sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Invalid hot key tracker settings: topK=" + topK + ", width=" + width
+                    + ", depth=" + depth + ", sampleRate=" + sampleRate);
+        }
+        this.topK = topK;
+        this.depth = depth;
+        this.widthBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, width - 1));
+        this.sampleRate = sampleRate;
+        this.agingThreshold = 10L << widthBits;
+        this.counters = new AtomicLongArray(depth << widthBits);
+    }
+
+    public void record(String key) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        long hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(indexOf(hash, row)));
+        }
+        if (additions.incrementAndGet() >= agingThreshold && age()) {
+            estimate >>>= 1;
+        }
+        if (estimate > admissionThreshold || candidates.containsKey(key)) {
+            offer(key, estimate);
+        }
+    }
+
+    /**
+     * @return at most {@code topK} keys, hottest first
+     */
+    public List<HotKey> topKeys() {
+        List<HotKey> hotKeys = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> hotKeys.add(new HotKey(key, Math.round(count / sampleRate))));
+        hotKeys.sort(Comparator.comparingLong(HotKey::estimatedCount).reversed());
+        return hotKeys.size() > topK ? new ArrayList<>(hotKeys.subList(0, topK)) : hotKeys;
+    }
+
+    private int indexOf(long hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (row << widthBits) | (int) (mixed >>> (64 - widthBits));
+    }
+
+    private synchronized void offer(String key, long estimate) {
+        candidates.put(key, estimate);
+        if (candidates.size() <= 2 * topK) {
+            return;
+        }
+        String coldest = null;
+        long coldestCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < coldestCount) {
+                coldest = candidate.getKey();
+                coldestCount = candidate.getValue();
+            }
+        }
+        candidates.remove(coldest);
+        admissionThreshold = coldestCount;
+    }
+
+    private synchronized boolean age() {
+        if (additions.get() < agingThreshold) {
+            return false; // another thread has just aged the sketch
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        candidates.replaceAll((key, count) -> count >>> 1);
+        admissionThreshold >>>= 1;
+        additions.set(0);
+        return true;
+    }
+
+    /**
+     * @param estimatedCount estimated reads since the last aging, an upper bound of the actual count
+     */
+    public record HotKey(String key, long estimatedCount) {
+    }
+}
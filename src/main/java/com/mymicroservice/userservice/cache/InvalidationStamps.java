@@ -0,0 +1,42 @@
+package com.mymicroservice.userservice.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tells whether a key was invalidated while it was being read, so that a value read from L2
+ * (or loaded from the database) before the invalidation isn't copied into L1 after it.
+ *
+ * <p>A reader takes a {@link #stamp} before the read and checks it with {@link #changedSince}
+ * after filling L1; every write, eviction and invalidation message bumps the stamp of its key.
+ * Keys share a fixed number of stripes, so a change to another key of the same stripe
+ * also counts — the fill is then skipped needlessly, which only costs one more L2 read.
+ */
+class InvalidationStamps {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    private final AtomicLong all = new AtomicLong();
+
+    long stamp(String localKey) {
+        return stripes.get(indexOf(localKey)) + all.get();
+    }
+
+    boolean changedSince(String localKey, long stamp) {
+        return stamp(localKey) != stamp;
+    }
+
+    void invalidate(String localKey) {
+        stripes.incrementAndGet(indexOf(localKey));
+    }
+
+    void invalidateAll() {
+        all.incrementAndGet();
+    }
+
+    private static int indexOf(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
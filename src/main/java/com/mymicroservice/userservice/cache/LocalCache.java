@@ -0,0 +1,46 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Store of the L1 tier of a {@link TwoLevelCache}, keyed by the string form of the cache key.
+ *
+ * <p>Implementations are thread-safe and bounded; they may drop any entry at any time.
+ *
+ * @see CaffeineLocalCache
+ * @see OffHeapLocalCache
+ */
+public interface LocalCache {
+
+    @Nullable
+    Object getIfPresent(String key);
+
+    void put(String key, Object value);
+
+    void invalidate(String key);
+
+    void invalidateAll();
+
+    /**
+     * @return up to {@code limit} keys, the most frequently used first as far as the store can tell
+     */
+    List<String> hottestKeys(int limit);
+
+    /**
+     * Applies the L1 bounds of a changed policy, keeping the entries if possible.
+     *
+     * @return {@code false} if this store can't take the policy and has to be replaced
+     */
+    boolean resize(CachePolicy policy);
+
+    /**
+     * Scales the heap bound of the policy, for the {@link LocalCacheGovernor}: below {@code 1} the coldest
+     * entries are evicted until the store fits, {@code 1} restores the bound. Stores that keep their entries
+     * off the heap ignore it.
+     */
+    void scaleCapacity(double scale);
+
+    long estimatedSize();
+}
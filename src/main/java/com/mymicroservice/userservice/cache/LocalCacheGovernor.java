@@ -0,0 +1,169 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gives L1 memory back under heap pressure, before the collector is driven into long or back-to-back pauses.
+ *
+ * <p>The governor listens for the end of every garbage collection ({@link GarbageCollectorMXBean} notifications)
+ * and for heap pools crossing their collection usage threshold, which it sets to {@code high-watermark} of the
+ * pool ({@link MemoryPoolMXBean#setCollectionUsageThreshold(long)}). Each time it compares the heap still used
+ * after the collection with the maximum heap: at or above {@code high-watermark} the heap bounds of all L1 caches
+ * shrink by {@code shrink-factor}, down to {@code minimum-scale} of the policy bounds, and Caffeine evicts the
+ * coldest entries; at or below {@code low-watermark} they grow back by one step until the policy bounds apply
+ * again. Off-heap L1 caches are left alone.
+ *
+ * <p>Exported to Micrometer as {@code cache.local.shedding{action=shrink|grow}} (steps taken),
+ * {@code cache.local.shedding.entries} (entries evicted by shrinking) and {@code cache.local.capacity.scale}.
+ */
+@Slf4j
+public class LocalCacheGovernor implements NotificationListener, InitializingBean, DisposableBean {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final double shrinkFactor;
+    private final double minimumScale;
+    private final Counter shrinks;
+    private final Counter grows;
+    private final Counter shedEntries;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools;
+    private volatile double scale = 1;
+
+    public LocalCacheGovernor(TwoLevelCacheManager cacheManager, CacheProperties.Governor settings, MeterRegistry meterRegistry) {
+        if (settings.getLowWatermark() >= settings.getHighWatermark()) {
+            throw new IllegalArgumentException("cache.governor.low-watermark must be below high-watermark");
+        }
+        if (settings.getShrinkFactor() <= 0 || settings.getShrinkFactor() >= 1) {
+            throw new IllegalArgumentException("cache.governor.shrink-factor must be between 0 and 1: "
+                    + settings.getShrinkFactor());
+        }
+        this.cacheManager = cacheManager;
+        this.highWatermark = settings.getHighWatermark();
+        this.lowWatermark = settings.getLowWatermark();
+        this.shrinkFactor = settings.getShrinkFactor();
+        this.minimumScale = settings.getMinimumScale();
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getName)
+                .collect(Collectors.toUnmodifiableSet());
+
+        this.shrinks = meterRegistry.counter("cache.local.shedding", "action", "shrink");
+        this.grows = meterRegistry.counter("cache.local.shedding", "action", "grow");
+        this.shedEntries = Counter.builder("cache.local.shedding.entries")
+                .description("L1 entries evicted to give heap back")
+                .register(meterRegistry);
+        Gauge.builder("cache.local.capacity.scale", this, LocalCacheGovernor::getScale)
+                .description("L1 heap bounds relative to the bounds of the cache policies")
+                .register(meterRegistry);
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * highWatermark));
+            }
+        }
+        if (ManagementFactory.getMemoryMXBean() instanceof NotificationEmitter emitter) {
+            emitter.addNotificationListener(this, null, null);
+            emitters.add(emitter);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // already gone
+            }
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        switch (notification.getType()) {
+            case GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION -> {
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long used = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                        .filter(pool -> heapPools.contains(pool.getKey()))
+                        .mapToLong(pool -> pool.getValue().getUsed())
+                        .sum();
+                onHeapUsage((double) used / Runtime.getRuntime().maxMemory());
+            }
+            case MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED -> {
+                MemoryUsage usage = MemoryNotificationInfo.from((CompositeData) notification.getUserData()).getUsage();
+                onHeapUsage((double) usage.getUsed() / usage.getMax());
+            }
+            default -> {
+                // other notifications of the memory beans
+            }
+        }
+    }
+
+    /**
+     * Takes one shrinking or growing step, if the share of the heap used after a collection calls for it.
+     *
+     * @param usedAfterCollection used share of the maximum heap (or of a pool) after a garbage collection
+     */
+    public synchronized void onHeapUsage(double usedAfterCollection) {
+        if (usedAfterCollection >= highWatermark && scale > minimumScale) {
+            double previous = scale;
+            scale = Math.max(minimumScale, scale * shrinkFactor);
+            long evicted = cacheManager.scaleLocalCaches(scale);
+            shrinks.increment();
+            shedEntries.increment(evicted);
+            log.info("Heap {}% used after GC, L1 bounds shrunk from {}% to {}%, {} entries evicted",
+                    percent(usedAfterCollection), percent(previous), percent(scale), evicted);
+        } else if (usedAfterCollection <= lowWatermark && scale < 1) {
+            double previous = scale;
+            scale = scale / shrinkFactor >= 0.999 ? 1 : scale / shrinkFactor;
+            cacheManager.scaleLocalCaches(scale);
+            grows.increment();
+            log.info("Heap {}% used after GC, L1 bounds grown from {}% to {}%",
+                    percent(usedAfterCollection), percent(previous), percent(scale));
+        }
+    }
+
+    private static long percent(double share) {
+        return Math.round(share * 100);
+    }
+}
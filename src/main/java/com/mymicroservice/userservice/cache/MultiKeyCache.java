@@ -0,0 +1,37 @@
+package com.mymicroservice.userservice.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch operations of a cache that can serve many keys in one round trip to its store.
+ */
+public interface MultiKeyCache {
+
+    /**
+     * Looks the keys up in one batch.
+     *
+     * @return the cached values by key; keys that are not cached are absent from the map
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    /**
+     * Stores the entries that are not cached yet, used to fill the cache after {@link #getAll} missed.
+     * Entries cached in between (e.g. by a concurrent update) are kept.
+     *
+     * @return the keys whose values were stored
+     */
+    Set<Object> putAllIfAbsent(Map<?, ?> entries);
+
+    /**
+     * Stores the entries in one batch, replacing cached values, like {@link org.springframework.cache.Cache#put}
+     * for each of them. {@code null} values are skipped.
+     */
+    void putAll(Map<?, ?> entries);
+
+    /**
+     * Removes the keys in one batch.
+     */
+    void evictAll(Collection<?> keys);
+}
@@ -0,0 +1,104 @@
+package com.mymicroservice.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short-lived "not found" tombstones for point lookups.
+ *
+ * <p>Ids that were looked up and not found are remembered for {@code cache.negative.ttl},
+ * so repeated probes of non-existent ids (scanners, buggy clients) are answered with
+ * a 404 without querying the database. The store is local to the instance and bounded
+ * by {@code cache.negative.maximum-size}.
+ *
+ * <p>Tombstones are keyed like the positive caches ({@code cacheName} + key), so they are
+ * also dropped by the L1 invalidation messages of {@link TwoLevelCacheManager}: a write of
+ * a key on any instance removes its tombstone everywhere.
+ *
+ * <p>Exported to Micrometer as {@code cache.negative.hits{cache}}.
+ */
+@Component
+public class NegativeCache {
+
+    private static final String SEPARATOR = "::";
+
+    private final Cache<String, Boolean> tombstones;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public NegativeCache(CacheProperties cacheProperties,
+                         TwoLevelCacheManager cacheManager,
+                         MeterRegistry meterRegistry) {
+        CacheProperties.Negative negative = cacheProperties.getNegative();
+        this.tombstones = Caffeine.newBuilder()
+                .maximumSize(negative.getMaximumSize())
+                .expireAfterWrite(negative.getTtl())
+                .build();
+        this.invalidationPublisher = cacheManager;
+        this.meterRegistry = meterRegistry;
+        cacheManager.addInvalidationListener(this::invalidateLocal);
+    }
+
+    /**
+     * @return {@code true} if the key was recently looked up and not found
+     */
+    public boolean isAbsent(String cacheName, Object key) {
+        boolean absent = tombstones.getIfPresent(toTombstoneKey(cacheName, String.valueOf(key))) != null;
+        if (absent) {
+            meterRegistry.counter("cache.negative.hits", "cache", cacheName).increment();
+        }
+        return absent;
+    }
+
+    /**
+     * Remembers that the key doesn't exist.
+     */
+    public void markAbsent(String cacheName, Object key) {
+        tombstones.put(toTombstoneKey(cacheName, String.valueOf(key)), Boolean.TRUE);
+    }
+
+    /**
+     * Drops the tombstone of a key that now exists, on this and on every other instance.
+     *
+     * <p>When called inside a transaction the tombstone is dropped once more after commit
+     * (and only then on the other instances), since a lookup running concurrently with the
+     * transaction doesn't see the new row yet and may put the tombstone back in between.
+     */
+    public void evict(String cacheName, Object key) {
+        String localKey = String.valueOf(key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndPublish(cacheName, localKey);
+            return;
+        }
+        tombstones.invalidate(toTombstoneKey(cacheName, localKey));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndPublish(cacheName, localKey);
+            }
+        });
+    }
+
+    private void evictAndPublish(String cacheName, String localKey) {
+        tombstones.invalidate(toTombstoneKey(cacheName, localKey));
+        invalidationPublisher.publish(cacheName, localKey);
+    }
+
+    private void invalidateLocal(String cacheName, @Nullable String localKey) {
+        if (localKey == null) {
+            tombstones.asMap().keySet().removeIf(key -> key.startsWith(cacheName + SEPARATOR));
+        } else {
+            tombstones.invalidate(toTombstoneKey(cacheName, localKey));
+        }
+    }
+
+    private static String toTombstoneKey(String cacheName, String localKey) {
+        return cacheName + SEPARATOR + localKey;
+    }
+}
@@ -0,0 +1,466 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap {@link LocalCache} for caches keyed by numeric ids, such as {@code userCache} and {@code cardInfoCache}.
+ *
+ * <p>Values are kept serialized in slabs of direct memory and decoded on every hit, so even millions of
+ * entries leave the garbage collector nothing to trace but a few primitive arrays: the index is an
+ * open-addressing hash table of {@code long} ids (linear probing, backward-shift deletion) pointing into
+ * the slabs. Keys that are not the string form of a {@code long} are not stored. A hit returns a new copy
+ * of the value, never an instance shared with other callers.
+ *
+ * <p>The store is split into segments, each with its own lock, slabs and index. A segment appends entries to
+ * its current slab; when that is full, the next slab is reclaimed like the hand of a clock: entries read since
+ * the hand last passed are moved to the front of the slab and lose their mark, the others are evicted, as are
+ * expired and overwritten ones. Memory is thus bounded by the slabs, {@code maximumBytes} in total, and entries
+ * by {@code maximumEntries}. Slabs are allocated when first written.
+ *
+ * <p>Values larger than a slab are not stored.
+ */
+@Slf4j
+public class OffHeapLocalCache implements LocalCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_ENTRIES = 1024;
+    private static final int SLABS_PER_SEGMENT = 16;
+    private static final int MIN_SLAB_SIZE = 16 * 1024;
+    private static final int MAX_SLAB_SIZE = 1024 * 1024;
+
+    /**
+     * Entry size assumed to derive the entry bound from the memory bound.
+     */
+    private static final int AVERAGE_ENTRY_SIZE = 128;
+
+    /**
+     * Id and value length in front of every value in a slab.
+     */
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private static final byte[] NULL_VALUE = new byte[0];
+
+    private final RedisSerializer<Object> serializer;
+    private final long maximumBytes;
+    private final long maximumEntries;
+    private final long expireAfterWriteNanos;
+    private final Segment[] segments;
+
+    public OffHeapLocalCache(RedisSerializer<Object> serializer, CachePolicy policy, Duration expireAfterWrite) {
+        this(serializer, policy.maximumWeight().toBytes(), policy.maximumEntries(), expireAfterWrite);
+    }
+
+    /**
+     * @param serializer encodes the values; must not produce empty arrays for non-null values
+     * @param maximumBytes bound of the slab memory, raised to two slabs of 16 KiB per segment if lower
+     * @param maximumEntries bound of the number of entries; {@code 0} derives it from {@code maximumBytes}
+     */
+    public OffHeapLocalCache(RedisSerializer<Object> serializer,
+                             long maximumBytes,
+                             long maximumEntries,
+                             Duration expireAfterWrite) {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Off-heap L1 needs a positive maximum weight: " + maximumBytes);
+        }
+        this.serializer = serializer;
+        this.maximumBytes = maximumBytes;
+        this.maximumEntries = maximumEntries;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+
+        long entries = maximumEntries > 0 ? maximumEntries : Math.max(1, maximumBytes / AVERAGE_ENTRY_SIZE);
+        int segmentCount = (int) Math.min(MAX_SEGMENTS, Long.highestOneBit(Math.max(1, entries / MIN_SEGMENT_ENTRIES)));
+        long segmentBytes = maximumBytes / segmentCount;
+        int slabSize = (int) Math.min(MAX_SLAB_SIZE, Math.max(MIN_SLAB_SIZE, segmentBytes / SLABS_PER_SEGMENT));
+        int slabCount = (int) Math.max(2, segmentBytes / slabSize);
+        int segmentEntries = (int) Math.min(1 << 29, (entries + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slabCount, slabSize, segmentEntries);
+        }
+    }
+
+    @Override
+    @Nullable
+    public Object getIfPresent(String key) {
+        if (!isId(key)) {
+            return null;
+        }
+        long id = Long.parseLong(key);
+        byte[] value = segmentFor(id).get(id, System.nanoTime());
+        if (value == null) {
+            return null;
+        }
+        return value.length == 0 ? NullValue.INSTANCE : serializer.deserialize(value);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        if (!isId(key)) {
+            return;
+        }
+        long id = Long.parseLong(key);
+        byte[] bytes;
+        try {
+            bytes = value instanceof NullValue ? NULL_VALUE : serializer.serialize(value);
+        } catch (SerializationException e) {
+            log.debug("Value of key '{}' can't be kept off-heap: {}", key, e.getMessage());
+            segmentFor(id).remove(id);
+            return;
+        }
+        segmentFor(id).put(id, bytes, System.nanoTime());
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (isId(key)) {
+            long id = Long.parseLong(key);
+            segmentFor(id).remove(id);
+        }
+    }
+
+    /**
+     * Drops every entry and releases the slabs.
+     */
+    @Override
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Entries read since the clock hand last passed them come first.
+     */
+    @Override
+    public List<String> hottestKeys(int limit) {
+        List<String> keys = new ArrayList<>();
+        long now = System.nanoTime();
+        for (boolean referenced : new boolean[]{true, false}) {
+            for (Segment segment : segments) {
+                segment.collectKeys(keys, limit, referenced, now);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Keeps the entries only if neither bound changes; the slabs and the index are sized when the store is created.
+     */
+    @Override
+    public boolean resize(CachePolicy policy) {
+        return policy.isOffHeap()
+                && policy.maximumWeight().toBytes() == maximumBytes
+                && policy.maximumEntries() == maximumEntries;
+    }
+
+    /**
+     * Nothing to do: the values don't live on the heap and the index is sized when the store is created.
+     */
+    @Override
+    public void scaleCapacity(double scale) {
+    }
+
+    /**
+     * @return number of entries, including expired ones not evicted yet
+     */
+    @Override
+    public long estimatedSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return direct memory held by the slabs
+     */
+    public long allocatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[(int) (hash(id) >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Whether the key is the string form of a {@code long} short enough to never overflow.
+     */
+    private static boolean isId(String key) {
+        int start = key.startsWith("-") ? 1 : 0;
+        int length = key.length();
+        if (length == start || length - start > 18) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Murmur3 finalizer: ids are sequential, the index and the segments need their bits mixed.
+     */
+    private static long hash(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Segment {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final int slabSize;
+        private final int maximumEntries;
+        private final ByteBuffer[] slabs;
+        private final int[] slabEnds;
+
+        private final int mask;
+        private final long[] ids;
+        /**
+         * {@code (slab + 1) << 32 | offset} of the entry in the slot, {@code 0} for a free slot.
+         */
+        private final long[] addresses;
+        private final long[] writeTimes;
+        private final boolean[] referenced;
+
+        private int size;
+        private int head;
+
+        Segment(int slabCount, int slabSize, int maximumEntries) {
+            this.slabSize = slabSize;
+            this.maximumEntries = maximumEntries;
+            this.slabs = new ByteBuffer[slabCount];
+            this.slabEnds = new int[slabCount];
+            // a load factor of 3/4 at most keeps the probe sequences short and at least one slot free
+            int capacity = Integer.highestOneBit(Math.max(2, maximumEntries + maximumEntries / 3 + 1) - 1) << 1;
+            this.mask = capacity - 1;
+            this.ids = new long[capacity];
+            this.addresses = new long[capacity];
+            this.writeTimes = new long[capacity];
+            this.referenced = new boolean[capacity];
+        }
+
+        @Nullable
+        byte[] get(long id, long now) {
+            lock.readLock().lock();
+            try {
+                int slot = find(id);
+                if (slot < 0 || isExpired(slot, now)) {
+                    return null;
+                }
+                referenced[slot] = true; // racy but idempotent; only the clock hand clears it, under the write lock
+                ByteBuffer slab = slabs[slabOf(addresses[slot])];
+                int offset = offsetOf(addresses[slot]);
+                byte[] value = new byte[slab.getInt(offset + Long.BYTES)];
+                slab.get(offset + HEADER_SIZE, value);
+                return value;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(long id, byte[] value, long now) {
+            int entrySize = HEADER_SIZE + value.length;
+            lock.writeLock().lock();
+            try {
+                int slot = find(id);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+                if (entrySize > slabSize) {
+                    return;
+                }
+                while (size >= maximumEntries || slabEnds[head] + entrySize > slabSize) {
+                    advance(now);
+                }
+                ByteBuffer slab = slab(head);
+                int offset = slabEnds[head];
+                slab.putLong(offset, id);
+                slab.putInt(offset + Long.BYTES, value.length);
+                slab.put(offset + HEADER_SIZE, value);
+                slabEnds[head] = offset + entrySize;
+                insert(id, address(head, offset), now);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(id);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                Arrays.fill(addresses, 0);
+                Arrays.fill(slabs, null);
+                Arrays.fill(slabEnds, 0);
+                size = 0;
+                head = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void collectKeys(List<String> keys, int limit, boolean wasReferenced, long now) {
+            lock.readLock().lock();
+            try {
+                for (int slot = 0; slot < addresses.length && keys.size() < limit; slot++) {
+                    if (addresses[slot] != 0 && referenced[slot] == wasReferenced && !isExpired(slot, now)) {
+                        keys.add(Long.toString(ids[slot]));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long allocatedBytes() {
+            lock.readLock().lock();
+            try {
+                return Arrays.stream(slabs).filter(slab -> slab != null).count() * slabSize;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Moves the clock hand to the next slab and reclaims it: entries read since the last pass are
+         * compacted to its front, all others are evicted; writing continues after the kept entries.
+         */
+        private void advance(long now) {
+            head = (head + 1) % slabs.length;
+            ByteBuffer slab = slabs[head];
+            int end = slabEnds[head];
+            int kept = 0;
+            for (int offset = 0; offset < end; ) {
+                long id = slab.getLong(offset);
+                int entrySize = HEADER_SIZE + slab.getInt(offset + Long.BYTES);
+                int slot = find(id);
+                if (slot >= 0 && addresses[slot] == address(head, offset)) {
+                    if (referenced[slot] && !isExpired(slot, now)) {
+                        referenced[slot] = false;
+                        if (kept != offset) {
+                            byte[] entry = new byte[entrySize];
+                            slab.get(offset, entry);
+                            slab.put(kept, entry);
+                            addresses[slot] = address(head, kept);
+                        }
+                        kept += entrySize;
+                    } else {
+                        removeSlot(slot);
+                    }
+                }
+                offset += entrySize;
+            }
+            slabEnds[head] = kept;
+        }
+
+        private ByteBuffer slab(int index) {
+            if (slabs[index] == null) {
+                slabs[index] = ByteBuffer.allocateDirect(slabSize);
+            }
+            return slabs[index];
+        }
+
+        private boolean isExpired(int slot, long now) {
+            return now - writeTimes[slot] >= expireAfterWriteNanos;
+        }
+
+        private int find(long id) {
+            for (int slot = home(id); addresses[slot] != 0; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void insert(long id, long address, long now) {
+            int slot = home(id);
+            while (addresses[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            addresses[slot] = address;
+            writeTimes[slot] = now;
+            referenced[slot] = false;
+            size++;
+        }
+
+        /**
+         * Frees the slot and shifts the following entries of the probe sequence back, so that lookups
+         * never need tombstones.
+         */
+        private void removeSlot(int slot) {
+            int hole = slot;
+            for (int next = (slot + 1) & mask; addresses[next] != 0; next = (next + 1) & mask) {
+                if (((next - home(ids[next])) & mask) >= ((next - hole) & mask)) {
+                    ids[hole] = ids[next];
+                    addresses[hole] = addresses[next];
+                    writeTimes[hole] = writeTimes[next];
+                    referenced[hole] = referenced[next];
+                    hole = next;
+                }
+            }
+            addresses[hole] = 0;
+            size--;
+        }
+
+        private int home(long id) {
+            return (int) hash(id) & mask;
+        }
+
+        private static long address(int slab, int offset) {
+            return (long) (slab + 1) << 32 | offset;
+        }
+
+        private static int slabOf(long address) {
+            return (int) (address >>> 32) - 1;
+        }
+
+        private static int offsetOf(long address) {
+            return (int) address;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static com.mymicroservice.userservice.cache.CacheNames.QUERY_CACHE;
+
+/**
+ * Cache of list and page query results, invalidated by generation counters instead of evictions.
+ *
+ * <p>Every table has a generation counter in Redis ({@code cache:generation:<table>}), and the key of a
+ * cached result contains the generation of its table: {@code users:g42:role=ADMIN}. A write to the table
+ * just increments the counter after commit ({@link #bump}); from then on every instance reads under the
+ * new generation, and the results of older generations are never read again and age out of
+ * {@code queryCache} by its TTL and size bound. Since an entry never changes once written, it is safe
+ * to keep in L1 without invalidation.
+ *
+ * <p>A transaction that wrote to a table queries it from the database until it ends. While Redis is
+ * unavailable ({@link RedisCircuitBreaker} open, or reading the generation fails) queries go to the database
+ * too. A bump that couldn't be sent is repeated when the breaker closes again.
+ */
+@Slf4j
+@Component
+public class QueryResultCache implements DisposableBean {
+
+    public static final String USERS = "users";
+    public static final String CARD_INFO = "card_info";
+
+    private static final String GENERATION_KEY_PREFIX = "cache:generation:";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    @Nullable
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+    private final Set<String> refreshingCounts = ConcurrentHashMap.newKeySet();
+    private final ExecutorService countExecutor;
+
+    public QueryResultCache(CacheManager cacheManager,
+                            StringRedisTemplate redisTemplate,
+                            ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker.getIfAvailable();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("query-count-refresh-");
+        threadFactory.setDaemon(true);
+        this.countExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        if (this.circuitBreaker != null) {
+            this.circuitBreaker.addRecoveryListener(this::retryPendingBumps);
+        }
+    }
+
+    /**
+     * Returns the cached result of a list query over {@code table}, loading it on a miss.
+     *
+     * @param query identifies the query and its parameters within the table, e.g. {@code role=ADMIN}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String table, String query, Supplier<List<T>> loader) {
+        Long generation = currentGeneration(table);
+        if (generation == null) {
+            return loader.get();
+        }
+        // ArrayList: the JSON cache serializer stores the type of non-final collections only
+        return getCache().get(key(table, generation, query), () -> new ArrayList<>(loader.get()));
+    }
+
+    /**
+     * Returns the cached page of a query over {@code table}. The content of each page and the total count
+     * of the query are cached separately, so all pages of a generation share one count.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> getPage(String table, String query, Pageable pageable, Supplier<Page<T>> loader) {
+        Long generation = currentGeneration(table);
+        if (generation == null) {
+            return loader.get();
+        }
+        Cache cache = getCache();
+        String contentKey = key(table, generation, query + ":page=" + pageable.getPageNumber() + ",size=" + pageable.getPageSize());
+        String countKey = key(table, generation, query + ":count");
+        Cache.ValueWrapper content = cache.get(contentKey);
+        Cache.ValueWrapper count = cache.get(countKey);
+        if (content != null && count != null && content.get() instanceof List<?> cachedContent
+                && count.get() instanceof Number total) { // a small count is read back as an Integer
+            return new PageImpl<>((List<T>) cachedContent, pageable, total.longValue());
+        }
+        Page<T> page = loader.get();
+        cache.put(contentKey, new ArrayList<>(page.getContent()));
+        cache.put(countKey, page.getTotalElements());
+        return page;
+    }
+
+    /**
+     * Returns a recent count of a query over {@code table} without waiting for it: the last count taken,
+     * under whatever generation, is returned at once and is recounted in the background when the table
+     * has been written to since. Only a call that finds no count at all (the first one, or after the entry
+     * aged out of {@code queryCache}) counts synchronously. Unlike the
+     * per-generation count of {@link #getPage}, a write-heavy table doesn't have to be counted on every
+     * page request.
+     *
+     * @param counter counts the query, e.g. {@code COUNT(*)} of the table
+     */
+    public long getApproximateCount(String table, String query, Supplier<Long> counter) {
+        Long generation = currentGeneration(table);
+        if (generation == null) {
+            return counter.get();
+        }
+        Cache cache = getCache();
+        String countKey = table + ":approximate:" + query;
+        Cache.ValueWrapper cached = cache.get(countKey);
+        if (cached != null && cached.get() instanceof List<?> entry && entry.size() == 2
+                && entry.get(0) instanceof Number countedAt && entry.get(1) instanceof Number count) {
+            if (countedAt.longValue() != generation && refreshingCounts.add(countKey)) {
+                recount(cache, countKey, generation, counter);
+            }
+            return count.longValue();
+        }
+        long count = counter.get();
+        // ArrayList: the JSON cache serializer stores the type of non-final collections only
+        cache.put(countKey, new ArrayList<>(List.of(generation, count)));
+        return count;
+    }
+
+    @Override
+    public void destroy() {
+        countExecutor.shutdownNow();
+    }
+
+    /**
+     * Moves the generation of the table forward. Inside a transaction the bump is sent once per table
+     * after commit, so that a concurrent reader can't cache the old rows under the new generation, and
+     * is dropped on rollback.
+     */
+    public void bump(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(table);
+            return;
+        }
+        writtenTables().add(table);
+    }
+
+    /**
+     * Tables written by the current transaction. Their queries bypass the cache until commit: the rows
+     * the transaction sees aren't visible to anyone else, and must not be cached under the current generation.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> writtenTables() {
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (tables == null) {
+            Set<String> transactionTables = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionTables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(QueryResultCache.this);
+                    if (status == STATUS_COMMITTED) {
+                        transactionTables.forEach(QueryResultCache.this::increment);
+                    }
+                }
+            });
+            tables = transactionTables;
+        }
+        return tables;
+    }
+
+    @Nullable
+    private Long currentGeneration(String table) {
+        if (circuitBreaker != null && !circuitBreaker.isClosed()) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.getResource(this) instanceof Set<?> written && written.contains(table)) {
+            return null;
+        }
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + table);
+            return generation == null ? 0L : Long.parseLong(generation);
+        } catch (DataAccessException e) {
+            log.debug("Failed to read the generation of '{}', querying the database: {}", table, e.getMessage());
+            return null;
+        }
+    }
+
+    private void increment(String table) {
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + table);
+            pendingBumps.remove(table);
+        } catch (DataAccessException e) {
+            pendingBumps.add(table);
+            log.warn("Failed to bump the generation of '{}', cached results stay visible until it succeeds: {}",
+                    table, e.getMessage());
+        }
+    }
+
+    private void retryPendingBumps() {
+        for (String table : List.copyOf(pendingBumps)) {
+            redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + table);
+            pendingBumps.remove(table);
+        }
+    }
+
+    private void recount(Cache cache, String countKey, long generation, Supplier<Long> counter) {
+        try {
+            countExecutor.execute(() -> {
+                try {
+                    cache.put(countKey, new ArrayList<>(List.of(generation, counter.get())));
+                } catch (RuntimeException e) {
+                    log.debug("Failed to recount '{}': {}", countKey, e.getMessage());
+                } finally {
+                    refreshingCounts.remove(countKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingCounts.remove(countKey);
+        }
+    }
+
+    private Cache getCache() {
+        return cacheManager.getCache(QUERY_CACHE);
+    }
+
+    private static String key(String table, long generation, String query) {
+        return table + ":g" + generation + ":" + query;
+    }
+}
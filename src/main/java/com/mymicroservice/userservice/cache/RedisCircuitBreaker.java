@@ -0,0 +1,193 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker of the Redis cache tier, shared by all caches since they share one Redis.
+ *
+ * <p>Calls report their outcome; once at least {@code minimum-calls} calls were made within {@code window}
+ * and the share of failures reaches {@code failure-rate-threshold}, the breaker opens. While it is open
+ * no request thread talks to Redis: a background thread runs {@code probe} every {@code probe-interval},
+ * and the first probe that succeeds runs the recovery listeners and closes the breaker. A recovery
+ * listener that fails keeps the breaker open until the next probe, but for {@code maximum-recovery-attempts}
+ * probes at most: then the breaker closes anyway and the failed listeners are retried every
+ * {@code probe-interval} in the background until they succeed, so a recovery that can't complete doesn't keep
+ * every cache on its local fallback until restart.
+ *
+ * <p>Exported to Micrometer as {@code cache.redis.breaker.state} ({@code 1} while open) and
+ * {@code cache.redis.breaker.transitions{state=open|closed}}.
+ */
+@Slf4j
+public class RedisCircuitBreaker implements DisposableBean {
+
+    public enum State {
+        CLOSED,
+        OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long windowNanos;
+    private final int maximumRecoveryAttempts;
+    private final Runnable probe;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService prober;
+    private final Counter opened;
+    private final Counter closed;
+    // confined to the prober thread
+    private List<Runnable> pendingRecovery = List.of();
+    private int failedRecoveries;
+
+    /**
+     * @param probe checks that Redis answers again; throws if it doesn't
+     */
+    public RedisCircuitBreaker(CacheProperties.Resilience settings, Runnable probe, MeterRegistry meterRegistry) {
+        this.failureRateThreshold = settings.getFailureRateThreshold();
+        this.minimumCalls = settings.getMinimumCalls();
+        this.windowNanos = settings.getWindow().toNanos();
+        this.maximumRecoveryAttempts = settings.getMaximumRecoveryAttempts();
+        this.probe = probe;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-redis-probe-");
+        threadFactory.setDaemon(true);
+        this.prober = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long probeIntervalMillis = settings.getProbeInterval().toMillis();
+        this.prober.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("cache.redis.breaker.state", state, current -> current.get() == State.OPEN ? 1 : 0)
+                .description("1 while Redis calls are short-circuited to the fallback")
+                .register(meterRegistry);
+        this.opened = meterRegistry.counter("cache.redis.breaker.transitions", "state", "open");
+        this.closed = meterRegistry.counter("cache.redis.breaker.transitions", "state", "closed");
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return {@code true} if calls may go to Redis
+     */
+    public boolean isClosed() {
+        return state.get() == State.CLOSED;
+    }
+
+    public void recordSuccess() {
+        rollWindow();
+        calls.increment();
+    }
+
+    public void recordFailure(RuntimeException e) {
+        rollWindow();
+        calls.increment();
+        failures.increment();
+        long callCount = calls.sum();
+        if (callCount >= minimumCalls && failures.sum() >= callCount * failureRateThreshold) {
+            open(e);
+        }
+    }
+
+    /**
+     * Registers work to do against Redis before the breaker closes, e.g. replaying the evictions
+     * that couldn't be sent while it was open.
+     */
+    public void addRecoveryListener(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    @Override
+    public void destroy() {
+        prober.shutdownNow();
+    }
+
+    private void open(RuntimeException cause) {
+        if (state.compareAndSet(State.CLOSED, State.OPEN)) {
+            opened.increment();
+            log.warn("Redis circuit breaker opened, caches fall back to local storage: {}", cause.getMessage());
+        }
+    }
+
+    private void probe() {
+        if (state.get() == State.CLOSED) {
+            if (!pendingRecovery.isEmpty()) {
+                pendingRecovery = recover(pendingRecovery);
+                if (pendingRecovery.isEmpty()) {
+                    log.info("Redis recovery completed after the circuit breaker closed");
+                }
+            }
+            return;
+        }
+        try {
+            probe.run();
+        } catch (RuntimeException e) {
+            log.debug("Redis is still unavailable: {}", e.getMessage());
+            return;
+        }
+        List<Runnable> failed = recover(recoveryListeners);
+        if (!failed.isEmpty() && ++failedRecoveries < maximumRecoveryAttempts) {
+            return;
+        }
+        failedRecoveries = 0;
+        pendingRecovery = failed;
+        resetWindow(System.nanoTime());
+        state.set(State.CLOSED);
+        closed.increment();
+        if (failed.isEmpty()) {
+            log.info("Redis circuit breaker closed");
+        } else {
+            log.error("Redis circuit breaker closed although {} recovery tasks failed {} times; retrying them "
+                    + "in the background, values written during the outage may be served until then", failed.size(),
+                    maximumRecoveryAttempts);
+        }
+    }
+
+    /**
+     * @return the listeners that failed
+     */
+    private static List<Runnable> recover(List<Runnable> listeners) {
+        List<Runnable> failed = new ArrayList<>();
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.debug("Redis recovery task failed: {}", e.getMessage());
+                failed.add(listener);
+            }
+        }
+        return failed;
+    }
+
+    private void rollWindow() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            calls.reset();
+            failures.reset();
+        }
+    }
+
+    private void resetWindow(long now) {
+        windowStart.set(now);
+        calls.reset();
+        failures.reset();
+    }
+}
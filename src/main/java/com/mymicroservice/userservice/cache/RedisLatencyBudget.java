@@ -0,0 +1,69 @@
+package com.mymicroservice.userservice.cache;
+
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.RedisCommand;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-command timeouts of the Lettuce connections: reading commands get the read budget, all others
+ * the write budget. A command that exceeds its budget fails with a {@code RedisCommandTimeoutException}
+ * instead of holding the request thread for the default command timeout.
+ *
+ * <p>Reads include the hash reads of {@link HashBucketCacheWriter} ({@code HGET}, {@code HMGET}). Its put scripts
+ * ({@code EVAL}/{@code EVALSHA}) get the write budget: they write the field and its TTL, and the put-if-absent
+ * one only reads the field back when it already exists.
+ *
+ * <p>Background maintenance that must not fail just because it is large, such as clearing a cache after an
+ * outage, runs {@linkplain #runWithoutBudget without the budget}: its commands are bounded by the connection's
+ * command timeout only.
+ */
+public class RedisLatencyBudget extends TimeoutOptions.TimeoutSource {
+
+    private static final Set<ProtocolKeyword> READS = Set.of(
+            CommandType.GET, CommandType.MGET, CommandType.HGET, CommandType.HMGET, CommandType.EXISTS,
+            CommandType.PING, CommandType.PTTL, CommandType.TTL);
+
+    private static final ThreadLocal<Boolean> UNBOUNDED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final long readTimeoutNanos;
+    private final long writeTimeoutNanos;
+
+    public RedisLatencyBudget(Duration readTimeout, Duration writeTimeout) {
+        this.readTimeoutNanos = readTimeout.toNanos();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+    }
+
+    /**
+     * Runs {@code task} with the commands it sends from the current thread exempt from the budget.
+     */
+    public static void runWithoutBudget(Runnable task) {
+        boolean outer = UNBOUNDED.get();
+        UNBOUNDED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            UNBOUNDED.set(outer);
+        }
+    }
+
+    /**
+     * @return the budget of the command; {@code 0} (no per-command timeout) inside {@link #runWithoutBudget}
+     */
+    @Override
+    public long getTimeout(RedisCommand<?, ?, ?> command) {
+        if (UNBOUNDED.get()) {
+            return 0;
+        }
+        return READS.contains(command.getType()) ? readTimeoutNanos : writeTimeoutNanos;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.NANOSECONDS;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The Redis nodes of the sharded caches ({@code cache.sharding.*}): a connection factory per node, keyed by
+ * {@code host:port}, and the pool that runs the per-node batches of a {@link ShardedRedisCache} in parallel.
+ * The {@link BatchRedisCacheManager} spreads the caches named in {@code cache.sharding.cache-names} over
+ * these nodes; every other cache and the pub/sub invalidation stay on {@code spring.data.redis.*}.
+ *
+ * <p>Owns the connection factories and the pool and closes them on shutdown.
+ */
+@Slf4j
+public class RedisShards implements DisposableBean {
+
+    private final Map<String, RedisConnectionFactory> connectionFactories;
+    private final Set<String> cacheNames;
+    private final int virtualNodes;
+    private final ExecutorService executor;
+
+    /**
+     * @param connectionFactories initialized connection factory of each node by its id, in configuration order
+     */
+    public RedisShards(Map<String, RedisConnectionFactory> connectionFactories, CacheProperties.Sharding settings) {
+        this.connectionFactories = Collections.unmodifiableMap(new LinkedHashMap<>(connectionFactories));
+        this.cacheNames = Set.copyOf(settings.getCacheNames());
+        this.virtualNodes = settings.getVirtualNodes();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-shard-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(2 * connectionFactories.size(), threadFactory);
+        log.info("Caches {} sharded over Redis nodes {}", cacheNames, connectionFactories.keySet());
+    }
+
+    public boolean isSharded(String cacheName) {
+        return cacheNames.contains(cacheName);
+    }
+
+    public Map<String, RedisConnectionFactory> getConnectionFactories() {
+        return connectionFactories;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Pings every node.
+     *
+     * @throws RuntimeException if any node doesn't answer
+     */
+    public void ping() {
+        connectionFactories.values().forEach(connectionFactory -> {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        executor.shutdownNow();
+        for (RedisConnectionFactory connectionFactory : connectionFactories.values()) {
+            if (connectionFactory instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+    }
+}
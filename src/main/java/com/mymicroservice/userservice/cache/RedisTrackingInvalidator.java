@@ -0,0 +1,148 @@
+package com.mymicroservice.userservice.cache;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Invalidates the L1 entries of the {@link TwoLevelCacheManager} from Redis server-assisted
+ * client-side caching (RESP3 {@code CLIENT TRACKING}), instead of the pub/sub broadcast of every write.
+ *
+ * <p>A dedicated RESP3 connection to each Redis node holding cache keys (several with {@link RedisShards})
+ * enables tracking in broadcasting mode ({@code BCAST}) for the key prefixes of the given caches
+ * ({@code cacheName::}). Redis then pushes an {@code invalidate} message with the changed keys
+ * to this connection whenever any client writes, deletes or expires such a key,
+ * and the L1 copy of each key is dropped. The writes of this instance are reported as well, so a value
+ * it just put is read from Redis once more.
+ *
+ * <p>Tracking state lives in the connection: while it is down invalidations are lost, so every L1 entry
+ * is dropped when the connection goes down and again once tracking is re-enabled after the reconnect.
+ * A change of a {@link HashBucketCacheWriter hash bucket} drops the L1 entries of all ids of the bucket.
+ *
+ * <p>Exported to Micrometer as {@code cache.tracking.invalidations}, the number of invalidated keys.
+ */
+@Slf4j
+public class RedisTrackingInvalidator implements PushListener, RedisConnectionStateListener,
+        InitializingBean, DisposableBean {
+
+    private static final String KEY_SEPARATOR = "::";
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final List<RedisClient> redisClients;
+    private final TwoLevelCacheManager cacheManager;
+    private final List<String> prefixes;
+    private final Counter invalidations;
+    private final List<StatefulRedisConnection<String, String>> connections = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param redisClients a client per Redis node holding cache keys, each for one dedicated connection;
+     *                     shut down with this bean
+     * @param cacheNames caches whose keys are tracked
+     */
+    public RedisTrackingInvalidator(List<RedisClient> redisClients,
+                                    TwoLevelCacheManager cacheManager,
+                                    Collection<String> cacheNames,
+                                    MeterRegistry meterRegistry) {
+        this.redisClients = redisClients;
+        this.cacheManager = cacheManager;
+        this.prefixes = cacheNames.stream().map(name -> name + KEY_SEPARATOR).toList();
+        this.invalidations = meterRegistry.counter("cache.tracking.invalidations");
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (RedisClient redisClient : redisClients) {
+            redisClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+            StatefulRedisConnection<String, String> connection = redisClient.connect();
+            connection.addListener((PushListener) this);
+            connection.addListener((RedisConnectionStateListener) this);
+            connection.sync().clientTracking(trackingArgs());
+            connections.add(connection);
+        }
+        log.info("Redis client tracking enabled for prefixes {} on {} node(s)", prefixes, redisClients.size());
+    }
+
+    @Override
+    public void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() < 2 || content.get(1) == null) {
+            // FLUSHDB/FLUSHALL, or tracking was reset by the server
+            cacheManager.invalidateAllLocal();
+            return;
+        }
+        for (Object key : (List<?>) content.get(1)) {
+            invalidate(String.valueOf(key));
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+        log.warn("Redis tracking connection lost, dropping every L1 entry");
+        cacheManager.invalidateAllLocal();
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+        if (!(connection instanceof StatefulRedisConnection<?, ?> reconnected) || !connections.contains(reconnected)) {
+            return; // the initial connect, tracking is enabled by afterPropertiesSet()
+        }
+        reconnected.async().clientTracking(trackingArgs()).whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Failed to re-enable Redis client tracking, L1 is bounded only by its TTL: {}", error.getMessage());
+            } else {
+                log.info("Redis client tracking re-enabled after reconnect");
+            }
+            cacheManager.invalidateAllLocal(); // drops what was loaded while nothing was tracked
+        });
+    }
+
+    @Override
+    public void destroy() {
+        connections.forEach(StatefulRedisConnection::close);
+        redisClients.forEach(RedisClient::shutdown);
+    }
+
+    private void invalidate(String redisKey) {
+        int separator = redisKey.indexOf(KEY_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        String cacheName = redisKey.substring(0, separator);
+        String localKey = redisKey.substring(separator + KEY_SEPARATOR.length());
+        log.debug("L1 invalidation pushed by Redis: cache={}, key={}", cacheName, localKey);
+        List<String> bucketKeys = HashBucketCacheWriter.localKeysOf(localKey);
+        if (bucketKeys == null) {
+            cacheManager.invalidateLocal(cacheName, localKey);
+            invalidations.increment();
+            return;
+        }
+        // a hash bucket changed: Redis doesn't tell which field, so the whole bucket is dropped
+        bucketKeys.forEach(key -> cacheManager.invalidateLocal(cacheName, key));
+        invalidations.increment(bucketKeys.size());
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(prefixes.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,86 @@
+package com.mymicroservice.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Index caches that map a secondary key (e.g. an email) to the primary key of an entry
+ * kept in a primary cache (e.g. {@code userCache}).
+ *
+ * <p>The index holds only the primary key, so the value itself is cached once and stays
+ * coherent with the lookups by id. A resolved entry is checked against the secondary key
+ * it was found by: an index entry left behind by a missed update is dropped instead of
+ * returning a different row.
+ *
+ * <p>Changes made by the write paths ({@link #reindex}, {@link #evict}) go through the
+ * {@link TransactionalCacheWriter}, so they are applied after commit together with the primary entry.
+ *
+ * <p>Index values are read as {@link Number}, since the JSON serializer of Redis returns
+ * small ids as {@link Integer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondaryKeyIndex {
+
+    private final CacheManager cacheManager;
+    private final TransactionalCacheWriter cacheWriter;
+
+    /**
+     * Resolves the secondary key through the index to the primary cache entry.
+     *
+     * @param secondaryKeyOf extracts the (normalized) secondary key from a cached value
+     * @return the cached value, or {@code null} if either the index or the primary entry is missing
+     */
+    @Nullable
+    public <T> T get(String indexName, String primaryName, String secondaryKey,
+                     Class<T> type, Function<T, String> secondaryKeyOf) {
+        Cache index = cacheManager.getCache(indexName);
+        Cache.ValueWrapper primaryKey = index.get(secondaryKey);
+        if (primaryKey == null || !(primaryKey.get() instanceof Number id)) {
+            return null;
+        }
+        Cache.ValueWrapper value = cacheManager.getCache(primaryName).get(id.longValue());
+        if (value == null || !type.isInstance(value.get())) {
+            return null;
+        }
+        T resolved = type.cast(value.get());
+        if (!secondaryKey.equals(secondaryKeyOf.apply(resolved))) {
+            index.evict(secondaryKey);
+            return null;
+        }
+        return resolved;
+    }
+
+    /**
+     * Fills the index and the primary cache after a lookup by the secondary key missed.
+     * Existing entries are kept, since a concurrent write may have stored a newer value.
+     */
+    public void put(String indexName, String primaryName, String secondaryKey, Long primaryKey, Object value) {
+        cacheManager.getCache(primaryName).putIfAbsent(primaryKey, value);
+        cacheManager.getCache(indexName).putIfAbsent(secondaryKey, primaryKey);
+    }
+
+    /**
+     * Moves the index entry of a primary key whose secondary key was changed.
+     */
+    public void reindex(String indexName, @Nullable String oldSecondaryKey,
+                        @Nullable String newSecondaryKey, Long primaryKey) {
+        if (!Objects.equals(oldSecondaryKey, newSecondaryKey)) {
+            cacheWriter.evict(indexName, oldSecondaryKey);
+        }
+        cacheWriter.put(indexName, newSecondaryKey, primaryKey);
+    }
+
+    /**
+     * Removes the index entry of a deleted primary key.
+     */
+    public void evict(String indexName, @Nullable String secondaryKey) {
+        cacheWriter.evict(indexName, secondaryKey);
+    }
+}
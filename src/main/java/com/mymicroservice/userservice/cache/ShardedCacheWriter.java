@@ -0,0 +1,99 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RedisCacheWriter} that sends every key to the writer of its node on a {@link ConsistentHashRing}.
+ * {@link #clean} runs on every node, since the keys of a pattern are spread over all of them.
+ */
+public class ShardedCacheWriter implements RedisCacheWriter {
+
+    private final Map<String, RedisCacheWriter> writers;
+    private final int virtualNodes;
+    private final ConsistentHashRing<RedisCacheWriter> ring;
+
+    /**
+     * @param writers writer of each node by node id, see {@link ConsistentHashRing#ConsistentHashRing(Map, int)}
+     */
+    public ShardedCacheWriter(Map<String, RedisCacheWriter> writers, int virtualNodes) {
+        this.writers = writers;
+        this.virtualNodes = virtualNodes;
+        this.ring = new ConsistentHashRing<>(writers, virtualNodes);
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(String name, byte[] key) {
+        return ring.nodeFor(key).get(name, key);
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(String name, byte[] key, @Nullable Duration ttl) {
+        return ring.nodeFor(key).get(name, key, ttl);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return ring.nodes().stream().allMatch(RedisCacheWriter::supportsAsyncRetrieve);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, @Nullable Duration ttl) {
+        return ring.nodeFor(key).retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        ring.nodeFor(key).put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        return ring.nodeFor(key).store(name, key, value, ttl);
+    }
+
+    @Override
+    @Nullable
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        return ring.nodeFor(key).putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        ring.nodeFor(key).remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        ring.nodes().forEach(writer -> writer.clean(name, pattern));
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        ring.nodes().forEach(writer -> writer.clearStatistics(name));
+    }
+
+    /**
+     * The same collector is handed to every node, so the statistics cover the whole cache.
+     */
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        Map<String, RedisCacheWriter> collecting = new LinkedHashMap<>();
+        writers.forEach((node, writer) -> collecting.put(node, writer.withStatisticsCollector(cacheStatisticsCollector)));
+        return new ShardedCacheWriter(collecting, virtualNodes);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return ring.nodes().get(0).getCacheStatistics(cacheName);
+    }
+}
@@ -0,0 +1,124 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * {@link RedisCache} spread over several Redis nodes by consistent hashing of its Redis keys.
+ *
+ * <p>Single-key operations go through the {@link ShardedCacheWriter}. The {@link MultiKeyCache} operations
+ * split the keys by node and run the batch of each node on its own {@link BatchRedisCache} in parallel,
+ * so a multi-get costs one round trip to the slowest node rather than one per node. Both paths route
+ * a key by the same bytes over rings of the same nodes, so they always agree on its node.
+ */
+public class ShardedRedisCache extends RedisCache implements MultiKeyCache {
+
+    private final ConsistentHashRing<BatchRedisCache> shards;
+    private final Executor executor;
+
+    /**
+     * @param shards cache of each node, with the same name and configuration as this one
+     * @param executor runs the batches of all nodes but one, which runs on the calling thread
+     */
+    protected ShardedRedisCache(String name,
+                                ShardedCacheWriter cacheWriter,
+                                RedisCacheConfiguration cacheConfiguration,
+                                ConsistentHashRing<BatchRedisCache> shards,
+                                Executor executor) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.shards = shards;
+        this.executor = executor;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new HashMap<>();
+        fanOut(keys, BatchRedisCache::getAll).forEach(result::putAll);
+        return result;
+    }
+
+    @Override
+    public Set<Object> putAllIfAbsent(Map<?, ?> entries) {
+        Set<Object> stored = new HashSet<>();
+        fanOut(entries.keySet(), (BatchRedisCache shard, List<Object> keys) -> shard.putAllIfAbsent(subMap(entries, keys)))
+                .forEach(stored::addAll);
+        return stored;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        fanOut(entries.keySet(), (shard, keys) -> {
+            shard.putAll(subMap(entries, keys));
+            return null;
+        });
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        fanOut(keys, (shard, shardKeys) -> {
+            shard.evictAll(shardKeys);
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code batch} for the keys of each node, in parallel when they span several nodes.
+     *
+     * @return the non-null results of the nodes
+     * @throws RuntimeException the failure of any node, after all of them completed
+     */
+    private <R> List<R> fanOut(Collection<?> keys, BiFunction<BatchRedisCache, List<Object>, R> batch) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Map<BatchRedisCache, List<Object>> partitions = shards.partition(new ArrayList<Object>(keys), this::redisKey);
+        if (partitions.size() == 1) {
+            Map.Entry<BatchRedisCache, List<Object>> only = partitions.entrySet().iterator().next();
+            R result = batch.apply(only.getKey(), only.getValue());
+            return result == null ? List.of() : List.of(result);
+        }
+
+        List<Map.Entry<BatchRedisCache, List<Object>>> entries = List.copyOf(partitions.entrySet());
+        List<CompletableFuture<R>> remote = entries.subList(1, entries.size()).stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> batch.apply(entry.getKey(), entry.getValue()), executor))
+                .toList();
+        CompletableFuture<R> local;
+        try {
+            local = CompletableFuture.completedFuture(batch.apply(entries.get(0).getKey(), entries.get(0).getValue()));
+        } catch (RuntimeException e) {
+            local = CompletableFuture.failedFuture(e);
+        }
+
+        List<CompletableFuture<R>> all = new ArrayList<>(remote);
+        all.add(0, local);
+        try {
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return all.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+    }
+
+    private byte[] redisKey(Object key) {
+        return serializeCacheKey(createCacheKey(key));
+    }
+
+    private static Map<Object, Object> subMap(Map<?, ?> entries, List<Object> keys) {
+        Map<Object, Object> subMap = new HashMap<>();
+        keys.forEach(key -> subMap.put(key, entries.get(key)));
+        return subMap;
+    }
+}
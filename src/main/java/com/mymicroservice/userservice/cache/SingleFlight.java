@@ -0,0 +1,93 @@
+package com.mymicroservice.userservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key de-duplication of concurrent loads ("single flight").
+ *
+ * <p>The first caller for a key becomes the leader and runs the loader; callers that arrive
+ * while the load is in flight wait for the leader's result (or exception) instead of
+ * running the same query again. The key is released as soon as the load completes,
+ * so results are never kept here — that is the cache's job.
+ *
+ * <p>Exported to Micrometer as {@code cache.loads{cache, result=leader|coalesced}}.
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaderLoads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    /**
+     * Runs {@code loader} unless a load of the same key is already in flight,
+     * in which case waits for that load and returns its result.
+     *
+     * @param key the key the load is de-duplicated by
+     * @param loader loads the value
+     * @return the loaded value
+     * @throws Exception the exception thrown by the loader, also rethrown to every waiting caller
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> loader) throws Exception {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return (T) await(existing);
+        }
+
+        leaderLoads.increment();
+        try {
+            T value = loader.call();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getLeaderLoads() {
+        return leaderLoads.sum();
+    }
+
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.loads", leaderLoads, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "leader")
+                .description("Loads that went to the database")
+                .register(registry);
+        FunctionCounter.builder("cache.loads", coalescedLoads, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "coalesced")
+                .description("Loads that waited for an in-flight load of the same key")
+                .register(registry);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache writes of the write paths ({@code @CachePut}/{@code @CacheEvict} replacements), applied only
+ * once the surrounding transaction has committed, so the cache never holds a value the database
+ * rolled back, and an eviction isn't followed by a reload of the row that is about to change. A reader that
+ * loaded the old row before the commit may still store it after the eviction, see {@link TwoLevelCache}.
+ *
+ * <p>Inside a transaction the writes are collected and handed over after commit (dropped on rollback);
+ * outside of one they are handed over at once. With {@code cache.write-behind.enabled} they are applied
+ * by a single background thread, which takes every batch queued since its last run, keeps only the last
+ * write of each key and sends the rest per cache as one {@code DEL} and one pipeline of {@code SET}s
+ * ({@link MultiKeyCache}). One thread applies the writes in hand-over order. Each committing thread hands its
+ * writes over after its own commit, so two transactions that commit concurrently may be handed over in the
+ * opposite order to their commits; if both wrote the same key, the cache keeps the older value until the
+ * entry expires or the key is written again. Without write-behind they are applied on the committing thread.
+ *
+ * <p>A write-behind put is visible in the cache shortly after the method returns, not immediately.
+ * If the queue ({@code cache.write-behind.queue-capacity} batches) is full, the committing thread applies
+ * the queued batches and its own itself, in order, rather than dropping any; so a burst of commits slows
+ * down instead of leaving deleted entries in the cache. A write that fails is retried as an eviction.
+ *
+ * <p>Exported to Micrometer as {@code cache.write.behind.writes{result=applied|failed|overflow}}
+ * ({@code overflow}: applied on the committing thread) and {@code cache.write.behind.queue}.
+ */
+@Slf4j
+@Component
+public class TransactionalCacheWriter implements DisposableBean {
+
+    private final CacheManager cacheManager;
+    private final boolean writeBehind;
+    private final BlockingQueue<List<CacheWrite>> pending;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object applyLock = new Object();
+    private final ExecutorService flusher;
+    private final Counter appliedWrites;
+    private final Counter failedWrites;
+    private final Counter overflowWrites;
+
+    public TransactionalCacheWriter(CacheManager cacheManager, CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        CacheProperties.WriteBehind settings = cacheProperties.getWriteBehind();
+        this.writeBehind = settings.isEnabled();
+        this.pending = new LinkedBlockingQueue<>(settings.getQueueCapacity());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-write-behind-");
+        threadFactory.setDaemon(true);
+        this.flusher = Executors.newSingleThreadExecutor(threadFactory);
+
+        this.appliedWrites = meterRegistry.counter("cache.write.behind.writes", "result", "applied");
+        this.failedWrites = meterRegistry.counter("cache.write.behind.writes", "result", "failed");
+        this.overflowWrites = meterRegistry.counter("cache.write.behind.writes", "result", "overflow");
+        Gauge.builder("cache.write.behind.queue", pending, BlockingQueue::size)
+                .description("Committed write batches waiting to be applied")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the value under the key after commit; a {@code null} key is ignored.
+     */
+    public void put(String cacheName, @Nullable Object key, Object value) {
+        if (key != null) {
+            write(new CacheWrite(cacheName, key, value));
+        }
+    }
+
+    /**
+     * Evicts the key after commit; a {@code null} key is ignored.
+     */
+    public void evict(String cacheName, @Nullable Object key) {
+        if (key != null) {
+            write(new CacheWrite(cacheName, key, null));
+        }
+    }
+
+    /**
+     * Evicts the keys after commit, in one batch if the cache supports it ({@link MultiKeyCache}).
+     */
+    public void evictAll(String cacheName, Collection<?> keys) {
+        keys.forEach(key -> evict(cacheName, key));
+    }
+
+    /**
+     * Waits until every batch handed over so far has been applied. Used on shutdown and by tests.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean awaitFlushed(Duration timeout) throws InterruptedException {
+        try {
+            flusher.submit(() -> { }).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!awaitFlushed(Duration.ofSeconds(5))) {
+            log.warn("Shutting down with {} cache write batches not applied", pending.size());
+        }
+        flusher.shutdownNow();
+    }
+
+    private void write(CacheWrite write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            handOver(List.of(write));
+            return;
+        }
+        PendingWrites writes = (PendingWrites) TransactionSynchronizationManager.getResource(this);
+        if (writes == null) {
+            PendingWrites transactionWrites = new PendingWrites();
+            TransactionSynchronizationManager.bindResource(this, transactionWrites);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalCacheWriter.this);
+                    if (status == STATUS_COMMITTED) {
+                        handOver(transactionWrites.writes);
+                    } else {
+                        log.debug("Transaction rolled back, {} cache writes discarded", transactionWrites.writes.size());
+                    }
+                }
+            });
+            writes = transactionWrites;
+        }
+        writes.writes.add(write);
+    }
+
+    private void handOver(List<CacheWrite> writes) {
+        if (!writeBehind) {
+            apply(writes);
+            return;
+        }
+        if (!pending.offer(writes)) {
+            overflowWrites.increment(writes.size());
+            log.warn("Cache write-behind queue is full, applying {} writes to {} on the committing thread", writes.size(),
+                    writes.stream().map(CacheWrite::cacheName).distinct().toList());
+            synchronized (applyLock) {
+                List<CacheWrite> queued = drain();
+                queued.addAll(writes); // after the queued batches, which committed earlier
+                apply(queued);
+            }
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        synchronized (applyLock) {
+            apply(drain());
+        }
+    }
+
+    private List<CacheWrite> drain() {
+        List<List<CacheWrite>> batches = new ArrayList<>();
+        pending.drainTo(batches);
+        List<CacheWrite> writes = new ArrayList<>();
+        batches.forEach(writes::addAll);
+        return writes;
+    }
+
+    /**
+     * Applies the writes per cache; a later write of a key replaces an earlier one.
+     */
+    private void apply(List<CacheWrite> writes) {
+        Map<String, Map<Object, CacheWrite>> byCache = new LinkedHashMap<>();
+        for (CacheWrite write : writes) {
+            Map<Object, CacheWrite> cacheWrites = byCache.computeIfAbsent(write.cacheName(), name -> new LinkedHashMap<>());
+            cacheWrites.remove(write.key()); // re-inserted last, so the map stays in commit order
+            cacheWrites.put(write.key(), write);
+        }
+        byCache.forEach(this::apply);
+    }
+
+    private void apply(String cacheName, Map<Object, CacheWrite> writes) {
+        Cache cache = cacheManager.getCache(cacheName);
+        List<Object> evictions = new ArrayList<>();
+        Map<Object, Object> puts = new LinkedHashMap<>();
+        writes.forEach((key, write) -> {
+            if (write.value() == null) {
+                evictions.add(key);
+            } else {
+                puts.put(key, write.value());
+            }
+        });
+        try {
+            if (cache instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.evictAll(evictions);
+                multiKeyCache.putAll(puts);
+            } else {
+                evictions.forEach(cache::evict);
+                puts.forEach(cache::put);
+            }
+            appliedWrites.increment(writes.size());
+        } catch (RuntimeException e) {
+            failedWrites.increment(writes.size());
+            log.warn("Failed to apply {} writes to cache '{}', evicting the keys: {}", writes.size(), cacheName, e.getMessage());
+            evictQuietly(cache, cacheName, writes.keySet());
+        }
+    }
+
+    private static void evictQuietly(Cache cache, String cacheName, Collection<Object> keys) {
+        try {
+            if (cache instanceof MultiKeyCache multiKeyCache) {
+                multiKeyCache.evictAll(keys);
+            } else {
+                keys.forEach(cache::evict);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to evict {} keys of cache '{}', they stay stale until they expire: {}",
+                    keys.size(), cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * A put, or an eviction if {@code value} is {@code null}.
+     */
+    private record CacheWrite(String cacheName, Object key, @Nullable Object value) {
+    }
+
+    private static final class PendingWrites {
+        private final List<CacheWrite> writes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,453 @@
+package com.mymicroservice.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Cache} with an in-process L1 tier in front of a remote (Redis) L2 tier.
+ *
+ * <p>Reads go to L1 first, then to L2; an L2 hit is copied into L1.
+ * Writes go to both tiers, after which the other instances are told to drop their
+ * L1 copy of the key through the {@link CacheInvalidationPublisher}.
+ * An L2 hit that was read before a write or an invalidation of its key isn't kept in L1
+ * once that invalidation is seen (see {@link InvalidationStamps}), so a slow read can't
+ * put back the value another instance has just replaced.
+ *
+ * <p>Batch lookups ({@link MultiKeyCache}) take what they can from L1 and ask L2 for the rest
+ * in one batch, if the remote cache supports it, or key by key otherwise.
+ *
+ * <p>Values loaded through {@link #get(Object, Callable)} are reloaded in the background shortly
+ * before their Redis TTL runs out, see {@link EarlyRefresh}.
+ *
+ * <p>L1 keys are the string form of the cache key, which is also the form Redis uses
+ * ({@code userCache::42} → {@code "42"}), so an invalidation message can address them.
+ * L1 keeps live objects on the heap ({@link CaffeineLocalCache}) or serialized values off-heap
+ * ({@link OffHeapLocalCache}), as the policy selects, or nothing ({@link DisabledLocalCache}) while
+ * the policy turns L1 off.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache implements MultiKeyCache {
+
+    private final String name;
+    private final Cache remoteCache;
+    private volatile LocalCache localCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final CacheTierStatistics statistics;
+    private final SingleFlight singleFlight;
+    private final EarlyRefresh earlyRefresh;
+    private final InvalidationStamps stamps = new InvalidationStamps();
+
+    public TwoLevelCache(String name,
+                         Cache remoteCache,
+                         LocalCache localCache,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         CacheTierStatistics statistics,
+                         SingleFlight singleFlight,
+                         EarlyRefresh earlyRefresh,
+                         boolean allowNullValues) {
+        super(allowNullValues); // must match the remote cache
+        this.name = name;
+        this.remoteCache = remoteCache;
+        this.localCache = localCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.statistics = statistics;
+        this.singleFlight = singleFlight;
+        this.earlyRefresh = earlyRefresh;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LocalCache getNativeCache() {
+        return localCache;
+    }
+
+    /**
+     * Swaps the L1 cache for one with different bounds or another store; the entries of the old one are dropped.
+     */
+    public void replaceLocalCache(LocalCache localCache) {
+        LocalCache previous = this.localCache;
+        this.localCache = localCache;
+        previous.invalidateAll();
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    public CacheTierStatistics getStatistics() {
+        return statistics;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public EarlyRefresh getEarlyRefresh() {
+        return earlyRefresh;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        String localKey = toLocalKey(key);
+        statistics.access(localKey);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            statistics.localHit();
+            return value;
+        }
+        statistics.localMiss();
+
+        long stamp = stamps.stamp(localKey);
+        ValueWrapper wrapper = remoteCache.get(key);
+        if (wrapper == null || (wrapper.get() == null && !isAllowNullValues())) {
+            statistics.remoteMiss();
+            return null;
+        }
+        statistics.remoteHit();
+        Object storeValue = toStoreValue(wrapper.get());
+        fillLocal(localKey, storeValue, stamp);
+        return storeValue;
+    }
+
+    /**
+     * Looks the key up without blocking the caller: an L1 hit completes at once, an L1 miss completes
+     * when the asynchronous L2 read does, on the thread of the Redis client, and copies an L2 hit into L1.
+     *
+     * @return the value wrapper, or {@code null} on a miss in both tiers
+     */
+    @Override
+    public CompletableFuture<ValueWrapper> retrieve(Object key) {
+        String localKey = toLocalKey(key);
+        statistics.access(localKey);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            statistics.localHit();
+            return CompletableFuture.completedFuture(toValueWrapper(value));
+        }
+        statistics.localMiss();
+
+        long stamp = stamps.stamp(localKey);
+        CompletableFuture<?> remoteRead = remoteCache.retrieve(key);
+        if (remoteRead == null) {
+            statistics.remoteMiss();
+            return CompletableFuture.completedFuture(null);
+        }
+        return remoteRead.thenApply(remote -> {
+            Object remoteValue = remote instanceof ValueWrapper wrapper ? wrapper.get() : remote;
+            if (remote == null || (remoteValue == null && !isAllowNullValues())) {
+                statistics.remoteMiss();
+                return null;
+            }
+            statistics.remoteHit();
+            Object storeValue = toStoreValue(remoteValue);
+            fillLocal(localKey, storeValue, stamp);
+            return toValueWrapper(storeValue);
+        });
+    }
+
+    /**
+     * Returns the cached value or loads it, used by {@code @Cacheable(sync = true)}.
+     *
+     * <p>Concurrent misses on the same key on this instance are coalesced through
+     * {@link SingleFlight}: only the first caller runs {@code valueLoader}, the others
+     * wait for its result. The leader re-checks L1 first, since a caller that missed
+     * just after the previous load finished would otherwise load the key again.
+     *
+     * <p>The loaded value is stored with {@link Cache#putIfAbsent}, so a value another instance
+     * wrote while the loader ran is kept and returned instead. If the key is invalidated while
+     * the loader runs, the loaded value may already be stale and is returned without being cached.
+     *
+     * <p>A hit may start an early background refresh of the entry; the caller gets the cached value either way.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object storeValue = lookup(key);
+        String localKey = toLocalKey(key);
+        if (storeValue != null) {
+            earlyRefresh.onRead(localKey, () -> refresh(key, localKey, valueLoader));
+            return (T) fromStoreValue(storeValue);
+        }
+        try {
+            return singleFlight.execute(localKey, () -> {
+                Object loaded = localCache.getIfPresent(localKey);
+                if (loaded != null) {
+                    return (T) fromStoreValue(loaded);
+                }
+                long stamp = stamps.stamp(localKey);
+                long start = System.nanoTime();
+                T value = load(valueLoader, start);
+                long loadNanos = System.nanoTime() - start;
+                if (stamps.changedSince(localKey, stamp)) {
+                    return value;
+                }
+                // other instances are not notified: they can't hold an L1 copy of a key that was absent
+                ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+                if (existing != null) {
+                    fillLocal(localKey, toStoreValue(existing.get()), stamp);
+                    return (T) existing.get();
+                }
+                fillLocal(localKey, toStoreValue(value), stamp);
+                statistics.put();
+                earlyRefresh.recordLoad(key, localKey, loadNanos);
+                return value;
+            });
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Reloads an entry ahead of its expiry. The reloaded value replaces the cached one in both tiers
+     * and other instances drop their L1 copy, as for {@link #put}. If the entry was written or evicted
+     * while the loader ran, the reloaded value is dropped so that it can't overwrite the newer state.
+     */
+    private void refresh(Object key, String localKey, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = load(valueLoader, start);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (!earlyRefresh.isTracked(localKey)) {
+            return;
+        }
+        if (value == null && !isAllowNullValues()) {
+            evict(key);
+            return;
+        }
+        put(key, value);
+        earlyRefresh.recordLoad(key, localKey, System.nanoTime() - start);
+    }
+
+    private <T> T load(Callable<T> valueLoader, long start) throws Exception {
+        boolean success = false;
+        try {
+            T value = valueLoader.call();
+            success = true;
+            return value;
+        } finally {
+            statistics.recordLoad(System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        remoteCache.put(key, value);
+        String localKey = toLocalKey(key);
+        stamps.invalidate(localKey);
+        localCache.put(localKey, toStoreValue(value));
+        statistics.put();
+        earlyRefresh.forget(localKey);
+        invalidationPublisher.publish(name, localKey);
+    }
+
+    /**
+     * Stores the value only if Redis has no value for the key yet, used to fill the cache
+     * after a miss. Unlike {@link #put} it doesn't notify other instances, since an absent
+     * key can't have a stale L1 copy there.
+     */
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        if (existing == null && value != null) {
+            statistics.put();
+        }
+        Object current = existing != null ? existing.get() : value;
+        if (current != null) {
+            localCache.put(toLocalKey(key), toStoreValue(current));
+        }
+        return existing;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new HashMap<>();
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            String localKey = toLocalKey(key);
+            statistics.access(localKey);
+            Object value = localCache.getIfPresent(localKey);
+            if (value != null) {
+                statistics.localHit();
+                result.put(key, fromStoreValue(value));
+            } else {
+                statistics.localMiss();
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+
+        Map<Object, Long> remoteStamps = new HashMap<>();
+        remoteKeys.forEach(key -> remoteStamps.put(key, stamps.stamp(toLocalKey(key))));
+        Map<Object, Object> remoteValues = remoteCache instanceof MultiKeyCache multiKeyCache
+                ? multiKeyCache.getAll(remoteKeys)
+                : getAllOneByOne(remoteKeys);
+        for (Object key : remoteKeys) {
+            Object value = remoteValues.get(key);
+            if (value == null) {
+                statistics.remoteMiss();
+                continue;
+            }
+            statistics.remoteHit();
+            fillLocal(toLocalKey(key), toStoreValue(value), remoteStamps.get(key));
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    /**
+     * Fills both tiers without notifying other instances (see {@link #putIfAbsent}).
+     * L1 only gets the entries that were actually stored in L2.
+     */
+    @Override
+    public Set<Object> putAllIfAbsent(Map<?, ?> entries) {
+        Set<Object> stored;
+        if (remoteCache instanceof MultiKeyCache multiKeyCache) {
+            stored = multiKeyCache.putAllIfAbsent(entries);
+        } else {
+            stored = new HashSet<>();
+            entries.forEach((key, value) -> {
+                if (value != null && remoteCache.putIfAbsent(key, value) == null) {
+                    stored.add(key);
+                }
+            });
+        }
+        stored.forEach(key -> localCache.put(toLocalKey(key), toStoreValue(entries.get(key))));
+        statistics.puts(stored.size());
+        return stored;
+    }
+
+    /**
+     * Writes both tiers like {@link #put} for each entry, with one batch to L2 if the remote cache supports it.
+     */
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (remoteCache instanceof MultiKeyCache multiKeyCache) {
+            multiKeyCache.putAll(entries);
+        } else {
+            entries.forEach((key, value) -> {
+                if (value != null) {
+                    remoteCache.put(key, value);
+                }
+            });
+        }
+        entries.forEach((key, value) -> {
+            if (value == null) {
+                return;
+            }
+            String localKey = toLocalKey(key);
+            stamps.invalidate(localKey);
+            localCache.put(localKey, toStoreValue(value));
+            earlyRefresh.forget(localKey);
+            statistics.put();
+            invalidationPublisher.publish(name, localKey);
+        });
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (remoteCache instanceof MultiKeyCache multiKeyCache) {
+            multiKeyCache.evictAll(keys);
+        } else {
+            keys.forEach(remoteCache::evict);
+        }
+        statistics.evictions(keys.size());
+        for (Object key : keys) {
+            String localKey = toLocalKey(key);
+            stamps.invalidate(localKey);
+            localCache.invalidate(localKey);
+            earlyRefresh.forget(localKey);
+            invalidationPublisher.publish(name, localKey);
+        }
+    }
+
+    private Map<Object, Object> getAllOneByOne(Collection<Object> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = remoteCache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                values.put(key, wrapper.get());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        statistics.evict();
+        String localKey = toLocalKey(key);
+        stamps.invalidate(localKey);
+        localCache.invalidate(localKey);
+        earlyRefresh.forget(localKey);
+        invalidationPublisher.publish(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        stamps.invalidateAll();
+        localCache.invalidateAll();
+        earlyRefresh.forgetAll();
+        invalidationPublisher.publish(name, null);
+    }
+
+    /**
+     * Drops an L1 entry without touching Redis. Used when another instance reports a change.
+     *
+     * @param localKey string form of the cache key, or {@code null} to drop every L1 entry
+     */
+    public void invalidateLocal(@Nullable String localKey) {
+        if (localKey == null) {
+            stamps.invalidateAll();
+            localCache.invalidateAll();
+            earlyRefresh.forgetAll();
+        } else {
+            stamps.invalidate(localKey);
+            localCache.invalidate(localKey);
+            earlyRefresh.forget(localKey);
+        }
+    }
+
+    /**
+     * Copies a value read from L2 into L1, and takes it out again if the key was invalidated
+     * since {@code stamp} was taken. The check comes after the put, since an invalidation that
+     * lands between a check and the put would otherwise be missed.
+     */
+    private void fillLocal(String localKey, Object storeValue, long stamp) {
+        localCache.put(localKey, storeValue);
+        if (stamps.changedSince(localKey, stamp)) {
+            localCache.invalidate(localKey);
+        }
+    }
+
+    static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,277 @@
+package com.mymicroservice.userservice.cache;
+
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Composite {@link CacheManager} that puts an in-process L1 tier in front of the Redis caches.
+ *
+ * <p>Only the caches whose {@link CachePolicy} enables L1, as configured or at runtime, get the L1 tier;
+ * any other cache is returned by the remote manager as is. L1 is a Caffeine cache (W-TinyLFU admission) bounded
+ * by the policy, by estimated size in bytes or by number of entries, or, with the {@code off-heap}
+ * store, an {@link OffHeapLocalCache} of serialized values. Policy changes made at runtime are applied
+ * to the existing L1 caches: a new bound of the same kind keeps the entries of a heap L1, switching the
+ * kind of bound or the store, resizing an off-heap L1 or turning L1 off and on drops them. A cache whose
+ * L1 is turned off stays a {@link TwoLevelCache} with a {@link DisabledLocalCache}: it reads from Redis
+ * only, but its writes are still broadcast, since the other instances may keep L1 on.
+ * Under heap pressure the {@link LocalCacheGovernor} scales the heap bounds down through
+ * {@link #scaleLocalCaches(double)}.
+ *
+ * <p>Every write to a two-level cache is broadcast over the Redis pub/sub channel
+ * {@code cache.invalidation-channel} as {@code instanceId|cacheName[|key]}; the other
+ * instances drop their L1 copy when they receive it. Messages sent by this instance are ignored.
+ * Other per-instance structures keyed like the caches (e.g. {@link NegativeCache}) can subscribe
+ * to the same messages through {@link #addInvalidationListener(BiConsumer)}.
+ *
+ * <p>With {@code cache.local.invalidation=tracking} the writes of the two-level caches are not broadcast;
+ * Redis itself reports the changed keys to the {@link RedisTrackingInvalidator}, which drops the L1 copies
+ * through {@link #invalidateLocal(String, String)}. The channel then only carries the messages of the
+ * other per-instance structures.
+ *
+ * <p>Early refreshes ({@link EarlyRefresh}) of all caches share a small pool of
+ * {@code cache.expiry.refresh-threads} daemon threads with a bounded queue; a refresh that
+ * doesn't fit is skipped, the entry then expires and is reloaded on demand.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener, CacheInvalidationPublisher, DisposableBean {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1_000;
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Publisher of the two-level caches in tracking mode: Redis reports their changes, nothing to send.
+     */
+    private static final CacheInvalidationPublisher TRACKED_BY_REDIS = (cacheName, key) -> { };
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheProperties properties;
+    private final CachePolicyRegistry policyRegistry;
+    private final MeterRegistry meterRegistry;
+    private final RedisSerializer<Object> offHeapSerializer;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, String>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor refreshExecutor;
+    private volatile double localCapacityScale = 1;
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                StringRedisTemplate redisTemplate,
+                                CacheProperties properties,
+                                CachePolicyRegistry policyRegistry,
+                                MeterRegistry meterRegistry,
+                                RedisSerializer<Object> offHeapSerializer) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.policyRegistry = policyRegistry;
+        this.meterRegistry = meterRegistry;
+        this.offHeapSerializer = offHeapSerializer;
+
+        int refreshThreads = Math.max(1, properties.getExpiry().getRefreshThreads());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), threadFactory);
+
+        policyRegistry.addListener(this::applyPolicy);
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null || !hasLocalTier(name)) {
+            return remoteCache;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createTwoLevelCache(cacheName, remoteCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Registers a callback for invalidation messages received from other instances.
+     *
+     * @param listener receives the cache name and the local key ({@code null} when the cache was cleared)
+     */
+    public void addInvalidationListener(BiConsumer<String, String> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Handles an invalidation message published by another instance.
+     */
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 3);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        String cacheName = parts[1];
+        String localKey = parts.length == 3 ? parts[2] : null;
+        log.debug("L1 invalidation from {}: cache={}, key={}", parts[0], cacheName, localKey);
+
+        invalidateLocal(cacheName, localKey);
+        invalidationListeners.forEach(listener -> listener.accept(cacheName, localKey));
+    }
+
+    /**
+     * Drops an L1 entry of a two-level cache, if that cache was created.
+     *
+     * @param localKey string form of the cache key, or {@code null} to drop every L1 entry of the cache
+     */
+    public void invalidateLocal(String cacheName, @Nullable String localKey) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLocal(localKey);
+        }
+    }
+
+    /**
+     * Drops every L1 entry of every two-level cache.
+     */
+    public void invalidateAllLocal() {
+        caches.values().forEach(cache -> cache.invalidateLocal(null));
+    }
+
+    /**
+     * Returns the two-level cache with the given name, if it was created.
+     */
+    @Nullable
+    public TwoLevelCache getTwoLevelCache(String name) {
+        return caches.get(name);
+    }
+
+    /**
+     * @return the two-level caches created so far
+     */
+    public Collection<TwoLevelCache> getTwoLevelCaches() {
+        return List.copyOf(caches.values());
+    }
+
+    /**
+     * Scales the heap bounds of every L1 cache, see {@link LocalCache#scaleCapacity(double)}; L1 caches
+     * created or replaced later get the same scale.
+     *
+     * @return number of L1 entries evicted to fit the new bounds
+     */
+    public long scaleLocalCaches(double scale) {
+        localCapacityScale = scale;
+        long evicted = 0;
+        for (TwoLevelCache cache : caches.values()) {
+            LocalCache localCache = cache.getNativeCache();
+            long size = localCache.estimatedSize();
+            localCache.scaleCapacity(scale);
+            evicted += Math.max(0, size - localCache.estimatedSize());
+        }
+        return evicted;
+    }
+
+    private void applyPolicy(String name, CachePolicy policy) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache == null) {
+            return;
+        }
+        // turning L1 off drops its entries: nothing keeps them in sync until it is turned on again
+        if (!policy.localEnabled() || !cache.getNativeCache().resize(policy)) {
+            cache.replaceLocalCache(createLocalCache(policy));
+        }
+    }
+
+    /**
+     * A cache gets the two-level wrapper if L1 is on here or in the configuration the other instances run with,
+     * so that its writes reach their L1 caches even while this instance has L1 turned off.
+     */
+    private boolean hasLocalTier(String name) {
+        return policyRegistry.get(name).localEnabled() || policyRegistry.getConfigured(name).localEnabled();
+    }
+
+    @Nullable
+    private HotKeyTracker createHotKeyTracker() {
+        CacheProperties.HotKeys hotKeys = properties.getHotKeys();
+        return hotKeys.isEnabled()
+                ? new HotKeyTracker(hotKeys.getTopK(), hotKeys.getSketchWidth(), hotKeys.getSketchDepth(), hotKeys.getSampleRate())
+                : null;
+    }
+
+    private LocalCache createLocalCache(CachePolicy policy) {
+        if (!policy.localEnabled()) {
+            return DisabledLocalCache.INSTANCE;
+        }
+        LocalCache localCache = policy.isOffHeap()
+                ? new OffHeapLocalCache(offHeapSerializer, policy, properties.getLocal().getExpireAfterWrite())
+                : new CaffeineLocalCache(policy, properties.getLocal().getExpireAfterWrite());
+        if (localCapacityScale < 1) {
+            localCache.scaleCapacity(localCapacityScale);
+        }
+        return localCache;
+    }
+
+    private TwoLevelCache createTwoLevelCache(String name, Cache remoteCache) {
+        CachePolicy policy = policyRegistry.get(name);
+        LocalCache localCache = createLocalCache(policy);
+
+        CacheTierStatistics statistics = new CacheTierStatistics(createHotKeyTracker());
+        statistics.bindTo(meterRegistry, name);
+        SingleFlight singleFlight = new SingleFlight();
+        singleFlight.bindTo(meterRegistry, name);
+        EarlyRefresh earlyRefresh = new EarlyRefresh(() -> policyRegistry.get(name).expiry(), refreshExecutor);
+        earlyRefresh.bindTo(meterRegistry, name);
+
+        log.info("Two-level cache '{}' created: {}", name, policy);
+        CacheInvalidationPublisher publisher =
+                properties.getLocal().getInvalidation() == CacheProperties.Invalidation.TRACKING ? TRACKED_BY_REDIS : this;
+        return new TwoLevelCache(name, remoteCache, localCache, publisher, statistics, singleFlight, earlyRefresh,
+                policy.cacheNulls());
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public void publish(String cacheName, @Nullable String localKey) {
+        String message = localKey == null
+                ? instanceId + SEPARATOR + cacheName
+                : instanceId + SEPARATOR + cacheName + SEPARATOR + localKey;
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), message);
+        } catch (RuntimeException e) {
+            // the L1 TTL bounds the staleness on other instances, so a failed broadcast must not fail the write
+            log.warn("Failed to publish L1 invalidation for cache '{}', key '{}': {}",
+                    cacheName, localKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.mymicroservice.userservice.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings of the cache layer bound from the {@code cache.*} properties.
+ *
+ * <p>Example:
+ * <pre>
+ * cache.invalidation-channel=cache:invalidation
+ * cache.local.enabled=true
+ * cache.local.cache-names=userCache,cardInfoCache,userCardsCache,userEmailIndex,cardNumberIndex,queryCache
+ * cache.local.maximum-weight=64MB
+ * cache.local.expire-after-write=5m
+ * cache.local.invalidation=pubsub
+ * cache.local.store=heap
+ * cache.negative.ttl=30s
+ * cache.negative.maximum-size=100000
+ * cache.serialization.format=json
+ * cache.serialization.compression-threshold=512B
+ * cache.expiry.ttl=15m
+ * cache.expiry.jitter=0.1
+ * cache.expiry.early-refresh-beta=1.0
+ * cache.expiry.refresh-threads=2
+ * cache.policies.userCardsCache.ttl=5m
+ * cache.policies.userCardsCache.maximum-entries=10000
+ * cache.hot-keys.enabled=true
+ * cache.hot-keys.top-k=20
+ * cache.hot-keys.masked-cache-names=userEmailIndex,cardNumberIndex
+ * cache.write-behind.enabled=true
+ * cache.write-behind.queue-capacity=10000
+ * cache.resilience.enabled=true
+ * cache.resilience.read-timeout=50ms
+ * cache.resilience.write-timeout=250ms
+ * cache.warm-up.enabled=true
+ * cache.warm-up.time-budget=10s
+ * cache.sharding.nodes=redis-1:6379,redis-2:6379,redis-3:6379
+ * cache.sharding.cache-names=userCache,cardInfoCache
+ * cache.async.loader-threads=16
+ * cache.governor.high-watermark=0.85
+ * cache.governor.low-watermark=0.6
+ * </pre>
+ *
+ * <p>The settings of each cache are resolved into a {@link com.mymicroservice.userservice.cache.CachePolicy}
+ * by the {@link com.mymicroservice.userservice.cache.CachePolicyRegistry}.
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    /**
+     * Redis pub/sub channel used to invalidate local (L1) entries on other instances.
+     */
+    private String invalidationChannel = "cache:invalidation";
+
+    private final Local local = new Local();
+
+    private final Negative negative = new Negative();
+
+    private final Serialization serialization = new Serialization();
+
+    private final Expiry expiry = new Expiry();
+
+    private final HotKeys hotKeys = new HotKeys();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Resilience resilience = new Resilience();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    private final Sharding sharding = new Sharding();
+
+    private final Async async = new Async();
+
+    private final Governor governor = new Governor();
+
+    /**
+     * Per-cache overrides, keyed by cache name. Unset values fall back to the defaults
+     * of {@code local}, {@code serialization} and {@code expiry}.
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Local {
+
+        /**
+         * Whether the in-process L1 tier is placed in front of Redis.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Names of the caches that get an L1 tier. Other caches go to Redis directly.
+         */
+        private Set<String> cacheNames = new LinkedHashSet<>(
+                List.of("userCache", "cardInfoCache", "userCardsCache", "userEmailIndex", "cardNumberIndex", "queryCache"));
+
+        /**
+         * Upper bound of the estimated heap footprint of each L1 cache.
+         */
+        private DataSize maximumWeight = DataSize.ofMegabytes(64);
+
+        /**
+         * Upper bound of the number of entries of each L1 cache. {@code 0} bounds L1 by
+         * {@code maximum-weight} instead; only one of the two bounds applies.
+         */
+        private long maximumEntries = 0;
+
+        /**
+         * Lifetime of an L1 entry. Kept shorter than the Redis TTL so that a lost
+         * invalidation message can't keep a stale value alive for long.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+        /**
+         * How L1 entries changed on other instances are invalidated: {@code pubsub} broadcasts every
+         * write over {@code invalidation-channel}, {@code tracking} lets Redis push the invalidations
+         * of changed keys itself (RESP3 client tracking, Redis 6+).
+         */
+        private Invalidation invalidation = Invalidation.PUBSUB;
+
+        /**
+         * Where L1 keeps its entries: {@code heap} (Caffeine, live objects) or {@code off-heap}
+         * (serialized in direct memory, numeric keys only; bounded by {@code maximum-weight}).
+         */
+        private LocalStore store = LocalStore.HEAP;
+    }
+
+    @Data
+    public static class Negative {
+
+        /**
+         * Lifetime of a "not found" tombstone. Bounds how long an id stays answered with 404
+         * on an instance that missed the tombstone eviction of a create.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of tombstones kept per instance.
+         */
+        private long maximumSize = 100_000;
+    }
+
+    @Data
+    public static class Serialization {
+
+        /**
+         * Format of the values written to Redis. Both formats are always readable, so the switch
+         * can be rolled out instance by instance: {@code binary} should be enabled only once every
+         * instance runs a version that reads it.
+         */
+        private Format format = Format.JSON;
+
+        /**
+         * Binary values from this size on are LZ4-compressed, if that makes them smaller.
+         */
+        private DataSize compressionThreshold = DataSize.ofBytes(512);
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * Default lifetime of a Redis entry.
+         */
+        private Duration ttl = Duration.ofMinutes(15);
+
+        /**
+         * Relative spread of the Redis TTL, {@code 0.1} = ±10%. Keeps entries cached in the same
+         * burst (e.g. after a restart) from expiring all at once.
+         */
+        private double jitter = 0.1;
+
+        /**
+         * XFetch {@code beta} of the early refresh of two-level caches: the higher it is, the earlier
+         * a hot entry is reloaded before it expires. {@code 0} disables the early refresh.
+         */
+        private double earlyRefreshBeta = 1.0;
+
+        /**
+         * Threads that run early refreshes. Refreshes that find all of them busy are skipped.
+         */
+        private int refreshThreads = 2;
+    }
+
+    @Data
+    public static class HotKeys {
+
+        /**
+         * Whether reads of two-level caches are counted for the {@code cachehotkeys} actuator endpoint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of keys reported per cache.
+         */
+        private int topK = 20;
+
+        /**
+         * Counters per row of the count-min sketch. More counters mean fewer collisions, i.e. fewer
+         * overestimated cold keys; each counter takes 8 bytes per row.
+         */
+        private int sketchWidth = 4096;
+
+        /**
+         * Rows of the count-min sketch, at most 8.
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * Share of reads that are counted. Lower it if the counting shows up in profiles.
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * Caches whose keys are personal data; only the last four characters of their keys are reported.
+         */
+        private Set<String> maskedCacheNames = new LinkedHashSet<>(List.of("userEmailIndex", "cardNumberIndex"));
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Whether committed cache writes are applied in batches by a background thread.
+         * When disabled they are applied on the committing thread, still only after commit.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of committed transactions whose cache writes wait to be applied.
+         * While the queue is full, the committing threads apply the queued writes and their own themselves.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Resilience {
+
+        /**
+         * Whether Redis commands run under the latency budgets below and the Redis caches fall back
+         * to a local cache while the circuit breaker is open.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Latency budget of reading commands ({@code GET}, {@code MGET}, {@code PING}, ...).
+         * A command that takes longer fails with a timeout and counts as a failure.
+         */
+        private Duration readTimeout = Duration.ofMillis(50);
+
+        /**
+         * Latency budget of every other command ({@code SET}, {@code DEL}, pipelines, pub/sub).
+         */
+        private Duration writeTimeout = Duration.ofMillis(250);
+
+        /**
+         * Share of failed calls within {@code window} that opens the circuit breaker.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Calls within {@code window} below which the breaker stays closed, whatever the failure rate.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Length of the window the failure rate is counted over.
+         */
+        private Duration window = Duration.ofSeconds(10);
+
+        /**
+         * Pause between the background {@code PING}s that close an open breaker.
+         */
+        private Duration probeInterval = Duration.ofSeconds(2);
+
+        /**
+         * Successful probes whose recovery (evicting or clearing what was written during the outage) failed,
+         * after which the breaker closes anyway and the recovery is retried in the background.
+         */
+        private int maximumRecoveryAttempts = 3;
+
+        /**
+         * Maximum number of entries of the fallback cache of each Redis cache while the breaker is open.
+         */
+        private long fallbackMaximumEntries = 10_000;
+
+        /**
+         * Lifetime of a fallback entry. Short, since writes of other instances don't reach it.
+         */
+        private Duration fallbackTtl = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class WarmUp {
+
+        /**
+         * Whether caches are warmed up before the instance reports readiness, and snapshots
+         * of their hottest keys are written while it runs.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Snapshot of the hottest keys, read at startup and rewritten every {@code snapshot-interval}
+         * and at shutdown. Instances sharing a volume can share the snapshot.
+         */
+        private Path snapshotPath = Path.of(System.getProperty("java.io.tmpdir"), "userservice-cache.snapshot");
+
+        /**
+         * Pause between snapshots; {@code 0} writes one only at shutdown.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+
+        /**
+         * Maximum number of keys per cache kept in the snapshot and loaded at startup.
+         */
+        private int maximumEntries = 10_000;
+
+        /**
+         * Time the warm-up may delay readiness; the keys left when it runs out are not loaded.
+         */
+        private Duration timeBudget = Duration.ofSeconds(10);
+
+        /**
+         * Number of keys loaded per database query.
+         */
+        private int batchSize = 500;
+    }
+
+    @Data
+    public static class Sharding {
+
+        /**
+         * Redis nodes ({@code host:port}) the sharded caches are spread over by consistent hashing.
+         * Empty (default) keeps every cache on {@code spring.data.redis.*}.
+         */
+        private List<String> nodes = List.of();
+
+        /**
+         * Names of the caches spread over {@code nodes}. Other caches stay on {@code spring.data.redis.*}.
+         */
+        private Set<String> cacheNames = new LinkedHashSet<>(List.of("userCache", "cardInfoCache"));
+
+        /**
+         * Points of each node on the hash ring; more points even out the share of keys per node.
+         */
+        private int virtualNodes = 160;
+
+        public boolean isEnabled() {
+            return !nodes.isEmpty();
+        }
+    }
+
+    @Data
+    public static class Governor {
+
+        /**
+         * Whether the L1 caches shrink under heap pressure, see {@link com.mymicroservice.userservice.cache.LocalCacheGovernor}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Share of the maximum heap still used after a garbage collection from which L1 shrinks.
+         */
+        private double highWatermark = 0.85;
+
+        /**
+         * Share of the maximum heap used after a garbage collection up to which L1 grows back.
+         */
+        private double lowWatermark = 0.6;
+
+        /**
+         * Factor applied to the L1 bounds on every shrinking step; growing divides by it.
+         */
+        private double shrinkFactor = 0.75;
+
+        /**
+         * Lower limit of the L1 bounds, relative to the bounds of the policies.
+         */
+        private double minimumScale = 0.1;
+    }
+
+    @Data
+    public static class Async {
+
+        /**
+         * Threads that load the misses of the non-blocking cache reads from the database.
+         */
+        private int loaderThreads = 16;
+    }
+
+    @Data
+    public static class Policy {
+
+        private Duration ttl;
+
+        private Double jitter;
+
+        private Double earlyRefreshBeta;
+
+        private Boolean localEnabled;
+
+        private Long maximumEntries;
+
+        private DataSize maximumWeight;
+
+        /**
+         * Whether {@code null} results are stored in Redis. Can't be changed at runtime.
+         */
+        private Boolean cacheNulls;
+
+        private Format serialization;
+
+        /**
+         * Number of consecutive numeric ids stored in one Redis hash instead of one string key each;
+         * {@code 0} (default) keeps the string layout. Requires Redis 7.4+ (hash field TTLs).
+         * Can't be changed at runtime.
+         */
+        private Integer hashBucketSize;
+
+        private LocalStore localStore;
+    }
+
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    public enum Invalidation {
+        PUBSUB,
+        TRACKING
+    }
+
+    public enum LocalStore {
+        HEAP,
+        OFF_HEAP
+    }
+}
@@ -0,0 +1,50 @@
+package com.mymicroservice.userservice.configuration;
+
+import com.mymicroservice.userservice.cache.CacheWarmUp;
+import com.mymicroservice.userservice.cache.CacheWarmer;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import com.mymicroservice.userservice.repository.CardInfoRepository;
+import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.service.CardInfoService;
+import com.mymicroservice.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+
+/**
+ * Startup warm-up of {@code userCache} and {@code cardInfoCache}, see {@link CacheWarmUp}.
+ * Without a snapshot the most recently created users and cards are loaded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheWarmUpConfig {
+
+    @Bean
+    public CacheWarmer userCacheWarmer(UserService userService, UserRepository userRepository) {
+        return new CacheWarmer(USER_CACHE,
+                limit -> userRepository.findRecentUserIds(PageRequest.of(0, limit)),
+                userService::getUsersIdIn);
+    }
+
+    @Bean
+    public CacheWarmer cardInfoCacheWarmer(CardInfoService cardInfoService, CardInfoRepository cardInfoRepository) {
+        return new CacheWarmer(CARD_INFO_CACHE,
+                limit -> cardInfoRepository.findRecentCardIds(PageRequest.of(0, limit)),
+                cardInfoService::getCardInfoIdIn);
+    }
+
+    @Bean
+    public CacheWarmUp cacheWarmUp(TwoLevelCacheManager cacheManager,
+                                   List<CacheWarmer> warmers,
+                                   CacheProperties cacheProperties,
+                                   MeterRegistry meterRegistry) {
+        return new CacheWarmUp(cacheManager, warmers, cacheProperties.getWarmUp(), meterRegistry);
+    }
+}
@@ -3,26 +3,61 @@ package com.mymicroservice.userservice.configuration;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mymicroservice.userservice.cache.BatchRedisCache;
+import com.mymicroservice.userservice.cache.BatchRedisCacheManager;
+import com.mymicroservice.userservice.cache.BinaryCacheValueSerializer;
+import com.mymicroservice.userservice.cache.CachePolicy;
+import com.mymicroservice.userservice.cache.CachePolicyRegistry;
+import com.mymicroservice.userservice.cache.CircuitBreakingCache;
+import com.mymicroservice.userservice.cache.FormatSwitchingValueSerializer;
+import com.mymicroservice.userservice.cache.LocalCacheGovernor;
+import com.mymicroservice.userservice.cache.RedisCircuitBreaker;
+import com.mymicroservice.userservice.cache.RedisLatencyBudget;
+import com.mymicroservice.userservice.cache.RedisShards;
+import com.mymicroservice.userservice.cache.RedisTrackingInvalidator;
+import com.mymicroservice.userservice.cache.ShardedRedisCache;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class RedisConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
@@ -33,54 +68,214 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
+    /**
+     * Creates the Lettuce connection factory on the {@link ClientResources} of Spring Boot,
+     * which carry the Micrometer command latency recorder ({@code lettuce.command.completion},
+     * {@code lettuce.command.firstresponse}).
+     * With {@code cache.resilience.enabled} every command is bounded by the {@link RedisLatencyBudget}.
+     */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
+    public RedisConnectionFactory redisConnectionFactory(ClientResources clientResources, CacheProperties cacheProperties) {
          logger.info("Redis Config - Host: {}, Port: {}", redisHost, redisPort);
-        return createLettuceConnectionFactory();
+        return createLettuceConnectionFactory(clientResources, redisHost, redisPort, cacheProperties.getResilience());
+    }
+
+    /**
+     * Connects to the nodes of {@code cache.sharding.nodes}, over which the {@link BatchRedisCacheManager}
+     * spreads the caches of {@code cache.sharding.cache-names} by consistent hashing.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${cache.sharding.nodes:}'.isBlank()")
+    public RedisShards redisShards(ClientResources clientResources, CacheProperties cacheProperties) {
+        CacheProperties.Sharding sharding = cacheProperties.getSharding();
+        Map<String, RedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+        for (String node : sharding.getNodes()) {
+            RedisURI uri = RedisURI.create("redis://" + node.trim());
+            LettuceConnectionFactory connectionFactory = createLettuceConnectionFactory(clientResources,
+                    uri.getHost(), uri.getPort(), cacheProperties.getResilience());
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            connectionFactories.put(uri.getHost() + ":" + uri.getPort(), connectionFactory);
+        }
+        return new RedisShards(connectionFactories, sharding);
     }
 
-    private LettuceConnectionFactory createLettuceConnectionFactory() {
+    private LettuceConnectionFactory createLettuceConnectionFactory(ClientResources clientResources,
+                                                                    String host,
+                                                                    int port,
+                                                                    CacheProperties.Resilience resilience) {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(redisHost);
-        config.setPort(redisPort);
-        return new LettuceConnectionFactory(config);
+        config.setHostName(host);
+        config.setPort(port);
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfig = LettuceClientConfiguration.builder()
+                .clientResources(clientResources);
+        if (resilience.isEnabled()) {
+            clientConfig.clientOptions(ClientOptions.builder()
+                    .timeoutOptions(TimeoutOptions.builder()
+                            .timeoutCommands(true)
+                            .timeoutSource(new RedisLatencyBudget(resilience.getReadTimeout(), resilience.getWriteTimeout()))
+                            .build())
+                    .build());
+        }
+        return new LettuceConnectionFactory(config, clientConfig.build());
+    }
+
+    /**
+     * Circuit breaker of the Redis caches. Probes Redis, and every node of the {@link RedisShards}, with a
+     * {@code PING} while open.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.resilience.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisCircuitBreaker redisCircuitBreaker(RedisConnectionFactory connectionFactory,
+                                                   ObjectProvider<RedisShards> shards,
+                                                   CacheProperties cacheProperties,
+                                                   MeterRegistry meterRegistry) {
+        return new RedisCircuitBreaker(cacheProperties.getResilience(), () -> {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            }
+            shards.ifAvailable(RedisShards::ping);
+        }, meterRegistry);
+    }
+
+    /**
+     * Publishes the Lettuce command latencies as percentile histograms, so that Prometheus can
+     * aggregate them across instances.
+     */
+    @Bean
+    public MicrometerOptions lettuceMicrometerOptions() {
+        return MicrometerOptions.builder()
+                .histogram(true)
+                .maxLatency(Duration.ofSeconds(1))
+                .build();
     }
 
     /**
-     * Creates and configures a {@link RedisCacheManager} bean for declarative caching using annotations.
+     * Creates and configures a {@link RedisCacheManager} bean, the Redis (L2) tier of declarative caching.
      * This cache manager uses Redis as the underlying cache store with JSON serialization.
      *
      * <p>Key features:
      * <ul>
-     *     <li>Uses Jackson-based JSON serialization for cache values.</li>
-     *     <li>Sets a default Time-To-Live (TTL) of 15 minutes for all cache entries.</li>
-     *     <li>Prevents caching of {@code null} values to avoid cache pollution.</li>
+     *     <li>Configures every cache from its {@link CachePolicy} ({@code cache.policies.<name>.*} on top of
+     *     the defaults), which can also be changed at runtime through the {@code cachepolicies} actuator endpoint.</li>
+     *     <li>Uses Jackson-based JSON serialization for cache values, or the compact
+     *     {@link BinaryCacheValueSerializer} when the policy selects {@code binary}.</li>
+     *     <li>Sets the Time-To-Live (TTL) of each cache from the policy (15 minutes ±10% by default),
+     *     jittered per key so that entries cached together don't expire together.</li>
+     *     <li>Creates {@link BatchRedisCache}s, which also serve many keys with one {@code MGET}, or
+     *     {@link ShardedRedisCache}s spread over the {@link RedisShards} for the caches of
+     *     {@code cache.sharding.cache-names}.</li>
+     *     <li>Prevents caching of {@code null} values to avoid cache pollution, unless the policy allows them.</li>
+     *     <li>Wraps every cache in a {@link CircuitBreakingCache} when the {@link RedisCircuitBreaker} is enabled,
+     *     so that a slow or unavailable Redis falls back to a local cache instead of blocking requests.</li>
      *     <li>Configures a customized {@link ObjectMapper} for consistent JSON handling.</li>
      * </ul>
      *
      * @param connectionFactory the {@link RedisConnectionFactory} used to establish Redis connections
+     * @param cacheProperties sets the compression threshold of the binary format
+     * @param policyRegistry resolves the policy of each cache
+     * @param shards nodes of the sharded caches, absent unless {@code cache.sharding.nodes} is set
+     * @param circuitBreaker breaker of the Redis calls, absent if {@code cache.resilience.enabled=false}
+     * @param meterRegistry registry for the fallback metrics
      * @return a fully configured {@link RedisCacheManager} instance
      * @see org.springframework.cache.annotation.EnableCaching
      * @see org.springframework.data.redis.cache.RedisCacheConfiguration
      *
-     * @implNote The cache manager uses {@link GenericJackson2JsonRedisSerializer} for value serialization,
+     * @implNote By default the cache manager uses {@link GenericJackson2JsonRedisSerializer} for value serialization,
      *           which stores type information in the JSON payload for proper deserialization.
-     *           The default TTL (15 minutes) can be overridden per-cache via {@code @Cacheable} annotations.
+     *           Both formats are always readable, so entries written before a format change stay valid.
      */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) { //for declarative caching (via annotations)
-        ObjectMapper objectMapper = createConfiguredObjectMapper();
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               CacheProperties cacheProperties,
+                                               CachePolicyRegistry policyRegistry,
+                                               ObjectProvider<RedisShards> shards,
+                                               ObjectProvider<RedisCircuitBreaker> circuitBreaker,
+                                               MeterRegistry meterRegistry) { //L2 of the declarative caching
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(createConfiguredObjectMapper());
+        BinaryCacheValueSerializer binarySerializer = new BinaryCacheValueSerializer(jsonSerializer,
+                (int) cacheProperties.getSerialization().getCompressionThreshold().toBytes());
+
+        return new BatchRedisCacheManager(connectionFactory, RedisCacheConfiguration.defaultCacheConfig(), policyRegistry,
+                cacheName -> new FormatSwitchingValueSerializer(jsonSerializer, binarySerializer,
+                        () -> policyRegistry.get(cacheName).serialization()),
+                cache -> {
+                    RedisCircuitBreaker breaker = circuitBreaker.getIfAvailable();
+                    return breaker == null ? cache
+                            : new CircuitBreakingCache(cache, breaker, cacheProperties.getResilience(), meterRegistry);
+                },
+                shards.getIfAvailable());
+    }
+
+    /**
+     * Creates the {@link TwoLevelCacheManager} used by {@code @Cacheable}, {@code @CachePut} and {@code @CacheEvict}.
+     * It wraps the caches whose policy enables L1 with an in-process L1 tier
+     * and hands every other cache over to the {@link RedisCacheManager} unchanged.
+     *
+     * @param redisCacheManager the Redis (L2) cache manager
+     * @param stringRedisTemplate template used to publish L1 invalidation messages
+     * @param cacheProperties settings of the early refresh
+     * @param policyRegistry policies that enable and size the L1 tier of each cache
+     * @param meterRegistry registry for the per-tier hit/miss metrics
+     * @return the primary cache manager
+     *
+     * @implNote An off-heap L1 always stores the binary format, uncompressed: it is decoded on every hit.
+     */
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             CacheProperties cacheProperties,
+                                             CachePolicyRegistry policyRegistry,
+                                             MeterRegistry meterRegistry) { //for declarative caching (via annotations)
+        BinaryCacheValueSerializer offHeapSerializer = new BinaryCacheValueSerializer(
+                new GenericJackson2JsonRedisSerializer(createConfiguredObjectMapper()), -1);
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, cacheProperties, policyRegistry, meterRegistry,
+                offHeapSerializer);
+    }
 
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    /**
+     * Subscribes the {@link TwoLevelCacheManager} to the L1 invalidation channel,
+     * so that writes made on other instances evict the local copies here.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager,
+                                                                           CacheProperties cacheProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheProperties.getInvalidationChannel()));
+        return container;
+    }
 
-        RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(15))
-                .disableCachingNullValues()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    /**
+     * Lets Redis push the invalidations of the L1 entries (RESP3 client tracking) when
+     * {@code cache.local.invalidation=tracking}. The keys of every configured cache are tracked
+     * over a dedicated connection to Redis and to each node of the {@link RedisShards}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.local.invalidation", havingValue = "tracking")
+    public RedisTrackingInvalidator redisTrackingInvalidator(ClientResources clientResources,
+                                                             TwoLevelCacheManager cacheManager,
+                                                             CachePolicyRegistry policyRegistry,
+                                                             CacheProperties cacheProperties,
+                                                             MeterRegistry meterRegistry) {
+        List<RedisClient> redisClients = new ArrayList<>();
+        redisClients.add(RedisClient.create(clientResources, RedisURI.create(redisHost, redisPort)));
+        cacheProperties.getSharding().getNodes().forEach(node ->
+                redisClients.add(RedisClient.create(clientResources, RedisURI.create("redis://" + node.trim()))));
+        return new RedisTrackingInvalidator(redisClients, cacheManager, policyRegistry.getAll().keySet(), meterRegistry);
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(cacheConfig)
-                .build();
+    /**
+     * Shrinks the heap bounds of the L1 caches under heap pressure, see {@link LocalCacheGovernor}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.governor.enabled", havingValue = "true", matchIfMissing = true)
+    public LocalCacheGovernor localCacheGovernor(TwoLevelCacheManager cacheManager,
+                                                 CacheProperties cacheProperties,
+                                                 MeterRegistry meterRegistry) {
+        return new LocalCacheGovernor(cacheManager, cacheProperties.getGovernor(), meterRegistry);
     }
 
     @Bean
@@ -117,7 +312,7 @@ public class RedisConfig {
      *
      * @return configured ObjectMapper instance
      */
-    private ObjectMapper createConfiguredObjectMapper() {
+    public static ObjectMapper createConfiguredObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule()); // serialization in JSON LocalDate.
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -6,6 +6,7 @@ import com.mymicroservice.userservice.security.CustomAuthenticationEntryPoint;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -30,6 +31,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .addFilterAfter(gatewayAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
+                        .requestMatchers(HttpMethod.POST, "/actuator/cachepolicies/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/actuator/cachepolicies/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/cachehotkeys", "/actuator/cachehotkeys/**").hasRole("ADMIN")
                         .requestMatchers(
                                 "/actuator/**",
                                 "/actuator",
@@ -2,15 +2,21 @@ package com.mymicroservice.userservice.controller;
 
 import com.mymicroservice.userservice.annotation.GlobalExceptionHandler;
 import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.service.CardInfoService;
+import com.mymicroservice.userservice.service.ExportService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.annotation.Validated;
@@ -23,6 +29,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Set;
@@ -37,6 +44,7 @@ import java.util.Set;
 public class CardInfoController {
 
     private final CardInfoService cardInfoService;
+    private final ExportService exportService;
 
     /**
      * Retrieves card information by its ID.
@@ -92,20 +100,39 @@ public class CardInfoController {
         return ResponseEntity.ok(cardInfoService.getExpiredCards());
     }
 
-    @GetMapping("/all")
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<CardInfoDto>> getAllCardInfos() {
         log.info("Request to find all CardInfos");
 
         return ResponseEntity.ok(cardInfoService.getAllCardInfos());
     }
 
-    @GetMapping("/paginated") //http://localhost:8080/api/cards/paginated?page=0&size=2
-    public ResponseEntity<Page<CardInfoDto>> getAllCardInfosWithPagination(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE) // Accept: application/x-ndjson
+    public ResponseEntity<StreamingResponseBody> exportAllCardInfos() {
+        log.info("Request to export all CardInfos");
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportCardInfos);
+    }
+
+    @GetMapping("/paginated") //http://localhost:8080/api/cards/paginated?page=0&size=2&count=ESTIMATED
+    public ResponseEntity<PageDto<CardInfoDto>> getAllCardInfosWithPagination(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count) {
         log.info("Request to find all CardInfos with pagination");
 
-        return ResponseEntity.ok(cardInfoService.getAllCardInfosNativeWithPagination(page, size));
+        return ResponseEntity.ok(cardInfoService.getAllCardInfosNativeWithPagination(page, size, count));
+    }
+
+    @GetMapping("/cursor") //http://localhost:8080/api/cards/cursor?size=2&cursor=aWQ6Mg
+    public ResponseEntity<CursorPageDto<CardInfoDto>> getCardInfosAfterCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size) {
+        log.info("Request to find CardInfos after cursor: {}", cursor);
+
+        return ResponseEntity.ok(cardInfoService.getCardInfosAfterCursor(cursor, size));
     }
 
     @PostMapping("/add")
@@ -1,15 +1,23 @@
 package com.mymicroservice.userservice.controller;
 
 import com.mymicroservice.userservice.annotation.GlobalExceptionHandler;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.dto.UserWithCardsDto;
 import com.mymicroservice.userservice.model.Role;
+import com.mymicroservice.userservice.service.ExportService;
+import com.mymicroservice.userservice.service.UserProfileService;
 import com.mymicroservice.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -24,11 +32,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -40,6 +50,8 @@ import java.util.Set;
 public class UserController {
 
     private final UserService userService;
+    private final UserProfileService userProfileService;
+    private final ExportService exportService;
 
     public UserDto getAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -65,6 +77,12 @@ public class UserController {
                 : ResponseEntity.ok(userDto);
     }
 
+    @GetMapping("/{id}/with-cards")
+    public CompletableFuture<ResponseEntity<UserWithCardsDto>> getUserWithCards(@PathVariable("id") Long id) {
+        log.info("Request to find the User with cards by id: {}", id);
+        return userProfileService.getUserWithCards(id).thenApply(ResponseEntity::ok);
+    }
+
     @GetMapping("/find-by-email") //http://localhost:8080/api/users/find-by-email?email=user1%40yandex.ru
     public ResponseEntity<?> getUserByEmail (@RequestParam String email) {
         log.info("Request to find the User by email: {}", email);
@@ -96,18 +114,35 @@ public class UserController {
         return ResponseEntity.ok(userDtos);
     }
 
-    @GetMapping("/all")
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<UserDto>> getAllUsers() {
         log.info("Request to find all Users");
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
-    @GetMapping("/paginated") //http://localhost:8080/api/users/paginated?page=0&size=2
-    public ResponseEntity<Page<UserDto>> getAllUsersWithPagination(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE) // Accept: application/x-ndjson
+    public ResponseEntity<StreamingResponseBody> exportAllUsers() {
+        log.info("Request to export all Users");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportUsers);
+    }
+
+    @GetMapping("/paginated") //http://localhost:8080/api/users/paginated?page=0&size=2&count=ESTIMATED
+    public ResponseEntity<PageDto<UserDto>> getAllUsersWithPagination(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count) {
         log.info("Request to find all Users with pagination");
-        return ResponseEntity.ok(userService.getAllUsersNativeWithPagination(page, size));
+        return ResponseEntity.ok(userService.getAllUsersNativeWithPagination(page, size, count));
+    }
+
+    @GetMapping("/cursor") //http://localhost:8080/api/users/cursor?size=2&cursor=aWQ6Mg
+    public ResponseEntity<CursorPageDto<UserDto>> getUsersAfterCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size) {
+        log.info("Request to find Users after cursor: {}", cursor);
+        return ResponseEntity.ok(userService.getUsersAfterCursor(cursor, size));
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,24 @@
+package com.mymicroservice.userservice.dto;
+
+/**
+ * How the total of a paginated listing is counted.
+ */
+public enum CountStrategy {
+
+    /**
+     * {@code COUNT(*)} of the current rows; cached until the table is written to.
+     */
+    EXACT,
+
+    /**
+     * The row estimate of the query planner ({@code pg_class.reltuples}), or the last exact count
+     * recounted in the background, if the table hasn't been analyzed yet. Never waits for {@code COUNT(*)},
+     * except on the very first request.
+     */
+    ESTIMATED,
+
+    /**
+     * No total at all; the page only tells whether it is the last one.
+     */
+    NONE
+}
@@ -0,0 +1,27 @@
+package com.mymicroservice.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A slice of a keyset-paginated listing. Unlike a {@link org.springframework.data.domain.Page} it carries
+ * no total count, so fetching it never has to count the table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> implements Serializable {
+
+    private List<T> items;
+
+    /**
+     * Opaque token to pass as {@code cursor} for the next slice; {@code null} on the last one.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,100 @@
+package com.mymicroservice.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of an offset-paginated listing together with the kind of total it carries.
+ *
+ * <p>Has the fields a serialized {@link Page} has ({@code number}, {@code size}, {@code totalElements},
+ * {@code totalPages}, {@code first}, {@code last}, {@code numberOfElements}, {@code empty}), so clients
+ * that read the former response keep working; {@link #totalKind} tells how the total was counted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDto<T> implements Serializable {
+
+    private List<T> content;
+
+    private int number;
+
+    private int size;
+
+    /**
+     * {@code null} when {@link #totalKind} is {@link CountStrategy#NONE}.
+     */
+    private Long totalElements;
+
+    /**
+     * {@code null} when {@link #totalKind} is {@link CountStrategy#NONE}.
+     */
+    private Integer totalPages;
+
+    private boolean first;
+
+    private boolean last;
+
+    private int numberOfElements;
+
+    private boolean empty;
+
+    private CountStrategy totalKind;
+
+    public static <T> PageDto<T> exact(Page<T> page) {
+        return of(page.getContent(), page.getNumber(), page.getSize(), page.isLast(),
+                page.getTotalElements(), CountStrategy.EXACT);
+    }
+
+    /**
+     * Builds a page from the rows read for it, which are expected to be one more than {@code size}:
+     * the extra row only tells that the page isn't the last one and isn't returned. An estimated total
+     * is corrected by what the rows tell: it is at least the rows seen, and exact on the last page.
+     *
+     * @param total the estimated total, ignored for {@link CountStrategy#NONE}
+     */
+    public static <T> PageDto<T> withoutCount(List<T> rows, int page, int size, long total, CountStrategy totalKind) {
+        boolean last = rows.size() <= size;
+        List<T> content = last ? rows : List.copyOf(rows.subList(0, size));
+        if (totalKind == CountStrategy.NONE) {
+            return of(content, page, size, last, null, totalKind);
+        }
+        long seen = (long) page * size + content.size();
+        long totalElements;
+        if (!last) {
+            totalElements = Math.max(total, seen + 1);
+        } else if (!content.isEmpty() || page == 0) {
+            totalElements = seen;
+        } else {
+            totalElements = Math.min(total, seen); // past the end: only known to be below the offset
+        }
+        return of(content, page, size, last, totalElements, totalKind);
+    }
+
+    private static <T> PageDto<T> of(List<T> content, int number, int size, boolean last,
+                                     Long totalElements, CountStrategy totalKind) {
+        return PageDto.<T>builder()
+                .content(content)
+                .number(number)
+                .size(size)
+                .totalElements(totalElements)
+                .totalPages(totalElements == null ? null : totalPages(totalElements, size))
+                .first(number == 0)
+                .last(last)
+                .numberOfElements(content.size())
+                .empty(content.isEmpty())
+                .totalKind(totalKind)
+                .build();
+    }
+
+    private static int totalPages(long totalElements, int size) {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / size); // as Page#getTotalPages
+    }
+}
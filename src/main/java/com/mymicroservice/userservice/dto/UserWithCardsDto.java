@@ -0,0 +1,20 @@
+package com.mymicroservice.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserWithCardsDto implements Serializable {
+
+    private UserDto user;
+
+    private List<CardInfoDto> cards;
+}
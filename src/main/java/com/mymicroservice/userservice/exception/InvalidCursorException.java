@@ -0,0 +1,8 @@
+package com.mymicroservice.userservice.exception;
+
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
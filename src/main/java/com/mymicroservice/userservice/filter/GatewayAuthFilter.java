@@ -11,7 +11,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -29,6 +32,12 @@ public class GatewayAuthFilter extends OncePerRequestFilter {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Keeps the authentication on the request, so the ASYNC dispatch of CompletableFuture and
+     * StreamingResponseBody endpoints (which this filter skips) is authorized with the same user
+     */
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
     @Value("#{'${security.public.endpoints}'.split(',')}")
     private List<String> publicEndpoints;
 
@@ -39,7 +48,7 @@ public class GatewayAuthFilter extends OncePerRequestFilter {
         try {
             if (isGatewayCall(request)) {
                 log.info("Request received from Gateway, processing JWT authentication");
-                parseJwtAndAuthenticate(request);
+                parseJwtAndAuthenticate(request, response);
             } else {
                 SecurityContextHolder.clearContext();
                 log.info("Internal service-to-service call detected, no authentication required");
@@ -69,7 +78,7 @@ public class GatewayAuthFilter extends OncePerRequestFilter {
     /**
      * JWT parsing and SecurityContext installation
      */
-    private void parseJwtAndAuthenticate(HttpServletRequest request) throws IOException {
+    private void parseJwtAndAuthenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
         String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             log.warn("No Bearer token found in request from Gateway");
@@ -95,7 +104,10 @@ public class GatewayAuthFilter extends OncePerRequestFilter {
                 .toList();
 
         var auth = new UsernamePasswordAuthenticationToken(userId, null, authorities);
-        SecurityContextHolder.getContext().setAuthentication(auth);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(auth);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
 
         log.info("SecurityContext set for user: {} with roles: {}", userId, roles);
     }
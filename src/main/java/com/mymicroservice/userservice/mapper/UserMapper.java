@@ -2,6 +2,7 @@ package com.mymicroservice.userservice.mapper;
 
 import com.mymicroservice.userservice.dto.UserDto;
 import com.mymicroservice.userservice.model.User;
+import com.mymicroservice.userservice.repository.projection.UserSummary;
 import lombok.NonNull;
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
@@ -22,6 +23,24 @@ public interface UserMapper {
     @Mapping(target = "role", source = "user.role")
     UserDto toDto(User user);
 
+    /**
+     * Converts a {@link UserSummary} read projection to {@link UserDto}.
+     * The projection doesn't carry the password, so the DTO's password stays {@code null}.
+     *
+     * @param userSummary projection to convert
+     * @return corresponding {@link UserDto} without the password
+     */
+    @Mapping(target = "password", ignore = true)
+    UserDto toDto(UserSummary userSummary);
+
+    /**
+     * Drops the password of {@link User} entity, e.g. before the user is cached.
+     *
+     * @param user entity to convert
+     * @return {@link UserSummary} of the user
+     */
+    UserSummary toSummary(User user);
+
     /**
      * Converts {@link UserDto} back to {@link User} entity.
      * <p>
@@ -60,4 +60,47 @@ public interface CardInfoRepository extends JpaRepository<CardInfo, Long> {
      */
     @Query(value = "select * from card_info order by card_info.id asc", nativeQuery = true)
     Page<CardInfo> findAllCardInfoNative(Pageable pageable);
+
+    /**
+     * Retrieves the cards following the specified ID using native SQL (keyset pagination).
+     * <p>
+     * Seeks the primary key index, so the cost doesn't grow with the position in the table,
+     * and doesn't count the rows.
+     *
+     * @param afterId the last ID of the previous slice, {@code 0} for the first slice
+     * @param limit maximum number of cards to return
+     * @return cards with IDs greater than afterId, ordered by ID in ascending order
+     */
+    @Query(value = "select * from card_info where card_info.id > :afterId order by card_info.id asc limit :limit", nativeQuery = true)
+    List<CardInfo> findCardInfosAfterIdNative(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Retrieves a range of cards ordered by ID using native SQL, without counting them.
+     *
+     * @param offset number of cards to skip
+     * @param limit maximum number of cards to return
+     * @return cards ordered by ID in ascending order
+     */
+    @Query(value = "select * from card_info order by card_info.id asc limit :limit offset :offset", nativeQuery = true)
+    List<CardInfo> findCardInfosRangeNative(@Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Returns the planner's estimate of the number of cards ({@code pg_class.reltuples}),
+     * maintained by {@code VACUUM} and {@code ANALYZE}, without scanning the table.
+     *
+     * @return the estimated number of rows, or {@code -1} ({@code 0} before PostgreSQL 14) if the table
+     *         hasn't been analyzed yet
+     */
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = cast('card_info' as regclass)", nativeQuery = true)
+    long estimateCardInfosCount();
+
+    /**
+     * Finds the IDs of the most recently created cards using JPQL query.
+     * Used to warm up the cache when no snapshot of the hottest entries is available.
+     *
+     * @param pageable limits the number of IDs
+     * @return card IDs in descending order
+     */
+    @Query("SELECT c.cardId FROM CardInfo c ORDER BY c.cardId DESC")
+    List<Long> findRecentCardIds(Pageable pageable);
 }
@@ -2,6 +2,7 @@ package com.mymicroservice.userservice.repository;
 
 import com.mymicroservice.userservice.model.Role;
 import com.mymicroservice.userservice.model.User;
+import com.mymicroservice.userservice.repository.projection.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,54 +20,116 @@ import java.time.LocalDate;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Finds a user by email address using "named method".
+     * JPQL select of {@link UserSummary} projections: only the returned columns are read, never the password.
+     */
+    String SELECT_SUMMARY = "SELECT new com.mymicroservice.userservice.repository.projection.UserSummary("
+            + "u.userId, u.name, u.surname, u.birthDate, u.email, u.role) FROM User u";
+
+    /**
+     * Returns the planner's estimate of the number of users ({@code pg_class.reltuples}),
+     * maintained by {@code VACUUM} and {@code ANALYZE}, without scanning the table.
+     *
+     * @return the estimated number of rows, or {@code -1} ({@code 0} before PostgreSQL 14) if the table
+     *         hasn't been analyzed yet
+     */
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = cast('users' as regclass)", nativeQuery = true)
+    long estimateUsersCount();
+
+    /**
+     * Finds the summary of the user with the specified ID using JPQL projection.
      *
-     * @param email the email address to search for (case-insensitively)
-     * @return an {@link Optional} containing the user if found, empty otherwise
-     * @throws IllegalArgumentException if email is null
+     * @param id the user ID
+     * @return an {@link Optional} containing the user summary if found, empty otherwise
      */
-    Optional<User> findByEmailIgnoreCase(String email);
+    @Query(SELECT_SUMMARY + " WHERE u.userId = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
 
     /**
-     * Finds all users with specified IDs using "named method".
+     * Finds the summary of a user by email address (case-insensitively) using JPQL projection.
+     *
+     * @param email the email address to search for
+     * @return an {@link Optional} containing the user summary if found, empty otherwise
+     */
+    @Query(SELECT_SUMMARY + " WHERE upper(u.email) = upper(:email)")
+    Optional<UserSummary> findSummaryByEmailIgnoreCase(@Param("email") String email);
+
+    /**
+     * Finds the summaries of all users with specified IDs using JPQL projection.
      *
      * @param ids set of user IDs to search for
-     * @return a list of users matching the provided IDs (may be empty)
-     * @throws IllegalArgumentException if ids set is null
+     * @return summaries of the users matching the provided IDs (may be empty)
      */
-    List<User> findByUserIdIn(Set<Long> ids);
+    @Query(SELECT_SUMMARY + " WHERE u.userId IN :ids")
+    List<UserSummary> findSummariesByUserIdIn(@Param("ids") Set<Long> ids);
 
     /**
-     * Finds all users with the specified role using JPQL query.
+     * Finds the summaries of all users with the specified role using JPQL projection.
      *
      * @param role the user role to filter by
-     * @return a list of users with the given role (may be empty)
-     * @throws IllegalArgumentException if role is null
+     * @return summaries of the users with the given role (may be empty)
      */
-    @Query("SELECT u FROM User u WHERE u.role = :role")
-    List<User> findUsersByRole(@Param("role") Role role);
+    @Query(SELECT_SUMMARY + " WHERE u.role = :role")
+    List<UserSummary> findSummariesByRole(@Param("role") Role role);
 
     /**
-     * Finds all users born after the specified date using native SQL.
+     * Finds the summaries of all users born after the specified date using JPQL projection.
      *
-     * @param date the cutoff date (must not be null)
-     * @return a list of users born after the given date
-     * @throws IllegalArgumentException if date is null
+     * @param date the cutoff date
+     * @return summaries of the users born after the given date
      */
-    @Query(value = "SELECT * FROM users WHERE birth_date > :date", nativeQuery = true)
-    List<User> findUsersBornAfter(@Param("date") LocalDate date);
+    @Query(SELECT_SUMMARY + " WHERE u.birthDate > :date")
+    List<UserSummary> findSummariesBornAfter(@Param("date") LocalDate date);
 
     /**
-     * Retrieves all users with pagination support using native SQL.
+     * Retrieves the summaries of all users using JPQL projection.
+     *
+     * @return summaries of all users, ordered by ID in ascending order
+     */
+    @Query(SELECT_SUMMARY + " ORDER BY u.userId")
+    List<UserSummary> findAllSummaries();
+
+    /**
+     * Retrieves a page of user summaries using JPQL projection, ordered by ID in ascending order.
+     * The total is counted without reading any row.
+     *
+     * @param pageable page number and size; its sort is ignored
+     * @return a {@link Page} of user summaries with pagination information
+     */
+    @Query(value = SELECT_SUMMARY + " ORDER BY u.userId", countQuery = "SELECT count(u) FROM User u")
+    Page<UserSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Retrieves the summaries of the users following the specified ID using JPQL projection (keyset pagination).
      * <p>
-     * Results are ordered by user ID in ascending order.
+     * Seeks the primary key index, so the cost doesn't grow with the position in the table,
+     * and doesn't count the rows.
+     *
+     * @param afterId the last ID of the previous slice, {@code 0} for the first slice
+     * @param limit maximum number of users to return
+     * @return summaries of the users with IDs greater than afterId, ordered by ID in ascending order
+     */
+    @Query(SELECT_SUMMARY + " WHERE u.userId > :afterId ORDER BY u.userId LIMIT :limit")
+    List<UserSummary> findSummariesAfterId(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Retrieves a range of user summaries ordered by ID using JPQL projection, without counting them.
+     *
+     * @param offset number of users to skip
+     * @param limit maximum number of users to return
+     * @return summaries of the users ordered by ID in ascending order
+     */
+    @Query(SELECT_SUMMARY + " ORDER BY u.userId LIMIT :limit OFFSET :offset")
+    List<UserSummary> findSummariesRange(@Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Finds the IDs of the most recently created users using JPQL query.
+     * Used to warm up the cache when no snapshot of the hottest entries is available.
      *
-     * @param pageable pagination configuration (page number, size, etc.)
-     * @return a {@link Page} of users with pagination information
-     * @throws IllegalArgumentException if pageable is null
+     * @param pageable limits the number of IDs
+     * @return user IDs in descending order
      */
-    @Query(value = "select * from users order by users.id asc", nativeQuery = true)
-    Page<User> findAllUsersNative(Pageable pageable);
+    @Query("SELECT u.userId FROM User u ORDER BY u.userId DESC")
+    List<Long> findRecentUserIds(Pageable pageable);
 
 }
 
@@ -0,0 +1,13 @@
+package com.mymicroservice.userservice.repository.projection;
+
+import com.mymicroservice.userservice.model.Role;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a {@link com.mymicroservice.userservice.model.User} with the columns the read
+ * endpoints return. It is built by a JPQL constructor expression, so the password hash is never selected
+ * and Hibernate neither manages nor snapshots the rows.
+ */
+public record UserSummary(Long userId, String name, String surname, LocalDate birthDate, String email, Role role) {
+}
@@ -0,0 +1,41 @@
+package com.mymicroservice.userservice.repository.read;
+
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.model.Role;
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+
+/**
+ * Column lists and row mappers of the plain-SQL reads that map rows straight into DTOs, shared by the
+ * {@link JdbcReadEngine} and the NDJSON export, so that both follow a schema change together. The user
+ * columns leave out the password hash.
+ */
+@UtilityClass
+public class DtoRowMappers {
+
+    public static final String USER_COLUMNS = "id, name, surname, birth_date, email, role";
+    public static final String CARD_INFO_COLUMNS = "id, number, holder, expiration_date, user_id";
+
+    public static final RowMapper<UserDto> USER = (rs, rowNum) -> {
+        String role = rs.getString("role");
+        return UserDto.builder()
+                .userId(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .surname(rs.getString("surname"))
+                .birthDate(rs.getObject("birth_date", LocalDate.class))
+                .email(rs.getString("email"))
+                .role(role == null ? null : Role.valueOf(role))
+                .build();
+    };
+
+    public static final RowMapper<CardInfoDto> CARD_INFO = (rs, rowNum) -> CardInfoDto.builder()
+            .cardId(rs.getLong("id"))
+            .number(rs.getString("number"))
+            .holder(rs.getString("holder"))
+            .expirationDate(rs.getObject("expiration_date", LocalDate.class))
+            .userId(rs.getObject("user_id", Long.class))
+            .build();
+}
@@ -0,0 +1,72 @@
+package com.mymicroservice.userservice.repository.read;
+
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link ReadEngine} on plain SQL through {@link JdbcClient}: the rows are mapped straight into DTOs
+ * ({@link DtoRowMappers}), with no persistence context, entity snapshots or proxies in between. It runs on
+ * the connection of the current transaction, so it sees the same data as the JPA repositories.
+ * <p>
+ * Each query has a fixed text: the find-by-ids queries bind all IDs as one {@code bigint[]} parameter
+ * ({@code = any(?)}) rather than expanding an {@code IN} list, so the server sees one statement
+ * however many IDs are asked for.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "read.engine", havingValue = "jdbc")
+public class JdbcReadEngine implements ReadEngine {
+
+    private static final String USER_QUERY = "select " + DtoRowMappers.USER_COLUMNS + " from users";
+    private static final String CARD_INFO_QUERY = "select " + DtoRowMappers.CARD_INFO_COLUMNS + " from card_info";
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    public Optional<UserDto> findUserById(Long userId) {
+        return jdbcClient.sql(USER_QUERY + " where id = ?")
+                .param(userId)
+                .query(DtoRowMappers.USER)
+                .optional();
+    }
+
+    @Override
+    public Optional<UserDto> findUserByEmail(String email) {
+        return jdbcClient.sql(USER_QUERY + " where upper(email) = upper(?)")
+                .param(email)
+                .query(DtoRowMappers.USER)
+                .optional();
+    }
+
+    @Override
+    public List<UserDto> findUsersByIds(Set<Long> ids) {
+        return jdbcClient.sql(USER_QUERY + " where id = any(?)")
+                .param(ids.toArray(Long[]::new))
+                .query(DtoRowMappers.USER)
+                .list();
+    }
+
+    @Override
+    public List<CardInfoDto> findCardInfosByUserId(Long userId) {
+        return jdbcClient.sql(CARD_INFO_QUERY + " where user_id = ?")
+                .param(userId)
+                .query(DtoRowMappers.CARD_INFO)
+                .list();
+    }
+
+    @Override
+    public List<CardInfoDto> findCardInfosByIds(Set<Long> ids) {
+        return jdbcClient.sql(CARD_INFO_QUERY + " where id = any(?)")
+                .param(ids.toArray(Long[]::new))
+                .query(DtoRowMappers.CARD_INFO)
+                .list();
+    }
+}
@@ -0,0 +1,54 @@
+package com.mymicroservice.userservice.repository.read;
+
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.mapper.CardInfoMapper;
+import com.mymicroservice.userservice.mapper.UserMapper;
+import com.mymicroservice.userservice.repository.CardInfoRepository;
+import com.mymicroservice.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link ReadEngine} on the Spring Data JPA repositories: Users are read as
+ * {@link com.mymicroservice.userservice.repository.projection.UserSummary} projections,
+ * CardInfos as entities mapped by {@link CardInfoMapper}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "read.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaReadEngine implements ReadEngine {
+
+    private final UserRepository userRepository;
+    private final CardInfoRepository cardInfoRepository;
+
+    @Override
+    public Optional<UserDto> findUserById(Long userId) {
+        return userRepository.findSummaryById(userId).map(UserMapper.INSTANSE::toDto);
+    }
+
+    @Override
+    public Optional<UserDto> findUserByEmail(String email) {
+        return userRepository.findSummaryByEmailIgnoreCase(email).map(UserMapper.INSTANSE::toDto);
+    }
+
+    @Override
+    public List<UserDto> findUsersByIds(Set<Long> ids) {
+        return userRepository.findSummariesByUserIdIn(ids).stream().map(UserMapper.INSTANSE::toDto).toList();
+    }
+
+    @Override
+    public List<CardInfoDto> findCardInfosByUserId(Long userId) {
+        return cardInfoRepository.findByUserId(userId).stream().map(CardInfoMapper.INSTANSE::toDto).toList();
+    }
+
+    @Override
+    public List<CardInfoDto> findCardInfosByIds(Set<Long> ids) {
+        return cardInfoRepository.findByCardIdIn(ids).stream().map(CardInfoMapper.INSTANSE::toDto).toList();
+    }
+}
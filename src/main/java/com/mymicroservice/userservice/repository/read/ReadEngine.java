@@ -0,0 +1,47 @@
+package com.mymicroservice.userservice.repository.read;
+
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads of the hot lookup paths, straight into DTOs. The implementation is chosen by {@code read.engine}:
+ * {@code jpa} (default, {@link JpaReadEngine}) or {@code jdbc} ({@link JdbcReadEngine}).
+ * <p>
+ * The returned Users never carry the password. Both engines join the current transaction.
+ */
+public interface ReadEngine {
+
+    /**
+     * @param userId ID of the User to find
+     * @return the User, or empty if there is no User with this ID
+     */
+    Optional<UserDto> findUserById(Long userId);
+
+    /**
+     * @param email email of the User to find, compared case-insensitively
+     * @return the User, or empty if there is no User with this email
+     */
+    Optional<UserDto> findUserByEmail(String email);
+
+    /**
+     * @param ids IDs of the Users to find
+     * @return the Users found, in no particular order
+     */
+    List<UserDto> findUsersByIds(Set<Long> ids);
+
+    /**
+     * @param userId ID of the User whose CardInfos should be found
+     * @return the CardInfos of the User (may be empty)
+     */
+    List<CardInfoDto> findCardInfosByUserId(Long userId);
+
+    /**
+     * @param ids IDs of the CardInfos to find
+     * @return the CardInfos found, in no particular order
+     */
+    List<CardInfoDto> findCardInfosByIds(Set<Long> ids);
+}
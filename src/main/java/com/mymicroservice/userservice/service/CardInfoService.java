@@ -1,7 +1,9 @@
 package com.mymicroservice.userservice.service;
 
 import com.mymicroservice.userservice.dto.CardInfoDto;
-import org.springframework.data.domain.Page;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 
 import java.util.List;
 import java.util.Set;
@@ -15,7 +17,8 @@ public interface CardInfoService {
     List<CardInfoDto> getCardInfoIdIn(Set<Long> ids);
     List<CardInfoDto> getExpiredCards();
     List<CardInfoDto> getAllCardInfos();
-    Page<CardInfoDto> getAllCardInfosNativeWithPagination(Integer page, Integer size);
+    PageDto<CardInfoDto> getAllCardInfosNativeWithPagination(Integer page, Integer size, CountStrategy count);
+    CursorPageDto<CardInfoDto> getCardInfosAfterCursor(String cursor, Integer size);
     CardInfoDto updateCardInfo(Long cardId, CardInfoDto cardInfoDetails);
     CardInfoDto deleteCardInfo(Long cardId);
 }
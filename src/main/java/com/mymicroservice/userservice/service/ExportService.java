@@ -0,0 +1,10 @@
+package com.mymicroservice.userservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    long exportUsers(OutputStream out) throws IOException;
+    long exportCardInfos(OutputStream out) throws IOException;
+}
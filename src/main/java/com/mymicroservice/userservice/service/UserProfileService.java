@@ -0,0 +1,10 @@
+package com.mymicroservice.userservice.service;
+
+import com.mymicroservice.userservice.dto.UserWithCardsDto;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface UserProfileService {
+
+    CompletableFuture<UserWithCardsDto> getUserWithCards(Long userId);
+}
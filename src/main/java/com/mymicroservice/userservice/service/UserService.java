@@ -1,8 +1,10 @@
 package com.mymicroservice.userservice.service;
 
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
 import com.mymicroservice.userservice.model.Role;
-import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,7 +19,8 @@ public interface UserService {
     List<UserDto> getUsersByRole(Role role);
     List<UserDto> getUsersBornAfter(LocalDate date);
     List<UserDto> getAllUsers();
-    Page<UserDto> getAllUsersNativeWithPagination(Integer page, Integer size);
+    PageDto<UserDto> getAllUsersNativeWithPagination(Integer page, Integer size, CountStrategy count);
+    CursorPageDto<UserDto> getUsersAfterCursor(String cursor, Integer size);
     UserDto updateUser(Long userId, UserDto userDetails);
     UserDto deleteUser(Long userId) ;
 }
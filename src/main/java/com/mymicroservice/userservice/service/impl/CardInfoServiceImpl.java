@@ -1,6 +1,14 @@
 package com.mymicroservice.userservice.service.impl;
 
+import com.mymicroservice.userservice.cache.BatchCacheLoader;
+import com.mymicroservice.userservice.cache.NegativeCache;
+import com.mymicroservice.userservice.cache.QueryResultCache;
+import com.mymicroservice.userservice.cache.SecondaryKeyIndex;
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
 import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.exception.CardInfoNotFoundException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.mapper.CardInfoMapper;
@@ -8,23 +16,31 @@ import com.mymicroservice.userservice.model.CardInfo;
 import com.mymicroservice.userservice.model.User;
 import com.mymicroservice.userservice.repository.CardInfoRepository;
 import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
 import com.mymicroservice.userservice.service.CardInfoService;
+import com.mymicroservice.userservice.util.PageCursor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_NUMBER_INDEX;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
 
 @Slf4j
 @Service
@@ -34,11 +50,20 @@ public class CardInfoServiceImpl implements CardInfoService {
 
     private final CardInfoRepository cardInfoRepository;
     private final UserRepository userRepository;
+    private final NegativeCache negativeCache;
+    private final SecondaryKeyIndex secondaryKeyIndex;
+    private final BatchCacheLoader batchCacheLoader;
+    private final TransactionalCacheWriter cacheWriter;
+    private final QueryResultCache queryResultCache;
+    private final ReadEngine readEngine;
 
     /**
      * Creates a new CardInfo based on the provided DTO.
      *
      * If userId is provided, adds the CardInfo to the list of cards for the User with specified ID.
+     * Drops the "not found" tombstone of the new ID, if an earlier lookup left one,
+     * and evicts the card list of the owner from "userCardsCache".
+     * The "card_info" generation of the {@link QueryResultCache} is moved forward.
      *
      * @param cardInfoDto DTO containing CardInfo data. Must not be {@code null}.
      * @return DTO of the created CardInfo.
@@ -57,6 +82,9 @@ public class CardInfoServiceImpl implements CardInfoService {
             cardInfo.setUserId(user);
         }
         cardInfo = cardInfoRepository.save(cardInfo);
+        negativeCache.evict(CARD_INFO_CACHE, cardInfo.getCardId());
+        cacheWriter.evict(USER_CARDS_CACHE, cardInfoDto.getUserId());
+        queryResultCache.bump(QueryResultCache.CARD_INFO);
         return CardInfoMapper.INSTANSE.toDto(cardInfo);
     }
 
@@ -64,7 +92,10 @@ public class CardInfoServiceImpl implements CardInfoService {
      * Returns the CardInfo by its ID.
      *
      * The method result is cached in "cardInfoCache" using the card ID as the key.
-     * Subsequent calls with the same CardInfo ID will return the value from cache without database access
+     * Subsequent calls with the same CardInfo ID will return the value from cache without database access.
+     * Concurrent cache misses for the same ID are coalesced ({@code sync = true}): only one of them queries the database.
+     * An ID that wasn't found is remembered in the {@link NegativeCache} for a short time,
+     * and repeated lookups of it fail without querying the database.
      *
      * @param cardId ID of the CardInfo
      * @return DTO of the found CardInfo
@@ -72,10 +103,16 @@ public class CardInfoServiceImpl implements CardInfoService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(key = "#cardId")
+    @Cacheable(key = "#cardId", sync = true)
     public CardInfoDto getCardInfoById(Long cardId) {
+        if (negativeCache.isAbsent(CARD_INFO_CACHE, cardId)) {
+            throw new CardInfoNotFoundException("CardInfo wasn't found with id " + cardId);
+        }
         Optional<CardInfo> cardInfoFromDb = Optional.ofNullable(cardInfoRepository.findById(cardId)
-                .orElseThrow(() -> new CardInfoNotFoundException("CardInfo wasn't found with id " + cardId)));
+                .orElseThrow(() -> {
+                    negativeCache.markAbsent(CARD_INFO_CACHE, cardId);
+                    return new CardInfoNotFoundException("CardInfo wasn't found with id " + cardId);
+                }));
         log.info("getCardInfoById(): {}", cardId);
         return  CardInfoMapper.INSTANSE.toDto(cardInfoFromDb.get());
     }
@@ -83,22 +120,26 @@ public class CardInfoServiceImpl implements CardInfoService {
     /**
      * Updates CardInfo data (number, holder, expiration_date, userId) and updates the corresponding cache entry.
      * If no CardInfo with the specified ID is found, throws CardInfoNotFoundException.
-     * After successful update, the updated CardInfo data is saved in "cardInfoCache" with the CardInfo ID as the key.
+     * After successful update, the updated CardInfo data is saved in "cardInfoCache" with the CardInfo ID as the key,
+     * and the "cardNumberIndex" entry is moved to the new number, if it was changed.
+     * The card lists of the previous and of the new owner are evicted from "userCardsCache",
+     * and the "card_info" generation of the {@link QueryResultCache} is moved forward.
+     * The cache is written after commit through the {@link TransactionalCacheWriter}.
      *
      * @param cardId ID of the CardInfo to update
      * @param cardInfoDto DTO containing updated CardInfo data
      * @return DTO of the updated CardInfo
      * @throws CardInfoNotFoundException if no CardInfo with the specified ID is found
      * @throws UserNotFoundException if no User with ID cardInfoDto.getUserId() exists
-     * @see org.springframework.cache.annotation.CachePut
      */
     @Override
     @Transactional
-    @CachePut(key = "#cardId") // update in cache
     public CardInfoDto updateCardInfo(Long cardId, CardInfoDto cardInfoDto) {
         Optional<CardInfo> cardInfoFromDb = Optional.ofNullable(cardInfoRepository.findById(cardId)
                 .orElseThrow(() -> new CardInfoNotFoundException("CardInfo wasn't found with id " + cardId)));
         CardInfo cardInfo = cardInfoFromDb.get();
+        String oldNumber = cardInfo.getNumber();
+        Long oldUserId = ownerIdOf(cardInfo);
 
         if (cardInfoDto.getUserId() != null) {
             User user = userRepository.findById(cardInfoDto.getUserId())
@@ -110,32 +151,48 @@ public class CardInfoServiceImpl implements CardInfoService {
         cardInfo.setExpirationDate(cardInfoDto.getExpirationDate());
         log.info("updateCardInfo: {}", cardInfo);
         cardInfoRepository.save(cardInfo);
-        return CardInfoMapper.INSTANSE.toDto(cardInfo);
+        secondaryKeyIndex.reindex(CARD_NUMBER_INDEX, oldNumber, cardInfo.getNumber(), cardId);
+        cacheWriter.evictAll(USER_CARDS_CACHE, Stream.of(oldUserId, ownerIdOf(cardInfo))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        CardInfoDto updatedDto = CardInfoMapper.INSTANSE.toDto(cardInfo);
+        cacheWriter.put(CARD_INFO_CACHE, cardId, updatedDto);
+        queryResultCache.bump(QueryResultCache.CARD_INFO);
+        return updatedDto;
     }
 
     /**
      * Deletes the CardInfo by its ID and removes the corresponding cache entry.
      * Throws CardInfoNotFoundException if no CardInfo with the specified ID is found.
-     * After successful deletion, the entry with the card ID as key is removed from "cardInfoCache".
+     * After successful deletion, the entry with the card ID as key is removed from "cardInfoCache",
+     * and the entry of its number is removed from "cardNumberIndex".
+     * The card list of the owner is evicted from "userCardsCache",
+     * and the "card_info" generation of the {@link QueryResultCache} is moved forward.
+     * All evictions are applied after commit through the {@link TransactionalCacheWriter}.
      *
      * @param cardId ID of the CardInfo to delete
      * @return DTO of the deleted CardInfo
      * @throws CardInfoNotFoundException if no CardInfo with the specified ID is found
-     * @see org.springframework.cache.annotation.CacheEvict
      */
     @Override
     @Transactional
-    @CacheEvict(key = "#cardId")
     public CardInfoDto deleteCardInfo(Long cardId) {
         Optional<CardInfo> cardInfoFromDb = Optional.ofNullable(cardInfoRepository.findById(cardId)
                 .orElseThrow(() -> new CardInfoNotFoundException("CardInfo wasn't found with id " + cardId)));
         cardInfoRepository.deleteById(cardId);
+        cacheWriter.evict(CARD_INFO_CACHE, cardId);
+        secondaryKeyIndex.evict(CARD_NUMBER_INDEX, cardInfoFromDb.get().getNumber());
+        cacheWriter.evict(USER_CARDS_CACHE, ownerIdOf(cardInfoFromDb.get()));
+        queryResultCache.bump(QueryResultCache.CARD_INFO);
         log.info("deleteCardInfo(): {}", cardInfoFromDb);
         return CardInfoMapper.INSTANSE.toDto(cardInfoFromDb.get());
     }
 
     /**
      * Returns the CardInfo by its number.
+     * The number is resolved through the "cardNumberIndex" to the card ID, and the CardInfo itself
+     * is taken from the "cardInfoCache" entry shared with {@link #getCardInfoById(Long)}.
+     * On a miss both entries are filled from the database.
      *
      * @param number CardInfo number
      * @return DTO of the found CardInfo
@@ -144,28 +201,41 @@ public class CardInfoServiceImpl implements CardInfoService {
     @Override
     @Transactional(readOnly = true)
     public CardInfoDto getCardInfoByNumber(String number) {
+        CardInfoDto cached = secondaryKeyIndex.get(CARD_NUMBER_INDEX, CARD_INFO_CACHE, number,
+                CardInfoDto.class, CardInfoDto::getNumber);
+        if (cached != null) {
+            return cached;
+        }
         Optional<CardInfo> cardInfo = Optional.ofNullable(cardInfoRepository.findByNumber(number)
                 .orElseThrow(() -> new CardInfoNotFoundException("CardInfo wasn't found with number " + number)));
         log.info("getCardInfoByNumber(): {}", number);
-        return  CardInfoMapper.INSTANSE.toDto(cardInfo.get());
+        CardInfoDto cardInfoDto = CardInfoMapper.INSTANSE.toDto(cardInfo.get());
+        secondaryKeyIndex.put(CARD_NUMBER_INDEX, CARD_INFO_CACHE, number, cardInfoDto.getCardId(), cardInfoDto);
+        return cardInfoDto;
     }
 
     /**
      * Returns a list of CardInfos belonging to the User with the specified userId.
+     * The list is read through the {@link ReadEngine} and cached in "userCardsCache" with the userId as the key;
+     * it is evicted by every create, update and delete of a card of that User.
      *
      * @param userId ID of the User whose CardInfos should be retrieved
      * @return List of card CardInfoDtos for the specified User
      */
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(value = "userCardsCache", key = "#userId", sync = true)
     public List<CardInfoDto> getByUserId(Long userId){
-        List <CardInfo> cardInfosList = cardInfoRepository.findByUserId(userId);
+        List<CardInfoDto> cardInfosList = readEngine.findCardInfosByUserId(userId);
         log.info("getByUserId()");
-        return cardInfosList.stream().map(CardInfoMapper.INSTANSE::toDto).toList();
+        // ArrayList rather than toList(): the JSON cache serializer stores the type of non-final collections only
+        return new ArrayList<>(cardInfosList);
     }
 
     /**
      * Returns a list of CardInfos by the specified set of IDs.
+     * The IDs are looked up in the "cardInfoCache" in one batch; only the missing ones are queried
+     * from the database through the {@link ReadEngine}, and the loaded CardInfos are written back to the cache in one batch.
      *
      * @param ids Set of CardInfos IDs to search for
      * @return List of CardInfoDtos with the specified IDs
@@ -173,22 +243,25 @@ public class CardInfoServiceImpl implements CardInfoService {
     @Override
     @Transactional(readOnly = true)
     public List<CardInfoDto> getCardInfoIdIn(Set<Long> ids) {
-        List <CardInfo> cardInfosList = cardInfoRepository.findByCardIdIn(ids);
         log.info("getCardInfoIdIn()");
-        return cardInfosList.stream().map(CardInfoMapper.INSTANSE::toDto).toList();
+        return batchCacheLoader.getAll(CARD_INFO_CACHE, ids,
+                readEngine::findCardInfosByIds,
+                CardInfoDto::getCardId);
     }
 
     /**
      * Returns a list of expired CardInfos.
+     * The result is cached in the {@link QueryResultCache} under the current "card_info" generation and
+     * today's date, since the set of expired cards also changes with the date.
      *
      * @return List of expired CardInfoDtos
      */
     @Override
     @Transactional(readOnly = true)
     public List<CardInfoDto> getExpiredCards() {
-        List <CardInfo> cardInfosList = cardInfoRepository.findExpiredCards();
         log.info("getExpiredCards()");
-        return cardInfosList.stream().map(CardInfoMapper.INSTANSE::toDto).toList();
+        return queryResultCache.getList(QueryResultCache.CARD_INFO, "expired:" + LocalDate.now(),
+                () -> cardInfoRepository.findExpiredCards().stream().map(CardInfoMapper.INSTANSE::toDto).toList());
     }
 
     /**
@@ -206,17 +279,59 @@ public class CardInfoServiceImpl implements CardInfoService {
 
     /**
      * Returns a page of CardInfos using native pagination sorted by ID.
+     * The page and the exact total are cached in the {@link QueryResultCache} under the current "card_info" generation;
+     * see {@link CountStrategy} for the other kinds of total.
      *
      * @param page Page number (0-based index)
      * @param size Number of CardInfos per page
-     * @return Page of card CardInfoDtos
+     * @param count how the total is counted
+     * @return Page of card CardInfoDtos with the total and its kind
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<CardInfoDto> getAllCardInfosNativeWithPagination(Integer page, Integer size, CountStrategy count) {
+        log.info("getAllCardInfosNativeWithPagination(): count {}", count);
+        if (count == CountStrategy.EXACT) {
+            var pageable  = PageRequest.of(page,size, Sort.by("id"));
+            return PageDto.exact(queryResultCache.getPage(QueryResultCache.CARD_INFO, "all", pageable,
+                    () -> cardInfoRepository.findAllCardInfoNative(pageable).map(CardInfoMapper.INSTANSE::toDto)));
+        }
+        long offset = (long) page * size;
+        List<CardInfoDto> rows = queryResultCache.getList(QueryResultCache.CARD_INFO, "all:offset=" + offset + ",limit=" + (size + 1),
+                () -> cardInfoRepository.findCardInfosRangeNative(offset, size + 1).stream()
+                        .map(CardInfoMapper.INSTANSE::toDto).toList());
+        long total = count == CountStrategy.ESTIMATED ? estimateCardInfosCount() : 0L;
+        return PageDto.withoutCount(rows, page, size, total, count);
+    }
+
+    private long estimateCardInfosCount() {
+        long estimate = cardInfoRepository.estimateCardInfosCount();
+        return estimate > 0 ? estimate
+                : queryResultCache.getApproximateCount(QueryResultCache.CARD_INFO, "all", cardInfoRepository::count);
+    }
+
+    /**
+     * Returns the slice of CardInfos following the cursor, sorted by ID (keyset pagination).
+     * Each slice is read with one index seek, however deep it is, and without a total count.
+     * The slice is cached in the {@link QueryResultCache} under the current "card_info" generation.
+     *
+     * @param cursor continuation token of the previous slice; {@code null} for the first slice
+     * @param size Number of CardInfos per slice
+     * @return the CardInfos and the token of the next slice, if there is one
+     * @throws com.mymicroservice.userservice.exception.InvalidCursorException if the cursor is malformed
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<CardInfoDto> getAllCardInfosNativeWithPagination(Integer page, Integer size) {
-        var pageable  = PageRequest.of(page,size, Sort.by("id"));
-        Page<CardInfo> cardInfos = cardInfoRepository.findAllCardInfoNative(pageable);
-        log.info("getAllCardInfosNativeWithPagination()");
-        return cardInfos.map(CardInfoMapper.INSTANSE::toDto);
+    public CursorPageDto<CardInfoDto> getCardInfosAfterCursor(String cursor, Integer size) {
+        long afterId = PageCursor.decode(PageCursor.ID, cursor);
+        log.info("getCardInfosAfterCursor(): after {}", afterId);
+        List<CardInfoDto> rows = queryResultCache.getList(QueryResultCache.CARD_INFO, "after=" + afterId + ",size=" + size,
+                () -> cardInfoRepository.findCardInfosAfterIdNative(afterId, size + 1).stream()
+                        .map(CardInfoMapper.INSTANSE::toDto).toList());
+        return PageCursor.toPage(rows, size, PageCursor.ID, CardInfoDto::getCardId);
+    }
+
+    private static Long ownerIdOf(CardInfo cardInfo) {
+        return cardInfo.getUserId() == null ? null : cardInfo.getUserId().getUserId();
     }
 }
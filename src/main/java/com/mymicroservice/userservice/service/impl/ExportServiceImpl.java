@@ -0,0 +1,102 @@
+package com.mymicroservice.userservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.repository.read.DtoRowMappers;
+import com.mymicroservice.userservice.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final String USERS_QUERY =
+            "select " + DtoRowMappers.USER_COLUMNS + " from users order by id";
+    private static final String CARD_INFOS_QUERY =
+            "select " + DtoRowMappers.CARD_INFO_COLUMNS + " from card_info order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter userWriter;
+    private final ObjectWriter cardInfoWriter;
+
+    /**
+     * @param fetchSize rows the JDBC driver fetches per round trip; PostgreSQL reads through a server-side
+     *                  cursor only inside a transaction and with a fetch size set
+     */
+    public ExportServiceImpl(DataSource dataSource,
+                             ObjectMapper objectMapper,
+                             @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.userWriter = objectMapper.writerFor(UserDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cardInfoWriter = objectMapper.writerFor(CardInfoDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes all Users to the stream as NDJSON, one UserDto per line, in the order of their IDs.
+     * The rows are read through a JDBC cursor and written one by one as they arrive, without entities,
+     * a persistence context or a list of DTOs, so the memory used doesn't depend on the number of Users.
+     *
+     * @param out the stream to write to; not closed
+     * @return the number of Users written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        long rows = export(USERS_QUERY, DtoRowMappers.USER, userWriter, out);
+        log.info("exportUsers(): {} rows", rows);
+        return rows;
+    }
+
+    /**
+     * Writes all CardInfos to the stream as NDJSON, one CardInfoDto per line, in the order of their IDs.
+     * Streams from a JDBC cursor like {@link #exportUsers(OutputStream)}.
+     *
+     * @param out the stream to write to; not closed
+     * @return the number of CardInfos written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCardInfos(OutputStream out) throws IOException {
+        long rows = export(CARD_INFOS_QUERY, DtoRowMappers.CARD_INFO, cardInfoWriter, out);
+        log.info("exportCardInfos(): {} rows", rows);
+        return rows;
+    }
+
+    private <T> long export(String query, RowMapper<T> rowMapper, ObjectWriter writer, OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            jdbcTemplate.query(query, (RowCallbackHandler) rs -> {
+                try {
+                    writer.writeValue(generator, rowMapper.mapRow(rs, (int) rows[0]));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+}
@@ -0,0 +1,48 @@
+package com.mymicroservice.userservice.service.impl;
+
+import com.mymicroservice.userservice.cache.AsyncCacheReader;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.dto.UserWithCardsDto;
+import com.mymicroservice.userservice.service.CardInfoService;
+import com.mymicroservice.userservice.service.UserProfileService;
+import com.mymicroservice.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserProfileServiceImpl implements UserProfileService {
+
+    private final UserService userService;
+    private final CardInfoService cardInfoService;
+    private final AsyncCacheReader asyncCacheReader;
+
+    /**
+     * Returns the User with the specified ID together with their CardInfos.
+     * The "userCache" and "userCardsCache" entries are read concurrently through the {@link AsyncCacheReader};
+     * a miss is loaded through {@link UserService#getUserById} or {@link CardInfoService#getByUserId},
+     * which cache the result as usual.
+     *
+     * @param userId ID of the User to find
+     * @return future of the User and their CardInfos; completes exceptionally with
+     *         {@link com.mymicroservice.userservice.exception.UserNotFoundException} if the User doesn't exist
+     */
+    @Override
+    public CompletableFuture<UserWithCardsDto> getUserWithCards(Long userId) {
+        CompletableFuture<UserDto> user = asyncCacheReader.get(USER_CACHE, userId,
+                () -> userService.getUserById(userId));
+        CompletableFuture<List<CardInfoDto>> cards = asyncCacheReader.get(USER_CARDS_CACHE, userId,
+                () -> cardInfoService.getByUserId(userId));
+        log.info("getUserWithCards(): {}", userId);
+        return user.thenCombine(cards, UserWithCardsDto::new);
+    }
+}
@@ -1,30 +1,45 @@
 package com.mymicroservice.userservice.service.impl;
 
+import com.mymicroservice.userservice.cache.BatchCacheLoader;
+import com.mymicroservice.userservice.cache.NegativeCache;
+import com.mymicroservice.userservice.cache.QueryResultCache;
+import com.mymicroservice.userservice.cache.SecondaryKeyIndex;
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.mapper.UserMapper;
+import com.mymicroservice.userservice.model.CardInfo;
 import com.mymicroservice.userservice.model.Role;
 import com.mymicroservice.userservice.model.User;
 import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.projection.UserSummary;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
 import com.mymicroservice.userservice.service.UserService;
+import com.mymicroservice.userservice.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_NUMBER_INDEX;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_EMAIL_INDEX;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -33,9 +48,17 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final NegativeCache negativeCache;
+    private final SecondaryKeyIndex secondaryKeyIndex;
+    private final BatchCacheLoader batchCacheLoader;
+    private final TransactionalCacheWriter cacheWriter;
+    private final QueryResultCache queryResultCache;
+    private final ReadEngine readEngine;
 
     /**
      * Creates a new User based on the provided DTO.
+     * Drops the "not found" tombstone of the new ID, if an earlier lookup left one,
+     * and moves the "users" generation of the {@link QueryResultCache} forward.
      *
      * @param userDto DTO containing user data.
      * @return DTO of the created user.
@@ -47,12 +70,19 @@ public class UserServiceImpl implements UserService {
         log.info("createUser(): {}", user);
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user = userRepository.save(user);
+        negativeCache.evict(USER_CACHE, user.getUserId());
+        queryResultCache.bump(QueryResultCache.USERS);
         return UserMapper.INSTANSE.toDto(user);
     }
 
     /**
      * Returns the User by its ID. The result is cached in "userCache" with the userId as the key.
+     * The User is read through the {@link ReadEngine} without the password hash, so neither the result
+     * nor the cache holds it.
      * Subsequent requests with the same ID will return the value from the cache, bypassing the database.
+     * Concurrent cache misses for the same ID are coalesced ({@code sync = true}): only one of them queries the database.
+     * An ID that wasn't found is remembered in the {@link NegativeCache} for a short time,
+     * and repeated lookups of it fail without querying the database.
      *
      * @param userId ID of the user to find
      * @return DTO of the found user
@@ -61,31 +91,39 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "userCache", key = "#userId")
+    @Cacheable(value = "userCache", key = "#userId", sync = true)
     public UserDto getUserById(Long userId) {
-        Optional<User> userFromDb = Optional.ofNullable(userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User wasn't found with id " + userId)));
+        if (negativeCache.isAbsent(USER_CACHE, userId)) {
+            throw new UserNotFoundException("User wasn't found with id " + userId);
+        }
+        UserDto userFromDb = readEngine.findUserById(userId)
+                .orElseThrow(() -> {
+                    negativeCache.markAbsent(USER_CACHE, userId);
+                    return new UserNotFoundException("User wasn't found with id " + userId);
+                });
         log.info("getUsersById(): {}", userId);
-        return UserMapper.INSTANSE.toDto(userFromDb.get());
+        return userFromDb;
     }
 
     /**
      * Updates User data (name, surname, birthDate, email, password and role)
      * and updates the corresponding data in the "userCache" with the userId as the key.
+     * The "userEmailIndex" entry is moved to the new email, if it was changed,
+     * and the "users" generation of the {@link QueryResultCache} is moved forward.
+     * The cache is written after commit through the {@link TransactionalCacheWriter}, without the password.
      *
      * @param userId ID of the User to update
      * @param userDetails DTO containing updated User data
      * @return DTO of the updated User
      * @throws UserNotFoundException if the User with the specified ID is not found in the database
-     * @see org.springframework.cache.annotation.CachePut
      */
     @Override
     @Transactional
-    @CachePut(value = "userCache", key = "#userId") // update in cache
     public UserDto updateUser(Long userId, UserDto userDetails) {
         Optional<User> userFromDb = Optional.ofNullable(userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User wasn't found with id " + userId)));
         User user = userFromDb.get();
+        String oldEmail = user.getEmail();
         user.setName(userDetails.getName());
         user.setSurname(userDetails.getSurname());
         user.setBirthDate(userDetails.getBirthDate());
@@ -94,30 +132,50 @@ public class UserServiceImpl implements UserService {
         user.setRole(userDetails.getRole());
         log.info("updateUser(): {}", user);
         userRepository.save(user);
-        return UserMapper.INSTANSE.toDto(user);
+        secondaryKeyIndex.reindex(USER_EMAIL_INDEX, toEmailKey(oldEmail), toEmailKey(user.getEmail()), userId);
+        UserDto userDto = UserMapper.INSTANSE.toDto(UserMapper.INSTANSE.toSummary(user));
+        cacheWriter.put(USER_CACHE, userId, userDto);
+        queryResultCache.bump(QueryResultCache.USERS);
+        return userDto;
     }
 
     /**
-     * Deletes the User by their ID and removes the corresponding data from the "userCache".
+     * Deletes the User by their ID and removes the corresponding data from the "userCache"
+     * and the "userEmailIndex".
+     * The cards of the User are deleted by the cascade, so their "cardInfoCache" and "cardNumberIndex"
+     * entries are evicted in one batch each, together with the card list in "userCardsCache".
+     * The "users" and "card_info" generations of the {@link QueryResultCache} are moved forward.
+     * All evictions are applied after commit through the {@link TransactionalCacheWriter}.
      *
      * @param userId ID of the User to delete
      * @return DTO of the deleted User
      * @throws UserNotFoundException if the User with the specified ID is not found in the database
-     * @see org.springframework.cache.annotation.CacheEvict
      */
     @Override
     @Transactional
-    @CacheEvict(value = "userCache", key = "#userId") // delete from cache
     public UserDto deleteUser(Long userId) {
         Optional<User> userFromDb = Optional.ofNullable(userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User wasn't found with id " + userId)));
+        Set<CardInfo> cards = Optional.ofNullable(userFromDb.get().getUserCards()).orElse(Set.of());
+        List<Long> cardIds = cards.stream().map(CardInfo::getCardId).toList();
+        List<String> cardNumbers = cards.stream().map(CardInfo::getNumber).toList();
         userRepository.deleteById(userId);
+        cacheWriter.evict(USER_CACHE, userId);
+        secondaryKeyIndex.evict(USER_EMAIL_INDEX, toEmailKey(userFromDb.get().getEmail()));
+        cacheWriter.evictAll(CARD_INFO_CACHE, cardIds);
+        cacheWriter.evictAll(CARD_NUMBER_INDEX, cardNumbers);
+        cacheWriter.evict(USER_CARDS_CACHE, userId);
+        queryResultCache.bump(QueryResultCache.USERS);
+        queryResultCache.bump(QueryResultCache.CARD_INFO);
         log.info("deleteUser(): {}", userFromDb);
         return UserMapper.INSTANSE.toDto(userFromDb.get());
     }
 
     /**
      * Returns the User by their email.
+     * The email (case-insensitive) is resolved through the "userEmailIndex" to the userId,
+     * and the User itself is taken from the "userCache" entry shared with {@link #getUserById(Long)}.
+     * On a miss both entries are filled from the database through the {@link ReadEngine}.
      *
      * @param email email of the user to find
      * @return DTO of the found User
@@ -126,14 +184,23 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public UserDto getUsersByEmail(String email) {
-        Optional<User> userFromDb = Optional.ofNullable(userRepository.findByEmailIgnoreCase(email)
-                .orElseThrow(() -> new UserNotFoundException("User wasn't found with email " + email)));
-        log.info("getUsersByEmail(): {}", userFromDb);
-        return UserMapper.INSTANSE.toDto(userFromDb.get());
+        String emailKey = toEmailKey(email);
+        UserDto cached = secondaryKeyIndex.get(USER_EMAIL_INDEX, USER_CACHE, emailKey,
+                UserDto.class, userDto -> toEmailKey(userDto.getEmail()));
+        if (cached != null) {
+            return cached;
+        }
+        UserDto userDto = readEngine.findUserByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("User wasn't found with email " + email));
+        log.info("getUsersByEmail(): {}", userDto);
+        secondaryKeyIndex.put(USER_EMAIL_INDEX, USER_CACHE, emailKey, userDto.getUserId(), userDto);
+        return userDto;
     }
 
     /**
      * Returns a list of Users by the specified set of IDs.
+     * The IDs are looked up in the "userCache" in one batch; only the missing ones are queried
+     * from the database through the {@link ReadEngine}, and the loaded Users are written back to the cache in one batch.
      *
      * @param ids Set of User IDs to search for
      * @return List of UserDtos with the specified IDs
@@ -141,13 +208,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getUsersIdIn(Set<Long> ids) {
-        List <User> userList = userRepository.findByUserIdIn(ids);
         log.info("getUsersIdIn()");
-        return userList.stream().map(UserMapper.INSTANSE::toDto).toList();
+        return batchCacheLoader.getAll(USER_CACHE, ids,
+                readEngine::findUsersByIds,
+                UserDto::getUserId);
     }
 
     /**
      * Returns a list of Users by role.
+     * The result is cached in the {@link QueryResultCache} under the current "users" generation.
      *
      * @param role User role to filter by
      * @return List of UserDtos with the specified role
@@ -155,13 +224,14 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getUsersByRole(Role role) {
-        List <User> userList = userRepository.findUsersByRole(role);
         log.info("getUsersByRole(): {}", role);
-        return userList.stream().map(UserMapper.INSTANSE::toDto).toList();
+        return queryResultCache.getList(QueryResultCache.USERS, "role=" + role,
+                () -> userRepository.findSummariesByRole(role).stream().map(UserMapper.INSTANSE::toDto).toList());
     }
 
     /**
      * Returns a list of Users born after the specified date.
+     * The result is cached in the {@link QueryResultCache} under the current "users" generation.
      *
      * @param date birth date in LocalDate format
      * @return List of UserDtos with birth dates strictly after the specified date
@@ -169,9 +239,9 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getUsersBornAfter(LocalDate date) {
-        List <User> userList = userRepository.findUsersBornAfter(date);
         log.info("getUsersBornAfter(): {}", date);
-        return userList.stream().map(UserMapper.INSTANSE::toDto).toList();
+        return queryResultCache.getList(QueryResultCache.USERS, "bornAfter=" + date,
+                () -> userRepository.findSummariesBornAfter(date).stream().map(UserMapper.INSTANSE::toDto).toList());
     }
 
     /**
@@ -182,24 +252,64 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
-        List <User> userList = userRepository.findAll();
+        List<UserSummary> userList = userRepository.findAllSummaries();
         log.info("getAllUsers()");
         return userList.stream().map(UserMapper.INSTANSE::toDto).toList();
     }
 
     /**
-     * Returns a page of Users using native pagination sorted by ID.
+     * Returns a page of Users sorted by ID, read as {@link UserSummary} projections.
+     * The page is cached in the {@link QueryResultCache} under the current "users" generation, and so is
+     * the exact total. An estimated total comes from the planner's statistics, or from
+     * {@link QueryResultCache#getApproximateCount} while the table hasn't been analyzed.
      *
      * @param page Page number (0-based index)
      * @param size Number of Users per page
-     * @return Page of user DTOs
+     * @param count how the total is counted
+     * @return Page of user DTOs with the total and its kind
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<UserDto> getAllUsersNativeWithPagination(Integer page, Integer size, CountStrategy count) {
+        log.info("findAllUsersNativeWithPagination(): count {}", count);
+        if (count == CountStrategy.EXACT) {
+            var pageable  = PageRequest.of(page,size);
+            return PageDto.exact(queryResultCache.getPage(QueryResultCache.USERS, "all", pageable,
+                    () -> userRepository.findAllSummaries(pageable).map(UserMapper.INSTANSE::toDto)));
+        }
+        long offset = (long) page * size;
+        List<UserDto> rows = queryResultCache.getList(QueryResultCache.USERS, "all:offset=" + offset + ",limit=" + (size + 1),
+                () -> userRepository.findSummariesRange(offset, size + 1).stream().map(UserMapper.INSTANSE::toDto).toList());
+        long total = count == CountStrategy.ESTIMATED ? estimateUsersCount() : 0L;
+        return PageDto.withoutCount(rows, page, size, total, count);
+    }
+
+    private long estimateUsersCount() {
+        long estimate = userRepository.estimateUsersCount();
+        return estimate > 0 ? estimate : queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", userRepository::count);
+    }
+
+    /**
+     * Returns the slice of Users following the cursor, sorted by ID (keyset pagination).
+     * Each slice is read with one index seek, however deep it is, and without a total count.
+     * The slice is cached in the {@link QueryResultCache} under the current "users" generation.
+     *
+     * @param cursor continuation token of the previous slice; {@code null} for the first slice
+     * @param size Number of Users per slice
+     * @return the Users and the token of the next slice, if there is one
+     * @throws com.mymicroservice.userservice.exception.InvalidCursorException if the cursor is malformed
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<UserDto> getAllUsersNativeWithPagination(Integer page, Integer size) {
-        var pageable  = PageRequest.of(page,size, Sort.by("id"));
-        Page<User> userList = userRepository.findAllUsersNative(pageable);
-        log.info("findAllUsersNativeWithPagination()");
-        return userList.map(UserMapper.INSTANSE::toDto);
+    public CursorPageDto<UserDto> getUsersAfterCursor(String cursor, Integer size) {
+        long afterId = PageCursor.decode(PageCursor.ID, cursor);
+        log.info("getUsersAfterCursor(): after {}", afterId);
+        List<UserDto> rows = queryResultCache.getList(QueryResultCache.USERS, "after=" + afterId + ",size=" + size,
+                () -> userRepository.findSummariesAfterId(afterId, size + 1).stream().map(UserMapper.INSTANSE::toDto).toList());
+        return PageCursor.toPage(rows, size, PageCursor.ID, UserDto::getUserId);
+    }
+
+    private static String toEmailKey(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,68 @@
+package com.mymicroservice.userservice.util;
+
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Continuation tokens of keyset pagination. A token is the URL-safe Base64 of {@code <sort key>:<last value>},
+ * e.g. {@code id:42}: the next slice is read with {@code WHERE id > 42 ORDER BY id LIMIT n}, which seeks
+ * the primary key index instead of skipping rows as {@code OFFSET} does, so every slice costs the same
+ * however deep it is. The sort key is part of the token so that other indexed sort orders can be added
+ * without accepting each other's tokens.
+ */
+@UtilityClass
+public class PageCursor {
+
+    public static final String ID = "id";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static String encode(String sortKey, long lastValue) {
+        return ENCODER.encodeToString((sortKey + ":" + lastValue).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor token of the previous slice; {@code null} or blank for the first slice
+     * @return the last value of the previous slice, or {@code 0} for the first slice
+     * @throws InvalidCursorException if the token is malformed or was issued for another sort key
+     */
+    public static long decode(String sortKey, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String value;
+        try {
+            value = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor " + cursor);
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0 || !sortKey.equals(value.substring(0, separator))) {
+            throw new InvalidCursorException("Invalid cursor " + cursor);
+        }
+        try {
+            return Long.parseLong(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor " + cursor);
+        }
+    }
+
+    /**
+     * Builds a slice from the rows read for it, which are expected to be one more than {@code size}:
+     * the extra row only tells that there is a next slice and isn't returned.
+     */
+    public static <T> CursorPageDto<T> toPage(List<T> rows, int size, String sortKey, Function<T, Long> value) {
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new CursorPageDto<>(items, encode(sortKey, value.apply(items.get(size - 1))));
+    }
+}
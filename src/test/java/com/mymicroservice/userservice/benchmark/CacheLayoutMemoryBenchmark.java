@@ -0,0 +1,131 @@
+package com.mymicroservice.userservice.benchmark;
+
+import com.mymicroservice.userservice.cache.BinaryCacheValueSerializer;
+import com.mymicroservice.userservice.cache.HashBucketCacheWriter;
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compares the Redis memory of {@code userCache} in the string layout ({@code userCache::<id>}, one key
+ * per entry) and in the hash bucket layout of {@code cache.policies.userCache.hash-bucket-size}
+ * ({@code userCache::ids:<first>-<last>} hashes with a TTL per field), for generated users in the binary format.
+ *
+ * <p>Needs a Redis 7.4+ it may flush, e.g. {@code docker run -p 6379:6379 redis:7.4-alpine}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mymicroservice.userservice.benchmark.CacheLayoutMemoryBenchmark}; the system properties
+ * {@code redis.host}, {@code redis.port}, {@code users} (default 2 000 000) and {@code bucketSize} (default 100)
+ * change the setup.
+ *
+ * <p>The buckets are written by {@link HashBucketCacheWriter#putAll}, the pipelined writes of the shipped layout.
+ *
+ * <p>The run sets {@code hash-max-listpack-entries} and {@code hash-max-listpack-value} so that the buckets stay
+ * listpack-encoded, as production needs to; the encoding of a bucket is printed to check it.
+ */
+public class CacheLayoutMemoryBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private static final int PIPELINE = 10_000;
+
+    public static void main(String[] args) {
+        String host = System.getProperty("redis.host", "localhost");
+        int port = Integer.getInteger("redis.port", 6379);
+        int users = Integer.getInteger("users", 2_000_000);
+        int bucketSize = Integer.getInteger("bucketSize", 100);
+
+        RedisSerializer<Object> serializer = new BinaryCacheValueSerializer(
+                new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper()), 512);
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().setConfig("hash-max-listpack-entries", Integer.toString(bucketSize));
+            connection.serverCommands().setConfig("hash-max-listpack-value", "1024");
+
+            long strings = measure(connection, users, () -> writeStrings(connection, serializer, users));
+            HashBucketCacheWriter bucketWriter = new HashBucketCacheWriter(
+                    RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), connectionFactory, "userCache", bucketSize);
+            long buckets = measure(connection, users, () -> writeBuckets(bucketWriter, serializer, users));
+            System.out.printf("%nbucket encoding: %s%n", encodingOfFirstBucket(connection, bucketSize));
+            System.out.printf("%d users: strings %,d bytes (%d per entry), buckets of %d %,d bytes (%d per entry), %.1f%% saved%n",
+                    users, strings, strings / users, bucketSize, buckets, buckets / users,
+                    100.0 * (strings - buckets) / strings);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static long measure(RedisConnection connection, int users, Runnable write) {
+        connection.serverCommands().flushDb();
+        long before = usedMemory(connection);
+        long start = System.nanoTime();
+        write.run();
+        long used = usedMemory(connection) - before;
+        System.out.printf("wrote %d entries in %d ms%n", users, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return used;
+    }
+
+    private static void writeStrings(RedisConnection connection, RedisSerializer<Object> serializer, int users) {
+        for (int from = 1; from <= users; from += PIPELINE) {
+            connection.openPipeline();
+            for (int id = from; id < from + PIPELINE && id <= users; id++) {
+                connection.stringCommands().set(bytes("userCache::" + id), serializer.serialize(user(id)),
+                        Expiration.from(TTL), SetOption.upsert());
+            }
+            connection.closePipeline();
+        }
+    }
+
+    private static void writeBuckets(HashBucketCacheWriter writer, RedisSerializer<Object> serializer, int users) {
+        for (int from = 1; from <= users; from += PIPELINE) {
+            List<byte[]> keys = new ArrayList<>(PIPELINE);
+            List<byte[]> values = new ArrayList<>(PIPELINE);
+            for (int id = from; id < from + PIPELINE && id <= users; id++) {
+                keys.add(bytes("userCache::" + id));
+                values.add(serializer.serialize(user(id)));
+            }
+            writer.putAll(keys, values, Collections.nCopies(keys.size(), TTL), false);
+        }
+    }
+
+    private static String encodingOfFirstBucket(RedisConnection connection, int bucketSize) {
+        return String.valueOf(connection.keyCommands().encodingOf(bucketKey(1, bucketSize)));
+    }
+
+    private static byte[] bucketKey(long id, int bucketSize) {
+        long first = Math.floorDiv(id, bucketSize) * bucketSize;
+        return bytes("userCache::ids:" + first + "-" + (first + bucketSize - 1));
+    }
+
+    private static UserDto user(long id) {
+        UserDto user = UserDtoGenerator.generateUserDtoForBatch(id % 100);
+        user.setUserId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+
+    private static long usedMemory(RedisConnection connection) {
+        Properties memory = connection.serverCommands().info("memory");
+        return Long.parseLong(memory.getProperty("used_memory"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mymicroservice.userservice.benchmark;
+
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
+
+/**
+ * Compares the throughput of the composite user-with-cards read over Redis (L1 left out): two blocking
+ * {@link Cache#get(Object)} calls one after the other, as a servlet thread would do them, against two
+ * {@link Cache#retrieve(Object)} calls combined as in {@code UserProfileServiceImpl}.
+ *
+ * <p>Needs a Redis it may write to, e.g. {@code docker run -p 6379:6379 redis:7-alpine}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mymicroservice.userservice.benchmark.CacheReadPathBenchmark}; the system properties
+ * {@code redis.host} and {@code redis.port} change the Redis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class CacheReadPathBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    private LettuceConnectionFactory connectionFactory;
+    private Cache userCache;
+    private Cache userCardsCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(SerializationPair.fromSerializer(
+                        new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper())));
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(configuration)
+                .build();
+        userCache = cacheManager.getCache(USER_CACHE);
+        userCardsCache = cacheManager.getCache(USER_CARDS_CACHE);
+        userCache.put(USER_ID, UserDtoGenerator.generateUserDtoWithId());
+        userCardsCache.put(USER_ID, LongStream.range(0, 5)
+                .mapToObj(i -> CardInfoDtoGenerator.generateCardInfoDtoForBatch(i, USER_ID))
+                .toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public void blocking(Blackhole blackhole) {
+        blackhole.consume(userCache.get(USER_ID));
+        blackhole.consume(userCardsCache.get(USER_ID));
+    }
+
+    @Benchmark
+    public Object async() {
+        return userCache.retrieve(USER_ID)
+                .thenCombine(userCardsCache.retrieve(USER_ID), List::of)
+                .join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheReadPathBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mymicroservice.userservice.benchmark;
+
+import com.mymicroservice.userservice.cache.BinaryCacheValueSerializer;
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares the JSON and the binary cache value formats: ns/op of serialize and deserialize,
+ * and the bytes per entry (printed once per trial).
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mymicroservice.userservice.benchmark.CacheValueSerializerBenchmark}
+ * or from the IDE via {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    private String format;
+
+    @Param({"user", "card", "cardList"})
+    private String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object entry;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json =
+                new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper());
+        serializer = "json".equals(format) ? json : new BinaryCacheValueSerializer(json, 512);
+        entry = switch (value) {
+            case "user" -> UserDtoGenerator.generateUserDtoWithId();
+            case "card" -> CardInfoDtoGenerator.generateCardInfoDtoWithId();
+            default -> LongStream.range(0, 20)
+                    .mapToObj(i -> CardInfoDtoGenerator.generateCardInfoDtoForBatch(i, 1L))
+                    .toList();
+        };
+        serialized = serializer.serialize(entry);
+        System.out.printf("%n%s/%s: %d bytes per entry%n", format, value, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheValueSerializerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,174 @@
+package com.mymicroservice.userservice.benchmark;
+
+import com.mymicroservice.userservice.repository.CardInfoRepository;
+import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.read.JdbcReadEngine;
+import com.mymicroservice.userservice.repository.read.JpaReadEngine;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the hot lookups of the two {@link ReadEngine}s on the same PostgreSQL (Testcontainers) with
+ * {@code users} generated users and {@code cardsPerUser} cards each: every operation runs in a read-only
+ * transaction, as in the services, so the JPA engine pays for its session and the JDBC engine doesn't.
+ * The cache is left out; these are the cache misses.
+ *
+ * <p>Needs Docker. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mymicroservice.userservice.benchmark.ReadEngineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ReadEngineBenchmark {
+
+    private static final int IDS_PER_BATCH = 100;
+
+    @Param({"jpa", "jdbc"})
+    public String engine;
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"3"})
+    public int cardsPerUser;
+
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private TransactionTemplate readOnlyTransaction;
+    private ReadEngine readEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(16);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("com.mymicroservice.userservice.model");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+        entityManagerFactory.afterPropertiesSet();
+        readOnlyTransaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory.getObject()));
+        readOnlyTransaction.setReadOnly(true);
+
+        JdbcClient jdbcClient = JdbcClient.create(dataSource);
+        jdbcClient.sql("""
+                insert into users (name, surname, birth_date, email, password, role)
+                select 'Name' || i, 'Surname' || i, date '1970-01-01' + (i % 15000), 'user' || i || '@example.com',
+                       '$2a$10$abcdefghijklmnopqrstuuN5gHFw3tB0rNBnJ5PqOZ1Zgxd1qW0Ka', 'USER'
+                from generate_series(1, ?) as i""").param(users).update();
+        jdbcClient.sql("""
+                insert into card_info (number, holder, expiration_date, user_id)
+                select lpad((u.id * 100 + c)::text, 16, '4'), 'HOLDER', date '2030-01-01', u.id
+                from users u cross join generate_series(1, ?) as c""").param(cardsPerUser).update();
+        jdbcClient.sql("analyze").update();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        readEngine = "jpa".equals(engine)
+                ? new JpaReadEngine(repositoryFactory.getRepository(UserRepository.class),
+                        repositoryFactory.getRepository(CardInfoRepository.class))
+                : new JdbcReadEngine(jdbcClient);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.destroy();
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Object findUserById() {
+        long userId = randomUserId();
+        return readOnlyTransaction.execute(status -> readEngine.findUserById(userId));
+    }
+
+    @Benchmark
+    public Object findUserByEmail() {
+        String email = "user" + randomUserId() + "@example.com";
+        return readOnlyTransaction.execute(status -> readEngine.findUserByEmail(email));
+    }
+
+    @Benchmark
+    public Object findUsersByIds() {
+        Set<Long> ids = randomUserIds();
+        return readOnlyTransaction.execute(status -> readEngine.findUsersByIds(ids));
+    }
+
+    @Benchmark
+    public Object findCardInfosByUserId() {
+        long userId = randomUserId();
+        return readOnlyTransaction.execute(status -> readEngine.findCardInfosByUserId(userId));
+    }
+
+    @Benchmark
+    public Object findCardInfosByIds() {
+        Set<Long> ids = randomCardIds();
+        return readOnlyTransaction.execute(status -> readEngine.findCardInfosByIds(ids));
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+
+    private Set<Long> randomUserIds() {
+        return ThreadLocalRandom.current().longs(IDS_PER_BATCH, 1, users + 1L).boxed()
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Long> randomCardIds() {
+        long cards = (long) users * cardsPerUser;
+        return ThreadLocalRandom.current().longs(IDS_PER_BATCH, 1, cards + 1).boxed()
+                .collect(Collectors.toSet());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReadEngineBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.mymicroservice.userservice.integration.cache;
+
+import com.mymicroservice.userservice.cache.BatchRedisCacheManager;
+import com.mymicroservice.userservice.cache.CachePolicyRegistry;
+import com.mymicroservice.userservice.cache.MultiKeyCache;
+import com.mymicroservice.userservice.cache.RedisShards;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ShardedRedisCacheIT {
+
+    @Container
+    private static final GenericContainer<?> redis1 = redisContainer();
+
+    @Container
+    private static final GenericContainer<?> redis2 = redisContainer();
+
+    @Container
+    private static final GenericContainer<?> redis3 = redisContainer();
+
+    private RedisShards shards;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        Map<String, RedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+        for (GenericContainer<?> redis : List.of(redis1, redis2, redis3)) {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.serverCommands().flushDb();
+            }
+            connectionFactories.put(redis.getHost() + ":" + redis.getMappedPort(6379), connectionFactory);
+        }
+        shards = new RedisShards(connectionFactories, properties.getSharding());
+        GenericJackson2JsonRedisSerializer serializer =
+                new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper());
+        BatchRedisCacheManager cacheManager = new BatchRedisCacheManager(connectionFactories.values().iterator().next(),
+                RedisCacheConfiguration.defaultCacheConfig(), new CachePolicyRegistry(properties),
+                name -> serializer, UnaryOperator.identity(), shards);
+        cache = cacheManager.getCache(USER_CACHE);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        shards.destroy();
+    }
+
+    @Test
+    void put_ShouldSpreadKeysOverAllNodes() {
+        LongStream.range(0, 300).forEach(id -> cache.put(id, "user-" + id));
+
+        List<Long> sizes = shards.getConnectionFactories().values().stream().map(ShardedRedisCacheIT::dbSize).toList();
+
+        assertEquals(300, sizes.stream().mapToLong(Long::longValue).sum());
+        sizes.forEach(size -> assertTrue(size > 50, "uneven spread: " + sizes));
+        assertEquals("user-7", cache.get(7L, String.class));
+    }
+
+    @Test
+    void getAll_ShouldReadKeysOfEveryNode_WhenWrittenInBatch() {
+        Map<Long, String> entries = LongStream.range(0, 100).boxed()
+                .collect(Collectors.toMap(id -> id, id -> "user-" + id));
+        MultiKeyCache multiKeyCache = (MultiKeyCache) cache;
+
+        multiKeyCache.putAll(entries);
+
+        assertEquals(entries, multiKeyCache.getAll(entries.keySet()));
+        assertEquals("user-42", cache.get(42L, String.class));
+    }
+
+    @Test
+    void evictAllAndClear_ShouldRemoveKeysFromEveryNode() {
+        LongStream.range(0, 100).forEach(id -> cache.put(id, "user-" + id));
+
+        ((MultiKeyCache) cache).evictAll(List.of(1L, 2L, 3L));
+        assertNull(cache.get(2L));
+        cache.clear();
+
+        shards.getConnectionFactories().values().forEach(connectionFactory -> assertEquals(0, dbSize(connectionFactory)));
+    }
+
+    private static long dbSize(RedisConnectionFactory connectionFactory) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return connection.serverCommands().dbSize();
+        }
+    }
+
+    private static GenericContainer<?> redisContainer() {
+        return new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+    }
+}
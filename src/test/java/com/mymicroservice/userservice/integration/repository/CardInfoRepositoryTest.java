@@ -148,4 +148,13 @@ class CardInfoRepositoryTest extends PostgresTestContainersConfig {
 
         assertThat(page.getContent()).isEmpty();
     }
+
+    @Test
+    void findCardInfosAfterIdNative_ShouldReturnCardsFollowingId_WhenCardsExist() {
+        List<CardInfo> firstSlice = cardInfoRepository.findCardInfosAfterIdNative(0L, 2);
+        List<CardInfo> nextSlice = cardInfoRepository.findCardInfosAfterIdNative(expectedCardInfo.getCardId(), 2);
+
+        assertThat(firstSlice).extracting(CardInfo::getCardId).containsExactly(expectedCardInfo.getCardId());
+        assertThat(nextSlice).isEmpty();
+    }
 }
@@ -0,0 +1,126 @@
+package com.mymicroservice.userservice.integration.repository;
+
+import com.mymicroservice.userservice.configuration.PostgresTestContainersConfig;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.mapper.CardInfoMapper;
+import com.mymicroservice.userservice.mapper.UserMapper;
+import com.mymicroservice.userservice.model.CardInfo;
+import com.mymicroservice.userservice.model.User;
+import com.mymicroservice.userservice.repository.CardInfoRepository;
+import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.read.JdbcReadEngine;
+import com.mymicroservice.userservice.repository.read.JpaReadEngine;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
+import com.mymicroservice.userservice.util.CardInfoGenerator;
+import com.mymicroservice.userservice.util.UserGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+
+import static com.mymicroservice.userservice.util.data.TestConstants.NON_EXISTENT_EMAIL;
+import static com.mymicroservice.userservice.util.data.TestConstants.NON_EXISTENT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Both read engines on the same data: the JDBC engine must return exactly what the JPA engine returns.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ReadEngineTest extends PostgresTestContainersConfig {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ReadEngine jpaReadEngine;
+    private ReadEngine jdbcReadEngine;
+    private User user;
+    private CardInfo firstCard;
+    private CardInfo secondCard;
+
+    @BeforeEach
+    void init() {
+        cardInfoRepository.deleteAll();
+        userRepository.deleteAll();
+        jpaReadEngine = new JpaReadEngine(userRepository, cardInfoRepository);
+        jdbcReadEngine = new JdbcReadEngine(JdbcClient.create(dataSource));
+
+        user = userRepository.save(UserGenerator.generateUser());
+        firstCard = CardInfoGenerator.generateCardInfoForBatch(1);
+        firstCard.setUserId(user);
+        secondCard = CardInfoGenerator.generateCardInfoForBatch(2);
+        secondCard.setUserId(user);
+        cardInfoRepository.saveAll(List.of(firstCard, secondCard));
+        // JdbcClient reads through the connection of the test transaction, so the rows must be written first
+        cardInfoRepository.flush();
+    }
+
+    @Test
+    void findUserById_ShouldReturnSameUserWithoutPassword_WhenUserExists() {
+        UserDto expected = UserMapper.INSTANSE.toDto(UserMapper.INSTANSE.toSummary(user));
+
+        assertThat(jdbcReadEngine.findUserById(user.getUserId())).contains(expected);
+        assertThat(jpaReadEngine.findUserById(user.getUserId())).contains(expected);
+    }
+
+    @Test
+    void findUserById_ShouldReturnEmpty_WhenUserNotExists() {
+        assertThat(jdbcReadEngine.findUserById(NON_EXISTENT_ID)).isEmpty();
+        assertThat(jpaReadEngine.findUserById(NON_EXISTENT_ID)).isEmpty();
+    }
+
+    @Test
+    void findUserByEmail_ShouldIgnoreCase_WhenUserExists() {
+        String email = user.getEmail().toUpperCase();
+
+        assertThat(jdbcReadEngine.findUserByEmail(email)).isEqualTo(jpaReadEngine.findUserByEmail(email)).isPresent();
+        assertThat(jdbcReadEngine.findUserByEmail(NON_EXISTENT_EMAIL)).isEmpty();
+    }
+
+    @Test
+    void findUsersByIds_ShouldReturnOnlyExistingUsers() {
+        User second = userRepository.saveAndFlush(UserGenerator.generateUserForBatch(2));
+        Set<Long> ids = Set.of(user.getUserId(), second.getUserId(), NON_EXISTENT_ID);
+
+        List<UserDto> users = jdbcReadEngine.findUsersByIds(ids);
+
+        assertThat(users).containsExactlyInAnyOrderElementsOf(jpaReadEngine.findUsersByIds(ids));
+        assertThat(users).extracting(UserDto::getUserId).containsExactlyInAnyOrder(user.getUserId(), second.getUserId());
+    }
+
+    @Test
+    void findCardInfosByUserId_ShouldReturnCardsOfUser() {
+        List<CardInfoDto> cards = jdbcReadEngine.findCardInfosByUserId(user.getUserId());
+
+        assertThat(cards).containsExactlyInAnyOrder(CardInfoMapper.INSTANSE.toDto(firstCard), CardInfoMapper.INSTANSE.toDto(secondCard));
+        assertThat(cards).containsExactlyInAnyOrderElementsOf(jpaReadEngine.findCardInfosByUserId(user.getUserId()));
+        assertThat(jdbcReadEngine.findCardInfosByUserId(NON_EXISTENT_ID)).isEmpty();
+    }
+
+    @Test
+    void findCardInfosByIds_ShouldReturnOnlyExistingCards() {
+        Set<Long> ids = Set.of(firstCard.getCardId(), NON_EXISTENT_ID);
+
+        List<CardInfoDto> cards = jdbcReadEngine.findCardInfosByIds(ids);
+
+        assertThat(cards).containsExactly(CardInfoMapper.INSTANSE.toDto(firstCard));
+        assertThat(cards).isEqualTo(jpaReadEngine.findCardInfosByIds(ids));
+    }
+}
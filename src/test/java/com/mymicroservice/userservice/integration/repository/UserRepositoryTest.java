@@ -1,9 +1,11 @@
 package com.mymicroservice.userservice.integration.repository;
 
 import com.mymicroservice.userservice.configuration.PostgresTestContainersConfig;
+import com.mymicroservice.userservice.mapper.UserMapper;
 import com.mymicroservice.userservice.model.Role;
 import com.mymicroservice.userservice.model.User;
 import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.projection.UserSummary;
 import com.mymicroservice.userservice.util.UserGenerator;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +15,6 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -54,86 +55,111 @@ class UserRepositoryTest extends PostgresTestContainersConfig {
     }
 
     @Test
-    void findByEmailIgnoreCase_ShouldReturnUser_WhenEmailExists() {
-        Optional<User> actualUser = userRepository.findByEmailIgnoreCase(expectedUser.getEmail());
+    void findSummaryById_ShouldReturnSummaryWithoutPassword_WhenUserExists() {
+        Optional<UserSummary> summary = userRepository.findSummaryById(expectedUser.getUserId());
 
-        assertNotNull(actualUser.orElse(null));
-        assertEquals(expectedUser, actualUser.get());
-        assertThat(actualUser).isPresent().contains(expectedUser);
+        assertThat(summary).contains(UserMapper.INSTANSE.toSummary(expectedUser));
     }
 
     @Test
-    void findByEmailIgnoreCase_ShouldReturnEmpty_WhenEmailNotExists() {
-        Optional<User> actualUser = userRepository.findByEmailIgnoreCase(NON_EXISTENT_EMAIL);
+    void findSummaryByEmailIgnoreCase_ShouldReturnSummary_WhenEmailDiffersInCase() {
+        Optional<UserSummary> summary = userRepository.findSummaryByEmailIgnoreCase(expectedUser.getEmail().toUpperCase());
 
-        assertFalse(actualUser.isPresent());
+        assertThat(summary).map(UserSummary::userId).contains(expectedUser.getUserId());
     }
 
     @Test
-    void findByUserIdIn_ShouldReturnUsers_WhenUsersExist() {
+    void findSummaryByEmailIgnoreCase_ShouldReturnEmpty_WhenEmailNotExists() {
+        Optional<UserSummary> summary = userRepository.findSummaryByEmailIgnoreCase(NON_EXISTENT_EMAIL);
+
+        assertFalse(summary.isPresent());
+    }
+
+    @Test
+    void findSummariesByUserIdIn_ShouldReturnSummaries_WhenUsersExist() {
         Set<Long> ids = Set.of(expectedUser.getUserId());
 
-        List<User> actualUsers = userRepository.findByUserIdIn(ids);
+        List<UserSummary> summaries = userRepository.findSummariesByUserIdIn(ids);
 
-        assertThat(actualUsers).hasSize(1);
-        assertEquals(expectedUser.getUserId(), actualUsers.get(0).getUserId());
+        assertThat(summaries).hasSize(1);
+        assertEquals(expectedUser.getUserId(), summaries.get(0).userId());
     }
 
     @Test
-    void findByUserIdIn_ShouldReturnEmptyList_WhenUsersNotExist() {
-        List<User> actualUsers = userRepository.findByUserIdIn(Set.of(NON_EXISTENT_ID));
+    void findSummariesByUserIdIn_ShouldReturnEmptyList_WhenUsersNotExist() {
+        List<UserSummary> summaries = userRepository.findSummariesByUserIdIn(Set.of(NON_EXISTENT_ID));
 
-        assertThat(actualUsers).isEmpty();
+        assertThat(summaries).isEmpty();
     }
 
     @Test
-    void findUsersByRole_ShouldReturnUsers_WhenRoleExists() {
-        List<User> actualUsers = userRepository.findUsersByRole(Role.USER);
+    void findSummariesByRole_ShouldReturnSummaries_WhenRoleExists() {
+        List<UserSummary> summaries = userRepository.findSummariesByRole(Role.USER);
 
-        assertThat(actualUsers).isNotEmpty();
-        assertEquals(expectedUser, actualUsers.get(0));
+        assertThat(summaries).containsExactly(UserMapper.INSTANSE.toSummary(expectedUser));
     }
 
     @Test
-    void findUsersByRole_ShouldReturnEmptyList_WhenRoleNotExists() {
-        List<User> actualUsers = userRepository.findUsersByRole(Role.ADMIN);
+    void findSummariesByRole_ShouldReturnEmptyList_WhenRoleNotExists() {
+        List<UserSummary> summaries = userRepository.findSummariesByRole(Role.ADMIN);
 
-        assertTrue(actualUsers.isEmpty());
+        assertTrue(summaries.isEmpty());
     }
 
     @Test
-    void findUsersBornAfter_ShouldReturnUsers_WhenUsersBornAfterDate() {
-        List<User> bornAfterUsers = userRepository.findUsersBornAfter(REPOSITORY_BORN_AFTER_DATE);
+    void findSummariesBornAfter_ShouldReturnSummaries_WhenUsersBornAfterDate() {
+        List<UserSummary> summaries = userRepository.findSummariesBornAfter(REPOSITORY_BORN_AFTER_DATE);
 
-        assertThat(bornAfterUsers).isNotEmpty();
-        assertTrue(bornAfterUsers.stream().allMatch(user -> user.getBirthDate().isAfter(REPOSITORY_BORN_AFTER_DATE)));
+        assertThat(summaries).isNotEmpty();
+        assertTrue(summaries.stream().allMatch(summary -> summary.birthDate().isAfter(REPOSITORY_BORN_AFTER_DATE)));
     }
 
     @Test
-    void findUsersBornAfter_ShouldReturnEmptyList_WhenNoUsersBornAfterDate() {
-        List<User> bornAfterUsers = userRepository.findUsersBornAfter(REPOSITORY_NO_RESULTS_DATE);
+    void findSummariesBornAfter_ShouldReturnEmptyList_WhenNoUsersBornAfterDate() {
+        List<UserSummary> summaries = userRepository.findSummariesBornAfter(REPOSITORY_NO_RESULTS_DATE);
 
-        assertThat(bornAfterUsers).isEmpty();
+        assertThat(summaries).isEmpty();
     }
 
     @Test
-    void findAllUsersNative_ShouldReturnPaginatedResults_WhenUsersExist() {
-        Pageable pageable = PageRequest.of(0, 2);
+    void findAllSummaries_ShouldReturnPageAndTotal_WhenUsersExist() {
+        userRepository.save(UserGenerator.generateUserForBatch(2));
 
-        Page<User> page = userRepository.findAllUsersNative(pageable);
+        Page<UserSummary> page = userRepository.findAllSummaries(PageRequest.of(0, 1));
 
-        assertThat(page.getContent()).hasSize(1);
-        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(1);
-        assertThat(page.getNumber()).isEqualTo(0);
+        assertThat(page.getContent()).extracting(UserSummary::userId).containsExactly(expectedUser.getUserId());
+        assertThat(page.getTotalElements()).isEqualTo(2);
     }
 
     @Test
-    void findAllUsersNative_ShouldReturnEmptyPage_WhenNoUsersExist() {
+    void findAllSummaries_ShouldReturnEmptyPage_WhenNoUsersExist() {
         userRepository.deleteAll();
-        Pageable pageable = PageRequest.of(0, 10);
 
-        Page<User> page = userRepository.findAllUsersNative(pageable);
+        Page<UserSummary> page = userRepository.findAllSummaries(PageRequest.of(0, 10));
 
         assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    @Test
+    void findSummariesRange_ShouldSkipOffset_WhenUsersExist() {
+        User second = userRepository.save(UserGenerator.generateUserForBatch(2));
+        userRepository.save(UserGenerator.generateUserForBatch(3));
+
+        List<UserSummary> range = userRepository.findSummariesRange(1L, 1);
+
+        assertThat(range).extracting(UserSummary::userId).containsExactly(second.getUserId());
+    }
+
+    @Test
+    void findSummariesAfterId_ShouldReturnUsersFollowingId_WhenUsersExist() {
+        User second = userRepository.save(UserGenerator.generateUserForBatch(2));
+        User third = userRepository.save(UserGenerator.generateUserForBatch(3));
+
+        List<UserSummary> firstSlice = userRepository.findSummariesAfterId(0L, 2);
+        List<UserSummary> nextSlice = userRepository.findSummariesAfterId(second.getUserId(), 2);
+
+        assertThat(firstSlice).extracting(UserSummary::userId).containsExactly(expectedUser.getUserId(), second.getUserId());
+        assertThat(nextSlice).extracting(UserSummary::userId).containsExactly(third.getUserId());
     }
 }
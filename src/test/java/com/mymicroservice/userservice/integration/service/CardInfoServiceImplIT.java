@@ -1,7 +1,10 @@
 package com.mymicroservice.userservice.integration.service;
 
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
 import com.mymicroservice.userservice.configuration.TestContainersConfig;
 import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.exception.CardInfoNotFoundException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.model.User;
@@ -16,10 +19,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.domain.Page;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
@@ -33,6 +36,7 @@ import static com.mymicroservice.userservice.util.data.TestConstants.NON_EXISTEN
 import static com.mymicroservice.userservice.util.data.TestConstants.PAGINATION_PAGE_SIZE;
 import static com.mymicroservice.userservice.util.data.TestConstants.SECOND_CARD_NUMBER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -56,6 +60,9 @@ class CardInfoServiceImplIT extends TestContainersConfig {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private TransactionalCacheWriter cacheWriter;
+
     private CardInfoDto testCardInfoDto;
     private User user;
 
@@ -70,6 +77,7 @@ class CardInfoServiceImplIT extends TestContainersConfig {
 
         testCardInfoDto = CardInfoDtoGenerator.generateCardInfoDtoForUser(user);
         cacheManager.getCache("cardInfoCache").clear();
+        cacheManager.getCache("userCardsCache").clear();
     }
 
     @Test
@@ -134,12 +142,15 @@ class CardInfoServiceImplIT extends TestContainersConfig {
     }
 
     @Test
-    void updateCardInfo_ShouldUpdateCardInfoDataInCache_WhenCardInfoExists() {
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cache writes are applied after commit
+    void updateCardInfo_ShouldUpdateCardInfoDataInCache_WhenCardInfoExists() throws InterruptedException {
         CardInfoDto createdCardInfo = cardInfoService.createCardInfo(testCardInfoDto);
         CardInfoDto updatedDto = CardInfoDtoGenerator.generateUpdateDto();
 
         cardInfoService.updateCardInfo(createdCardInfo.getCardId(), updatedDto);
 
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+
         CardInfoDto cachedCardInfo = cacheManager.getCache("cardInfoCache")
                 .get(createdCardInfo.getCardId(), CardInfoDto.class);
 
@@ -158,11 +169,14 @@ class CardInfoServiceImplIT extends TestContainersConfig {
     }
 
     @Test
-    void deleteCardInfo_ShouldRemoveCardInfoFromCache_WhenCardInfoExists() {
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cache writes are applied after commit
+    void deleteCardInfo_ShouldRemoveCardInfoFromCache_WhenCardInfoExists() throws InterruptedException {
         CardInfoDto createdCardInfo = cardInfoService.createCardInfo(testCardInfoDto);
         cardInfoService.getCardInfoById(createdCardInfo.getCardId());
         cardInfoService.deleteCardInfo(createdCardInfo.getCardId());
 
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+
         assertNull(cacheManager.getCache("cardInfoCache").get(createdCardInfo.getCardId(), CardInfoDto.class));
     }
 
@@ -221,6 +235,20 @@ class CardInfoServiceImplIT extends TestContainersConfig {
         assertTrue(userCards.stream().anyMatch(dto -> dto.getNumber().equals(CARD_NUMBER)));
     }
 
+    @Test
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cache writes are applied after commit
+    void getByUserId_ShouldReturnNewCard_WhenCardWasCreatedAfterListWasCached() throws InterruptedException {
+        cardInfoService.createCardInfo(testCardInfoDto);
+        assertEquals(1, cardInfoService.getByUserId(user.getUserId()).size());
+        assertNotNull(cacheManager.getCache("userCardsCache").get(user.getUserId()));
+
+        cardInfoService.createCardInfo(CardInfoDtoGenerator.generateSecondCardInfoDto(user.getUserId()));
+
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+
+        assertEquals(2, cardInfoService.getByUserId(user.getUserId()).size());
+    }
+
     @Test
     void getAllCardInfos_ShouldReturnAllCardInfos_WhenCardInfosExist() {
         cardInfoService.createCardInfo(testCardInfoDto);
@@ -236,11 +264,13 @@ class CardInfoServiceImplIT extends TestContainersConfig {
                 .forEach(i -> cardInfoService.createCardInfo(
                         CardInfoDtoGenerator.generateCardInfoDtoForBatch(i, user.getUserId())));
 
-        Page<CardInfoDto> firstPage = cardInfoService.getAllCardInfosNativeWithPagination(0, PAGINATION_PAGE_SIZE);
+        PageDto<CardInfoDto> firstPage = cardInfoService.getAllCardInfosNativeWithPagination(0, PAGINATION_PAGE_SIZE, CountStrategy.EXACT);
         assertEquals(PAGINATION_PAGE_SIZE, firstPage.getContent().size());
-        assertTrue(firstPage.hasNext());
+        assertFalse(firstPage.isLast());
 
-        Page<CardInfoDto> secondPage = cardInfoService.getAllCardInfosNativeWithPagination(1, PAGINATION_PAGE_SIZE);
+        PageDto<CardInfoDto> secondPage = cardInfoService.getAllCardInfosNativeWithPagination(1, PAGINATION_PAGE_SIZE, CountStrategy.NONE);
         assertEquals(PAGINATION_PAGE_SIZE, secondPage.getContent().size());
+        assertTrue(secondPage.isLast());
+        assertNull(secondPage.getTotalElements());
     }
 }
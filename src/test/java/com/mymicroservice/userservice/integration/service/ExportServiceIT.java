@@ -0,0 +1,209 @@
+package com.mymicroservice.userservice.integration.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymicroservice.userservice.configuration.TestContainersConfig;
+import com.mymicroservice.userservice.service.ExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams a large table through {@link ExportService} against a real PostgreSQL. The driver reads through
+ * a server-side cursor only when the query runs with auto-commit off and a fetch size set, so both are
+ * checked on the statement that ran the export query.
+ */
+@SpringBootTest(properties = "export.fetch-size=" + ExportServiceIT.FETCH_SIZE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class ExportServiceIT extends TestContainersConfig {
+
+    static final int FETCH_SIZE = 250;
+    private static final int USERS = 200_000;
+    private static final int CARDS = 10;
+    private static final String EXPORT_QUERY_TABLE = " from users order by id";
+
+    private static final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        deleteAll();
+        jdbcTemplate.update("""
+                insert into users (name, surname, birth_date, email, password, role)
+                select 'Name' || i, 'Surname' || i, date '1970-01-01' + (i % 15000), 'user' || i || '@example.com',
+                       'password', 'USER'
+                from generate_series(1, ?) as i""", USERS);
+        executions.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteAll();
+    }
+
+    @Test
+    void exportUsers_ShouldStreamEveryRowThroughCursor_WhenTableIsLarge() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        assertEquals(USERS, exportService.exportUsers(out));
+
+        assertEquals(USERS, out.lines);
+        Execution export = executions.stream()
+                .filter(execution -> execution.sql().contains(EXPORT_QUERY_TABLE))
+                .findFirst()
+                .orElseThrow();
+        assertFalse(export.autoCommit());
+        assertEquals(FETCH_SIZE, export.fetchSize());
+    }
+
+    @Test
+    void exportCardInfos_ShouldWriteRowsInIdOrder_WhenCardsExist() throws Exception {
+        jdbcTemplate.update("""
+                insert into card_info (number, holder, expiration_date, user_id)
+                select lpad(i::text, 16, '4'), 'HOLDER', date '2030-01-01', (select min(id) from users)
+                from generate_series(1, ?) as i""", CARDS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(CARDS, exportService.exportCardInfos(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(CARDS, lines.length);
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode card = objectMapper.readTree(line);
+            long cardId = card.get("cardId").asLong();
+            assertTrue(cardId > previousId);
+            previousId = cardId;
+        }
+    }
+
+    private void deleteAll() {
+        jdbcTemplate.update("delete from card_info");
+        jdbcTemplate.update("delete from users");
+    }
+
+    private record Execution(String sql, boolean autoCommit, int fetchSize) {
+    }
+
+    /**
+     * Wraps the application's data source so that every query run through a plain {@link Statement}
+     * (as {@link JdbcTemplate} does for a query without parameters) records the auto-commit mode
+     * of its connection and the fetch size of the statement.
+     */
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                            ? new RecordingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    private static final class RecordingDataSource extends DelegatingDataSource {
+
+        private RecordingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+
+        private static Connection recording(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) -> "createStatement".equals(method)
+                    ? recording(connection, (Statement) result)
+                    : result);
+        }
+
+        private static Statement recording(Connection connection, Statement statement) {
+            return proxy(Statement.class, statement, (method, args, result) -> {
+                if ("executeQuery".equals(method)) {
+                    executions.add(new Execution((String) args[0], connection.getAutoCommit(), statement.getFetchSize()));
+                }
+                return result;
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            try {
+                return handler.handle(method.getName(), args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(String method, Object[] args, Object result) throws SQLException;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.mymicroservice.userservice.integration.service;
 
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
 import com.mymicroservice.userservice.configuration.TestContainersConfig;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.model.Role;
@@ -15,11 +18,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.domain.Page;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -37,6 +40,7 @@ import static com.mymicroservice.userservice.util.data.TestConstants.USER_NAME;
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_PASSWORD;
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_SURNAME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -57,6 +61,9 @@ class UserServiceImplIT extends TestContainersConfig {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private TransactionalCacheWriter cacheWriter;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -129,12 +136,15 @@ class UserServiceImplIT extends TestContainersConfig {
     }
 
     @Test
-    void updateUser_ShouldUpdateUserDataInCache_WhenUserExists() {
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cache writes are applied after commit
+    void updateUser_ShouldUpdateUserDataInCache_WhenUserExists() throws InterruptedException {
         UserDto createdUser = userService.createUser(testUserDto);
         UserDto updatedDto = UserDtoGenerator.generateUpdateDto();
 
         userService.updateUser(createdUser.getUserId(), updatedDto);
 
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+
         UserDto cachedUser = cacheManager.getCache("userCache")
                 .get(createdUser.getUserId(), UserDto.class);
         assertNotNull(cachedUser);
@@ -152,11 +162,14 @@ class UserServiceImplIT extends TestContainersConfig {
     }
 
     @Test
-    void deleteUser_ShouldRemoveUserFromCache_WhenUserExists() {
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cache writes are applied after commit
+    void deleteUser_ShouldRemoveUserFromCache_WhenUserExists() throws InterruptedException {
         UserDto createdUser = userService.createUser(testUserDto);
         userService.getUserById(createdUser.getUserId());
         userService.deleteUser(createdUser.getUserId());
 
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+
         assertNull(cacheManager.getCache("userCache").get(createdUser.getUserId(), UserDto.class));
     }
 
@@ -236,11 +249,15 @@ class UserServiceImplIT extends TestContainersConfig {
         LongStream.rangeClosed(1, 4)
                 .forEach(i -> userService.createUser(UserDtoGenerator.generateUserDtoForBatch(i)));
 
-        Page<UserDto> firstPage = userService.getAllUsersNativeWithPagination(0, PAGINATION_PAGE_SIZE);
+        PageDto<UserDto> firstPage = userService.getAllUsersNativeWithPagination(0, PAGINATION_PAGE_SIZE, CountStrategy.EXACT);
         assertEquals(PAGINATION_PAGE_SIZE, firstPage.getContent().size());
-        assertTrue(firstPage.hasNext());
+        assertFalse(firstPage.isLast());
+        assertEquals(4, firstPage.getTotalElements());
 
-        Page<UserDto> secondPage = userService.getAllUsersNativeWithPagination(1, PAGINATION_PAGE_SIZE);
+        PageDto<UserDto> secondPage = userService.getAllUsersNativeWithPagination(1, PAGINATION_PAGE_SIZE, CountStrategy.ESTIMATED);
         assertEquals(PAGINATION_PAGE_SIZE, secondPage.getContent().size());
+        assertTrue(secondPage.isLast());
+        assertEquals(4, secondPage.getTotalElements());
+        assertEquals(CountStrategy.ESTIMATED, secondPage.getTotalKind());
     }
 }
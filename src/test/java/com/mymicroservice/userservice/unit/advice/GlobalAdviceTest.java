@@ -2,6 +2,7 @@ package com.mymicroservice.userservice.unit.advice;
 
 import com.mymicroservice.userservice.advice.GlobalAdvice;
 import com.mymicroservice.userservice.exception.CardInfoNotFoundException;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.util.ErrorItem;
 import io.jsonwebtoken.JwtException;
@@ -144,4 +145,16 @@ class GlobalAdviceTest {
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getBody().getStatusCode());
         assertEquals("CardInfo wasn't found with id " + NON_EXISTENT_ID, response.getBody().getMessage());
     }
+
+    @Test
+    void handleInvalidCursorException_ShouldReturnBadRequest_WhenCursorIsMalformed() {
+        InvalidCursorException exception = new InvalidCursorException("Invalid cursor abc");
+
+        ResponseEntity<ErrorItem> response = globalAdvice.handleInvalidCursorException(exception);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getBody().getStatusCode());
+        assertEquals("Invalid cursor abc", response.getBody().getMessage());
+    }
 }
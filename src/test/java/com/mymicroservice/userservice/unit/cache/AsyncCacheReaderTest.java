@@ -0,0 +1,92 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.AsyncCacheReader;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncCacheReaderTest {
+
+    private static final String CACHE_NAME = "userCache";
+
+    private Cache cache;
+    private CacheManager cacheManager;
+    private AsyncCacheReader reader;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = mock(Cache.class);
+        cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CACHE_NAME)).thenReturn(cache);
+        reader = new AsyncCacheReader(cacheManager, new CacheProperties());
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.destroy();
+    }
+
+    @Test
+    void get_ShouldReturnCachedValue_WithoutLoading_WhenCacheHits() {
+        doReturn(CompletableFuture.completedFuture(new SimpleValueWrapper("cached"))).when(cache).retrieve(1L);
+
+        assertEquals("cached", reader.get(CACHE_NAME, 1L, this::load).join());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void get_ShouldLoad_WhenCacheMisses() {
+        doReturn(CompletableFuture.completedFuture(null)).when(cache).retrieve(1L);
+
+        assertEquals("loaded", reader.get(CACHE_NAME, 1L, this::load).join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldLoad_WhenAsynchronousReadFails() {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("redis down"))).when(cache).retrieve(1L);
+
+        assertEquals("loaded", reader.get(CACHE_NAME, 1L, this::load).join());
+    }
+
+    @Test
+    void get_ShouldLoad_WhenCacheDoesNotSupportAsynchronousReads() {
+        when(cache.retrieve(1L)).thenThrow(new UnsupportedOperationException());
+
+        assertEquals("loaded", reader.get(CACHE_NAME, 1L, this::load).join());
+    }
+
+    @Test
+    void get_ShouldCompleteExceptionally_WhenLoaderFails() {
+        doReturn(CompletableFuture.completedFuture(null)).when(cache).retrieve(1L);
+
+        CompletableFuture<String> result = reader.get(CACHE_NAME, 1L, () -> {
+            throw new IllegalArgumentException("not found");
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "loaded";
+    }
+}
@@ -0,0 +1,91 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymicroservice.userservice.cache.BatchCacheLoader;
+import com.mymicroservice.userservice.cache.CacheInvalidationPublisher;
+import com.mymicroservice.userservice.cache.CacheTierStatistics;
+import com.mymicroservice.userservice.cache.CaffeineLocalCache;
+import com.mymicroservice.userservice.cache.EarlyRefresh;
+import com.mymicroservice.userservice.cache.ExpiryPolicy;
+import com.mymicroservice.userservice.cache.SingleFlight;
+import com.mymicroservice.userservice.cache.TwoLevelCache;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class BatchCacheLoaderTest {
+
+    private TwoLevelCache cache;
+    private BatchCacheLoader batchCacheLoader;
+    private final List<Set<Long>> loadedIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = new TwoLevelCache(USER_CACHE, new ConcurrentMapCache(USER_CACHE, false),
+                new CaffeineLocalCache(Caffeine.newBuilder().maximumSize(100).build()), mock(CacheInvalidationPublisher.class),
+                new CacheTierStatistics(), new SingleFlight(),
+                new EarlyRefresh(() -> new ExpiryPolicy(Duration.ofMinutes(15), 0, 0), Runnable::run), false);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.afterPropertiesSet();
+        batchCacheLoader = new BatchCacheLoader(cacheManager);
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissingIds_WhenSomeAreCached() {
+        cache.put(USER_ID, user(USER_ID));
+        Set<Long> ids = new LinkedHashSet<>(List.of(USER_ID + 1, USER_ID, USER_ID + 2));
+
+        List<UserDto> result = getAll(ids);
+
+        assertEquals(List.of(user(USER_ID + 1), user(USER_ID), user(USER_ID + 2)), result);
+        assertEquals(List.of(Set.of(USER_ID + 1, USER_ID + 2)), loadedIds);
+    }
+
+    @Test
+    void getAll_ShouldNotCallLoader_WhenAllIdsWereCachedByPreviousCall() {
+        Set<Long> ids = Set.of(USER_ID, USER_ID + 1);
+        getAll(ids);
+        loadedIds.clear();
+
+        List<UserDto> result = getAll(ids);
+
+        assertEquals(2, result.size());
+        assertEquals(List.of(), loadedIds);
+    }
+
+    @Test
+    void getAll_ShouldSkipIds_WhenLoaderDoesNotFindThem() {
+        List<UserDto> result = batchCacheLoader.getAll(USER_CACHE, Set.of(USER_ID), missingIds -> List.of(),
+                UserDto::getUserId);
+
+        assertEquals(List.of(), result);
+    }
+
+    private List<UserDto> getAll(Set<Long> ids) {
+        return batchCacheLoader.getAll(USER_CACHE, ids, missingIds -> {
+            loadedIds.add(Set.copyOf(missingIds));
+            return missingIds.stream().map(BatchCacheLoaderTest::user).toList();
+        }, UserDto::getUserId);
+    }
+
+    private static UserDto user(long id) {
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+        userDto.setUserId(id);
+        return userDto;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.BinaryCacheValueSerializer;
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCacheValueSerializerTest {
+
+    private static final int COMPRESSION_THRESHOLD = 512;
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer =
+            new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper());
+    private final BinaryCacheValueSerializer serializer =
+            new BinaryCacheValueSerializer(jsonSerializer, COMPRESSION_THRESHOLD);
+
+    @Test
+    void deserialize_ShouldRestoreUserDtoWithoutPassword_WhenSerializedAsBinary() {
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+
+        UserDto result = (UserDto) serializer.deserialize(serializer.serialize(userDto));
+
+        userDto.setPassword(null);
+        assertEquals(userDto, result);
+    }
+
+    @Test
+    void deserialize_ShouldRestoreCardInfoDto_WhenSerializedAsBinary() {
+        CardInfoDto cardInfoDto = CardInfoDtoGenerator.generateCardInfoDtoWithId();
+
+        assertEquals(cardInfoDto, serializer.deserialize(serializer.serialize(cardInfoDto)));
+    }
+
+    @Test
+    void deserialize_ShouldRestoreScalarsAndLists_WhenSerializedAsBinary() {
+        List<Object> list = new ArrayList<>(List.of(USER_ID, 7, "value"));
+        list.add(null);
+
+        assertEquals(USER_ID, serializer.deserialize(serializer.serialize(USER_ID)));
+        assertEquals("value", serializer.deserialize(serializer.serialize("value")));
+        assertEquals(list, serializer.deserialize(serializer.serialize(list)));
+    }
+
+    @Test
+    void deserialize_ShouldUseJsonFallback_WhenTypeHasNoBinarySchema() {
+        Map<String, String> map = new HashMap<>(Map.of("holder", "value"));
+
+        assertEquals(map, serializer.deserialize(serializer.serialize(map)));
+    }
+
+    @Test
+    void deserialize_ShouldReadJsonValue_WhenWrittenBeforeTheSwitch() {
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+        userDto.setRole(null);
+
+        UserDto result = (UserDto) serializer.deserialize(jsonSerializer.serialize(userDto));
+
+        userDto.setPassword(null);
+        assertEquals(userDto, result);
+    }
+
+    @Test
+    void serialize_ShouldCompressValue_WhenPayloadExceedsThreshold() {
+        List<CardInfoDto> cards = LongStream.range(0, 50)
+                .mapToObj(i -> CardInfoDtoGenerator.generateCardInfoDtoForBatch(i, USER_ID))
+                .toList();
+
+        byte[] uncompressed = new BinaryCacheValueSerializer(jsonSerializer, -1).serialize(cards);
+        byte[] compressed = serializer.serialize(cards);
+
+        assertTrue(compressed.length < uncompressed.length);
+        assertEquals(cards, serializer.deserialize(compressed));
+    }
+
+    @Test
+    void serialize_ShouldBeSmallerThanJson_WhenValueIsUserDto() {
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+
+        assertTrue(serializer.serialize(userDto).length * 2 < jsonSerializer.serialize(userDto).length);
+    }
+
+    @Test
+    void deserialize_ShouldThrowSerializationException_WhenValueIsTruncated() {
+        byte[] bytes = serializer.serialize(CardInfoDtoGenerator.generateCardInfoDtoWithId());
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+    }
+
+    @Test
+    void deserialize_ShouldThrowSerializationException_WhenCompressedLengthIsCorrupted() {
+        List<CardInfoDto> cards = LongStream.range(0, 50)
+                .mapToObj(i -> CardInfoDtoGenerator.generateCardInfoDtoForBatch(i, USER_ID))
+                .toList();
+        byte[] compressed = serializer.serialize(cards);
+
+        // 0xFFFFFFFF wraps to a negative int, 0x7FFFFFFF would allocate 2 GB
+        byte[] negative = {compressed[0], compressed[1], (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0, 0, 0};
+        byte[] huge = {compressed[0], compressed[1], (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0, 0};
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(negative));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(huge));
+    }
+
+    @Test
+    void serialize_ShouldReturnEmptyArray_WhenValueIsNull() {
+        assertArrayEquals(new byte[0], serializer.serialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+}
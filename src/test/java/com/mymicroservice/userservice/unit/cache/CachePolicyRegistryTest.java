@@ -0,0 +1,72 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.CachePolicy;
+import com.mymicroservice.userservice.cache.CachePolicyRegistry;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachePolicyRegistryTest {
+
+    private CacheProperties properties;
+    private CachePolicyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheProperties();
+        CacheProperties.Policy userCachePolicy = new CacheProperties.Policy();
+        userCachePolicy.setTtl(Duration.ofMinutes(30));
+        userCachePolicy.setMaximumEntries(1_000L);
+        properties.getPolicies().put(USER_CACHE, userCachePolicy);
+        registry = new CachePolicyRegistry(properties);
+    }
+
+    @Test
+    void get_ShouldApplyOverridesOnTopOfDefaults_WhenCacheHasPolicy() {
+        CachePolicy userPolicy = registry.get(USER_CACHE);
+        CachePolicy cardPolicy = registry.get(CARD_INFO_CACHE);
+
+        assertEquals(Duration.ofMinutes(30), userPolicy.ttl());
+        assertEquals(1_000L, userPolicy.maximumEntries());
+        assertEquals(properties.getExpiry().getJitter(), userPolicy.jitter());
+        assertEquals(properties.getExpiry().getTtl(), cardPolicy.ttl());
+        assertTrue(cardPolicy.localEnabled());
+        assertFalse(registry.get("otherCache").localEnabled());
+    }
+
+    @Test
+    void update_ShouldNotifyListeners_WhenPolicyChanges() {
+        List<CachePolicy> notified = new ArrayList<>();
+        registry.addListener((name, policy) -> notified.add(policy));
+
+        registry.update(USER_CACHE, policy -> policy.toBuilder().ttl(Duration.ofMinutes(5)).build());
+
+        assertEquals(Duration.ofMinutes(5), registry.get(USER_CACHE).ttl());
+        assertEquals(List.of(registry.get(USER_CACHE)), notified);
+    }
+
+    @Test
+    void update_ShouldRejectChange_WhenCacheNullsIsChanged() {
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.update(USER_CACHE, policy -> policy.toBuilder().cacheNulls(true).build()));
+        assertFalse(registry.get(USER_CACHE).cacheNulls());
+    }
+
+    @Test
+    void reset_ShouldRestoreConfiguredPolicy_WhenPolicyWasChanged() {
+        registry.update(USER_CACHE, policy -> policy.toBuilder().jitter(0.5).build());
+
+        assertEquals(properties.getExpiry().getJitter(), registry.reset(USER_CACHE).jitter());
+    }
+}
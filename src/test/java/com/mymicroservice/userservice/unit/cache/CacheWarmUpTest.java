@@ -0,0 +1,136 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymicroservice.userservice.cache.CacheSnapshot;
+import com.mymicroservice.userservice.cache.CacheWarmUp;
+import com.mymicroservice.userservice.cache.CacheWarmer;
+import com.mymicroservice.userservice.cache.CaffeineLocalCache;
+import com.mymicroservice.userservice.cache.TwoLevelCache;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheWarmUpTest {
+
+    @TempDir
+    private Path directory;
+
+    private final TwoLevelCacheManager cacheManager = mock(TwoLevelCacheManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<Long>> loadedBatches = new ArrayList<>();
+    private final CacheProperties.WarmUp settings = new CacheProperties.WarmUp();
+    private CacheWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        settings.setSnapshotPath(directory.resolve("cache.snapshot"));
+        settings.setBatchSize(2);
+        CacheWarmer warmer = new CacheWarmer(USER_CACHE, limit -> List.of(9L, 8L), loadedBatches::add);
+        warmUp = new CacheWarmUp(cacheManager, List.of(warmer), settings, meterRegistry);
+    }
+
+    @Test
+    void snapshot_ShouldReadBackWrittenKeys() throws IOException {
+        CacheSnapshot.write(settings.getSnapshotPath(), Map.of(USER_CACHE, List.of(3L, 1L, 2L)));
+
+        Map<String, long[]> keys = CacheSnapshot.read(settings.getSnapshotPath());
+
+        assertArrayEquals(new long[]{3L, 1L, 2L}, keys.get(USER_CACHE));
+    }
+
+    @Test
+    void snapshot_ShouldBeRejected_WhenFileIsTruncated() throws IOException {
+        CacheSnapshot.write(settings.getSnapshotPath(), Map.of(USER_CACHE, List.of(3L, 1L, 2L)));
+        byte[] content = Files.readAllBytes(settings.getSnapshotPath());
+        Files.write(settings.getSnapshotPath(), Arrays.copyOf(content, content.length - 4));
+
+        assertThrows(IOException.class, () -> CacheSnapshot.read(settings.getSnapshotPath()));
+    }
+
+    @Test
+    void snapshot_ShouldBeRejected_WhenCacheNameLengthIsCorrupted() throws IOException {
+        CacheSnapshot.write(settings.getSnapshotPath(), Map.of(USER_CACHE, List.of(3L, 1L, 2L)));
+        byte[] content = Files.readAllBytes(settings.getSnapshotPath());
+        ByteBuffer.wrap(content).putShort(2 * Integer.BYTES, (short) -1);
+        Files.write(settings.getSnapshotPath(), content);
+
+        assertThrows(IOException.class, () -> CacheSnapshot.read(settings.getSnapshotPath()));
+    }
+
+    @Test
+    void warmUp_ShouldLoadSnapshotKeysInBatches_WhenSnapshotExists() throws IOException {
+        CacheSnapshot.write(settings.getSnapshotPath(), Map.of(USER_CACHE, List.of(3L, 1L, 2L)));
+
+        warmUp.warmUp();
+
+        assertEquals(List.of(Set.of(3L, 1L), Set.of(2L)), loadedBatches);
+        assertEquals(3, meterRegistry.get("cache.warmup.entries").tag("source", "snapshot").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.warmup.progress").gauge().value());
+    }
+
+    @Test
+    void warmUp_ShouldLoadTopIds_WhenThereIsNoSnapshot() {
+        warmUp.warmUp();
+
+        assertEquals(List.of(Set.of(9L, 8L)), loadedBatches);
+        assertEquals(2, meterRegistry.get("cache.warmup.entries").tag("source", "query").counter().count());
+    }
+
+    @Test
+    void warmUp_ShouldStop_WhenTimeBudgetIsExhausted() {
+        settings.setTimeBudget(Duration.ZERO);
+
+        warmUp.warmUp();
+
+        assertEquals(List.of(), loadedBatches);
+        assertEquals(0.0, meterRegistry.get("cache.warmup.progress").gauge().value());
+    }
+
+    @Test
+    void writeSnapshot_ShouldStoreNumericL1Keys() throws IOException {
+        Cache<String, Object> localCache = Caffeine.newBuilder().maximumSize(100).build();
+        localCache.put("5", "five");
+        localCache.put("not-an-id", "ignored");
+        TwoLevelCache cache = mock(TwoLevelCache.class);
+        when(cache.getNativeCache()).thenReturn(new CaffeineLocalCache(localCache));
+        when(cacheManager.getTwoLevelCache(USER_CACHE)).thenReturn(cache);
+
+        warmUp.writeSnapshot();
+
+        assertArrayEquals(new long[]{5L}, CacheSnapshot.read(settings.getSnapshotPath()).get(USER_CACHE));
+    }
+
+    @Test
+    void writeSnapshot_ShouldWriteNothing_WhenCachesAreEmpty() throws IOException {
+        TwoLevelCache cache = mock(TwoLevelCache.class);
+        when(cache.getNativeCache()).thenReturn(new CaffeineLocalCache(Caffeine.newBuilder().maximumSize(100).build()));
+        when(cacheManager.getTwoLevelCache(USER_CACHE)).thenReturn(cache);
+
+        warmUp.writeSnapshot();
+
+        assertFalse(Files.exists(settings.getSnapshotPath()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.CachePolicy;
+import com.mymicroservice.userservice.cache.CaffeineLocalCache;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaffeineLocalCacheTest {
+
+    private CachePolicy policy;
+    private CaffeineLocalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        policy = CachePolicy.builder()
+                .ttl(Duration.ofMinutes(15))
+                .localEnabled(true)
+                .maximumEntries(100)
+                .maximumWeight(DataSize.ofMegabytes(1))
+                .serialization(CacheProperties.Format.JSON)
+                .localStore(CacheProperties.LocalStore.HEAP)
+                .build();
+        cache = new CaffeineLocalCache(policy, Duration.ofMinutes(5));
+        IntStream.range(0, 100).forEach(i -> cache.put(String.valueOf(i), i));
+        cache.getNativeCache().cleanUp();
+    }
+
+    @Test
+    void scaleCapacity_ShouldEvictDownToScaledBound_AndRestoreBound() {
+        cache.scaleCapacity(0.25);
+        cache.getNativeCache().cleanUp();
+
+        assertEquals(25, cache.estimatedSize());
+
+        cache.scaleCapacity(1);
+        assertEquals(100, cache.getNativeCache().policy().eviction().orElseThrow().getMaximum());
+    }
+
+    @Test
+    void resize_ShouldKeepScale_WhenBoundOfSameKindChanges() {
+        cache.scaleCapacity(0.5);
+
+        assertTrue(cache.resize(policy.toBuilder().maximumEntries(40).build()));
+        assertEquals(20, cache.getNativeCache().policy().eviction().orElseThrow().getMaximum());
+    }
+
+    @Test
+    void resize_ShouldRequireNewCache_WhenKindOfBoundOrStoreChanges() {
+        assertFalse(cache.resize(policy.toBuilder().maximumEntries(0).build()));
+        assertFalse(cache.resize(policy.toBuilder().localStore(CacheProperties.LocalStore.OFF_HEAP).build()));
+    }
+}
@@ -0,0 +1,208 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.CircuitBreakingCache;
+import com.mymicroservice.userservice.cache.RedisCircuitBreaker;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakingCacheTest {
+
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+    private final AtomicInteger redisCalls = new AtomicInteger();
+    private final AtomicBoolean clearFails = new AtomicBoolean();
+    private final AtomicBoolean writesFail = new AtomicBoolean();
+    private final AtomicInteger clearCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisCircuitBreaker breaker;
+    private FlakyCache redis;
+    private CircuitBreakingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties.Resilience settings = new CacheProperties.Resilience();
+        settings.setMinimumCalls(4);
+        settings.setProbeInterval(Duration.ofMillis(10));
+        settings.setFallbackMaximumEntries(2);
+        breaker = new RedisCircuitBreaker(settings, () -> {
+            if (redisDown.get()) {
+                throw new RedisConnectionFailureException("PING failed");
+            }
+        }, meterRegistry);
+        redis = new FlakyCache();
+        cache = new CircuitBreakingCache(redis, breaker, settings, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        breaker.destroy();
+    }
+
+    @Test
+    void get_ShouldLoadWithoutRedisAndOpenBreaker_WhenRedisFails() {
+        redisDown.set(true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("loaded", cache.get(USER_ID + i, () -> "loaded"));
+        }
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+        int callsWhenOpened = redisCalls.get();
+        assertEquals("loaded", cache.get(USER_ID, () -> "reloaded")); // served by the fallback
+        assertEquals(callsWhenOpened, redisCalls.get());
+        assertEquals(1.0, meterRegistry.get("cache.redis.breaker.state").gauge().value());
+    }
+
+    @Test
+    void getWithLoader_ShouldRunLoaderOnce_WhenPutFailsAfterLoad() {
+        writesFail.set(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("loaded", cache.get(USER_ID, () -> {
+            loads.incrementAndGet();
+            return "loaded";
+        }));
+
+        assertEquals(1, loads.get());
+        assertNull(redis.lookupIgnoringFailures(USER_ID));
+        assertEquals(1.0, meterRegistry.get("cache.redis.fallbacks").tag("operation", "write").counter().count());
+    }
+
+    @Test
+    void put_ShouldEvictKeyFromRedisOnRecovery_WhenWrittenWhileOpen() throws InterruptedException {
+        redis.put(USER_ID, "stale");
+        redisDown.set(true);
+        for (int i = 0; i < 4; i++) {
+            cache.get(USER_ID + 100 + i);
+        }
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+
+        cache.put(USER_ID, "fresh");
+        assertEquals("fresh", cache.get(USER_ID).get());
+        redisDown.set(false);
+
+        assertTrue(awaitClosed());
+        assertNull(cache.get(USER_ID));
+        assertNull(redis.lookupIgnoringFailures(USER_ID));
+    }
+
+    @Test
+    void recovery_ShouldCloseBreakerAndRetryClearInBackground_WhenClearKeepsFailing() throws InterruptedException {
+        redis.put(USER_ID, "stale");
+        redisDown.set(true);
+        for (int i = 0; i < 4; i++) {
+            cache.get(USER_ID + 100 + i);
+        }
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+        for (int i = 0; i < 3; i++) {
+            cache.put(USER_ID + i, "fresh"); // more keys than the fallback holds: Redis is cleared on recovery
+        }
+        clearFails.set(true);
+        redisDown.set(false);
+
+        assertTrue(awaitClosed());
+        assertTrue(clearCalls.get() >= 3);
+        assertEquals("stale", redis.lookupIgnoringFailures(USER_ID));
+        assertEquals(1.0, meterRegistry.get("cache.redis.breaker.transitions").tag("state", "closed").counter().count());
+
+        clearFails.set(false);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (redis.lookupIgnoringFailures(USER_ID) != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNull(redis.lookupIgnoringFailures(USER_ID));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private boolean awaitClosed() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (breaker.getState() != RedisCircuitBreaker.State.CLOSED && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return breaker.getState() == RedisCircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * In-memory stand-in for a Redis cache that fails while {@code redisDown} is set.
+     */
+    private class FlakyCache extends ConcurrentMapCache {
+
+        FlakyCache() {
+            super(USER_CACHE);
+        }
+
+        @Override
+        @Nullable
+        protected Object lookup(Object key) {
+            failIfDown();
+            return super.lookup(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            failIfDown();
+            return super.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, @Nullable Object value) {
+            failIfDown();
+            super.put(key, value);
+        }
+
+        @Override
+        @Nullable
+        public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+            failIfDown();
+            if (writesFail.get()) {
+                throw new QueryTimeoutException("SET timed out");
+            }
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            failIfDown();
+            super.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            failIfDown();
+            clearCalls.incrementAndGet();
+            if (clearFails.get()) {
+                throw new QueryTimeoutException("SCAN timed out");
+            }
+            super.clear();
+        }
+
+        @Nullable
+        Object lookupIgnoringFailures(Object key) {
+            return super.lookup(key);
+        }
+
+        private void failIfDown() {
+            redisCalls.incrementAndGet();
+            if (redisDown.get()) {
+                throw new RedisConnectionFailureException("Connection refused");
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void nodeFor_ShouldSpreadKeysEvenly_WhenNodesHaveVirtualNodes() {
+        ConsistentHashRing<String> ring = ring(List.of("redis-1:6379", "redis-2:6379", "redis-3:6379"));
+
+        Map<String, Long> counts = keys().stream()
+                .collect(Collectors.groupingBy(ring::nodeFor, Collectors.counting()));
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 3 * 0.8 && count < KEYS / 3 * 1.2,
+                "uneven share: " + counts));
+    }
+
+    @Test
+    void nodeFor_ShouldMoveOnlyKeysOfAddedNode_WhenNodeIsAdded() {
+        ConsistentHashRing<String> before = ring(List.of("redis-1:6379", "redis-2:6379", "redis-3:6379"));
+        ConsistentHashRing<String> after = ring(List.of("redis-1:6379", "redis-2:6379", "redis-3:6379", "redis-4:6379"));
+
+        long moved = 0;
+        for (byte[] key : keys()) {
+            String node = after.nodeFor(key);
+            if (!node.equals(before.nodeFor(key))) {
+                assertEquals("redis-4:6379", node);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "moved " + moved + " of " + KEYS);
+    }
+
+    @Test
+    void nodeFor_ShouldNotDependOnNodeOrder() {
+        ConsistentHashRing<String> ring = ring(List.of("redis-1:6379", "redis-2:6379"));
+        ConsistentHashRing<String> reversed = ring(List.of("redis-2:6379", "redis-1:6379"));
+
+        keys().forEach(key -> assertEquals(ring.nodeFor(key), reversed.nodeFor(key)));
+    }
+
+    @Test
+    void partition_ShouldGroupKeysByNode() {
+        ConsistentHashRing<String> ring = ring(List.of("redis-1:6379", "redis-2:6379"));
+        List<String> keys = IntStream.range(0, 100).mapToObj(i -> "userCache::" + i).toList();
+
+        Map<String, List<String>> partitions = ring.partition(keys, ConsistentHashRingTest::bytes);
+
+        assertEquals(keys.size(), partitions.values().stream().mapToInt(List::size).sum());
+        partitions.forEach((node, nodeKeys) -> nodeKeys.forEach(key -> assertEquals(node, ring.nodeFor(bytes(key)))));
+    }
+
+    @Test
+    void constructor_ShouldReject_WhenThereAreNoNodes() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(Map.of(), 160));
+    }
+
+    private static ConsistentHashRing<String> ring(List<String> nodes) {
+        Map<String, String> byId = new LinkedHashMap<>();
+        nodes.forEach(node -> byId.put(node, node));
+        return new ConsistentHashRing<>(byId, 160);
+    }
+
+    private static List<byte[]> keys() {
+        return IntStream.range(0, KEYS).mapToObj(i -> bytes("userCache::" + i)).toList();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.ExpiryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryPolicyTest {
+
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    @Test
+    void timeToLive_ShouldStayWithinJitterBounds_WhenJitterIsSet() {
+        ExpiryPolicy policy = new ExpiryPolicy(TTL, 0.1, 1.0);
+        Set<Duration> ttls = new HashSet<>();
+
+        for (long key = 1; key <= 1_000; key++) {
+            Duration ttl = policy.getTimeToLive(key, "value");
+            assertTrue(ttl.compareTo(Duration.ofSeconds(810)) >= 0 && ttl.compareTo(Duration.ofSeconds(990)) <= 0,
+                    "TTL out of bounds: " + ttl);
+            ttls.add(ttl);
+        }
+        assertTrue(ttls.size() > 900, "sequential keys should get spread TTLs, distinct: " + ttls.size());
+    }
+
+    @Test
+    void timeToLive_ShouldBeTheSameForTheSameKey_WhenCalledRepeatedly() {
+        ExpiryPolicy policy = new ExpiryPolicy(TTL, 0.1, 1.0);
+
+        assertEquals(policy.getTimeToLive(42L, "a"), policy.getTimeToLive(42L, "b"));
+        assertEquals(policy.timeToLive("42"), policy.timeToLive(42L));
+    }
+
+    @Test
+    void timeToLive_ShouldReturnBaseTtl_WhenJitterIsZero() {
+        assertEquals(TTL, new ExpiryPolicy(TTL, 0, 1.0).getTimeToLive(42L, "value"));
+    }
+
+    @Test
+    void constructor_ShouldRejectJitter_WhenNotBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryPolicy(TTL, 1.0, 1.0));
+    }
+}
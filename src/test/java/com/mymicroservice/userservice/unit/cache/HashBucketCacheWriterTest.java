@@ -0,0 +1,100 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.HashBucketCacheWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.ReactiveHashCommands;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class HashBucketCacheWriterTest {
+
+    private final RedisCacheWriter delegate = mock(RedisCacheWriter.class);
+    private final RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+    private final RedisConnection connection = mock(RedisConnection.class);
+    private final RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+    private HashBucketCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        writer = new HashBucketCacheWriter(delegate, connectionFactory, USER_CACHE, 100);
+    }
+
+    @Test
+    void get_ShouldReadFieldOfIdRangeBucket_WhenKeyIsNumericId() {
+        byte[] value = bytes("user");
+        when(hashCommands.hGet(bytes("userCache::ids:4200-4299"), bytes("4217"))).thenReturn(value);
+
+        assertArrayEquals(value, writer.get(USER_CACHE, bytes("userCache::4217")));
+        verify(delegate, never()).get(any(), any());
+    }
+
+    @Test
+    void retrieve_ShouldReadFieldThroughReactiveConnection_WhenKeyIsNumericId() {
+        RedisConnectionFactory reactiveFactory = mock(RedisConnectionFactory.class,
+                withSettings().extraInterfaces(ReactiveRedisConnectionFactory.class));
+        ReactiveRedisConnection reactiveConnection = mock(ReactiveRedisConnection.class);
+        ReactiveHashCommands reactiveHashCommands = mock(ReactiveHashCommands.class);
+        when(((ReactiveRedisConnectionFactory) reactiveFactory).getReactiveConnection()).thenReturn(reactiveConnection);
+        when(reactiveConnection.hashCommands()).thenReturn(reactiveHashCommands);
+        when(reactiveConnection.closeLater()).thenReturn(Mono.empty());
+        when(reactiveHashCommands.hGet(ByteBuffer.wrap(bytes("userCache::ids:4200-4299")), ByteBuffer.wrap(bytes("4217"))))
+                .thenReturn(Mono.just(ByteBuffer.wrap(bytes("user"))));
+        HashBucketCacheWriter reactiveWriter = new HashBucketCacheWriter(delegate, reactiveFactory, USER_CACHE, 100);
+
+        assertArrayEquals(bytes("user"), reactiveWriter.retrieve(USER_CACHE, bytes("userCache::4217"), null).join());
+        verify(reactiveConnection).closeLater();
+        verify(reactiveFactory, never()).getConnection();
+    }
+
+    @Test
+    void remove_ShouldDeleteFieldOfNegativeIdBucket() {
+        writer.remove(USER_CACHE, bytes("userCache::-1"));
+
+        verify(hashCommands).hDel(bytes("userCache::ids:-100--1"), bytes("-1"));
+    }
+
+    @Test
+    void get_ShouldDelegate_WhenKeyIsNotCanonicalId() {
+        writer.get(USER_CACHE, bytes("userCache::007"));
+        writer.get(USER_CACHE, bytes("userCache::admin@example.com"));
+
+        verify(delegate).get(USER_CACHE, bytes("userCache::007"));
+        verify(delegate).get(USER_CACHE, bytes("userCache::admin@example.com"));
+        verify(connectionFactory, never()).getConnection();
+    }
+
+    @Test
+    void localKeysOf_ShouldExpandBucketToItsIds() {
+        assertEquals(List.of("10", "11", "12"), HashBucketCacheWriter.localKeysOf("ids:10-12"));
+        assertNull(HashBucketCacheWriter.localKeysOf("42"));
+        assertNull(HashBucketCacheWriter.localKeysOf("ids:12-10"));
+        assertNull(HashBucketCacheWriter.localKeysOf("ids:0-99999999"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.HotKeyTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyTrackerTest {
+
+    @Test
+    void topKeys_ShouldReportHottestKeysFirst_WhenTrafficIsSkewed() {
+        HotKeyTracker tracker = new HotKeyTracker(3, 1024, 4, 1.0);
+
+        for (int round = 0; round < 100; round++) {
+            for (int key = 0; key < 500; key++) {
+                tracker.record("user-" + key); // long tail, one read per key and round
+            }
+            for (int i = 0; i < 30; i++) {
+                tracker.record("hot-1");
+            }
+            for (int i = 0; i < 20; i++) {
+                tracker.record("hot-2");
+            }
+            for (int i = 0; i < 10; i++) {
+                tracker.record("hot-3");
+            }
+        }
+
+        List<String> keys = tracker.topKeys().stream().map(HotKeyTracker.HotKey::key).toList();
+        assertEquals(List.of("hot-1", "hot-2", "hot-3"), keys);
+    }
+
+    @Test
+    void topKeys_ShouldDecayCounts_WhenSketchIsAged() {
+        HotKeyTracker tracker = new HotKeyTracker(1, 16, 2, 1.0);
+
+        for (int i = 0; i < 159; i++) {
+            tracker.record("hot");
+        }
+        long beforeAging = tracker.topKeys().get(0).estimatedCount();
+        tracker.record("hot"); // 10 * width additions halve every counter
+
+        assertEquals(159, beforeAging);
+        assertTrue(tracker.topKeys().get(0).estimatedCount() <= 80);
+    }
+
+    @Test
+    void constructor_ShouldRejectSettings_WhenSampleRateIsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HotKeyTracker(10, 1024, 4, 0));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.LocalCacheGovernor;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocalCacheGovernorTest {
+
+    private TwoLevelCacheManager cacheManager;
+    private CacheProperties.Governor settings;
+    private SimpleMeterRegistry meterRegistry;
+    private LocalCacheGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = mock(TwoLevelCacheManager.class);
+        settings = new CacheProperties.Governor();
+        settings.setShrinkFactor(0.5);
+        settings.setMinimumScale(0.2);
+        meterRegistry = new SimpleMeterRegistry();
+        governor = new LocalCacheGovernor(cacheManager, settings, meterRegistry);
+    }
+
+    @Test
+    void onHeapUsage_ShouldShrinkStepByStep_DownToMinimumScale_WhenAboveHighWatermark() {
+        when(cacheManager.scaleLocalCaches(anyDouble())).thenReturn(100L);
+
+        governor.onHeapUsage(0.9);
+        governor.onHeapUsage(0.9);
+        governor.onHeapUsage(0.95);
+        governor.onHeapUsage(0.95);
+
+        verify(cacheManager).scaleLocalCaches(0.5);
+        verify(cacheManager).scaleLocalCaches(0.25);
+        verify(cacheManager).scaleLocalCaches(0.2);
+        assertEquals(0.2, governor.getScale());
+        assertEquals(3.0, meterRegistry.get("cache.local.shedding").tag("action", "shrink").counter().count());
+        assertEquals(300.0, meterRegistry.get("cache.local.shedding.entries").counter().count());
+        assertEquals(0.2, meterRegistry.get("cache.local.capacity.scale").gauge().value());
+    }
+
+    @Test
+    void onHeapUsage_ShouldGrowBackToPolicyBounds_WhenBelowLowWatermark() {
+        governor.onHeapUsage(0.9);
+        governor.onHeapUsage(0.9);
+
+        governor.onHeapUsage(0.3);
+        governor.onHeapUsage(0.3);
+        governor.onHeapUsage(0.3);
+
+        verify(cacheManager, times(2)).scaleLocalCaches(0.5);
+        verify(cacheManager).scaleLocalCaches(1.0);
+        assertEquals(1.0, governor.getScale());
+        assertEquals(2.0, meterRegistry.get("cache.local.shedding").tag("action", "grow").counter().count());
+    }
+
+    @Test
+    void onHeapUsage_ShouldKeepBounds_BetweenWatermarks() {
+        governor.onHeapUsage(0.7);
+
+        verify(cacheManager, never()).scaleLocalCaches(anyDouble());
+        assertEquals(1.0, governor.getScale());
+    }
+
+    @Test
+    void constructor_ShouldReject_WhenLowWatermarkIsNotBelowHighWatermark() {
+        settings.setLowWatermark(0.9);
+
+        assertThrows(IllegalArgumentException.class, () -> new LocalCacheGovernor(cacheManager, settings, meterRegistry));
+    }
+}
@@ -0,0 +1,177 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.NegativeCache;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.LongStream;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NegativeCacheTest {
+
+    private static final long MAXIMUM_SIZE = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TwoLevelCacheManager cacheManager;
+    private CacheProperties properties;
+    private NegativeCache negativeCache;
+    private BiConsumer<String, String> invalidationListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager = mock(TwoLevelCacheManager.class);
+        properties = new CacheProperties();
+        properties.getNegative().setTtl(Duration.ofMinutes(1));
+        properties.getNegative().setMaximumSize(MAXIMUM_SIZE);
+        negativeCache = new NegativeCache(properties, cacheManager, meterRegistry);
+
+        ArgumentCaptor<BiConsumer<String, String>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(cacheManager).addInvalidationListener(listener.capture());
+        invalidationListener = listener.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void isAbsent_ShouldCountHit_WhenKeyWasMarkedAbsent() {
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+
+        assertTrue(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        assertFalse(negativeCache.isAbsent(CARD_INFO_CACHE, USER_ID));
+        assertEquals(1.0, meterRegistry.get("cache.negative.hits").tag("cache", USER_CACHE).counter().count());
+    }
+
+    @Test
+    void isAbsent_ShouldReturnFalse_WhenTombstoneExpired() throws InterruptedException {
+        properties.getNegative().setTtl(Duration.ofMillis(50));
+        negativeCache = new NegativeCache(properties, cacheManager, meterRegistry);
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (negativeCache.isAbsent(USER_CACHE, USER_ID) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+    }
+
+    @Test
+    void markAbsent_ShouldKeepAtMostMaximumSizeTombstones_WhenManyKeysAreMarked() throws InterruptedException {
+        LongStream.range(0, MAXIMUM_SIZE * 10).forEach(id -> negativeCache.markAbsent(USER_CACHE, id));
+
+        // Caffeine evicts asynchronously, so the bound holds once its maintenance has run
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (countAbsent() > MAXIMUM_SIZE && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(countAbsent() <= MAXIMUM_SIZE);
+    }
+
+    @Test
+    void evict_ShouldDropTombstoneAndPublish_WhenNoTransactionIsActive() {
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+
+        negativeCache.evict(USER_CACHE, USER_ID);
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        verify(cacheManager).publish(USER_CACHE, String.valueOf(USER_ID));
+    }
+
+    @Test
+    void evict_ShouldDropTombstoneNowAndAgainAfterCommit_WhenTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+
+        negativeCache.evict(USER_CACHE, USER_ID);
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        verify(cacheManager, never()).publish(anyString(), any());
+
+        negativeCache.markAbsent(USER_CACHE, USER_ID); // a concurrent lookup doesn't see the new row yet
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        verify(cacheManager).publish(USER_CACHE, String.valueOf(USER_ID));
+    }
+
+    @Test
+    void evict_ShouldNotPublish_WhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+
+        negativeCache.evict(USER_CACHE, USER_ID);
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        verify(cacheManager, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void invalidationMessage_ShouldDropTombstoneOfKey_WhenKeyIsGiven() {
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+        negativeCache.markAbsent(USER_CACHE, USER_ID + 1);
+
+        invalidationListener.accept(USER_CACHE, String.valueOf(USER_ID));
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        assertTrue(negativeCache.isAbsent(USER_CACHE, USER_ID + 1));
+        verify(cacheManager, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void invalidationMessage_ShouldDropTombstonesOfWholeCache_WhenKeyIsNull() {
+        negativeCache.markAbsent(USER_CACHE, USER_ID);
+        negativeCache.markAbsent(USER_CACHE, USER_ID + 1);
+        negativeCache.markAbsent(CARD_INFO_CACHE, USER_ID);
+
+        invalidationListener.accept(USER_CACHE, null);
+
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID));
+        assertFalse(negativeCache.isAbsent(USER_CACHE, USER_ID + 1));
+        assertTrue(negativeCache.isAbsent(CARD_INFO_CACHE, USER_ID));
+    }
+
+    private long countAbsent() {
+        return LongStream.range(0, MAXIMUM_SIZE * 10)
+                .filter(id -> negativeCache.isAbsent(USER_CACHE, id))
+                .count();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,170 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.BinaryCacheValueSerializer;
+import com.mymicroservice.userservice.cache.CachePolicy;
+import com.mymicroservice.userservice.cache.OffHeapLocalCache;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import com.mymicroservice.userservice.configuration.RedisConfig;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapLocalCacheTest {
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private final BinaryCacheValueSerializer serializer = new BinaryCacheValueSerializer(
+            new GenericJackson2JsonRedisSerializer(RedisConfig.createConfiguredObjectMapper()), -1);
+
+    @Test
+    void getIfPresent_ShouldReturnCopyOfStoredValue() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+        userDto.setPassword(null);
+
+        cache.put(String.valueOf(USER_ID), userDto);
+        Object result = cache.getIfPresent(String.valueOf(USER_ID));
+
+        assertEquals(userDto, result);
+        assertNotSame(userDto, result);
+    }
+
+    @Test
+    void getIfPresent_ShouldReturnNullValue_WhenNullWasCached() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+
+        cache.put("7", NullValue.INSTANCE);
+
+        assertSame(NullValue.INSTANCE, cache.getIfPresent("7"));
+    }
+
+    @Test
+    void put_ShouldReplaceValue_AndInvalidateShouldRemoveIt() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+
+        cache.put("1", "first");
+        cache.put("1", "second");
+        assertEquals("second", cache.getIfPresent("1"));
+        assertEquals(1, cache.estimatedSize());
+
+        cache.invalidate("1");
+        assertNull(cache.getIfPresent("1"));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void put_ShouldIgnoreKeysThatAreNotIds() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+
+        cache.put("user@example.com", "value");
+        cache.put("12345678901234567890", "value");
+
+        assertNull(cache.getIfPresent("user@example.com"));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void put_ShouldKeepEntriesThatWereRead_WhenEvicting() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 100, EXPIRE_AFTER_WRITE);
+        IntStream.range(0, 100).forEach(id -> cache.put(String.valueOf(id), "value-" + id));
+        IntStream.range(0, 10).forEach(id -> cache.getIfPresent(String.valueOf(id)));
+
+        IntStream.range(100, 150).forEach(id -> cache.put(String.valueOf(id), "value-" + id));
+
+        assertTrue(cache.estimatedSize() <= 100);
+        IntStream.range(0, 10).forEach(id -> assertEquals("value-" + id, cache.getIfPresent(String.valueOf(id))));
+        IntStream.range(10, 100).forEach(id -> assertNull(cache.getIfPresent(String.valueOf(id))));
+        IntStream.range(100, 150).forEach(id -> assertEquals("value-" + id, cache.getIfPresent(String.valueOf(id))));
+    }
+
+    @Test
+    void put_ShouldStayWithinMemoryBound() {
+        long maximumBytes = DataSize.ofKilobytes(256).toBytes();
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, maximumBytes, 0, EXPIRE_AFTER_WRITE);
+
+        for (long id = 0; id < 20_000; id++) {
+            UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+            userDto.setUserId(id);
+            cache.put(String.valueOf(id), userDto);
+        }
+
+        assertTrue(cache.allocatedBytes() <= maximumBytes, "allocated " + cache.allocatedBytes());
+        assertTrue(cache.estimatedSize() > 0);
+        assertNotNull(cache.getIfPresent("19999"));
+        assertNull(cache.getIfPresent("0"));
+    }
+
+    @Test
+    void put_ShouldNotStoreValue_WhenLargerThanSlab() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofKilobytes(64).toBytes(), 0, EXPIRE_AFTER_WRITE);
+
+        cache.put("1", "x".repeat(100_000));
+
+        assertNull(cache.getIfPresent("1"));
+    }
+
+    @Test
+    void getIfPresent_ShouldReturnNull_WhenExpired() throws InterruptedException {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, Duration.ofMillis(1));
+
+        cache.put("1", "value");
+        Thread.sleep(5);
+
+        assertNull(cache.getIfPresent("1"));
+    }
+
+    @Test
+    void hottestKeys_ShouldReturnReadEntriesFirst() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+        IntStream.range(0, 20).forEach(id -> cache.put(String.valueOf(id), "value-" + id));
+        cache.getIfPresent("5");
+        cache.getIfPresent("11");
+
+        List<String> hottest = cache.hottestKeys(3);
+
+        assertEquals(3, hottest.size());
+        assertTrue(hottest.subList(0, 2).containsAll(List.of("5", "11")), "hottest: " + hottest);
+    }
+
+    @Test
+    void invalidateAll_ShouldReleaseSlabs() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, DataSize.ofMegabytes(1).toBytes(), 0, EXPIRE_AFTER_WRITE);
+        cache.put("1", "value");
+
+        cache.invalidateAll();
+
+        assertNull(cache.getIfPresent("1"));
+        assertEquals(0, cache.allocatedBytes());
+    }
+
+    @Test
+    void resize_ShouldKeepStore_OnlyWhenBoundsAreUnchanged() {
+        CachePolicy policy = CachePolicy.builder()
+                .ttl(Duration.ofMinutes(15))
+                .maximumWeight(DataSize.ofMegabytes(1))
+                .serialization(CacheProperties.Format.BINARY)
+                .localStore(CacheProperties.LocalStore.OFF_HEAP)
+                .build();
+        OffHeapLocalCache cache = new OffHeapLocalCache(serializer, policy, EXPIRE_AFTER_WRITE);
+
+        assertTrue(cache.resize(policy));
+        assertFalse(cache.resize(policy.toBuilder().maximumWeight(DataSize.ofMegabytes(2)).build()));
+        assertFalse(cache.resize(policy.toBuilder().localStore(CacheProperties.LocalStore.HEAP).build()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.QueryResultCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.mymicroservice.userservice.cache.CacheNames.QUERY_CACHE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryResultCacheTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(QUERY_CACHE);
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private QueryResultCache queryResultCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> {
+            Long generation = generations.get(invocation.<String>getArgument(0));
+            return generation == null ? null : generation.toString();
+        });
+        when(valueOperations.increment(anyString()))
+                .thenAnswer(invocation -> generations.merge(invocation.getArgument(0), 1L, Long::sum));
+        queryResultCache = new QueryResultCache(cacheManager, redisTemplate, mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryResultCache.destroy();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getList_ShouldQueryOnce_WhenGenerationIsUnchanged() {
+        assertEquals(List.of("a"), queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load));
+        assertEquals(List.of("a"), queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void bump_ShouldMakeQueriesReload_WhenCalledOutsideOfTransaction() {
+        queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load);
+        queryResultCache.getList(QueryResultCache.CARD_INFO, "expired", this::load);
+
+        queryResultCache.bump(QueryResultCache.USERS);
+        queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load);
+        queryResultCache.getList(QueryResultCache.CARD_INFO, "expired", this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void bump_ShouldApplyOnceAfterCommit_AndBypassCacheWithinTransaction() {
+        queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        queryResultCache.bump(QueryResultCache.USERS);
+        queryResultCache.bump(QueryResultCache.USERS);
+        queryResultCache.getList(QueryResultCache.USERS, "role=USER", this::load);
+        assertEquals(2, loads.get());
+        assertEquals(Map.of(), generations);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(Map.of("cache:generation:users", 1L), generations);
+    }
+
+    @Test
+    void bump_ShouldBeDiscarded_WhenTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        queryResultCache.bump(QueryResultCache.USERS);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(Map.of(), generations);
+    }
+
+    @Test
+    void getPage_ShouldCachePageAndCount_WhenGenerationIsUnchanged() {
+        Pageable pageable = PageRequest.of(1, 2);
+        Page<String> loaded = new PageImpl<>(List.of("c", "d"), pageable, 5);
+
+        queryResultCache.getPage(QueryResultCache.USERS, "all", pageable, () -> {
+            loads.incrementAndGet();
+            return loaded;
+        });
+        Page<String> cached = queryResultCache.getPage(QueryResultCache.USERS, "all", pageable, () -> {
+            loads.incrementAndGet();
+            return loaded;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of("c", "d"), cached.getContent());
+        assertEquals(5, cached.getTotalElements());
+        assertEquals(pageable, cached.getPageable());
+    }
+
+    @Test
+    void getApproximateCount_ShouldReturnLastCountAtOnceAndRecountInBackground_WhenTableWasWritten() throws Exception {
+        AtomicLong rows = new AtomicLong(5);
+        CountDownLatch recounted = new CountDownLatch(1);
+        Supplier<Long> counter = () -> {
+            loads.incrementAndGet();
+            return rows.get();
+        };
+
+        assertEquals(5, queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", counter));
+        assertEquals(5, queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", counter));
+        assertEquals(1, loads.get());
+
+        rows.set(6);
+        queryResultCache.bump(QueryResultCache.USERS);
+        assertEquals(5, queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", () -> {
+            long count = counter.get();
+            recounted.countDown();
+            return count;
+        }));
+
+        assertTrue(recounted.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", counter) != 6 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(6, queryResultCache.getApproximateCount(QueryResultCache.USERS, "all", counter));
+        assertEquals(2, loads.get());
+    }
+
+    private List<String> load() {
+        loads.incrementAndGet();
+        return List.of("a");
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
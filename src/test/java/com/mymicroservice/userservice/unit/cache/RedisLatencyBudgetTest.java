@@ -0,0 +1,51 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.RedisLatencyBudget;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisLatencyBudgetTest {
+
+    private final RedisLatencyBudget budget = new RedisLatencyBudget(Duration.ofMillis(50), Duration.ofMillis(250));
+
+    @Test
+    void getTimeout_ShouldUseReadBudget_WhenCommandReads() {
+        assertEquals(Duration.ofMillis(50).toNanos(), budget.getTimeout(new Command<>(CommandType.GET, null)));
+    }
+
+    @Test
+    void getTimeout_ShouldUseReadBudget_WhenCommandReadsHashBucket() {
+        assertEquals(Duration.ofMillis(50).toNanos(), budget.getTimeout(new Command<>(CommandType.HGET, null)));
+        assertEquals(Duration.ofMillis(50).toNanos(), budget.getTimeout(new Command<>(CommandType.HMGET, null)));
+    }
+
+    @Test
+    void getTimeout_ShouldUseWriteBudget_WhenCommandWrites() {
+        assertEquals(Duration.ofMillis(250).toNanos(), budget.getTimeout(new Command<>(CommandType.SCAN, null)));
+    }
+
+    @Test
+    void getTimeout_ShouldUseWriteBudget_WhenCommandRunsPutScript() {
+        assertEquals(Duration.ofMillis(250).toNanos(), budget.getTimeout(new Command<>(CommandType.EVAL, null)));
+        assertEquals(Duration.ofMillis(250).toNanos(), budget.getTimeout(new Command<>(CommandType.EVALSHA, null)));
+    }
+
+    @Test
+    void getTimeout_ShouldNotBound_WhenRunWithoutBudget() {
+        long[] timeouts = new long[2];
+
+        RedisLatencyBudget.runWithoutBudget(() -> {
+            timeouts[0] = budget.getTimeout(new Command<>(CommandType.SCAN, null));
+            timeouts[1] = budget.getTimeout(new Command<>(CommandType.DEL, null));
+        });
+
+        assertEquals(0, timeouts[0]);
+        assertEquals(0, timeouts[1]);
+        assertEquals(Duration.ofMillis(250).toNanos(), budget.getTimeout(new Command<>(CommandType.DEL, null)));
+    }
+}
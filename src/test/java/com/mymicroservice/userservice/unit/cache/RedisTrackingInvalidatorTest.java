@@ -0,0 +1,67 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.RedisTrackingInvalidator;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.push.PushMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisTrackingInvalidatorTest {
+
+    private final TwoLevelCacheManager cacheManager = mock(TwoLevelCacheManager.class);
+    private RedisTrackingInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        invalidator = new RedisTrackingInvalidator(List.of(mock(RedisClient.class)), cacheManager,
+                List.of(USER_CACHE, CARD_INFO_CACHE), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void onPushMessage_ShouldInvalidateLocalEntries_WhenKeysWereChanged() {
+        invalidator.onPushMessage(invalidate(List.of("userCache::1", "cardInfoCache::42", "unrelated")));
+
+        verify(cacheManager, times(1)).invalidateLocal(USER_CACHE, "1");
+        verify(cacheManager, times(1)).invalidateLocal(CARD_INFO_CACHE, "42");
+        verify(cacheManager, never()).invalidateAllLocal();
+    }
+
+    @Test
+    void onPushMessage_ShouldInvalidateEveryIdOfBucket_WhenHashBucketWasChanged() {
+        invalidator.onPushMessage(invalidate(List.of("userCache::ids:100-102")));
+
+        verify(cacheManager, times(1)).invalidateLocal(USER_CACHE, "100");
+        verify(cacheManager, times(1)).invalidateLocal(USER_CACHE, "101");
+        verify(cacheManager, times(1)).invalidateLocal(USER_CACHE, "102");
+        verify(cacheManager, never()).invalidateLocal(USER_CACHE, "ids:100-102");
+    }
+
+    @Test
+    void onPushMessage_ShouldInvalidateEverything_WhenDatabaseWasFlushed() {
+        invalidator.onPushMessage(invalidate(null));
+
+        verify(cacheManager, times(1)).invalidateAllLocal();
+        verify(cacheManager, never()).invalidateLocal(any(), any());
+    }
+
+    private static PushMessage invalidate(List<String> keys) {
+        PushMessage message = mock(PushMessage.class);
+        when(message.getType()).thenReturn("invalidate");
+        when(message.getContent(any())).thenReturn(Arrays.asList("invalidate", keys));
+        return message;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.SecondaryKeyIndex;
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.mapper.UserMapper;
+import com.mymicroservice.userservice.util.UserGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_EMAIL_INDEX;
+import static com.mymicroservice.userservice.util.data.TestConstants.NEW_USER_EMAIL;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_EMAIL;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SecondaryKeyIndexTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(USER_CACHE, USER_EMAIL_INDEX);
+    private SecondaryKeyIndex secondaryKeyIndex;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.getWriteBehind().setEnabled(false);
+        secondaryKeyIndex = new SecondaryKeyIndex(cacheManager,
+                new TransactionalCacheWriter(cacheManager, properties, new SimpleMeterRegistry()));
+        userDto = UserMapper.INSTANSE.toDto(UserGenerator.generateUserWithId());
+    }
+
+    @Test
+    void get_ShouldResolvePrimaryEntry_WhenIndexAndPrimaryArePresent() {
+        secondaryKeyIndex.put(USER_EMAIL_INDEX, USER_CACHE, USER_EMAIL, USER_ID, userDto);
+
+        assertEquals(userDto, get(USER_EMAIL));
+    }
+
+    @Test
+    void get_ShouldResolvePrimaryEntry_WhenIndexValueIsDeserializedAsInteger() {
+        cacheManager.getCache(USER_CACHE).put(USER_ID, userDto);
+        cacheManager.getCache(USER_EMAIL_INDEX).put(USER_EMAIL, USER_ID.intValue());
+
+        assertEquals(userDto, get(USER_EMAIL));
+    }
+
+    @Test
+    void get_ShouldDropIndexEntry_WhenPrimaryEntryHasAnotherEmail() {
+        secondaryKeyIndex.put(USER_EMAIL_INDEX, USER_CACHE, USER_EMAIL, USER_ID, userDto);
+        userDto.setEmail(NEW_USER_EMAIL);
+
+        assertNull(get(USER_EMAIL));
+        assertNull(cacheManager.getCache(USER_EMAIL_INDEX).get(USER_EMAIL));
+    }
+
+    @Test
+    void reindex_ShouldMoveIndexEntry_WhenEmailChanged() {
+        secondaryKeyIndex.put(USER_EMAIL_INDEX, USER_CACHE, USER_EMAIL, USER_ID, userDto);
+        userDto.setEmail(NEW_USER_EMAIL);
+
+        secondaryKeyIndex.reindex(USER_EMAIL_INDEX, USER_EMAIL, NEW_USER_EMAIL, USER_ID);
+
+        assertNull(cacheManager.getCache(USER_EMAIL_INDEX).get(USER_EMAIL));
+        assertEquals(userDto, get(NEW_USER_EMAIL));
+    }
+
+    private UserDto get(String email) {
+        return secondaryKeyIndex.get(USER_EMAIL_INDEX, USER_CACHE, email, UserDto.class, UserDto::getEmail);
+    }
+}
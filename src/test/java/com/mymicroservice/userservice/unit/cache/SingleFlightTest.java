@@ -0,0 +1,87 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.SingleFlight;
+import com.mymicroservice.userservice.exception.UserNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final String KEY = String.valueOf(USER_ID);
+    private static final int CALLERS = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void execute_ShouldRunLoaderOnce_WhenCallersArriveWhileLoadIsInFlight() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(KEY, () -> {
+                loads.incrementAndGet();
+                leaderStarted.countDown();
+                release.await();
+                return "value";
+            })));
+            leaderStarted.await();
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(KEY, () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            waitForWaiters();
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.getLeaderLoads());
+        assertEquals(CALLERS - 1, singleFlight.getCoalescedLoads());
+    }
+
+    @Test
+    void execute_ShouldRunLoaderAgain_WhenPreviousLoadCompleted() throws Exception {
+        assertEquals("first", singleFlight.execute(KEY, () -> "first"));
+        assertEquals("second", singleFlight.execute(KEY, () -> "second"));
+
+        assertEquals(2, singleFlight.getLeaderLoads());
+        assertEquals(0, singleFlight.getCoalescedLoads());
+    }
+
+    @Test
+    void execute_ShouldRethrowLoaderException_WhenLoadFails() {
+        assertThrows(UserNotFoundException.class, () -> singleFlight.execute(KEY, () -> {
+            throw new UserNotFoundException("User wasn't found with id " + USER_ID);
+        }));
+    }
+
+    private void waitForWaiters() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalescedLoads() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(singleFlight.getCoalescedLoads() >= CALLERS - 1);
+    }
+}
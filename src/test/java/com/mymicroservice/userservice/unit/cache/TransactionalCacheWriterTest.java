@@ -0,0 +1,143 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionalCacheWriterTest {
+
+    private static final Long BLOCKING_KEY = 999L;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(USER_CACHE);
+    private TransactionalCacheWriter cacheWriter;
+
+    @BeforeEach
+    void setUp() {
+        cacheWriter = new TransactionalCacheWriter(cacheManager, new CacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cacheWriter.destroy();
+    }
+
+    @Test
+    void put_ShouldWriteAfterCommit_WhenTransactionIsActive() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheWriter.put(USER_CACHE, USER_ID, "first");
+        cacheWriter.put(USER_CACHE, USER_ID, "second");
+        assertNull(cacheManager.getCache(USER_CACHE).get(USER_ID));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+        assertEquals("second", cacheManager.getCache(USER_CACHE).get(USER_ID).get());
+    }
+
+    @Test
+    void put_ShouldDiscardWrites_WhenTransactionRolledBack() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheWriter.put(USER_CACHE, USER_ID, "value");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+        assertNull(cacheManager.getCache(USER_CACHE).get(USER_ID));
+    }
+
+    @Test
+    void evict_ShouldRemoveEntry_WhenCalledOutsideOfTransaction() throws InterruptedException {
+        cacheManager.getCache(USER_CACHE).put(USER_ID, "value");
+
+        cacheWriter.evict(USER_CACHE, USER_ID);
+
+        assertTrue(cacheWriter.awaitFlushed(Duration.ofSeconds(5)));
+        assertNull(cacheManager.getCache(USER_CACHE).get(USER_ID));
+    }
+
+    @Test
+    void evict_ShouldApplyQueuedAndOwnWritesOnCommittingThread_WhenQueueIsFull() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentMapCacheManager blockingCacheManager = new ConcurrentMapCacheManager(USER_CACHE) {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name) {
+                    @Override
+                    public void put(Object key, Object value) {
+                        if (BLOCKING_KEY.equals(key)) {
+                            flushing.countDown();
+                            awaitQuietly(release);
+                        }
+                        super.put(key, value);
+                    }
+                };
+            }
+        };
+        CacheProperties properties = new CacheProperties();
+        properties.getWriteBehind().setQueueCapacity(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransactionalCacheWriter writer = new TransactionalCacheWriter(blockingCacheManager, properties, meterRegistry);
+        Cache cache = blockingCacheManager.getCache(USER_CACHE);
+        try {
+            writer.put(USER_CACHE, BLOCKING_KEY, "blocks the flusher");
+            assertTrue(flushing.await(5, TimeUnit.SECONDS));
+            writer.put(USER_CACHE, USER_ID, "before delete"); // fills the queue
+
+            Thread delete = new Thread(() -> writer.evict(USER_CACHE, USER_ID));
+            delete.start();
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (delete.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+                Thread.sleep(1); // waits for the flusher to apply the queued writes before its own
+            }
+            assertEquals(Thread.State.BLOCKED, delete.getState());
+            release.countDown();
+            delete.join(5000);
+
+            assertNull(cache.get(USER_ID)); // applied by the committing thread, after the queued put
+            assertEquals(1.0, meterRegistry.get("cache.write.behind.writes").tag("result", "overflow").counter().count());
+            assertTrue(writer.awaitFlushed(Duration.ofSeconds(5)));
+            assertNull(cache.get(USER_ID));
+        } finally {
+            release.countDown();
+            writer.destroy();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,107 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.mymicroservice.userservice.cache.CachePolicyRegistry;
+import com.mymicroservice.userservice.cache.DisabledLocalCache;
+import com.mymicroservice.userservice.cache.TwoLevelCache;
+import com.mymicroservice.userservice.cache.TwoLevelCacheManager;
+import com.mymicroservice.userservice.configuration.CacheProperties;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TwoLevelCacheManagerTest {
+
+    private static final String REMOTE_ONLY_CACHE = "otherCache";
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private StringRedisTemplate redisTemplate;
+    private CacheProperties properties;
+    private CachePolicyRegistry policyRegistry;
+    private TwoLevelCacheManager cacheManager;
+    private UserDto userDto;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager();
+        redisTemplate = mock(StringRedisTemplate.class);
+        properties = new CacheProperties();
+        policyRegistry = new CachePolicyRegistry(properties);
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, properties, policyRegistry,
+                new SimpleMeterRegistry(), mock(RedisSerializer.class));
+        userDto = UserDtoGenerator.generateUserDtoWithId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.destroy();
+    }
+
+    @Test
+    void getCache_ShouldReturnRemoteCache_WhenL1IsNeverEnabled() {
+        Cache cache = cacheManager.getCache(REMOTE_ONLY_CACHE);
+
+        assertSame(remoteCacheManager.getCache(REMOTE_ONLY_CACHE), cache);
+    }
+
+    @Test
+    void getCache_ShouldKeepPublishingInvalidations_WhenL1IsTurnedOffAtRuntime() {
+        Cache before = cacheManager.getCache(USER_CACHE);
+
+        policyRegistry.update(USER_CACHE, policy -> policy.toBuilder().localEnabled(false).build());
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        cache.put(USER_ID, userDto);
+
+        assertSame(before, cache);
+        assertSame(DisabledLocalCache.INSTANCE, ((TwoLevelCache) cache).getNativeCache());
+        assertEquals(userDto, remoteCacheManager.getCache(USER_CACHE).get(USER_ID, UserDto.class));
+        verify(redisTemplate).convertAndSend(eq(properties.getInvalidationChannel()),
+                endsWith("|" + USER_CACHE + "|" + USER_ID));
+    }
+
+    @Test
+    void getCache_ShouldReturnTwoLevelCacheWithoutL1_WhenL1IsTurnedOffBeforeFirstUse() {
+        policyRegistry.update(USER_CACHE, policy -> policy.toBuilder().localEnabled(false).build());
+
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        cache.put(USER_ID, userDto);
+
+        TwoLevelCache twoLevelCache = assertInstanceOf(TwoLevelCache.class, cache);
+        assertNull(twoLevelCache.getNativeCache().getIfPresent(String.valueOf(USER_ID)));
+        verify(redisTemplate).convertAndSend(eq(properties.getInvalidationChannel()),
+                endsWith("|" + USER_CACHE + "|" + USER_ID));
+    }
+
+    @Test
+    void getCache_ShouldStartWithEmptyL1_WhenL1IsTurnedOnAgain() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(USER_CACHE);
+        policyRegistry.update(USER_CACHE, policy -> policy.toBuilder().localEnabled(false).build());
+        cache.put(USER_ID, userDto);
+
+        policyRegistry.reset(USER_CACHE);
+
+        assertNotSame(DisabledLocalCache.INSTANCE, cache.getNativeCache());
+        assertNull(cache.getNativeCache().getIfPresent(String.valueOf(USER_ID)));
+        assertEquals(userDto, cache.get(USER_ID, UserDto.class));
+        assertEquals(userDto, cache.getNativeCache().getIfPresent(String.valueOf(USER_ID)));
+    }
+}
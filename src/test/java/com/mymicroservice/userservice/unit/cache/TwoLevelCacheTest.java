@@ -0,0 +1,276 @@
+package com.mymicroservice.userservice.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymicroservice.userservice.cache.CacheInvalidationPublisher;
+import com.mymicroservice.userservice.cache.CacheTierStatistics;
+import com.mymicroservice.userservice.cache.CaffeineLocalCache;
+import com.mymicroservice.userservice.cache.EarlyRefresh;
+import com.mymicroservice.userservice.cache.ExpiryPolicy;
+import com.mymicroservice.userservice.cache.SingleFlight;
+import com.mymicroservice.userservice.cache.TwoLevelCache;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TwoLevelCacheTest {
+
+    private static final String CACHE_NAME = "userCache";
+    private static final ExpiryPolicy NO_EARLY_REFRESH = new ExpiryPolicy(Duration.ofMinutes(15), 0, 0);
+
+    private ConcurrentMapCache remoteCache;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private CacheInvalidationPublisher publisher;
+    private TwoLevelCache cache;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new ConcurrentMapCache(CACHE_NAME, false);
+        localCache = Caffeine.newBuilder().maximumSize(100).build();
+        publisher = mock(CacheInvalidationPublisher.class);
+        cache = createCache(NO_EARLY_REFRESH);
+        userDto = UserDtoGenerator.generateUserDtoWithId();
+    }
+
+    @Test
+    void get_ShouldPromoteValueToLocalTier_WhenFoundOnlyInRemoteTier() {
+        remoteCache.put(USER_ID, userDto);
+
+        assertEquals(userDto, cache.get(USER_ID, UserDto.class));
+        assertEquals(userDto, localCache.getIfPresent(String.valueOf(USER_ID)));
+        assertEquals(0.0, cache.getStatistics().localHitRatio());
+        assertEquals(1.0, cache.getStatistics().remoteHitRatio());
+    }
+
+    @Test
+    void get_ShouldNotQueryRemoteTier_WhenFoundInLocalTier() {
+        cache.put(USER_ID, userDto);
+        remoteCache.clear();
+
+        assertEquals(userDto, cache.get(USER_ID, UserDto.class));
+        assertEquals(1.0, cache.getStatistics().localHitRatio());
+    }
+
+    @Test
+    void retrieve_ShouldPromoteValueToLocalTier_WhenFoundOnlyInRemoteTier() {
+        remoteCache.put(USER_ID, userDto);
+
+        assertEquals(userDto, cache.retrieve(USER_ID).join().get());
+        assertEquals(userDto, localCache.getIfPresent(String.valueOf(USER_ID)));
+        assertEquals(1.0, cache.getStatistics().remoteHitRatio());
+    }
+
+    @Test
+    void retrieve_ShouldCompleteWithNull_WhenMissingInBothTiers() {
+        assertNull(cache.retrieve(USER_ID).join());
+    }
+
+    @Test
+    void getWithLoader_ShouldLoadAndStoreInBothTiers_WhenMissing() {
+        UserDto result = cache.get(USER_ID, () -> userDto);
+
+        assertEquals(userDto, result);
+        assertEquals(userDto, remoteCache.get(USER_ID, UserDto.class));
+        assertEquals(userDto, localCache.getIfPresent(String.valueOf(USER_ID)));
+        verify(publisher, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void getWithLoader_ShouldKeepRemoteValue_WhenAnotherInstanceWroteItDuringLoad() {
+        UserDto newerUserDto = UserDtoGenerator.generateUserDtoWithId();
+        newerUserDto.setName("newer");
+
+        UserDto result = cache.get(USER_ID, () -> {
+            remoteCache.put(USER_ID, newerUserDto);
+            return userDto;
+        });
+
+        assertEquals(newerUserDto, result);
+        assertEquals(newerUserDto, remoteCache.get(USER_ID, UserDto.class));
+        assertEquals(newerUserDto, localCache.getIfPresent(String.valueOf(USER_ID)));
+    }
+
+    @Test
+    void getWithLoader_ShouldNotCacheLoadedValue_WhenKeyIsInvalidatedDuringLoad() {
+        UserDto result = cache.get(USER_ID, () -> {
+            cache.invalidateLocal(String.valueOf(USER_ID));
+            return userDto;
+        });
+
+        assertEquals(userDto, result);
+        assertNull(remoteCache.get(USER_ID));
+        assertNull(localCache.getIfPresent(String.valueOf(USER_ID)));
+    }
+
+    @Test
+    void get_ShouldNotKeepRemoteValueInLocalTier_WhenKeyIsInvalidatedDuringRemoteRead() {
+        remoteCache = new ConcurrentMapCache(CACHE_NAME, false) {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper staleValue = super.get(key);
+                cache.invalidateLocal(String.valueOf(key));
+                return staleValue;
+            }
+        };
+        cache = createCache(NO_EARLY_REFRESH);
+        remoteCache.put(USER_ID, userDto);
+
+        assertEquals(userDto, cache.get(USER_ID, UserDto.class));
+        assertNull(localCache.getIfPresent(String.valueOf(USER_ID)));
+    }
+
+    @Test
+    void retrieve_ShouldNotKeepRemoteValueInLocalTier_WhenKeyIsInvalidatedDuringRemoteRead() {
+        remoteCache = new ConcurrentMapCache(CACHE_NAME, false) {
+            @Override
+            public CompletableFuture<?> retrieve(Object key) {
+                CompletableFuture<?> staleValue = super.retrieve(key);
+                cache.invalidateLocal(String.valueOf(key));
+                return staleValue;
+            }
+        };
+        cache = createCache(NO_EARLY_REFRESH);
+        remoteCache.put(USER_ID, userDto);
+
+        assertEquals(userDto, cache.retrieve(USER_ID).join().get());
+        assertNull(localCache.getIfPresent(String.valueOf(USER_ID)));
+    }
+
+    @Test
+    void put_ShouldPublishInvalidation_WhenValueIsWritten() {
+        cache.put(USER_ID, userDto);
+
+        verify(publisher).publish(CACHE_NAME, String.valueOf(USER_ID));
+    }
+
+    @Test
+    void evict_ShouldRemoveFromBothTiersAndPublishInvalidation_WhenKeyIsCached() {
+        cache.put(USER_ID, userDto);
+
+        cache.evict(USER_ID);
+
+        assertNull(cache.get(USER_ID));
+        assertNull(remoteCache.get(USER_ID));
+        verify(publisher, times(2)).publish(CACHE_NAME, String.valueOf(USER_ID));
+    }
+
+    @Test
+    void invalidateLocal_ShouldKeepRemoteValue_WhenCalledForKey() {
+        cache.put(USER_ID, userDto);
+
+        cache.invalidateLocal(String.valueOf(USER_ID));
+
+        assertNull(localCache.getIfPresent(String.valueOf(USER_ID)));
+        assertEquals(userDto, remoteCache.get(USER_ID, UserDto.class));
+    }
+
+    @Test
+    void getAll_ShouldQueryRemoteTierOnlyForLocalMisses_WhenKeysAreSplitAcrossTiers() {
+        UserDto secondUserDto = UserDtoGenerator.generateUserDtoForBatch(2);
+        secondUserDto.setUserId(USER_ID + 1);
+        localCache.put(String.valueOf(USER_ID), userDto);
+        remoteCache.put(USER_ID + 1, secondUserDto);
+
+        Map<Object, Object> result = cache.getAll(List.of(USER_ID, USER_ID + 1, USER_ID + 2));
+
+        assertEquals(Map.of(USER_ID, userDto, USER_ID + 1, secondUserDto), result);
+        assertEquals(secondUserDto, localCache.getIfPresent(String.valueOf(USER_ID + 1)));
+        assertEquals(0.5, cache.getStatistics().remoteHitRatio());
+    }
+
+    @Test
+    void putAllIfAbsent_ShouldKeepExistingEntries_WhenKeyIsAlreadyCached() {
+        UserDto newerUserDto = UserDtoGenerator.generateUserDtoWithId();
+        newerUserDto.setName("newer");
+        remoteCache.put(USER_ID, newerUserDto);
+
+        Set<Object> stored = cache.putAllIfAbsent(Map.of(USER_ID, userDto, USER_ID + 1, userDto));
+
+        assertEquals(Set.of(USER_ID + 1), stored);
+        assertEquals(newerUserDto, cache.get(USER_ID, UserDto.class));
+        verify(publisher, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void getWithLoader_ShouldRefreshInBackground_WhenEntryIsCloseToExpiry() {
+        // a huge beta makes every read of a tracked entry due for refresh
+        cache = createCache(new ExpiryPolicy(Duration.ofMinutes(15), 0, 1e12));
+        UserDto refreshed = UserDtoGenerator.generateUserDtoWithId();
+        refreshed.setName("Refreshed");
+        cache.get(USER_ID, () -> slowLoad(userDto));
+
+        UserDto result = cache.get(USER_ID, () -> refreshed);
+
+        assertEquals(userDto, result);
+        assertEquals(refreshed, remoteCache.get(USER_ID, UserDto.class));
+        assertEquals(refreshed, localCache.getIfPresent(String.valueOf(USER_ID)));
+        assertEquals(1, cache.getEarlyRefresh().getRefreshes());
+        verify(publisher).publish(CACHE_NAME, String.valueOf(USER_ID));
+    }
+
+    @Test
+    void getWithLoader_ShouldNotRefresh_WhenEntryWasNotLoadedByThisInstance() {
+        cache = createCache(new ExpiryPolicy(Duration.ofMinutes(15), 0, 1e12));
+        remoteCache.put(USER_ID, userDto);
+
+        UserDto result = cache.get(USER_ID, () -> fail("loader must not be called"));
+
+        assertEquals(userDto, result);
+        assertEquals(0, cache.getEarlyRefresh().getRefreshes());
+    }
+
+    @Test
+    void getWithLoader_ShouldNotRefresh_WhenEarlyRefreshIsDisabled() {
+        cache.get(USER_ID, () -> slowLoad(userDto));
+
+        UserDto result = cache.get(USER_ID, () -> fail("loader must not be called"));
+
+        assertEquals(userDto, result);
+        assertEquals(0, cache.getEarlyRefresh().getRefreshes());
+    }
+
+    @Test
+    void statistics_ShouldCountPutsEvictionsAndLoads_WhenCacheIsUsed() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.getStatistics().bindTo(registry, CACHE_NAME);
+
+        cache.get(USER_ID, () -> userDto);
+        cache.put(USER_ID, userDto);
+        cache.evict(USER_ID);
+
+        assertEquals(2, cache.getStatistics().getPuts());
+        assertEquals(1, cache.getStatistics().getEvictions());
+        assertEquals(1, registry.get("cache.load.duration").tag("result", "success").timer().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    private TwoLevelCache createCache(ExpiryPolicy policy) {
+        return new TwoLevelCache(CACHE_NAME, remoteCache, new CaffeineLocalCache(localCache), publisher,
+                new CacheTierStatistics(), new SingleFlight(), new EarlyRefresh(() -> policy, Runnable::run), false);
+    }
+
+    private static <T> T slowLoad(T value) throws InterruptedException {
+        Thread.sleep(1); // XFetch scales the refresh window with the load time
+        return value;
+    }
+}
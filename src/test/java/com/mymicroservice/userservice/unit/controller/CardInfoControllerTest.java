@@ -4,7 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mymicroservice.userservice.configuration.SecurityConfig;
 import com.mymicroservice.userservice.controller.CardInfoController;
 import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.service.CardInfoService;
+import com.mymicroservice.userservice.service.ExportService;
 import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,12 +17,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -35,12 +41,16 @@ import static com.mymicroservice.userservice.util.data.TestConstants.THIRD_ENTIT
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CardInfoController.class)
@@ -52,6 +62,9 @@ class CardInfoControllerTest {
     @MockBean
     private CardInfoService cardInfoService;
 
+    @MockBean
+    private ExportService exportService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -172,23 +185,75 @@ class CardInfoControllerTest {
         verify(cardInfoService).getAllCardInfos();
     }
 
+    @Test
+    void exportAllCardInfos_ShouldStreamNdjson_WhenNdjsonIsAccepted() throws Exception {
+        when(exportService.exportCardInfos(any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"cardId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/cards/all").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"cardId\":1}\n"));
+        verify(exportService).exportCardInfos(any());
+    }
+
     @Test
     void getAllCardInfosWithPagination_ShouldReturnPage_WhenCardInfosExist() throws Exception {
-        Page<CardInfoDto> page = new PageImpl<>(List.of(
+        PageDto<CardInfoDto> page = PageDto.exact(new PageImpl<>(List.of(
                 CardInfoDtoGenerator.generateCardInfoDtoForBatch(1, USER_ID),
                 CardInfoDtoGenerator.generateCardInfoDtoForBatch(2, USER_ID)
-        ));
+        )));
 
-        when(cardInfoService.getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE)).thenReturn(page);
+        when(cardInfoService.getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT))
+                .thenReturn(page);
 
         mockMvc.perform(get("/api/cards/paginated")
                         .param("page", String.valueOf(DEFAULT_PAGE))
                         .param("size", String.valueOf(DEFAULT_PAGE_SIZE)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.content.length()").value(PAGINATION_PAGE_SIZE));
+                .andExpect(jsonPath("$.content.length()").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.number").value(0))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.first").value(true))
+                .andExpect(jsonPath("$.numberOfElements").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.totalKind").value("EXACT"));
+
+        verify(cardInfoService).getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT);
+    }
+
+    @Test
+    void getAllCardInfosWithPagination_ShouldReturnBadRequest_WhenPageIsNegative() throws Exception {
+        mockMvc.perform(get("/api/cards/paginated")
+                        .param("page", "-1")
+                        .param("count", "NONE"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(cardInfoService);
+    }
+
+    @Test
+    void getCardInfosAfterCursor_ShouldReturnLastSliceWithoutNextCursor_WhenNoMoreCardInfosExist() throws Exception {
+        CursorPageDto<CardInfoDto> slice = new CursorPageDto<>(List.of(
+                CardInfoDtoGenerator.generateCardInfoDtoForBatch(1, USER_ID),
+                CardInfoDtoGenerator.generateCardInfoDtoForBatch(2, USER_ID)
+        ), null);
+
+        when(cardInfoService.getCardInfosAfterCursor(null, DEFAULT_PAGE_SIZE)).thenReturn(slice);
+
+        mockMvc.perform(get("/api/cards/cursor")
+                        .param("size", String.valueOf(DEFAULT_PAGE_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
 
-        verify(cardInfoService).getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+        verify(cardInfoService).getCardInfosAfterCursor(null, DEFAULT_PAGE_SIZE);
     }
 
     @Test
@@ -0,0 +1,114 @@
+package com.mymicroservice.userservice.unit.controller;
+
+import com.mymicroservice.userservice.configuration.SecurityConfig;
+import com.mymicroservice.userservice.controller.UserController;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.dto.UserWithCardsDto;
+import com.mymicroservice.userservice.service.ExportService;
+import com.mymicroservice.userservice.service.UserProfileService;
+import com.mymicroservice.userservice.service.UserService;
+import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
+import com.mymicroservice.userservice.util.JwtTestHelper;
+import com.mymicroservice.userservice.util.UserDtoGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mymicroservice.userservice.util.CommonConstants.GATEWAY_SERVICE_NAME;
+import static com.mymicroservice.userservice.util.CommonConstants.INTERNAL_CALL_HEADER;
+import static com.mymicroservice.userservice.util.CommonConstants.SOURCE_SERVICE_HEADER;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_EMAIL;
+import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the async endpoints through the real security chain and GatewayAuthFilter,
+ * so the ASYNC re-dispatch is authorized the same way a gateway call is in production
+ */
+@WebMvcTest(controllers = UserController.class)
+@Import(SecurityConfig.class)
+class UserControllerGatewayAuthTest {
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserProfileService userProfileService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static MockHttpServletRequestBuilder fromGateway(MockHttpServletRequestBuilder builder) {
+        return builder
+                .header(INTERNAL_CALL_HEADER, "true")
+                .header(SOURCE_SERVICE_HEADER, GATEWAY_SERVICE_NAME)
+                .header("Authorization", JwtTestHelper.createBearerToken(USER_EMAIL, List.of("USER")));
+    }
+
+    @Test
+    void getUserWithCards_ShouldAuthorizeBothDispatches_WhenGatewayCallWithValidJwt() throws Exception {
+        UserDto userDto = UserDtoGenerator.generateUserDtoWithId();
+        CardInfoDto cardInfoDto = CardInfoDtoGenerator.generateCardInfoDtoWithId();
+        when(userProfileService.getUserWithCards(USER_ID))
+                .thenReturn(CompletableFuture.completedFuture(new UserWithCardsDto(userDto, List.of(cardInfoDto))));
+
+        MvcResult result = mockMvc.perform(fromGateway(get("/api/users/{id}/with-cards", USER_ID)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.userId").value(USER_ID))
+                .andExpect(jsonPath("$.cards[0].cardId").value(cardInfoDto.getCardId()));
+    }
+
+    @Test
+    void exportAllUsers_ShouldAuthorizeBothDispatches_WhenGatewayCallWithValidJwt() throws Exception {
+        when(exportService.exportUsers(any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"userId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(fromGateway(get("/api/users/all").accept(MediaType.APPLICATION_NDJSON)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"userId\":1}\n"));
+    }
+
+    @Test
+    void getUserWithCards_ShouldReturnUnauthorized_WhenBearerTokenIsMissing() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/with-cards", USER_ID)
+                        .header(INTERNAL_CALL_HEADER, "true")
+                        .header(SOURCE_SERVICE_HEADER, GATEWAY_SERVICE_NAME))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(userProfileService);
+    }
+}
@@ -4,10 +4,20 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mymicroservice.userservice.configuration.SecurityConfig;
 import com.mymicroservice.userservice.controller.UserController;
+import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.dto.UserWithCardsDto;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.model.Role;
+import com.mymicroservice.userservice.service.ExportService;
+import com.mymicroservice.userservice.service.UserProfileService;
 import com.mymicroservice.userservice.service.UserService;
+import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
+import com.mymicroservice.userservice.util.PageCursor;
 import com.mymicroservice.userservice.util.UserDtoGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,14 +26,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
@@ -41,11 +54,15 @@ import static com.mymicroservice.userservice.util.data.TestConstants.USER_SURNAM
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -56,6 +73,12 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserProfileService userProfileService;
+
+    @MockBean
+    private ExportService exportService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -109,6 +132,23 @@ class UserControllerTest {
         verify(userService).getUserById(USER_ID);
     }
 
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getUserWithCards_ShouldReturnUserAndCards_WhenUserExists() throws Exception {
+        CardInfoDto cardInfoDto = CardInfoDtoGenerator.generateCardInfoDtoWithId();
+        when(userProfileService.getUserWithCards(USER_ID))
+                .thenReturn(CompletableFuture.completedFuture(new UserWithCardsDto(userDto, List.of(cardInfoDto))));
+
+        MvcResult result = mockMvc.perform(get("/api/users/{id}/with-cards", USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.userId").value(USER_ID))
+                .andExpect(jsonPath("$.cards[0].cardId").value(cardInfoDto.getCardId()));
+    }
+
     @Test
     @WithMockUser(username = USER_EMAIL, roles = {"USER"})
     void getUserByEmail_ShouldReturnUserDto_WhenUserExists() throws Exception {
@@ -203,24 +243,138 @@ class UserControllerTest {
         verify(userService).getAllUsers();
     }
 
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void exportAllUsers_ShouldStreamNdjson_WhenNdjsonIsAccepted() throws Exception {
+        when(exportService.exportUsers(any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"userId\":1}\n{\"userId\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/users/all").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"userId\":1}\n{\"userId\":2}\n"));
+        verifyNoInteractions(userService);
+    }
+
     @Test
     @WithMockUser(username = USER_EMAIL, roles = {"USER"})
     void getAllUsersWithPagination_ShouldReturnPage_WhenUsersExist() throws Exception {
-        Page<UserDto> page = new PageImpl<>(List.of(
+        PageDto<UserDto> page = PageDto.exact(new PageImpl<>(List.of(
                 UserDtoGenerator.generateUserDtoForBatch(1),
                 UserDtoGenerator.generateUserDtoForBatch(2)
-        ));
+        )));
 
-        when(userService.getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE)).thenReturn(page);
+        when(userService.getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT)).thenReturn(page);
 
         mockMvc.perform(get("/api/users/paginated")
                         .param("page", String.valueOf(DEFAULT_PAGE))
                         .param("size", String.valueOf(DEFAULT_PAGE_SIZE)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.content.length()").value(PAGINATION_PAGE_SIZE));
+                .andExpect(jsonPath("$.content.length()").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.totalElements").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.number").value(0))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.first").value(true))
+                .andExpect(jsonPath("$.numberOfElements").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.totalKind").value("EXACT"));
+
+        verify(userService).getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT);
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getAllUsersWithPagination_ShouldReturnPageWithoutTotal_WhenCountIsNone() throws Exception {
+        PageDto<UserDto> page = PageDto.withoutCount(List.of(
+                UserDtoGenerator.generateUserDtoForBatch(1),
+                UserDtoGenerator.generateUserDtoForBatch(2)
+        ), DEFAULT_PAGE, DEFAULT_PAGE_SIZE, 0L, CountStrategy.NONE);
+
+        when(userService.getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.NONE)).thenReturn(page);
+
+        mockMvc.perform(get("/api/users/paginated")
+                        .param("page", String.valueOf(DEFAULT_PAGE))
+                        .param("size", String.valueOf(DEFAULT_PAGE_SIZE))
+                        .param("count", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").isEmpty())
+                .andExpect(jsonPath("$.totalPages").isEmpty())
+                .andExpect(jsonPath("$.totalKind").value("NONE"));
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getAllUsersWithPagination_ShouldReturnBadRequest_WhenPageIsNegative() throws Exception {
+        mockMvc.perform(get("/api/users/paginated")
+                        .param("page", "-1")
+                        .param("count", "NONE"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getAllUsersWithPagination_ShouldReturnBadRequest_WhenSizeIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/users/paginated")
+                        .param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getUsersAfterCursor_ShouldReturnSliceWithNextCursor_WhenMoreUsersExist() throws Exception {
+        String cursor = PageCursor.encode(PageCursor.ID, USER_ID);
+        String nextCursor = PageCursor.encode(PageCursor.ID, THIRD_ENTITY_ID);
+        CursorPageDto<UserDto> slice = new CursorPageDto<>(List.of(
+                UserDtoGenerator.generateUserDtoForBatch(SECOND_ENTITY_ID),
+                UserDtoGenerator.generateUserDtoForBatch(THIRD_ENTITY_ID)
+        ), nextCursor);
+
+        when(userService.getUsersAfterCursor(cursor, PAGINATION_PAGE_SIZE)).thenReturn(slice);
+
+        mockMvc.perform(get("/api/users/cursor")
+                        .param("cursor", cursor)
+                        .param("size", String.valueOf(PAGINATION_PAGE_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(PAGINATION_PAGE_SIZE))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(userService).getUsersAfterCursor(cursor, PAGINATION_PAGE_SIZE);
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getUsersAfterCursor_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        when(userService.getUsersAfterCursor("abc", DEFAULT_PAGE_SIZE))
+                .thenThrow(new InvalidCursorException("Invalid cursor abc"));
+
+        mockMvc.perform(get("/api/users/cursor")
+                        .param("cursor", "abc")
+                        .param("size", String.valueOf(DEFAULT_PAGE_SIZE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor abc"));
+    }
+
+    @Test
+    @WithMockUser(username = USER_EMAIL, roles = {"USER"})
+    void getUsersAfterCursor_ShouldReturnBadRequest_WhenSizeIsNotPositive() throws Exception {
+        mockMvc.perform(get("/api/users/cursor")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
 
-        verify(userService).getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
@@ -66,6 +67,20 @@ class GatewayAuthFilterTest {
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    void doFilterInternal_ShouldSaveContextOnRequest_WhenGatewayCallWithValidJwt() throws ServletException, IOException {
+        request.addHeader(INTERNAL_CALL_HEADER, "true");
+        request.addHeader(SOURCE_SERVICE_HEADER, GATEWAY_SERVICE_NAME);
+        request.addHeader("Authorization", JwtTestHelper.createBearerToken(USER_EMAIL, List.of("USER")));
+
+        gatewayAuthFilter.doFilter(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+
+        var savedContext = new RequestAttributeSecurityContextRepository().loadDeferredContext(request).get();
+        assertNotNull(savedContext.getAuthentication());
+        assertEquals(USER_EMAIL, savedContext.getAuthentication().getName());
+    }
+
     @Test
     void doFilterInternal_ShouldClearContext_WhenInternalServiceCall() throws ServletException, IOException {
         SecurityContextHolder.getContext().setAuthentication(
@@ -1,6 +1,14 @@
 package com.mymicroservice.userservice.unit.service;
 
+import com.mymicroservice.userservice.cache.BatchCacheLoader;
+import com.mymicroservice.userservice.cache.NegativeCache;
+import com.mymicroservice.userservice.cache.QueryResultCache;
+import com.mymicroservice.userservice.cache.SecondaryKeyIndex;
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
 import com.mymicroservice.userservice.dto.CardInfoDto;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.exception.CardInfoNotFoundException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.mapper.CardInfoMapper;
@@ -8,9 +16,11 @@ import com.mymicroservice.userservice.model.CardInfo;
 import com.mymicroservice.userservice.model.User;
 import com.mymicroservice.userservice.repository.CardInfoRepository;
 import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
 import com.mymicroservice.userservice.service.impl.CardInfoServiceImpl;
 import com.mymicroservice.userservice.util.CardInfoDtoGenerator;
 import com.mymicroservice.userservice.util.CardInfoGenerator;
+import com.mymicroservice.userservice.util.PageCursor;
 import com.mymicroservice.userservice.util.UserGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,10 +34,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_NUMBER_INDEX;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
 import static com.mymicroservice.userservice.util.data.TestConstants.CARD_NUMBER;
 import static com.mymicroservice.userservice.util.data.TestConstants.DEFAULT_PAGE;
 import static com.mymicroservice.userservice.util.data.TestConstants.DEFAULT_PAGE_SIZE;
@@ -37,9 +55,11 @@ import static com.mymicroservice.userservice.util.data.TestConstants.NEW_HOLDER;
 import static com.mymicroservice.userservice.util.data.TestConstants.NON_EXISTENT_ID;
 import static com.mymicroservice.userservice.util.data.TestConstants.SECOND_CARD_NUMBER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -57,6 +77,24 @@ class CardInfoServiceImplTest {
     @Mock
     private CardInfoRepository cardInfoRepository;
 
+    @Mock
+    private NegativeCache negativeCache;
+
+    @Mock
+    private SecondaryKeyIndex secondaryKeyIndex;
+
+    @Mock
+    private BatchCacheLoader batchCacheLoader;
+
+    @Mock
+    private TransactionalCacheWriter cacheWriter;
+
+    @Mock
+    private QueryResultCache queryResultCache;
+
+    @Mock
+    private ReadEngine readEngine;
+
     private CardInfo testCardInfo;
     private CardInfoDto testCardInfoDto;
     private User testUser;
@@ -80,6 +118,9 @@ class CardInfoServiceImplTest {
         assertNotNull(result);
         assertEquals(testCardInfoDto.getNumber(), result.getNumber());
         verify(cardInfoRepository, times(1)).save(any(CardInfo.class));
+        verify(negativeCache, times(1)).evict(CARD_INFO_CACHE, testCardInfo.getCardId());
+        verify(cacheWriter, times(1)).evict(USER_CARDS_CACHE, testUser.getUserId());
+        verify(queryResultCache, times(1)).bump(QueryResultCache.CARD_INFO);
     }
 
     @Test
@@ -108,6 +149,15 @@ class CardInfoServiceImplTest {
 
         assertThrows(CardInfoNotFoundException.class, () -> cardInfoService.getCardInfoById(ENTITY_ID));
         verify(cardInfoRepository, times(1)).findById(ENTITY_ID);
+        verify(negativeCache, times(1)).markAbsent(CARD_INFO_CACHE, ENTITY_ID);
+    }
+
+    @Test
+    void getCardInfoById_ShouldNotQueryDatabase_WhenIdIsInNegativeCache() {
+        when(negativeCache.isAbsent(CARD_INFO_CACHE, ENTITY_ID)).thenReturn(true);
+
+        assertThrows(CardInfoNotFoundException.class, () -> cardInfoService.getCardInfoById(ENTITY_ID));
+        verify(cardInfoRepository, never()).findById(any());
     }
 
     @Test
@@ -122,6 +172,27 @@ class CardInfoServiceImplTest {
         assertEquals(NEW_HOLDER, result.getHolder());
         assertEquals(SECOND_CARD_NUMBER, result.getNumber());
         verify(cardInfoRepository, times(1)).save(any(CardInfo.class));
+        verify(secondaryKeyIndex, times(1)).reindex(CARD_NUMBER_INDEX, CARD_NUMBER, SECOND_CARD_NUMBER, ENTITY_ID);
+        verify(cacheWriter, times(1)).evictAll(USER_CARDS_CACHE, Set.of(testUser.getUserId()));
+        verify(cacheWriter, times(1)).put(CARD_INFO_CACHE, ENTITY_ID, result);
+        verify(queryResultCache, times(1)).bump(QueryResultCache.CARD_INFO);
+    }
+
+    @Test
+    void updateCardInfo_ShouldEvictCardListsOfBothUsers_WhenCardMovesToAnotherUser() {
+        User newOwner = UserGenerator.generateAdminUser();
+        newOwner.setUserId(testUser.getUserId() + 1);
+        CardInfoDto updatedDto = CardInfoDtoGenerator.generateUpdateDto();
+        updatedDto.setUserId(newOwner.getUserId());
+        when(cardInfoRepository.findById(ENTITY_ID)).thenReturn(Optional.of(testCardInfo));
+        when(userRepository.findById(newOwner.getUserId())).thenReturn(Optional.of(newOwner));
+        when(cardInfoRepository.save(any(CardInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CardInfoDto result = cardInfoService.updateCardInfo(ENTITY_ID, updatedDto);
+
+        assertEquals(newOwner.getUserId(), result.getUserId());
+        verify(cacheWriter, times(1))
+                .evictAll(USER_CARDS_CACHE, Set.of(testUser.getUserId(), newOwner.getUserId()));
     }
 
     @Test
@@ -142,6 +213,10 @@ class CardInfoServiceImplTest {
         assertNotNull(result);
         assertEquals(testCardInfoDto, result);
         verify(cardInfoRepository, times(1)).deleteById(ENTITY_ID);
+        verify(cacheWriter, times(1)).evict(CARD_INFO_CACHE, ENTITY_ID);
+        verify(secondaryKeyIndex, times(1)).evict(CARD_NUMBER_INDEX, CARD_NUMBER);
+        verify(cacheWriter, times(1)).evict(USER_CARDS_CACHE, testUser.getUserId());
+        verify(queryResultCache, times(1)).bump(QueryResultCache.CARD_INFO);
     }
 
     @Test
@@ -161,6 +236,19 @@ class CardInfoServiceImplTest {
         assertNotNull(result);
         assertEquals(testCardInfoDto, result);
         verify(cardInfoRepository, times(1)).findByNumber(CARD_NUMBER);
+        verify(secondaryKeyIndex, times(1))
+                .put(CARD_NUMBER_INDEX, CARD_INFO_CACHE, CARD_NUMBER, ENTITY_ID, testCardInfoDto);
+    }
+
+    @Test
+    void getCardInfoByNumber_ShouldNotQueryDatabase_WhenNumberIsIndexed() {
+        when(secondaryKeyIndex.get(eq(CARD_NUMBER_INDEX), eq(CARD_INFO_CACHE), eq(CARD_NUMBER),
+                eq(CardInfoDto.class), any())).thenReturn(testCardInfoDto);
+
+        CardInfoDto result = cardInfoService.getCardInfoByNumber(CARD_NUMBER);
+
+        assertEquals(testCardInfoDto, result);
+        verify(cardInfoRepository, never()).findByNumber(any());
     }
 
     @Test
@@ -172,19 +260,22 @@ class CardInfoServiceImplTest {
 
     @Test
     void getByUserId_ShouldReturnCardInfoDtoList_WhenCardInfosExist() {
-        when(cardInfoRepository.findByUserId(ENTITY_ID)).thenReturn(List.of(testCardInfo));
+        when(readEngine.findCardInfosByUserId(ENTITY_ID)).thenReturn(List.of(testCardInfoDto));
 
         List<CardInfoDto> result = cardInfoService.getByUserId(ENTITY_ID);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(CARD_NUMBER, result.get(0).getNumber());
+        assertInstanceOf(ArrayList.class, result);
     }
 
     @Test
     void getCardInfoIdIn_ShouldReturnCardInfoDtoList_WhenCardInfosExist() {
         Set<Long> ids = Set.of(ENTITY_ID);
-        when(cardInfoRepository.findByCardIdIn(ids)).thenReturn(List.of(testCardInfo));
+        when(readEngine.findCardInfosByIds(ids)).thenReturn(List.of(testCardInfoDto));
+        when(batchCacheLoader.<Long, CardInfoDto>getAll(eq(CARD_INFO_CACHE), eq(ids), any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<Set<Long>, List<CardInfoDto>>>getArgument(2).apply(ids));
 
         List<CardInfoDto> result = cardInfoService.getCardInfoIdIn(ids);
 
@@ -202,6 +293,8 @@ class CardInfoServiceImplTest {
                 .expirationDate(EXPIRED_CARD_DATE)
                 .build();
         when(cardInfoRepository.findExpiredCards()).thenReturn(List.of(expiredCard));
+        when(queryResultCache.<CardInfoDto>getList(eq(QueryResultCache.CARD_INFO), eq("expired:" + LocalDate.now()), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<CardInfoDto>>>getArgument(2).get());
 
         List<CardInfoDto> result = cardInfoService.getExpiredCards();
 
@@ -227,11 +320,48 @@ class CardInfoServiceImplTest {
         Page<CardInfo> cardInfoPage = new PageImpl<>(List.of(testCardInfo), pageable, 1);
 
         when(cardInfoRepository.findAllCardInfoNative(pageable)).thenReturn(cardInfoPage);
+        when(queryResultCache.<CardInfoDto>getPage(eq(QueryResultCache.CARD_INFO), eq("all"), eq(pageable), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<CardInfoDto>>>getArgument(3).get());
 
-        Page<CardInfoDto> result = cardInfoService.getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+        PageDto<CardInfoDto> result = cardInfoService.getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals(testCardInfoDto, result.getContent().get(0));
+        assertEquals(1L, result.getTotalElements());
+    }
+
+    @Test
+    void getAllCardInfosNativeWithPagination_ShouldUsePlannerEstimate_WhenCountIsEstimated() {
+        when(cardInfoRepository.findCardInfosRangeNative(0L, DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of(testCardInfo));
+        when(cardInfoRepository.estimateCardInfosCount()).thenReturn(500L);
+        when(queryResultCache.<CardInfoDto>getList(eq(QueryResultCache.CARD_INFO), eq("all:offset=0,limit=11"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<CardInfoDto>>>getArgument(2).get());
+
+        PageDto<CardInfoDto> result = cardInfoService.getAllCardInfosNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.ESTIMATED);
+
+        assertEquals(List.of(testCardInfoDto), result.getContent());
+        assertEquals(1L, result.getTotalElements()); // the last page tells the exact total
+        assertEquals(CountStrategy.ESTIMATED, result.getTotalKind());
+        verify(cardInfoRepository, never()).findAllCardInfoNative(any());
+    }
+
+    @Test
+    void getCardInfosAfterCursor_ShouldReturnSliceAndNextCursor_WhenMoreCardInfosExist() {
+        List<CardInfo> cards = LongStream.rangeClosed(2, 4).mapToObj(id -> {
+            CardInfo cardInfo = CardInfoGenerator.generateCardInfoForBatch(id);
+            cardInfo.setCardId(id);
+            return cardInfo;
+        }).toList();
+        String cursor = PageCursor.encode(PageCursor.ID, ENTITY_ID);
+
+        when(cardInfoRepository.findCardInfosAfterIdNative(ENTITY_ID, 3)).thenReturn(cards);
+        when(queryResultCache.<CardInfoDto>getList(eq(QueryResultCache.CARD_INFO), eq("after=1,size=2"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<CardInfoDto>>>getArgument(2).get());
+
+        CursorPageDto<CardInfoDto> result = cardInfoService.getCardInfosAfterCursor(cursor, 2);
+
+        assertEquals(List.of(2L, 3L), result.getItems().stream().map(CardInfoDto::getCardId).toList());
+        assertEquals(3L, PageCursor.decode(PageCursor.ID, result.getNextCursor()));
     }
 }
@@ -0,0 +1,119 @@
+package com.mymicroservice.userservice.unit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mymicroservice.userservice.model.Role;
+import com.mymicroservice.userservice.service.impl.ExportServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportServiceImplTest {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final AtomicInteger appliedFetchSize = new AtomicInteger();
+
+    @Test
+    void exportUsers_ShouldWriteOneJsonLinePerRow_WithoutPassword() throws Exception {
+        ExportServiceImpl exportService = new ExportServiceImpl(dataSource(3, row -> {}), objectMapper, FETCH_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, exportService.exportUsers(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("userId").asLong());
+        assertEquals("email1", first.get("email").asText());
+        assertEquals("1990-01-01", first.get("birthDate").asText());
+        assertFalse(first.has("password"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+        assertEquals(FETCH_SIZE, appliedFetchSize.get());
+    }
+
+    @Test
+    void exportCardInfos_ShouldWriteOneJsonLinePerRow() throws Exception {
+        ExportServiceImpl exportService = new ExportServiceImpl(dataSource(2, row -> {}), objectMapper, FETCH_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.exportCardInfos(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(2, second.get("cardId").asLong());
+        assertEquals("number2", second.get("number").asText());
+        assertEquals(2, second.get("userId").asLong());
+    }
+
+    /**
+     * A data source of one statement whose result set generates {@code rows} rows on the fly, like a cursor would.
+     */
+    private DataSource dataSource(int rows, RowListener listener) {
+        ResultSet resultSet = proxy(ResultSet.class, new int[1], (state, method, args) -> switch (method) {
+            case "next" -> {
+                if (state[0] == rows) {
+                    yield false;
+                }
+                listener.onRow(++state[0]);
+                yield true;
+            }
+            case "getLong" -> (long) state[0];
+            case "getString" -> "role".equals(args[0]) ? Role.USER.name() : args[0] + String.valueOf(state[0]);
+            case "getObject" -> args[1] == LocalDate.class ? LocalDate.of(1990, 1, 1) : (Object) (long) state[0];
+            default -> null;
+        });
+        Statement statement = proxy(Statement.class, null, (state, method, args) -> switch (method) {
+            case "setFetchSize" -> {
+                appliedFetchSize.set((Integer) args[0]);
+                yield null;
+            }
+            case "executeQuery" -> resultSet;
+            default -> null;
+        });
+        Connection connection = proxy(Connection.class, null,
+                (state, method, args) -> method.equals("createStatement") ? statement : null);
+        return proxy(DataSource.class, null,
+                (state, method, args) -> method.equals("getConnection") ? connection : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, int[] state, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Object result = handler.handle(state, method.getName(), args);
+            if (result != null || !method.getReturnType().isPrimitive()) {
+                return result;
+            }
+            return method.getReturnType() == boolean.class ? false : 0;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(int[] state, String method, Object[] args);
+    }
+
+    @FunctionalInterface
+    private interface RowListener {
+        void onRow(int row);
+    }
+}
@@ -1,12 +1,26 @@
 package com.mymicroservice.userservice.unit.service;
 
+import com.mymicroservice.userservice.cache.BatchCacheLoader;
+import com.mymicroservice.userservice.cache.NegativeCache;
+import com.mymicroservice.userservice.cache.QueryResultCache;
+import com.mymicroservice.userservice.cache.SecondaryKeyIndex;
+import com.mymicroservice.userservice.cache.TransactionalCacheWriter;
+import com.mymicroservice.userservice.dto.CountStrategy;
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.dto.PageDto;
 import com.mymicroservice.userservice.dto.UserDto;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
 import com.mymicroservice.userservice.exception.UserNotFoundException;
 import com.mymicroservice.userservice.mapper.UserMapper;
+import com.mymicroservice.userservice.model.CardInfo;
 import com.mymicroservice.userservice.model.Role;
 import com.mymicroservice.userservice.model.User;
 import com.mymicroservice.userservice.repository.UserRepository;
+import com.mymicroservice.userservice.repository.projection.UserSummary;
+import com.mymicroservice.userservice.repository.read.ReadEngine;
 import com.mymicroservice.userservice.service.impl.UserServiceImpl;
+import com.mymicroservice.userservice.util.CardInfoGenerator;
+import com.mymicroservice.userservice.util.PageCursor;
 import com.mymicroservice.userservice.util.UserDtoGenerator;
 import com.mymicroservice.userservice.util.UserGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,27 +32,42 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Page;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_INFO_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.CARD_NUMBER_INDEX;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_CARDS_CACHE;
+import static com.mymicroservice.userservice.cache.CacheNames.USER_EMAIL_INDEX;
 import static com.mymicroservice.userservice.util.data.TestConstants.DEFAULT_PAGE;
 import static com.mymicroservice.userservice.util.data.TestConstants.DEFAULT_PAGE_SIZE;
 import static com.mymicroservice.userservice.util.data.TestConstants.NEW_ENCODED_PASSWORD;
 import static com.mymicroservice.userservice.util.data.TestConstants.NEW_USER_EMAIL;
 import static com.mymicroservice.userservice.util.data.TestConstants.NEW_USER_NAME;
+import static com.mymicroservice.userservice.util.data.TestConstants.PAGINATION_PAGE_SIZE;
+import static com.mymicroservice.userservice.util.data.TestConstants.SECOND_ENTITY_ID;
+import static com.mymicroservice.userservice.util.data.TestConstants.THIRD_ENTITY_ID;
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_EMAIL;
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_ID;
 import static com.mymicroservice.userservice.util.data.TestConstants.USER_PASSWORD;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -56,13 +85,35 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private NegativeCache negativeCache;
+
+    @Mock
+    private SecondaryKeyIndex secondaryKeyIndex;
+
+    @Mock
+    private BatchCacheLoader batchCacheLoader;
+
+    @Mock
+    private TransactionalCacheWriter cacheWriter;
+
+    @Mock
+    private QueryResultCache queryResultCache;
+
+    @Mock
+    private ReadEngine readEngine;
+
     private User testUser;
     private UserDto testUserDto;
+    private UserSummary testUserSummary;
+    private UserDto testSummaryDto;
 
     @BeforeEach
     void setUp() {
         testUser = UserGenerator.generateUserWithId();
         testUserDto = UserMapper.INSTANSE.toDto(testUser);
+        testUserSummary = UserMapper.INSTANSE.toSummary(testUser);
+        testSummaryDto = UserMapper.INSTANSE.toDto(testUserSummary);
     }
 
     @Test
@@ -78,25 +129,38 @@ class UserServiceImplTest {
         assertEquals("encoded_" + USER_PASSWORD, result.getPassword());
         verify(passwordEncoder, times(1)).encode(USER_PASSWORD);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(negativeCache, times(1)).evict(USER_CACHE, USER_ID);
+        verify(queryResultCache, times(1)).bump(QueryResultCache.USERS);
     }
 
     @Test
     void getUserById_ShouldReturnUserDto_WhenUserExists() {
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+        when(readEngine.findUserById(USER_ID)).thenReturn(Optional.of(testSummaryDto));
 
         UserDto result = userService.getUserById(USER_ID);
 
         assertNotNull(result);
-        assertEquals(testUserDto, result);
-        verify(userRepository, times(1)).findById(USER_ID);
+        assertEquals(testSummaryDto, result);
+        assertNull(result.getPassword());
+        verify(readEngine, times(1)).findUserById(USER_ID);
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
     void getUserById_ShouldThrowUserNotFoundException_WhenUserNotExists() {
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(readEngine.findUserById(USER_ID)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getUserById(USER_ID));
-        verify(userRepository, times(1)).findById(USER_ID);
+        verify(readEngine, times(1)).findUserById(USER_ID);
+        verify(negativeCache, times(1)).markAbsent(USER_CACHE, USER_ID);
+    }
+
+    @Test
+    void getUserById_ShouldNotQueryDatabase_WhenIdIsInNegativeCache() {
+        when(negativeCache.isAbsent(USER_CACHE, USER_ID)).thenReturn(true);
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(USER_ID));
+        verify(readEngine, never()).findUserById(any());
     }
 
     @Test
@@ -114,8 +178,12 @@ class UserServiceImplTest {
         assertNotNull(result);
         assertEquals(NEW_USER_NAME, result.getName());
         assertEquals(NEW_USER_EMAIL, result.getEmail());
+        assertNull(result.getPassword());
         verify(userRepository, times(1)).findById(USER_ID);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(secondaryKeyIndex, times(1)).reindex(USER_EMAIL_INDEX, USER_EMAIL, NEW_USER_EMAIL, USER_ID);
+        verify(cacheWriter, times(1)).put(USER_CACHE, USER_ID, result);
+        verify(queryResultCache, times(1)).bump(QueryResultCache.USERS);
     }
 
     @Test
@@ -137,6 +205,27 @@ class UserServiceImplTest {
         assertEquals(testUserDto, result);
         verify(userRepository, times(1)).findById(USER_ID);
         verify(userRepository, times(1)).deleteById(USER_ID);
+        verify(cacheWriter, times(1)).evict(USER_CACHE, USER_ID);
+        verify(secondaryKeyIndex, times(1)).evict(USER_EMAIL_INDEX, USER_EMAIL);
+        verify(cacheWriter, times(1)).evict(USER_CARDS_CACHE, USER_ID);
+        verify(queryResultCache, times(1)).bump(QueryResultCache.USERS);
+        verify(queryResultCache, times(1)).bump(QueryResultCache.CARD_INFO);
+    }
+
+    @Test
+    void deleteUser_ShouldEvictCascadedCardsInOneBatch_WhenUserHasCards() {
+        CardInfo firstCard = CardInfoGenerator.generateCardInfoForBatch(1);
+        firstCard.setCardId(1L);
+        CardInfo secondCard = CardInfoGenerator.generateCardInfoForBatch(2);
+        secondCard.setCardId(2L);
+        testUser.setUserCards(new LinkedHashSet<>(List.of(firstCard, secondCard)));
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+
+        userService.deleteUser(USER_ID);
+
+        verify(cacheWriter, times(1)).evictAll(CARD_INFO_CACHE, List.of(1L, 2L));
+        verify(cacheWriter, times(1)).evictAll(CARD_NUMBER_INDEX, List.of(firstCard.getNumber(), secondCard.getNumber()));
+        verify(cacheWriter, times(1)).evict(USER_CARDS_CACHE, USER_ID);
     }
 
     @Test
@@ -150,86 +239,201 @@ class UserServiceImplTest {
 
     @Test
     void getUsersByEmail_ShouldReturnUserDto_WhenUserExists() {
-        when(userRepository.findByEmailIgnoreCase(USER_EMAIL)).thenReturn(Optional.of(testUser));
+        when(readEngine.findUserByEmail(USER_EMAIL)).thenReturn(Optional.of(testSummaryDto));
 
         UserDto result = userService.getUsersByEmail(USER_EMAIL);
 
         assertNotNull(result);
+        assertEquals(testSummaryDto, result);
+        verify(readEngine, times(1)).findUserByEmail(USER_EMAIL);
+        verify(secondaryKeyIndex, times(1)).put(USER_EMAIL_INDEX, USER_CACHE, USER_EMAIL, USER_ID, testSummaryDto);
+    }
+
+    @Test
+    void getUsersByEmail_ShouldNotQueryDatabase_WhenEmailIsIndexed() {
+        when(secondaryKeyIndex.get(eq(USER_EMAIL_INDEX), eq(USER_CACHE), eq(USER_EMAIL), eq(UserDto.class), any()))
+                .thenReturn(testUserDto);
+
+        UserDto result = userService.getUsersByEmail(USER_EMAIL.toUpperCase());
+
         assertEquals(testUserDto, result);
-        verify(userRepository, times(1)).findByEmailIgnoreCase(USER_EMAIL);
+        verify(readEngine, never()).findUserByEmail(any());
     }
 
     @Test
     void getUsersByEmail_ShouldThrowUserNotFoundException_WhenUserNotExists() {
-        when(userRepository.findByEmailIgnoreCase(USER_EMAIL)).thenReturn(Optional.empty());
+        when(readEngine.findUserByEmail(USER_EMAIL)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getUsersByEmail(USER_EMAIL));
-        verify(userRepository, times(1)).findByEmailIgnoreCase(USER_EMAIL);
+        verify(readEngine, times(1)).findUserByEmail(USER_EMAIL);
     }
 
     @Test
     void getUsersIdIn_ShouldReturnUserDtoList_WhenUsersExist() {
         Set<Long> ids = Set.of(USER_ID);
-        when(userRepository.findByUserIdIn(ids)).thenReturn(List.of(testUser));
+        when(readEngine.findUsersByIds(ids)).thenReturn(List.of(testSummaryDto));
+        when(batchCacheLoader.<Long, UserDto>getAll(eq(USER_CACHE), eq(ids), any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<Set<Long>, List<UserDto>>>getArgument(2).apply(ids));
 
         List<UserDto> result = userService.getUsersIdIn(ids);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUserDto, result.get(0));
-        verify(userRepository, times(1)).findByUserIdIn(ids);
+        assertEquals(testSummaryDto, result.get(0));
+        verify(readEngine, times(1)).findUsersByIds(ids);
     }
 
     @Test
     void getUsersByRole_ShouldReturnUserDtoList_WhenUsersExist() {
         Role testRole = testUser.getRole();
-        when(userRepository.findUsersByRole(testRole)).thenReturn(List.of(testUser));
+        when(userRepository.findSummariesByRole(testRole)).thenReturn(List.of(testUserSummary));
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("role=" + testRole), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
 
         List<UserDto> result = userService.getUsersByRole(testRole);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUserDto, result.get(0));
-        verify(userRepository, times(1)).findUsersByRole(testRole);
+        assertEquals(testSummaryDto, result.get(0));
+        verify(userRepository, times(1)).findSummariesByRole(testRole);
     }
 
     @Test
     void getUsersBornAfter_ShouldReturnUserDtoList_WhenUsersExist() {
         var date = testUser.getBirthDate().minusYears(1);
-        when(userRepository.findUsersBornAfter(date)).thenReturn(List.of(testUser));
+        when(userRepository.findSummariesBornAfter(date)).thenReturn(List.of(testUserSummary));
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("bornAfter=" + date), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
 
         List<UserDto> result = userService.getUsersBornAfter(date);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUserDto, result.get(0));
-        verify(userRepository, times(1)).findUsersBornAfter(date);
+        assertEquals(testSummaryDto, result.get(0));
+        verify(userRepository, times(1)).findSummariesBornAfter(date);
     }
 
     @Test
     void getAllUsers_ShouldReturnUserDtoList_WhenUsersExist() {
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
+        when(userRepository.findAllSummaries()).thenReturn(List.of(testUserSummary));
 
         List<UserDto> result = userService.getAllUsers();
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUserDto, result.get(0));
-        verify(userRepository, times(1)).findAll();
+        assertEquals(testSummaryDto, result.get(0));
+        verify(userRepository, times(1)).findAllSummaries();
     }
 
     @Test
     void getAllUsersNativeWithPagination_ShouldReturnPageOfUserDto_WhenCalled() {
-        Pageable pageable = PageRequest.of(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, Sort.by("id"));
-        Page<User> userPage = new PageImpl<>(List.of(testUser), pageable, 1);
+        Pageable pageable = PageRequest.of(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+        Page<UserSummary> userPage = new PageImpl<>(List.of(testUserSummary), pageable, 1);
 
-        when(userRepository.findAllUsersNative(pageable)).thenReturn(userPage);
+        when(userRepository.findAllSummaries(pageable)).thenReturn(userPage);
+        when(queryResultCache.<UserDto>getPage(eq(QueryResultCache.USERS), eq("all"), eq(pageable), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<UserDto>>>getArgument(3).get());
 
-        Page<UserDto> result = userService.getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+        PageDto<UserDto> result = userService.getAllUsersNativeWithPagination(DEFAULT_PAGE, DEFAULT_PAGE_SIZE, CountStrategy.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        assertEquals(testUserDto, result.getContent().get(0));
-        verify(userRepository, times(1)).findAllUsersNative(pageable);
+        assertEquals(testSummaryDto, result.getContent().get(0));
+        assertEquals(CountStrategy.EXACT, result.getTotalKind());
+        verify(userRepository, times(1)).findAllSummaries(pageable);
+    }
+
+    @Test
+    void getAllUsersNativeWithPagination_ShouldUsePlannerEstimate_WhenCountIsEstimated() {
+        List<UserSummary> users = LongStream.rangeClosed(1, 3).mapToObj(UserGenerator::generateUserForBatch)
+                .map(UserMapper.INSTANSE::toSummary).toList();
+
+        when(userRepository.findSummariesRange(2L, PAGINATION_PAGE_SIZE + 1)).thenReturn(users);
+        when(userRepository.estimateUsersCount()).thenReturn(1_000_000L);
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("all:offset=2,limit=3"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
+
+        PageDto<UserDto> result = userService.getAllUsersNativeWithPagination(1, PAGINATION_PAGE_SIZE, CountStrategy.ESTIMATED);
+
+        assertEquals(PAGINATION_PAGE_SIZE, result.getContent().size());
+        assertFalse(result.isLast());
+        assertEquals(1_000_000L, result.getTotalElements());
+        assertEquals(500_000, result.getTotalPages());
+        assertEquals(1, result.getNumber());
+        assertFalse(result.isFirst());
+        assertEquals(CountStrategy.ESTIMATED, result.getTotalKind());
+        verify(userRepository, never()).findAllSummaries(any(Pageable.class));
+        verify(queryResultCache, never()).getApproximateCount(any(), any(), any());
+    }
+
+    @Test
+    void getAllUsersNativeWithPagination_ShouldUseApproximateCount_WhenTableWasNotAnalyzed() {
+        List<UserSummary> users = LongStream.rangeClosed(1, 3).mapToObj(UserGenerator::generateUserForBatch)
+                .map(UserMapper.INSTANSE::toSummary).toList();
+
+        when(userRepository.findSummariesRange(0L, PAGINATION_PAGE_SIZE + 1)).thenReturn(users);
+        when(userRepository.estimateUsersCount()).thenReturn(-1L);
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("all:offset=0,limit=3"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
+        when(queryResultCache.getApproximateCount(eq(QueryResultCache.USERS), eq("all"), any())).thenReturn(42L);
+
+        PageDto<UserDto> result = userService.getAllUsersNativeWithPagination(0, PAGINATION_PAGE_SIZE, CountStrategy.ESTIMATED);
+
+        assertEquals(42L, result.getTotalElements());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getAllUsersNativeWithPagination_ShouldNotCount_WhenCountIsNone() {
+        when(userRepository.findSummariesRange(0L, PAGINATION_PAGE_SIZE + 1)).thenReturn(List.of(testUserSummary));
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("all:offset=0,limit=3"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
+
+        PageDto<UserDto> result = userService.getAllUsersNativeWithPagination(0, PAGINATION_PAGE_SIZE, CountStrategy.NONE);
+
+        assertEquals(List.of(testSummaryDto), result.getContent());
+        assertTrue(result.isLast());
+        assertNull(result.getTotalElements());
+        assertNull(result.getTotalPages());
+        verify(userRepository, never()).estimateUsersCount();
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getUsersAfterCursor_ShouldReturnSliceAndNextCursor_WhenMoreUsersExist() {
+        List<UserSummary> users = LongStream.rangeClosed(SECOND_ENTITY_ID, 4).mapToObj(id -> {
+            User user = UserGenerator.generateUserForBatch(id);
+            user.setUserId(id);
+            return UserMapper.INSTANSE.toSummary(user);
+        }).toList();
+        String cursor = PageCursor.encode(PageCursor.ID, USER_ID);
+
+        when(userRepository.findSummariesAfterId(USER_ID, PAGINATION_PAGE_SIZE + 1)).thenReturn(users);
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("after=1,size=2"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
+
+        CursorPageDto<UserDto> result = userService.getUsersAfterCursor(cursor, PAGINATION_PAGE_SIZE);
+
+        assertEquals(List.of(SECOND_ENTITY_ID, THIRD_ENTITY_ID), result.getItems().stream().map(UserDto::getUserId).toList());
+        assertEquals(THIRD_ENTITY_ID, PageCursor.decode(PageCursor.ID, result.getNextCursor()));
+    }
+
+    @Test
+    void getUsersAfterCursor_ShouldReturnLastSliceWithoutNextCursor_WhenNoMoreUsersExist() {
+        when(userRepository.findSummariesAfterId(0L, DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of(testUserSummary));
+        when(queryResultCache.<UserDto>getList(eq(QueryResultCache.USERS), eq("after=0,size=10"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<UserDto>>>getArgument(2).get());
+
+        CursorPageDto<UserDto> result = userService.getUsersAfterCursor(null, DEFAULT_PAGE_SIZE);
+
+        assertEquals(List.of(testSummaryDto), result.getItems());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getUsersAfterCursor_ShouldThrowInvalidCursorException_WhenCursorIsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> userService.getUsersAfterCursor("not a cursor", DEFAULT_PAGE_SIZE));
+
+        verify(userRepository, never()).findSummariesAfterId(any(Long.class), any(Integer.class));
     }
 }
@@ -0,0 +1,59 @@
+package com.mymicroservice.userservice.unit.util;
+
+import com.mymicroservice.userservice.dto.CursorPageDto;
+import com.mymicroservice.userservice.exception.InvalidCursorException;
+import com.mymicroservice.userservice.util.PageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void decode_ShouldReturnLastValue_WhenCursorWasEncodedForSameSortKey() {
+        String cursor = PageCursor.encode(PageCursor.ID, 9_000_000_042L);
+
+        assertFalse(cursor.contains("9000000042"));
+        assertEquals(9_000_000_042L, PageCursor.decode(PageCursor.ID, cursor));
+    }
+
+    @Test
+    void decode_ShouldStartFromBeginning_WhenCursorIsAbsent() {
+        assertEquals(0L, PageCursor.decode(PageCursor.ID, null));
+        assertEquals(0L, PageCursor.decode(PageCursor.ID, ""));
+    }
+
+    @Test
+    void decode_ShouldReject_WhenCursorIsMalformedOrForAnotherSortKey() {
+        String foreign = PageCursor.encode("email", 42);
+        String notNumber = Base64.getUrlEncoder().encodeToString("id:abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(PageCursor.ID, "%%%"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(PageCursor.ID, foreign));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(PageCursor.ID, notNumber));
+    }
+
+    @Test
+    void toPage_ShouldDropLookAheadRowAndPointAtLastItem_WhenMoreRowsExist() {
+        CursorPageDto<Long> page = PageCursor.toPage(List.of(5L, 6L, 7L), 2, PageCursor.ID, Function.identity());
+
+        assertEquals(List.of(5L, 6L), page.getItems());
+        assertEquals(6L, PageCursor.decode(PageCursor.ID, page.getNextCursor()));
+    }
+
+    @Test
+    void toPage_ShouldHaveNoNextCursor_WhenLastSliceIsRead() {
+        CursorPageDto<Long> page = PageCursor.toPage(List.of(5L, 6L), 2, PageCursor.ID, Function.identity());
+
+        assertEquals(List.of(5L, 6L), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+}